@@ -0,0 +1,24 @@
+package com.organization.accessgrid;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point for {@code java -jar target/benchmarks.jar}. Accepts the usual
+ * JMH command line and always attaches the GC profiler, so every run reports
+ * allocation rates ({@code gc.alloc.rate.norm}) next to throughput.
+ */
+public final class BenchmarkMain {
+    private BenchmarkMain() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions cli = new CommandLineOptions(args);
+        new Runner(new OptionsBuilder()
+            .parent(cli)
+            .addProfiler(GCProfiler.class)
+            .build()).run();
+    }
+}
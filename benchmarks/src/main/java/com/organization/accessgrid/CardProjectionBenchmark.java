@@ -0,0 +1,66 @@
+package com.organization.accessgrid;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Scanning a large card listing as full {@link Models.Card}s versus
+ * {@link Models.CardSummary} projections, through a Jackson reader and
+ * through the generated codecs. Run with the GC profiler (on by
+ * default in {@link BenchmarkMain}) to compare allocation per scan.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgs = {"-Xmx4g"})
+public class CardProjectionBenchmark {
+    @Param({"100000"})
+    int cards;
+
+    @Param({"0", "2048"})
+    int fileDataBytes;
+
+    private JsonCodecs codecs;
+    private String listCards;
+
+    @Setup
+    public void setUp() {
+        codecs = JsonCodecs.shared(false);
+        listCards = Fixtures.listCardsJson(cards, fileDataBytes);
+    }
+
+    @Benchmark
+    public Models.ListCardsResponse fullCards() throws IOException {
+        return codecs.reader(Models.ListCardsResponse.class).readValue(listCards);
+    }
+
+    @Benchmark
+    public Models.ListCardSummariesResponse summaries() throws IOException {
+        return codecs.reader(Models.ListCardSummariesResponse.class).readValue(listCards);
+    }
+
+    @Benchmark
+    public Models.ListCardsResponse fullCardsCodec() throws IOException {
+        return codecs.read(codecs.codec(Models.ListCardsResponse.class), Models.ListCardsResponse.class, listCards);
+    }
+
+    @Benchmark
+    public Models.ListCardSummariesResponse summariesCodec() throws IOException {
+        return codecs.read(codecs.codec(Models.ListCardSummariesResponse.class),
+            Models.ListCardSummariesResponse.class, listCards);
+    }
+}
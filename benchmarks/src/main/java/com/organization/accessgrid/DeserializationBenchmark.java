@@ -0,0 +1,78 @@
+package com.organization.accessgrid;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Parsing list responses of increasing size with the shared codecs, both
+ * through a Jackson reader and through the generated codecs the client
+ * uses.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DeserializationBenchmark {
+    @Param({"10", "1000", "10000"})
+    int size;
+
+    @Param({"false", "true"})
+    boolean bytecodeAccessors;
+
+    private JsonCodecs codecs;
+    private String listCards;
+    private String eventLog;
+    private String ledgerItems;
+
+    @Setup
+    public void setUp() {
+        codecs = JsonCodecs.shared(bytecodeAccessors);
+        listCards = Fixtures.listCardsJson(size);
+        eventLog = Fixtures.eventLogJson(size);
+        ledgerItems = Fixtures.ledgerItemsJson(size);
+    }
+
+    @Benchmark
+    public Models.ListCardsResponse listCardsResponse() throws IOException {
+        return codecs.reader(Models.ListCardsResponse.class).readValue(listCards);
+    }
+
+    @Benchmark
+    public Models.EventLogResponse eventLogResponse() throws IOException {
+        return codecs.reader(Models.EventLogResponse.class).readValue(eventLog);
+    }
+
+    @Benchmark
+    public Models.LedgerItemsResult ledgerItemsResult() throws IOException {
+        return codecs.reader(Models.LedgerItemsResult.class).readValue(ledgerItems);
+    }
+
+    @Benchmark
+    public Models.ListCardsResponse listCardsResponseCodec() throws IOException {
+        return codecs.read(codecs.codec(Models.ListCardsResponse.class), Models.ListCardsResponse.class, listCards);
+    }
+
+    @Benchmark
+    public Models.EventLogResponse eventLogResponseCodec() throws IOException {
+        return codecs.read(codecs.codec(Models.EventLogResponse.class), Models.EventLogResponse.class, eventLog);
+    }
+
+    @Benchmark
+    public Models.LedgerItemsResult ledgerItemsResultCodec() throws IOException {
+        return codecs.read(codecs.codec(Models.LedgerItemsResult.class), Models.LedgerItemsResult.class, ledgerItems);
+    }
+}
@@ -0,0 +1,109 @@
+package com.organization.accessgrid;
+
+import java.util.Base64;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Deterministic request models and response bodies shared by the benchmarks.
+ */
+final class Fixtures {
+    static final String ACCOUNT_ID = "bench-account";
+    static final String API_SECRET = "bench-secret-key";
+
+    private Fixtures() {
+    }
+
+    static Models.ProvisionCardRequest provisionRequest(int photoBytes) {
+        return Models.ProvisionCardRequest.builder()
+            .cardTemplateId("0xd3adb00b5")
+            .employeeId("123456789")
+            .tagId("DDEADB33FB00B5")
+            .fullName("Employee Name")
+            .email("employee@example.com")
+            .phoneNumber("+19547212241")
+            .classification("full_time")
+            .department("Engineering")
+            .location("San Francisco")
+            .siteName("HQ Building A")
+            .workstation("4F-207")
+            .mailStop("MS-401")
+            .companyAddress("123 Main St, San Francisco, CA 94105")
+            .startDate("2026-01-01T00:00:00.000Z")
+            .expirationDate("2027-01-01T00:00:00.000Z")
+            .employeePhoto(photoBytes > 0 ? photo(photoBytes) : null)
+            .title("Engineering Manager")
+            .metadata(Map.of("department", "engineering", "badge_type", "contractor"))
+            .build();
+    }
+
+    static String photo(int bytes) {
+        byte[] raw = new byte[bytes];
+        new Random(42).nextBytes(raw);
+        return Base64.getEncoder().encodeToString(raw);
+    }
+
+    static String cardJson(int i) {
+        return cardJson(i, null);
+    }
+
+    /**
+     * @param fileData Value for file_data, or null to leave it out
+     */
+    static String cardJson(int i, String fileData) {
+        return "{\"id\":\"card-" + i + "\",\"state\":\"active\",\"full_name\":\"Employee " + i + "\","
+            + "\"expiration_date\":\"2027-01-01T00:00:00Z\",\"card_template_id\":\"tmpl-" + (i % 8) + "\","
+            + "\"card_number\":\"" + (10000 + i) + "\",\"site_code\":\"100\",\"organization_name\":\"Acme Corp\","
+            + "\"department\":\"Engineering\",\"location\":\"San Francisco\",\"site_name\":\"HQ\","
+            + "\"install_url\":\"https://example.com/install/" + i + "\","
+            + "\"direct_install_url\":\"https://example.com/direct/" + i + "\","
+            + "\"devices\":[{\"id\":\"dev-" + i + "\",\"platform\":\"ios\",\"device_type\":\"iphone\",\"status\":\"active\"}],"
+            + (fileData != null ? "\"file_data\":\"" + fileData + "\"," : "")
+            + "\"metadata\":{\"badge_type\":\"employee\"}}";
+    }
+
+    static String listCardsJson(int cards) {
+        return listCardsJson(cards, 0);
+    }
+
+    /**
+     * @param fileDataBytes Size of the base64 pass payload per card; 0 for none
+     */
+    static String listCardsJson(int cards, int fileDataBytes) {
+        String fileData = fileDataBytes > 0 ? photo(fileDataBytes) : null;
+        StringBuilder sb = new StringBuilder("{\"keys\":[");
+        for (int i = 0; i < cards; i++) {
+            if (i > 0) sb.append(',');
+            sb.append(cardJson(i, fileData));
+        }
+        return sb.append("],\"count\":").append(cards).append(",\"total_count\":").append(cards)
+            .append(",\"page\":1,\"per_page\":").append(cards).append(",\"total_pages\":1}").toString();
+    }
+
+    static String eventLogJson(int events) {
+        StringBuilder sb = new StringBuilder("{\"events\":[");
+        for (int i = 0; i < events; i++) {
+            if (i > 0) sb.append(',');
+            sb.append("{\"type\":\"").append(i % 3 == 0 ? "install" : "update").append("\",")
+                .append("\"timestamp\":\"2026-01-01T").append(String.format("%02d:%02d:00Z", (i / 60) % 24, i % 60)).append("\",")
+                .append("\"user_id\":\"user-").append(i % 500).append("\",")
+                .append("\"ip_address\":\"10.0.").append((i / 256) % 256).append('.').append(i % 256).append("\",")
+                .append("\"user_agent\":\"Mozilla/5.0\",\"metadata\":{\"device\":\"mobile\"}}");
+        }
+        return sb.append("]}").toString();
+    }
+
+    static String ledgerItemsJson(int items) {
+        StringBuilder sb = new StringBuilder("{\"ledger_items\":[");
+        for (int i = 0; i < items; i++) {
+            if (i > 0) sb.append(',');
+            sb.append("{\"id\":\"li-").append(i).append("\",\"amount\":\"").append(i % 7).append(".50\",")
+                .append("\"kind\":\"").append(i % 2 == 0 ? "provision" : "renewal").append("\",")
+                .append("\"created_at\":\"2026-01-").append(String.format("%02d", 1 + i % 28)).append("T12:00:00Z\",")
+                .append("\"access_pass\":{\"ex_id\":\"ap-").append(i).append("\",\"pass_template\":{\"ex_id\":\"pt-")
+                .append(i % 8).append("\"}}}");
+        }
+        return sb.append("],\"pagination\":{\"current_page\":1,\"total_pages\":1,\"total_count\":").append(items)
+            .append(",\"per_page\":").append(items).append("}}").toString();
+    }
+}
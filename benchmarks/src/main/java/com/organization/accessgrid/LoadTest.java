@@ -0,0 +1,167 @@
+package com.organization.accessgrid;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-loop load generator: drives {@link AccessGridClient} at a fixed
+ * arrival rate against a local {@link StubApiServer} and reports throughput
+ * and latency percentiles.
+ *
+ * <p>Latency is measured from each request's scheduled start, not from when
+ * a worker picked it up, so a saturated client shows up as queueing delay
+ * instead of being hidden (no coordinated omission).
+ *
+ * <pre>
+ * java -cp target/benchmarks.jar com.organization.accessgrid.LoadTest \
+ *     --op provision --rate 2000 --duration 30 --threads 64 \
+ *     --latency-ms 20 --jitter-ms 10 --error-rate 0.01 --throttle-rate 0.02
+ * </pre>
+ *
+ * Pass {@code --base-url} to target an already running server instead of
+ * starting the stub.
+ */
+public final class LoadTest {
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parse(args);
+        String op = options.getOrDefault("op", "provision");
+        int rate = Integer.parseInt(options.getOrDefault("rate", "500"));
+        int durationSeconds = Integer.parseInt(options.getOrDefault("duration", "20"));
+        int warmupSeconds = Integer.parseInt(options.getOrDefault("warmup", "5"));
+        int threads = Integer.parseInt(options.getOrDefault("threads", "64"));
+
+        StubApiServer stub = null;
+        String baseUrl = options.get("base-url");
+        if (baseUrl == null) {
+            stub = new StubApiServer(
+                Double.parseDouble(options.getOrDefault("latency-ms", "10")),
+                Double.parseDouble(options.getOrDefault("jitter-ms", "0")),
+                Double.parseDouble(options.getOrDefault("error-rate", "0")),
+                Double.parseDouble(options.getOrDefault("throttle-rate", "0")));
+            baseUrl = stub.baseUrl();
+        }
+
+        try {
+            AccessGridClient client = AccessGridClient.builder()
+                .accountId(Fixtures.ACCOUNT_ID)
+                .apiSecret(Fixtures.API_SECRET)
+                .baseUrl(baseUrl)
+                .build();
+            Runnable call = operation(client, op);
+
+            System.out.printf("warmup: %d s at %d req/s%n", warmupSeconds, rate);
+            run(call, rate, warmupSeconds, threads);
+            System.out.printf("measure: op=%s rate=%d req/s duration=%d s threads=%d%n", op, rate, durationSeconds, threads);
+            run(call, rate, durationSeconds, threads).print(durationSeconds);
+        } finally {
+            if (stub != null) stub.close();
+        }
+    }
+
+    private static Runnable operation(AccessGridClient client, String op) {
+        Models.ProvisionCardRequest provision = Fixtures.provisionRequest(0);
+        AtomicInteger counter = new AtomicInteger();
+        switch (op) {
+            case "provision":
+                return () -> client.accessCards().provision(provision);
+            case "get":
+                return () -> client.accessCards().get("card-1");
+            case "list":
+                return () -> client.accessCards().list();
+            case "suspend":
+                return () -> client.accessCards().suspend("card-1");
+            case "ledger":
+                return () -> client.console().ledgerItems();
+            case "mixed":
+                return () -> {
+                    int n = counter.getAndIncrement() % 10;
+                    if (n < 5) client.accessCards().get("card-1");
+                    else if (n < 8) client.accessCards().provision(provision);
+                    else if (n < 9) client.accessCards().suspend("card-1");
+                    else client.accessCards().list();
+                };
+            default:
+                throw new IllegalArgumentException("Unknown --op " + op);
+        }
+    }
+
+    private static Result run(Runnable call, int rate, int seconds, int threads) throws InterruptedException {
+        int total = rate * seconds;
+        Result result = new Result(total);
+        ExecutorService workers = Executors.newFixedThreadPool(threads);
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / rate;
+        long start = System.nanoTime();
+        for (int i = 0; i < total; i++) {
+            long scheduled = start + i * intervalNanos;
+            long wait = scheduled - System.nanoTime();
+            if (wait > 0) LockSupport.parkNanos(wait);
+            workers.execute(() -> {
+                try {
+                    call.run();
+                    result.record(System.nanoTime() - scheduled);
+                } catch (RuntimeException e) {
+                    // Count anything a call throws, not only API errors
+                    result.errors.increment();
+                }
+            });
+        }
+        workers.shutdown();
+        workers.awaitTermination(10, TimeUnit.MINUTES);
+        result.elapsedNanos = System.nanoTime() - start;
+        return result;
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i < args.length; i += 2) {
+            if (!args[i].startsWith("--")) throw new IllegalArgumentException("Expected --option, got " + args[i]);
+            if (i + 1 == args.length) throw new IllegalArgumentException("Missing value for " + args[i]);
+            options.put(args[i].substring(2), args[i + 1]);
+        }
+        return options;
+    }
+
+    private static final class Result {
+        final AtomicLongArray latencies;
+        final AtomicInteger completed = new AtomicInteger();
+        final LongAdder errors = new LongAdder();
+        long elapsedNanos;
+
+        Result(int capacity) {
+            this.latencies = new AtomicLongArray(capacity);
+        }
+
+        void record(long nanos) {
+            latencies.set(completed.getAndIncrement(), nanos);
+        }
+
+        void print(int targetSeconds) {
+            int n = completed.get();
+            long[] sorted = new long[n];
+            for (int i = 0; i < n; i++) sorted[i] = latencies.get(i);
+            Arrays.sort(sorted);
+            double seconds = elapsedNanos / 1e9;
+            System.out.printf("completed: %d ok, %d failed in %.2f s (target %d s)%n", n, errors.sum(), seconds, targetSeconds);
+            System.out.printf("throughput: %.1f ok/s%n", n / seconds);
+            if (n == 0) return;
+            System.out.printf("latency ms: p50=%.2f p99=%.2f p999=%.2f max=%.2f%n",
+                percentile(sorted, 0.50), percentile(sorted, 0.99), percentile(sorted, 0.999), sorted[n - 1] / 1e6);
+        }
+
+        private static double percentile(long[] sorted, double q) {
+            int index = (int) Math.ceil(q * sorted.length) - 1;
+            return sorted[Math.max(0, Math.min(index, sorted.length - 1))] / 1e6;
+        }
+    }
+}
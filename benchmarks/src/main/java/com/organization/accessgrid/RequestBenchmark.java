@@ -0,0 +1,61 @@
+package com.organization.accessgrid;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * End-to-end client calls through a no-op {@link HttpSender}: serialization,
+ * signing, request building, status handling and response parsing, with no
+ * network involved.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RequestBenchmark {
+    private AccessGridClient client;
+    private Models.ProvisionCardRequest provision;
+
+    @Setup
+    public void setUp() {
+        String card = Fixtures.cardJson(1);
+        String list = Fixtures.listCardsJson(50);
+        HttpSender noop = request -> new StubResponse(request, 200,
+            "GET".equals(request.method()) && request.uri().getPath().endsWith("/key-cards") ? list : card);
+        client = new AccessGridClient(Fixtures.ACCOUNT_ID, Fixtures.API_SECRET, noop, "https://api.invalid/v1");
+        provision = Fixtures.provisionRequest(0);
+    }
+
+    @Benchmark
+    public Models.Card provision() {
+        return client.accessCards().provision(provision);
+    }
+
+    @Benchmark
+    public Models.Card get() {
+        return client.accessCards().get("card-1");
+    }
+
+    @Benchmark
+    public List<Models.Card> list() {
+        return client.accessCards().list();
+    }
+
+    @Benchmark
+    public void suspend() {
+        client.accessCards().suspend("card-1");
+    }
+}
@@ -0,0 +1,51 @@
+package com.organization.accessgrid;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Serializing a {@link Models.ProvisionCardRequest}, with and without an
+ * employee photo, into the client's request buffer.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializationBenchmark {
+    /** Raw photo size before base64; 0 means no photo. */
+    @Param({"0", "65536", "524288"})
+    int photoBytes;
+
+    private AccessGridClient client;
+    private Models.ProvisionCardRequest request;
+
+    @Setup
+    public void setUp() {
+        client = new AccessGridClient(Fixtures.ACCOUNT_ID, Fixtures.API_SECRET, req -> null, null);
+        request = Fixtures.provisionRequest(photoBytes);
+    }
+
+    @Benchmark
+    public int serializeProvisionRequest() {
+        RequestBuffer buffer = RequestBuffer.acquire();
+        try {
+            client.serialize(request, buffer);
+            return buffer.size();
+        } finally {
+            buffer.release();
+        }
+    }
+}
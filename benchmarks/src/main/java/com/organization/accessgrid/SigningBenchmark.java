@@ -0,0 +1,51 @@
+package com.organization.accessgrid;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * HMAC request signing over payloads of increasing size.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SigningBenchmark {
+    @Param({"16", "1024", "65536", "1048576"})
+    int payloadBytes;
+
+    private AccessGridClient client;
+    private String payload;
+    private byte[] payloadBytesArray;
+
+    @Setup
+    public void setUp() {
+        client = new AccessGridClient(Fixtures.ACCOUNT_ID, Fixtures.API_SECRET, request -> null, null);
+        payload = "x".repeat(payloadBytes);
+        payloadBytesArray = payload.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public String signString() {
+        return client.generateSignature(payload);
+    }
+
+    @Benchmark
+    public String signBytes() {
+        return client.generateSignature(payloadBytesArray, 0, payloadBytesArray.length);
+    }
+}
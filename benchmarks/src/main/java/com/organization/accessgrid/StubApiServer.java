@@ -0,0 +1,137 @@
+package com.organization.accessgrid;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Local stand-in for the AccessGrid API serving {@code /v1/key-cards} and
+ * {@code /v1/console/*} with canned bodies. Latency, server errors and 429
+ * throttling are injected per request so client behaviour can be measured
+ * without touching production.
+ */
+final class StubApiServer implements AutoCloseable {
+    private static final byte[] EMPTY_OBJECT = "{}".getBytes(StandardCharsets.UTF_8);
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final long latencyMicros;
+    private final long jitterMicros;
+    private final double errorRate;
+    private final double throttleRate;
+    private final byte[] card;
+    private final byte[] cardList;
+    private final byte[] eventLog;
+    private final byte[] ledgerItems;
+
+    /**
+     * @param latencyMillis Fixed service time added to every request
+     * @param jitterMillis  Uniform random extra service time, 0 to this value
+     * @param errorRate     Fraction of requests answered with 500
+     * @param throttleRate  Fraction of requests answered with 429
+     */
+    StubApiServer(double latencyMillis, double jitterMillis, double errorRate, double throttleRate) throws IOException {
+        this.latencyMicros = (long) (latencyMillis * 1000);
+        this.jitterMicros = (long) (jitterMillis * 1000);
+        this.errorRate = errorRate;
+        this.throttleRate = throttleRate;
+        this.card = Fixtures.cardJson(1).getBytes(StandardCharsets.UTF_8);
+        this.cardList = Fixtures.listCardsJson(50).getBytes(StandardCharsets.UTF_8);
+        this.eventLog = Fixtures.eventLogJson(50).getBytes(StandardCharsets.UTF_8);
+        this.ledgerItems = Fixtures.ledgerItemsJson(50).getBytes(StandardCharsets.UTF_8);
+
+        this.executor = Executors.newCachedThreadPool(r -> {
+            Thread thread = new Thread(r, "stub-api");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 1024);
+        this.server.createContext("/v1/key-cards", this::handleKeyCards);
+        this.server.createContext("/v1/console", this::handleConsole);
+        this.server.setExecutor(executor);
+        this.server.start();
+    }
+
+    String baseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/v1";
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handleKeyCards(HttpExchange exchange) throws IOException {
+        if (injectFault(exchange)) return;
+        String path = exchange.getRequestURI().getPath();
+        String method = exchange.getRequestMethod();
+        if (path.equals("/v1/key-cards") && method.equals("GET")) {
+            respond(exchange, 200, cardList);
+        } else if (path.matches("/v1/key-cards/[^/]+/(suspend|resume|unlink|delete)")) {
+            respond(exchange, 200, EMPTY_OBJECT);
+        } else {
+            respond(exchange, 200, card);
+        }
+    }
+
+    private void handleConsole(HttpExchange exchange) throws IOException {
+        if (injectFault(exchange)) return;
+        String path = exchange.getRequestURI().getPath();
+        if (path.endsWith("/logs")) {
+            respond(exchange, 200, eventLog);
+        } else if (path.equals("/v1/console/ledger-items")) {
+            respond(exchange, 200, ledgerItems);
+        } else {
+            respond(exchange, 200, EMPTY_OBJECT);
+        }
+    }
+
+    private boolean injectFault(HttpExchange exchange) throws IOException {
+        drain(exchange.getRequestBody());
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long delay = latencyMicros + (jitterMicros > 0 ? random.nextLong(jitterMicros + 1) : 0);
+        if (delay > 0) {
+            try {
+                TimeUnit.MICROSECONDS.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        double roll = random.nextDouble();
+        if (roll < throttleRate) {
+            exchange.getResponseHeaders().add("Retry-After", "1");
+            respond(exchange, 429, "{\"error\":\"rate limited\"}".getBytes(StandardCharsets.UTF_8));
+            return true;
+        }
+        if (roll < throttleRate + errorRate) {
+            respond(exchange, 500, "{\"error\":\"injected failure\"}".getBytes(StandardCharsets.UTF_8));
+            return true;
+        }
+        return false;
+    }
+
+    private static void drain(InputStream in) throws IOException {
+        byte[] scratch = new byte[8192];
+        while (in.read(scratch) != -1) {
+            // discard
+        }
+    }
+
+    private static void respond(HttpExchange exchange, int status, byte[] body) throws IOException {
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.organization.accessgrid;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Map;
+import java.util.Optional;
+
+import javax.net.ssl.SSLSession;
+
+/**
+ * Canned in-memory response returned by the no-op sender.
+ */
+final class StubResponse implements HttpResponse<String> {
+    private static final HttpHeaders HEADERS = HttpHeaders.of(Map.of(), (name, value) -> true);
+
+    private final HttpRequest request;
+    private final int statusCode;
+    private final String body;
+
+    StubResponse(HttpRequest request, int statusCode, String body) {
+        this.request = request;
+        this.statusCode = statusCode;
+        this.body = body;
+    }
+
+    @Override
+    public int statusCode() {
+        return statusCode;
+    }
+
+    @Override
+    public HttpRequest request() {
+        return request;
+    }
+
+    @Override
+    public Optional<HttpResponse<String>> previousResponse() {
+        return Optional.empty();
+    }
+
+    @Override
+    public HttpHeaders headers() {
+        return HEADERS;
+    }
+
+    @Override
+    public String body() {
+        return body;
+    }
+
+    @Override
+    public Optional<SSLSession> sslSession() {
+        return Optional.empty();
+    }
+
+    @Override
+    public URI uri() {
+        return request.uri();
+    }
+
+    @Override
+    public HttpClient.Version version() {
+        return HttpClient.Version.HTTP_2;
+    }
+}
@@ -0,0 +1,648 @@
+package com.organization.accessgrid.codegen;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+
+/**
+ * Generates streaming JSON codecs for the nested classes of a class
+ * annotated {@code @GenerateCodecs}, written into a {@code ModelsCodecs}
+ * class in the same package.
+ *
+ * <p>Runs after Lombok, whose accessors the codecs call. The codecs
+ * reproduce exactly what Jackson does with a class: fields with
+ * {@code @JsonProperty}, {@code @JsonAlias} and {@code @JsonIgnore},
+ * Lombok getters and setters, public getters without a field and
+ * {@code @JsonProperty} methods, which write extra properties, and
+ * {@code @JsonProperty} setters, optionally with a
+ * {@code @JsonDeserialize(using = ...)} deserializer that is also a
+ * {@code JsonCodecs.ValueReader}. Values of other types are handed to the
+ * ObjectMapper. A nested class the processor cannot reproduce fails the
+ * build rather than falling back to reflection.
+ */
+@SupportedAnnotationTypes("com.organization.accessgrid.GenerateCodecs")
+public class CodecProcessor extends AbstractProcessor {
+    private static final String JACKSON = "com.fasterxml.jackson.";
+    private static final String JSON_PROPERTY = "com.fasterxml.jackson.annotation.JsonProperty";
+    private static final String JSON_ALIAS = "com.fasterxml.jackson.annotation.JsonAlias";
+    private static final String JSON_IGNORE = "com.fasterxml.jackson.annotation.JsonIgnore";
+    private static final String JSON_DESERIALIZE = "com.fasterxml.jackson.databind.annotation.JsonDeserialize";
+
+    /** How a value is read and written. */
+    private enum Kind {
+        STRING, INT, LONG, BOOLEAN, DOUBLE, INTEGER_BOX, LONG_BOX, BOOLEAN_BOX, DOUBLE_BOX, MODEL, OPAQUE, LIST
+    }
+
+    /** A field's value type. */
+    private static final class ValueType {
+        final Kind kind;
+        final String javaName;
+        final TypeElement model;
+        final ValueType element;
+
+        ValueType(Kind kind, String javaName, TypeElement model, ValueType element) {
+            this.kind = kind;
+            this.javaName = javaName;
+            this.model = model;
+            this.element = element;
+        }
+    }
+
+    private static final class Property {
+        final String jsonName;
+        final List<String> aliases;
+        final String getter;
+        /** Null for a property that is only written. */
+        final String setter;
+        final ValueType type;
+        /** The setter's value type, where it differs from the getter's. */
+        final ValueType setterType;
+        /** Deserializer class the setter's value is read with, or null. */
+        final String reader;
+
+        Property(String jsonName, List<String> aliases, String getter, String setter, ValueType type) {
+            this(jsonName, aliases, getter, setter, type, type, null);
+        }
+
+        Property(String jsonName, List<String> aliases, String getter, String setter, ValueType type,
+                 ValueType setterType, String reader) {
+            this.jsonName = jsonName;
+            this.aliases = aliases;
+            this.getter = getter;
+            this.setter = setter;
+            this.type = type;
+            this.setterType = setterType;
+            this.reader = reader;
+        }
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment round) {
+        for (TypeElement annotation : annotations) {
+            for (Element root : round.getElementsAnnotatedWith(annotation)) {
+                if (root.getKind() == ElementKind.CLASS) {
+                    generate((TypeElement) root);
+                }
+            }
+        }
+        return false;
+    }
+
+    private void generate(TypeElement root) {
+        Map<TypeElement, List<Property>> codecs = new LinkedHashMap<>();
+        Map<TypeElement, String> skipped = new LinkedHashMap<>();
+        for (TypeElement type : ElementFilter.typesIn(root.getEnclosedElements())) {
+            try {
+                codecs.put(type, properties(root, type));
+            } catch (Unsupported e) {
+                skipped.put(type, e.getMessage());
+            }
+        }
+        // A class that holds a class without a codec cannot have one either
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (Map.Entry<TypeElement, List<Property>> entry : new ArrayList<>(codecs.entrySet())) {
+                for (Property property : entry.getValue()) {
+                    TypeElement model = modelOf(property.type);
+                    if (model == null || codecs.containsKey(model)) model = modelOf(property.setterType);
+                    if (model != null && !codecs.containsKey(model)) {
+                        codecs.remove(entry.getKey());
+                        skipped.put(entry.getKey(), "holds " + model.getSimpleName());
+                        changed = true;
+                        break;
+                    }
+                }
+            }
+        }
+        for (Map.Entry<TypeElement, String> entry : skipped.entrySet()) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                "Cannot generate a JSON codec: " + entry.getValue(), entry.getKey());
+        }
+
+        String packageName = ((PackageElement) root.getEnclosingElement()).getQualifiedName().toString();
+        try (Writer out = processingEnv.getFiler().createSourceFile(packageName + ".ModelsCodecs", root).openWriter()) {
+            out.write(new Source(packageName, root, codecs).render());
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Cannot write codecs: " + e, root);
+        }
+    }
+
+    private static TypeElement modelOf(ValueType type) {
+        if (type.kind == Kind.MODEL) return type.model;
+        if (type.kind == Kind.LIST) return modelOf(type.element);
+        return null;
+    }
+
+    private static final class Unsupported extends Exception {
+        Unsupported(String message) {
+            super(message);
+        }
+    }
+
+    private List<Property> properties(TypeElement root, TypeElement type) throws Unsupported {
+        if (!type.getModifiers().contains(Modifier.STATIC) || type.getModifiers().contains(Modifier.ABSTRACT)
+                || type.getModifiers().contains(Modifier.PRIVATE) || !type.getTypeParameters().isEmpty()) {
+            throw new Unsupported("not a static concrete class");
+        }
+        if (!"java.lang.Object".equals(type.getSuperclass().toString())) {
+            throw new Unsupported("has a superclass");
+        }
+        for (AnnotationMirror annotation : type.getAnnotationMirrors()) {
+            if (name(annotation).startsWith(JACKSON)) throw new Unsupported("class-level " + name(annotation));
+        }
+        boolean noArgs = false;
+        for (ExecutableElement constructor : ElementFilter.constructorsIn(type.getEnclosedElements())) {
+            noArgs |= constructor.getParameters().isEmpty() && !constructor.getModifiers().contains(Modifier.PRIVATE);
+        }
+        if (!noArgs) throw new Unsupported("no no-arg constructor");
+
+        Map<String, VariableElement> fields = new LinkedHashMap<>();
+        for (VariableElement field : ElementFilter.fieldsIn(type.getEnclosedElements())) {
+            if (field.getModifiers().contains(Modifier.STATIC)) continue;
+            if (field.getModifiers().contains(Modifier.FINAL) || field.getModifiers().contains(Modifier.TRANSIENT)) {
+                throw new Unsupported("final or transient field " + field.getSimpleName());
+            }
+            fields.put(field.getSimpleName().toString(), field);
+        }
+
+        Set<String> methods = new HashSet<>();
+        // Getters without a field, and @JsonProperty methods: extra properties Jackson writes
+        List<Property> implicitVirtual = new ArrayList<>();
+        List<Property> explicitVirtual = new ArrayList<>();
+        Map<String, ExecutableElement> namedSetters = new LinkedHashMap<>();
+        Map<String, String> setterReaders = new HashMap<>();
+        for (ExecutableElement method : ElementFilter.methodsIn(type.getEnclosedElements())) {
+            if (method.getModifiers().contains(Modifier.STATIC)) continue;
+            String explicitName = null;
+            String reader = null;
+            for (AnnotationMirror annotation : method.getAnnotationMirrors()) {
+                String annotationName = name(annotation);
+                if (JSON_PROPERTY.equals(annotationName)) {
+                    explicitName = explicitName(annotation, method.getSimpleName().toString());
+                } else if (JSON_DESERIALIZE.equals(annotationName)) {
+                    reader = valueReader(root, annotation, method);
+                } else if (annotationName.startsWith(JACKSON)) {
+                    throw new Unsupported(annotationName + " on " + method.getSimpleName());
+                }
+            }
+            int parameters = method.getParameters().size();
+            if (explicitName != null) {
+                if (method.getModifiers().contains(Modifier.PRIVATE)) {
+                    throw new Unsupported("private @JsonProperty method " + method.getSimpleName());
+                }
+                if (parameters == 0 && reader == null && method.getReturnType().getKind() != TypeKind.VOID) {
+                    explicitVirtual.add(new Property(explicitName, new ArrayList<>(), method.getSimpleName().toString(),
+                        null, valueType(root, method.getReturnType(), true)));
+                } else if (parameters == 1) {
+                    namedSetters.put(explicitName, method);
+                    if (reader != null) setterReaders.put(explicitName, reader);
+                } else {
+                    throw new Unsupported("@JsonProperty method " + method.getSimpleName());
+                }
+                continue;
+            }
+            if (reader != null) throw new Unsupported("@JsonDeserialize without @JsonProperty on " + method.getSimpleName());
+            String implied = impliedName(method);
+            if (implied != null && !fields.containsKey(implied)) {
+                if (parameters != 0) throw new Unsupported("setter without a field: " + method.getSimpleName());
+                implicitVirtual.add(new Property(implied, new ArrayList<>(), method.getSimpleName().toString(),
+                    null, valueType(root, method.getReturnType(), true)));
+            }
+            methods.add(method.getSimpleName() + "/" + parameters);
+        }
+
+        // Jackson moves explicitly named properties after the others
+        List<Property> implicit = new ArrayList<>();
+        List<Property> explicit = new ArrayList<>();
+        for (VariableElement field : fields.values()) {
+            String jsonName = field.getSimpleName().toString();
+            List<String> aliases = new ArrayList<>();
+            boolean named = false;
+            boolean ignored = false;
+            for (AnnotationMirror annotation : field.getAnnotationMirrors()) {
+                String annotationName = name(annotation);
+                if (JSON_PROPERTY.equals(annotationName)) {
+                    jsonName = explicitName(annotation, jsonName);
+                    named = true;
+                } else if (JSON_ALIAS.equals(annotationName)) {
+                    for (AnnotationValue value : annotation.getElementValues().values()) {
+                        for (Object alias : (List<?>) value.getValue()) {
+                            aliases.add((String) ((AnnotationValue) alias).getValue());
+                        }
+                    }
+                } else if (JSON_IGNORE.equals(annotationName)) {
+                    ignored = true;
+                } else if (annotationName.startsWith(JACKSON)) {
+                    throw new Unsupported(annotationName + " on " + jsonName);
+                }
+            }
+            if (ignored) continue;
+
+            String fieldName = field.getSimpleName().toString();
+            boolean bool = field.asType().getKind() == TypeKind.BOOLEAN;
+            String getter = getterName(fieldName, bool);
+            String setter = setterName(fieldName, bool);
+            if (!methods.contains(getter + "/0") || !methods.contains(setter + "/1")) {
+                throw new Unsupported("no getter or setter for " + fieldName);
+            }
+            ValueType valueType = valueType(root, field.asType(), true);
+            Property property;
+            ExecutableElement namedSetter = namedSetters.remove(jsonName);
+            if (namedSetter == null) {
+                property = new Property(jsonName, aliases, getter, setter, valueType);
+            } else {
+                // Jackson prefers the annotated setter to the field's own
+                TypeMirror parameter = namedSetter.getParameters().get(0).asType();
+                property = new Property(jsonName, aliases, getter, namedSetter.getSimpleName().toString(), valueType,
+                    valueType(root, parameter, true), setterReaders.get(jsonName));
+            }
+            (named ? explicit : implicit).add(property);
+        }
+        if (!namedSetters.isEmpty()) {
+            throw new Unsupported("@JsonProperty setter without a field: " + namedSetters.keySet());
+        }
+        // Fields first, then methods; renamed properties move to the end in that order
+        implicit.addAll(implicitVirtual);
+        implicit.addAll(explicit);
+        implicit.addAll(explicitVirtual);
+        Set<String> names = new HashSet<>();
+        for (Property property : implicit) {
+            if (!names.add(property.jsonName)) throw new Unsupported("property " + property.jsonName + " is declared twice");
+        }
+        return implicit;
+    }
+
+    private static String explicitName(AnnotationMirror annotation, String implicitName) throws Unsupported {
+        String jsonName = implicitName;
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> value
+                : annotation.getElementValues().entrySet()) {
+            if (!value.getKey().getSimpleName().contentEquals("value")) {
+                throw new Unsupported("@JsonProperty(" + value.getKey().getSimpleName() + ") on " + implicitName);
+            }
+            String explicitName = (String) value.getValue().getValue();
+            if (!explicitName.isEmpty()) jsonName = explicitName;
+        }
+        return jsonName;
+    }
+
+    /**
+     * The class named by {@code @JsonDeserialize(using = ...)}, which the
+     * codec can call only if it is also a {@code JsonCodecs.ValueReader}.
+     */
+    private String valueReader(TypeElement root, AnnotationMirror annotation, ExecutableElement method)
+            throws Unsupported {
+        TypeMirror using = null;
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> value
+                : annotation.getElementValues().entrySet()) {
+            if (!value.getKey().getSimpleName().contentEquals("using")) {
+                throw new Unsupported("@JsonDeserialize(" + value.getKey().getSimpleName() + ") on " + method.getSimpleName());
+            }
+            using = (TypeMirror) value.getValue().getValue();
+        }
+        String packageName = ((PackageElement) root.getEnclosingElement()).getQualifiedName().toString();
+        TypeElement valueReader = processingEnv.getElementUtils().getTypeElement(packageName + ".JsonCodecs.ValueReader");
+        if (using == null || valueReader == null || !processingEnv.getTypeUtils().isAssignable(using,
+                processingEnv.getTypeUtils().erasure(valueReader.asType()))) {
+            throw new Unsupported("@JsonDeserialize on " + method.getSimpleName() + " is not a JsonCodecs.ValueReader");
+        }
+        return ((TypeElement) processingEnv.getTypeUtils().asElement(using)).getQualifiedName().toString();
+    }
+
+    private ValueType valueType(TypeElement root, TypeMirror type, boolean allowList) throws Unsupported {
+        switch (type.getKind()) {
+            case INT:
+                return new ValueType(Kind.INT, "int", null, null);
+            case LONG:
+                return new ValueType(Kind.LONG, "long", null, null);
+            case BOOLEAN:
+                return new ValueType(Kind.BOOLEAN, "boolean", null, null);
+            case DOUBLE:
+                return new ValueType(Kind.DOUBLE, "double", null, null);
+            case DECLARED:
+                break;
+            default:
+                throw new Unsupported("field type " + type);
+        }
+        DeclaredType declared = (DeclaredType) type;
+        TypeElement element = (TypeElement) declared.asElement();
+        String name = element.getQualifiedName().toString();
+        List<? extends TypeMirror> arguments = declared.getTypeArguments();
+        switch (name) {
+            case "java.lang.String":
+                return new ValueType(Kind.STRING, name, null, null);
+            case "java.lang.Integer":
+                return new ValueType(Kind.INTEGER_BOX, name, null, null);
+            case "java.lang.Long":
+                return new ValueType(Kind.LONG_BOX, name, null, null);
+            case "java.lang.Boolean":
+                return new ValueType(Kind.BOOLEAN_BOX, name, null, null);
+            case "java.lang.Double":
+                return new ValueType(Kind.DOUBLE_BOX, name, null, null);
+            case "java.util.List":
+                if (!allowList || arguments.size() != 1) throw new Unsupported("field type " + type);
+                ValueType item = valueType(root, arguments.get(0), false);
+                return new ValueType(Kind.LIST, "java.util.List<" + item.javaName + ">", null, item);
+            case "java.util.Map":
+                // Read untyped, as Jackson reads Map<String, Object>
+                if (arguments.size() == 2 && "java.lang.String".equals(arguments.get(0).toString())
+                        && "java.lang.Object".equals(arguments.get(1).toString())) {
+                    return new ValueType(Kind.OPAQUE, "java.util.Map<String, Object>", null, null);
+                }
+                throw new Unsupported("field type " + type);
+            default:
+                break;
+        }
+        if (element.getEnclosingElement().equals(root)) {
+            return new ValueType(Kind.MODEL, root.getSimpleName() + "." + element.getSimpleName(), element, null);
+        }
+        // Other types keep their (de)serializers; the codecs' readers and
+        // writers carry the client's attributes for the SDK's own
+        if (!arguments.isEmpty()) throw new Unsupported("field type " + type);
+        return new ValueType(Kind.OPAQUE, name, null, null);
+    }
+
+    private static String name(AnnotationMirror annotation) {
+        return ((TypeElement) annotation.getAnnotationType().asElement()).getQualifiedName().toString();
+    }
+
+    /**
+     * The property name Jackson derives from a getter or setter, or null
+     * for other methods.
+     */
+    private static String impliedName(ExecutableElement method) {
+        String name = method.getSimpleName().toString();
+        boolean publicMethod = method.getModifiers().contains(Modifier.PUBLIC);
+        int parameters = method.getParameters().size();
+        TypeKind returns = method.getReturnType().getKind();
+        if (publicMethod && parameters == 0 && returns != TypeKind.VOID && name.startsWith("get") && name.length() > 3) {
+            return decapitalize(name.substring(3));
+        }
+        if (publicMethod && parameters == 0 && returns == TypeKind.BOOLEAN && name.startsWith("is") && name.length() > 2) {
+            return decapitalize(name.substring(2));
+        }
+        if (parameters == 1 && name.startsWith("set") && name.length() > 3) {
+            return decapitalize(name.substring(3));
+        }
+        return null;
+    }
+
+    // Jackson's default mangling: lower-case the leading upper-case run
+    private static String decapitalize(String name) {
+        StringBuilder result = new StringBuilder(name);
+        for (int i = 0; i < result.length() && Character.isUpperCase(result.charAt(i)); i++) {
+            result.setCharAt(i, Character.toLowerCase(result.charAt(i)));
+        }
+        return result.toString();
+    }
+
+    // Lombok's accessor names
+    private static String getterName(String field, boolean bool) {
+        if (bool && isPrefixed(field)) return field;
+        return (bool ? "is" : "get") + capitalize(field);
+    }
+
+    private static String setterName(String field, boolean bool) {
+        if (bool && isPrefixed(field)) return "set" + field.substring(2);
+        return "set" + capitalize(field);
+    }
+
+    private static boolean isPrefixed(String field) {
+        return field.length() > 2 && field.startsWith("is") && Character.isUpperCase(field.charAt(2));
+    }
+
+    private static String capitalize(String name) {
+        return Character.toUpperCase(name.charAt(0)) + name.substring(1);
+    }
+
+    /**
+     * Renders the generated class.
+     */
+    private static final class Source {
+        private final String packageName;
+        private final TypeElement root;
+        private final Map<TypeElement, List<Property>> codecs;
+        private final Map<TypeElement, String> codecNames = new HashMap<>();
+        private final StringBuilder out = new StringBuilder();
+
+        Source(String packageName, TypeElement root, Map<TypeElement, List<Property>> codecs) {
+            this.packageName = packageName;
+            this.root = root;
+            this.codecs = codecs;
+            for (TypeElement type : codecs.keySet()) {
+                codecNames.put(type, type.getSimpleName() + "Codec");
+            }
+        }
+
+        String render() {
+            line("package " + packageName + ";");
+            line("");
+            line("import java.io.IOException;");
+            line("");
+            line("import com.fasterxml.jackson.core.JsonGenerator;");
+            line("import com.fasterxml.jackson.core.JsonParser;");
+            line("import com.fasterxml.jackson.core.SerializableString;");
+            line("import com.fasterxml.jackson.core.io.SerializedString;");
+            line("");
+            line("/**");
+            line(" * Streaming JSON codecs for {@link " + root.getSimpleName() + "}, generated at compile time.");
+            line(" */");
+            line("@javax.annotation.processing.Generated(\"" + CodecProcessor.class.getName() + "\")");
+            line("final class ModelsCodecs {");
+            line("    private ModelsCodecs() {");
+            line("    }");
+            line("");
+            line("    static java.util.Map<Class<?>, JsonCodec<?>> codecs() {");
+            line("        java.util.Map<Class<?>, JsonCodec<?>> codecs = new java.util.HashMap<>();");
+            for (TypeElement type : codecs.keySet()) {
+                line("        codecs.put(" + javaName(type) + ".class, " + codecNames.get(type) + ".INSTANCE);");
+            }
+            line("        return codecs;");
+            line("    }");
+            for (Map.Entry<TypeElement, List<Property>> entry : codecs.entrySet()) {
+                renderCodec(entry.getKey(), entry.getValue());
+            }
+            line("}");
+            return out.toString();
+        }
+
+        private String javaName(TypeElement type) {
+            return root.getSimpleName() + "." + type.getSimpleName();
+        }
+
+        private void renderCodec(TypeElement type, List<Property> properties) {
+            String typeName = javaName(type);
+            line("");
+            line("    static final class " + codecNames.get(type) + " implements JsonCodec<" + typeName + "> {");
+            line("        static final " + codecNames.get(type) + " INSTANCE = new " + codecNames.get(type) + "();");
+            for (int i = 0; i < properties.size(); i++) {
+                line("        private static final SerializableString NAME_" + i
+                    + " = new SerializedString(\"" + properties.get(i).jsonName + "\");");
+            }
+            for (int i = 0; i < properties.size(); i++) {
+                String reader = properties.get(i).reader;
+                if (reader != null) line("        private static final " + reader + " READER_" + i + " = new " + reader + "();");
+            }
+            line("");
+            line("        @Override");
+            line("        public void write(JsonGenerator generator, " + typeName + " value, JsonCodecs codecs) throws IOException {");
+            line("            generator.writeStartObject();");
+            for (int i = 0; i < properties.size(); i++) {
+                Property property = properties.get(i);
+                String local = "v" + i;
+                if (isPrimitive(property.type.kind)) {
+                    line("            generator.writeFieldName(NAME_" + i + ");");
+                    writeValue("            ", property.type, "value." + property.getter + "()");
+                } else {
+                    line("            " + property.type.javaName + " " + local + " = value." + property.getter + "();");
+                    line("            if (" + local + " != null) {");
+                    line("                generator.writeFieldName(NAME_" + i + ");");
+                    writeValue("                ", property.type, local);
+                    line("            }");
+                }
+            }
+            line("            generator.writeEndObject();");
+            line("        }");
+            line("");
+            line("        @Override");
+            line("        @SuppressWarnings(\"unchecked\")");
+            line("        public " + typeName + " read(JsonParser parser, JsonCodecs codecs) throws IOException {");
+            line("            if (!JsonCodecs.startObject(parser, " + typeName + ".class)) return null;");
+            line("            " + typeName + " value = new " + typeName + "();");
+            line("            for (String name = parser.nextFieldName(); name != null; name = parser.nextFieldName()) {");
+            line("                parser.nextToken();");
+            line("                switch (name) {");
+            for (int i = 0; i < properties.size(); i++) {
+                Property property = properties.get(i);
+                if (property.setter == null) continue;
+                List<String> names = new ArrayList<>();
+                names.add(property.jsonName);
+                names.addAll(property.aliases);
+                for (String name : names) {
+                    line("                    case \"" + name + "\":");
+                }
+                String read = property.reader != null
+                    ? "(" + property.setterType.javaName + ") READER_" + i + ".read(parser, codecs)"
+                    : readValue(property.setterType, "parser", "codecs");
+                line("                        value." + property.setter + "(" + read + ");");
+                line("                        break;");
+            }
+            line("                    default:");
+            line("                        parser.skipChildren();");
+            line("                }");
+            line("            }");
+            line("            return value;");
+            line("        }");
+            line("    }");
+        }
+
+        private static boolean isPrimitive(Kind kind) {
+            return kind == Kind.INT || kind == Kind.LONG || kind == Kind.BOOLEAN || kind == Kind.DOUBLE;
+        }
+
+        private void writeValue(String indent, ValueType type, String expression) {
+            switch (type.kind) {
+                case STRING:
+                    line(indent + "generator.writeString(" + expression + ");");
+                    break;
+                case INT:
+                case LONG:
+                case DOUBLE:
+                case INTEGER_BOX:
+                case LONG_BOX:
+                case DOUBLE_BOX:
+                    line(indent + "generator.writeNumber(" + expression + ");");
+                    break;
+                case BOOLEAN:
+                case BOOLEAN_BOX:
+                    line(indent + "generator.writeBoolean(" + expression + ");");
+                    break;
+                case MODEL:
+                    line(indent + codecNames.get(type.model) + ".INSTANCE.write(generator, " + expression + ", codecs);");
+                    break;
+                case OPAQUE:
+                    line(indent + "codecs.writer(" + expression + ".getClass()).writeValue(generator, " + expression + ");");
+                    break;
+                case LIST:
+                    line(indent + "generator.writeStartArray();");
+                    line(indent + "for (" + type.element.javaName + " item : " + expression + ") {");
+                    line(indent + "    if (item == null) {");
+                    line(indent + "        generator.writeNull();");
+                    line(indent + "    } else {");
+                    writeValue(indent + "        ", type.element, "item");
+                    line(indent + "    }");
+                    line(indent + "}");
+                    line(indent + "generator.writeEndArray();");
+                    break;
+                default:
+                    throw new IllegalStateException(type.kind.name());
+            }
+        }
+
+        private String readValue(ValueType type, String parser, String codecs) {
+            switch (type.kind) {
+                case STRING:
+                    return "JsonCodecs.readString(" + parser + ")";
+                case INT:
+                    return "JsonCodecs.readInt(" + parser + ")";
+                case LONG:
+                    return "JsonCodecs.readLong(" + parser + ")";
+                case BOOLEAN:
+                    return "JsonCodecs.readBoolean(" + parser + ")";
+                case DOUBLE:
+                    return "JsonCodecs.readDouble(" + parser + ")";
+                case INTEGER_BOX:
+                    return "JsonCodecs.readInteger(" + parser + ")";
+                case LONG_BOX:
+                    return "JsonCodecs.readLongObject(" + parser + ")";
+                case BOOLEAN_BOX:
+                    return "JsonCodecs.readBooleanObject(" + parser + ")";
+                case DOUBLE_BOX:
+                    return "JsonCodecs.readDoubleObject(" + parser + ")";
+                case MODEL:
+                    return codecNames.get(type.model) + ".INSTANCE.read(" + parser + ", " + codecs + ")";
+                case OPAQUE:
+                    String raw = type.javaName.replaceAll("<.*>", "");
+                    return "(" + type.javaName + ") " + codecs + ".reader(" + raw + ".class).readValue(" + parser + ")";
+                case LIST:
+                    return "JsonCodecs.readList(" + parser + ", " + codecs + ", (p, c) -> " + readValue(type.element, "p", "c") + ")";
+                default:
+                    throw new IllegalStateException(type.kind.name());
+            }
+        }
+
+        private void line(String text) {
+            out.append(text).append('\n');
+        }
+    }
+}
@@ -0,0 +1,1052 @@
+package com.organization.accessgrid;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import lombok.Builder;
+import lombok.Singular;
+
+/**
+ * Client for interacting with the Access Grid API.
+ */
+public class AccessGridClient {
+    private static final String DEFAULT_BASE_URL = "https://api.accessgrid.com/v1";
+    private static final String VERSION = "1.3.0";
+    private static final Duration DEFAULT_TIMEOUT = Duration.ofSeconds(30);
+    private static final int DEFAULT_FAN_OUT = 64;
+    private static final String USER_AGENT = "accessgrid.java/" + VERSION;
+    private static final String EMPTY_SIG_PAYLOAD = java.net.URLEncoder.encode("{}", StandardCharsets.UTF_8);
+
+    private final String accountId;
+    private final Signer signer;
+    private final HttpSender httpSender;
+    private final JsonCodecs codecs;
+    final ObjectMapper objectMapper;
+    private final String baseUrl;
+    private final ClientMetrics metrics;
+    private final RequestListener[] listeners;
+    private final boolean instrumented;
+    private final PhotoCache photoCache;
+    private final WriteJournal journal;
+    private final PriorityDispatcher dispatcher;
+    private final HttpSender revocationSender;
+    private volatile java.util.concurrent.ExecutorService fanOut;
+
+    /**
+     * Constructor for AccessGridClient.
+     *
+     * @param accountId The account identifier
+     * @param apiSecret The API secret key
+     */
+    public AccessGridClient(String accountId, String apiSecret) {
+        this(accountId, apiSecret, (HttpSender) null, null);
+    }
+
+    /**
+     * Constructor for AccessGridClient with optional HttpSender and base URL.
+     *
+     * @param accountId  The account identifier
+     * @param apiSecret  The API secret key
+     * @param httpSender Optional HttpSender for sending requests (creates default if null)
+     * @param baseUrl    Optional base URL (defaults to https://api.accessgrid.com/v1)
+     */
+    public AccessGridClient(String accountId, String apiSecret, HttpSender httpSender, String baseUrl) {
+        this(accountId, apiSecret, httpSender, baseUrl, false, null, java.util.Collections.emptyList(), null, null, null, null);
+    }
+
+    /**
+     * Full constructor, exposed through {@link #builder()}.
+     *
+     * @param accountId         The account identifier
+     * @param apiSecret         The API secret key
+     * @param httpSender        Optional HttpSender for sending requests (creates default if null)
+     * @param baseUrl           Optional base URL (defaults to https://api.accessgrid.com/v1)
+     * @param bytecodeAccessors Use generated property accessors for JSON instead of
+     *                          reflection; requires jackson-module-blackbird
+     * @param metrics           Optional metrics sink (defaults to {@link ClientMetrics#NOOP})
+     * @param listeners         Request lifecycle listeners, called in order
+     * @param photoCache        Optional cache for resized photos and photo upload dedup
+     * @param fileDataStore     Optional store that card file_data is parsed into, off the heap
+     * @param journal           Optional journal that write operations are recorded in before sending
+     * @param dispatcher        Optional concurrency cap that lets revocations jump ahead of other calls
+     */
+    @Builder
+    private AccessGridClient(String accountId, String apiSecret, HttpSender httpSender, String baseUrl,
+                             boolean bytecodeAccessors, ClientMetrics metrics,
+                             @Singular java.util.List<RequestListener> listeners, PhotoCache photoCache,
+                             FileDataStore fileDataStore, WriteJournal journal,
+                             PriorityDispatcher dispatcher) {
+        this(accountId, signer(apiSecret), httpSender, baseUrl, bytecodeAccessors, metrics, listeners,
+            photoCache, fileDataStore, journal, dispatcher, null);
+    }
+
+    /**
+     * Constructor taking a ready signer and fan-out executor, so
+     * {@link AccessGridClientPool} can share them. Without an executor the
+     * client makes its own when it first fans out.
+     */
+    AccessGridClient(String accountId, Signer signer, HttpSender httpSender, String baseUrl,
+                     boolean bytecodeAccessors, ClientMetrics metrics,
+                     java.util.List<RequestListener> listeners, PhotoCache photoCache,
+                     FileDataStore fileDataStore, WriteJournal journal,
+                     PriorityDispatcher dispatcher, java.util.concurrent.ExecutorService fanOut) {
+        if (accountId == null || accountId.isEmpty())
+            throw new AccessGridException("Account ID is required");
+
+        this.accountId = accountId;
+        this.signer = signer;
+        this.baseUrl = (baseUrl != null) ? baseUrl : DEFAULT_BASE_URL;
+
+        this.httpSender = httpSender != null ? httpSender : newDefaultSender();
+
+        this.codecs = JsonCodecs.shared(bytecodeAccessors).with(photoCache, fileDataStore);
+        this.objectMapper = codecs.mapper;
+        this.metrics = (metrics != null) ? metrics : ClientMetrics.NOOP;
+        this.listeners = listeners.toArray(new RequestListener[0]);
+        this.instrumented = this.metrics != ClientMetrics.NOOP || this.listeners.length > 0;
+        this.photoCache = photoCache;
+        this.journal = journal;
+        this.dispatcher = dispatcher;
+        this.fanOut = fanOut;
+        if (dispatcher == null) {
+            this.revocationSender = this.httpSender;
+        } else if (dispatcher.revocationSender() != null) {
+            this.revocationSender = dispatcher.revocationSender();
+        } else {
+            // A connection of their own, so revocations never queue behind bulk streams
+            this.revocationSender = httpSender != null ? httpSender : newDefaultSender();
+        }
+    }
+
+    /**
+     * Threads for {@code getMany} and {@code scan}, reused across calls.
+     */
+    private java.util.concurrent.ExecutorService fanOut() {
+        java.util.concurrent.ExecutorService executor = fanOut;
+        if (executor == null) {
+            synchronized (this) {
+                executor = fanOut;
+                if (executor == null) {
+                    executor = ThreadPools.newCachedExecutor("accessgrid-fan-out-");
+                    fanOut = executor;
+                }
+            }
+        }
+        return executor;
+    }
+
+    static Signer signer(String apiSecret) {
+        if (apiSecret == null || apiSecret.isEmpty())
+            throw new AccessGridException("API secret key is required");
+        return new Signer(apiSecret);
+    }
+
+    static HttpSender newDefaultSender() {
+        HttpClient defaultClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_2)
+            .connectTimeout(DEFAULT_TIMEOUT)
+            .build();
+        return new DefaultHttpSender(defaultClient);
+    }
+
+    /**
+     * Get the account ID.
+     */
+    public String getAccountId() {
+        return this.accountId;
+    }
+
+    /**
+     * Access Cards API operations.
+     */
+    public AccessCardsApi accessCards() {
+        return new AccessCardsApi(this);
+    }
+
+    /**
+     * Console Management API operations.
+     */
+    public ConsoleApi console() {
+        return new ConsoleApi(this);
+    }
+
+    /**
+     * API for Access Card operations.
+     */
+    public static class AccessCardsApi {
+        private final AccessGridClient client;
+
+        AccessCardsApi(AccessGridClient client) {
+            this.client = client;
+        }
+
+        /**
+         * Provision a new access card.
+         */
+        public Models.Card provision(Models.ProvisionCardRequest request) {
+            Models.Card card = client.send(ApiOperation.PROVISION_CARD, null, request, Models.Card.class);
+            PhotoCache photoCache = client.photoCache;
+            if (photoCache != null && request.getPhoto() != null && card != null && card.getId() != null) {
+                photoCache.uploaded(card.getId(), request.getPhoto().contentHash());
+            }
+            return card;
+        }
+
+        /**
+         * Get details about a specific access card.
+         */
+        public Models.Card get(String cardId) {
+            return client.get(ApiOperation.GET_CARD, cardId, null, Models.Card.class);
+        }
+
+        /**
+         * Get several cards at once with up to 64 requests in flight; see
+         * {@link #getMany(java.util.Collection, int)}.
+         */
+        public java.util.List<CardResult> getMany(java.util.Collection<String> cardIds) {
+            return getMany(cardIds, DEFAULT_FAN_OUT);
+        }
+
+        /**
+         * Get several cards at once. Requests run concurrently, multiplexed
+         * over the client's HTTP/2 connection, so a batch takes about
+         * {@code cardIds.size() / concurrency} round trips instead of one per
+         * card. A repeated ID is fetched once.
+         *
+         * @param cardIds     Cards to fetch
+         * @param concurrency Most requests in flight at once
+         * @return One result per input ID, in input order; a failed request
+         *         gives a result holding its exception instead of failing
+         *         the batch
+         */
+        public java.util.List<CardResult> getMany(java.util.Collection<String> cardIds, int concurrency) {
+            if (concurrency <= 0) throw new IllegalArgumentException("concurrency must be positive");
+            java.util.Map<String, CardResult> byId = new java.util.LinkedHashMap<>();
+            for (String cardId : cardIds) {
+                if (cardId == null) throw new IllegalArgumentException("cardIds must not contain null");
+                byId.put(cardId, null);
+            }
+            String[] unique = byId.keySet().toArray(new String[0]);
+            CardResult[] results = new CardResult[unique.length];
+            java.util.concurrent.atomic.AtomicInteger next = new java.util.concurrent.atomic.AtomicInteger();
+            java.util.concurrent.atomic.AtomicInteger finished = new java.util.concurrent.atomic.AtomicInteger();
+            java.util.concurrent.atomic.AtomicInteger failed = new java.util.concurrent.atomic.AtomicInteger();
+            FanOut.run(client.fanOut(), Math.min(concurrency, unique.length), () -> {
+                for (int i = next.getAndIncrement(); i < unique.length && !Thread.currentThread().isInterrupted();
+                     i = next.getAndIncrement()) {
+                    try {
+                        results[i] = new CardResult(unique[i], get(unique[i]), null);
+                    } catch (RuntimeException e) {
+                        results[i] = new CardResult(unique[i], null, e);
+                        failed.incrementAndGet();
+                    }
+                    BulkProgressEvent.commit("GET_MANY", finished.incrementAndGet(), failed.get(), unique.length);
+                }
+            });
+            for (int i = 0; i < unique.length; i++) {
+                byId.put(unique[i], results[i]);
+            }
+            java.util.List<CardResult> ordered = new java.util.ArrayList<>(cardIds.size());
+            for (String cardId : cardIds) {
+                ordered.add(byId.get(cardId));
+            }
+            return ordered;
+        }
+
+        /**
+         * Update an existing access card.
+         */
+        public Models.Card update(Models.UpdateCardRequest request) {
+            PhotoCache photoCache = client.photoCache;
+            if (photoCache == null || request.getPhoto() == null || request.getCardId() == null) {
+                return client.send(ApiOperation.UPDATE_CARD, request.getCardId(), request, Models.Card.class);
+            }
+            // A stream photo is only hashed as it is sent; a file photo is hashed once per update
+            EmployeePhoto photo = request.getPhoto();
+            String hash = photo.hashKnown() ? photo.contentHash() : null;
+            if (hash != null && photoCache.isCurrent(request.getCardId(), hash)) {
+                // Same photo as last time; send the other fields only.
+                Models.UpdateCardRequest withoutPhoto = request.toBuilder().photo(null).build();
+                return client.send(ApiOperation.UPDATE_CARD, request.getCardId(), withoutPhoto, Models.Card.class);
+            }
+            Models.Card card = client.send(ApiOperation.UPDATE_CARD, request.getCardId(), request, Models.Card.class);
+            photoCache.uploaded(request.getCardId(), hash != null ? hash : photo.contentHash());
+            return card;
+        }
+
+        /**
+         * List access cards with optional filters.
+         */
+        public java.util.List<Models.Card> list(Models.ListKeysParams params) {
+            Models.ListCardsResponse response = client.get(
+                ApiOperation.LIST_CARDS, null, listQuery(params, null), Models.ListCardsResponse.class
+            );
+            return response != null && response.getKeys() != null
+                ? response.getKeys()
+                : new java.util.ArrayList<>();
+        }
+
+        /**
+         * List access cards as {@link Models.CardSummary}, skipping the
+         * fields a summary does not need while parsing.
+         */
+        public java.util.List<Models.CardSummary> listSummaries(Models.ListKeysParams params) {
+            Models.ListCardSummariesResponse response = client.get(
+                ApiOperation.LIST_CARDS, null, listQuery(params, null), Models.ListCardSummariesResponse.class
+            );
+            return response != null && response.getKeys() != null
+                ? response.getKeys()
+                : new java.util.ArrayList<>();
+        }
+
+        /**
+         * Iterate every matching card, fetching pages lazily from
+         * {@code params.page} (default 1). Only one page is held at a time.
+         */
+        public Iterable<Models.Card> listAll(Models.ListKeysParams params) {
+            return () -> new PageIterator<>(firstPage(params), page -> {
+                Models.ListCardsResponse response = client.get(
+                    ApiOperation.LIST_CARDS, null, listQuery(params, page), Models.ListCardsResponse.class
+                );
+                return response == null
+                    ? new PageIterator.Page<>(null, 0)
+                    : new PageIterator.Page<>(response.getKeys(), response.getTotalPages());
+            });
+        }
+
+        /**
+         * Like {@link #listAll} but yielding {@link Models.CardSummary}.
+         */
+        public Iterable<Models.CardSummary> listAllSummaries(Models.ListKeysParams params) {
+            return () -> new PageIterator<>(firstPage(params), page -> {
+                Models.ListCardSummariesResponse response = client.get(
+                    ApiOperation.LIST_CARDS, null, listQuery(params, page), Models.ListCardSummariesResponse.class
+                );
+                return response == null
+                    ? new PageIterator.Page<>(null, 0)
+                    : new PageIterator.Page<>(response.getKeys(), response.getTotalPages());
+            });
+        }
+
+        /**
+         * Scan every card of the account: find its templates through
+         * {@link ConsoleApi#listPassTemplatePairs()}, then list them as in
+         * {@link #scan(java.util.Collection, Models.ListKeysParams, int)}
+         * with up to 64 templates at once.
+         *
+         * @param params Filters applied to every template; its template ID is ignored
+         */
+        public CardScan scanAll(Models.ListKeysParams params) {
+            java.util.Set<String> templateIds = new java.util.LinkedHashSet<>();
+            for (Models.PassTemplatePair pair : new ConsoleApi(client).listPassTemplatePairs()) {
+                addTemplateId(templateIds, pair.getIosTemplate());
+                addTemplateId(templateIds, pair.getAndroidTemplate());
+            }
+            return scan(templateIds, params, DEFAULT_FAN_OUT);
+        }
+
+        private static void addTemplateId(java.util.Set<String> templateIds, Models.PassTemplatePairInfo template) {
+            if (template == null) return;
+            String id = template.getExId() != null ? template.getExId() : template.getId();
+            if (id != null) templateIds.add(id);
+        }
+
+        /**
+         * List the cards of several templates concurrently, merged into one
+         * stream. Each template is paged as in {@link #listAll}, and up to
+         * {@code concurrency} templates are listed at once, so a scan takes
+         * about as long as its largest template rather than the sum of all.
+         * A repeated template ID is listed once. Close the scan if you stop
+         * iterating early:
+         *
+         * <pre>{@code
+         * try (CardScan scan = client.accessCards().scan(templateIds, null, 16)) {
+         *     for (Models.Card card : scan) { ... }
+         * }
+         * }</pre>
+         *
+         * @param templateIds Templates to list
+         * @param params      Filters applied to every template; its template ID is ignored
+         * @param concurrency Most templates listed at once
+         */
+        public CardScan scan(java.util.Collection<String> templateIds, Models.ListKeysParams params, int concurrency) {
+            if (concurrency <= 0) throw new IllegalArgumentException("concurrency must be positive");
+            java.util.Set<String> unique = new java.util.LinkedHashSet<>();
+            for (String templateId : templateIds) {
+                if (templateId == null) throw new IllegalArgumentException("templateIds must not contain null");
+                unique.add(templateId);
+            }
+            return CardScan.start(unique.toArray(new String[0]), templateId -> listAll(
+                Models.ListKeysParams.builder()
+                    .templateId(templateId)
+                    .state(params != null ? params.getState() : null)
+                    .page(params != null ? params.getPage() : null)
+                    .perPage(params != null ? params.getPerPage() : null)
+                    .build()
+            ), concurrency, client.fanOut());
+        }
+
+        private static int firstPage(Models.ListKeysParams params) {
+            return params != null && params.getPage() != null ? params.getPage() : 1;
+        }
+
+        /**
+         * @param page Page to request instead of {@code params.page}, or null
+         */
+        private String listQuery(Models.ListKeysParams params, Integer page) {
+            StringBuilder query = new StringBuilder();
+            if (params != null) {
+                if (params.getTemplateId() != null)
+                    appendParam(query, "template_id", params.getTemplateId());
+                if (params.getState() != null)
+                    appendParam(query, "state", params.getState());
+                if (page == null)
+                    page = params.getPage();
+                if (params.getPerPage() != null)
+                    appendParam(query, "per_page", params.getPerPage().toString());
+            }
+            if (page != null)
+                appendParam(query, "page", page.toString());
+            return query.toString();
+        }
+
+        /**
+         * List access cards without filters.
+         */
+        public java.util.List<Models.Card> list() {
+            return list(null);
+        }
+
+        /**
+         * Suspend an access card.
+         */
+        public void suspend(String cardId) {
+            client.sendEmpty(ApiOperation.SUSPEND_CARD, cardId);
+        }
+
+        /**
+         * Resume a suspended access card.
+         */
+        public void resume(String cardId) {
+            client.sendEmpty(ApiOperation.RESUME_CARD, cardId);
+        }
+
+        /**
+         * Unlink an access card from its device.
+         */
+        public void unlink(String cardId) {
+            client.sendEmpty(ApiOperation.UNLINK_CARD, cardId);
+        }
+
+        /**
+         * Delete an access card.
+         */
+        public void delete(String cardId) {
+            client.sendEmpty(ApiOperation.DELETE_CARD, cardId);
+        }
+
+        private void appendParam(StringBuilder sb, String key, String value) {
+            if (sb.length() > 0) sb.append("&");
+            sb.append(java.net.URLEncoder.encode(key, java.nio.charset.StandardCharsets.UTF_8));
+            sb.append("=");
+            sb.append(java.net.URLEncoder.encode(value, java.nio.charset.StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * API for Console Management operations.
+     */
+    public static class ConsoleApi {
+        private final AccessGridClient client;
+
+        ConsoleApi(AccessGridClient client) {
+            this.client = client;
+        }
+
+        /**
+         * Create a new card template.
+         */
+        public Models.Template createTemplate(Models.CreateTemplateRequest request) {
+            return client.send(ApiOperation.CREATE_TEMPLATE, null, request, Models.Template.class);
+        }
+
+        /**
+         * Update an existing card template.
+         */
+        public Models.Template updateTemplate(Models.UpdateTemplateRequest request) {
+            return client.send(ApiOperation.UPDATE_TEMPLATE, request.getCardTemplateId(), request, Models.Template.class);
+        }
+
+        /**
+         * Read a card template by ID.
+         */
+        public Models.Template readTemplate(String templateId) {
+            return client.get(ApiOperation.READ_TEMPLATE, templateId, null, Models.Template.class);
+        }
+
+        /**
+         * Get event logs for a card template.
+         */
+        public java.util.List<Models.Event> eventLog(String templateId, Models.EventLogFilters filters) {
+            StringBuilder query = new StringBuilder();
+            if (filters != null) {
+                if (filters.getDevice() != null)
+                    appendParam(query, "device", filters.getDevice());
+                if (filters.getStartDate() != null)
+                    appendParam(query, "start_date", filters.getStartDate().toString());
+                if (filters.getEndDate() != null)
+                    appendParam(query, "end_date", filters.getEndDate().toString());
+                if (filters.getEventType() != null)
+                    appendParam(query, "event_type", filters.getEventType());
+            }
+            Models.EventLogResponse response = client.get(
+                ApiOperation.EVENT_LOG,
+                templateId,
+                query.toString(),
+                Models.EventLogResponse.class
+            );
+            return response != null && response.getEvents() != null
+                ? response.getEvents()
+                : new java.util.ArrayList<>();
+        }
+
+        /**
+         * Get event logs for a card template without filters.
+         */
+        public java.util.List<Models.Event> eventLog(String templateId) {
+            return eventLog(templateId, null);
+        }
+
+        /**
+         * Get ledger/billing items.
+         */
+        public Models.LedgerItemsResult ledgerItems(Models.LedgerItemsParams params) {
+            StringBuilder query = new StringBuilder();
+            if (params != null) {
+                if (params.getPage() != null)
+                    appendParam(query, "page", params.getPage().toString());
+                if (params.getPerPage() != null)
+                    appendParam(query, "per_page", params.getPerPage().toString());
+                if (params.getStartDate() != null)
+                    appendParam(query, "start_date", params.getStartDate().toString());
+                if (params.getEndDate() != null)
+                    appendParam(query, "end_date", params.getEndDate().toString());
+            }
+            Models.LedgerItemsResult result = client.get(
+                ApiOperation.LEDGER_ITEMS,
+                null,
+                query.toString(),
+                Models.LedgerItemsResult.class
+            );
+            return result != null ? result : new Models.LedgerItemsResult();
+        }
+
+        /**
+         * Iterate every ledger item in range, fetching pages lazily from
+         * {@code params.page} (default 1). Only one page is held at a time.
+         */
+        public Iterable<Models.LedgerItem> ledgerItemsAll(Models.LedgerItemsParams params) {
+            int firstPage = params != null && params.getPage() != null ? params.getPage() : 1;
+            return () -> new PageIterator<>(firstPage, page -> {
+                Models.LedgerItemsParams.LedgerItemsParamsBuilder pageParams = Models.LedgerItemsParams.builder().page(page);
+                if (params != null) {
+                    pageParams.perPage(params.getPerPage()).startDate(params.getStartDate()).endDate(params.getEndDate());
+                }
+                Models.LedgerItemsResult result = ledgerItems(pageParams.build());
+                int totalPages = result.getPagination() != null ? result.getPagination().getTotalPages() : 0;
+                return new PageIterator.Page<>(result.getLedgerItems(), totalPages);
+            });
+        }
+
+        /**
+         * Get ledger/billing items without filters.
+         */
+        public Models.LedgerItemsResult ledgerItems() {
+            return ledgerItems(null);
+        }
+
+        /**
+         * iOS In-App Provisioning preflight.
+         */
+        public Models.IosPreflightResponse iosPreflight(String cardTemplateId, String accessPassExId) {
+            java.util.Map<String, String> body = java.util.Map.of("access_pass_ex_id", accessPassExId);
+            return client.send(ApiOperation.IOS_PREFLIGHT, cardTemplateId, body, Models.IosPreflightResponse.class);
+        }
+
+        /**
+         * List all landing pages.
+         */
+        public java.util.List<Models.LandingPage> listLandingPages() {
+            return java.util.Arrays.asList(
+                client.get(ApiOperation.LIST_LANDING_PAGES, null, null, Models.LandingPage[].class)
+            );
+        }
+
+        /**
+         * Create a new landing page.
+         */
+        public Models.LandingPage createLandingPage(Models.CreateLandingPageRequest request) {
+            return client.send(ApiOperation.CREATE_LANDING_PAGE, null, request, Models.LandingPage.class);
+        }
+
+        /**
+         * Update an existing landing page.
+         */
+        public Models.LandingPage updateLandingPage(Models.UpdateLandingPageRequest request) {
+            return client.send(ApiOperation.UPDATE_LANDING_PAGE, request.getLandingPageId(), request, Models.LandingPage.class);
+        }
+
+        /**
+         * List pass template pairs.
+         */
+        public java.util.List<Models.PassTemplatePair> listPassTemplatePairs() {
+            Models.PassTemplatePairsResponse response = client.get(
+                ApiOperation.LIST_PASS_TEMPLATE_PAIRS, null, null, Models.PassTemplatePairsResponse.class
+            );
+            return response != null && response.getPassTemplatePairs() != null
+                ? response.getPassTemplatePairs()
+                : new java.util.ArrayList<>();
+        }
+
+        /**
+         * Create a pass template pair.
+         */
+        public Models.PassTemplatePair createPassTemplatePair(Models.CreatePassTemplatePairRequest request) {
+            return client.send(ApiOperation.CREATE_PASS_TEMPLATE_PAIR, null, request, Models.PassTemplatePair.class);
+        }
+
+        /**
+         * Credential profile operations.
+         */
+        public CredentialProfilesApi credentialProfiles() {
+            return new CredentialProfilesApi(client);
+        }
+
+        /**
+         * Webhook operations.
+         */
+        public WebhooksApi webhooks() {
+            return new WebhooksApi(client);
+        }
+
+        /**
+         * HID-related services.
+         */
+        public HIDApi hid() {
+            return new HIDApi(client);
+        }
+
+        private void appendParam(StringBuilder sb, String key, String value) {
+            if (sb.length() > 0) sb.append("&");
+            sb.append(java.net.URLEncoder.encode(key, java.nio.charset.StandardCharsets.UTF_8));
+            sb.append("=");
+            sb.append(java.net.URLEncoder.encode(value, java.nio.charset.StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * API for HID-related operations.
+     */
+    public static class HIDApi {
+        private final AccessGridClient client;
+
+        HIDApi(AccessGridClient client) {
+            this.client = client;
+        }
+
+        /**
+         * HID Organizations API.
+         */
+        public HIDOrgsApi orgs() {
+            return new HIDOrgsApi(client);
+        }
+    }
+
+    /**
+     * API for HID Organization operations.
+     */
+    public static class HIDOrgsApi {
+        private final AccessGridClient client;
+
+        HIDOrgsApi(AccessGridClient client) {
+            this.client = client;
+        }
+
+        /**
+         * Create a new HID organization.
+         */
+        public Models.HIDOrg create(Models.CreateHIDOrgParams params) {
+            return client.send(ApiOperation.CREATE_HID_ORG, null, params, Models.HIDOrg.class);
+        }
+
+        /**
+         * List all HID organizations.
+         */
+        public java.util.List<Models.HIDOrg> list() {
+            return java.util.Arrays.asList(
+                client.get(ApiOperation.LIST_HID_ORGS, null, null, Models.HIDOrg[].class)
+            );
+        }
+
+        /**
+         * Complete HID org registration with credentials.
+         */
+        public Models.HIDOrg activate(Models.CompleteHIDOrgParams params) {
+            return client.send(ApiOperation.ACTIVATE_HID_ORG, null, params, Models.HIDOrg.class);
+        }
+    }
+
+    /**
+     * API for Credential Profile operations.
+     */
+    public static class CredentialProfilesApi {
+        private final AccessGridClient client;
+
+        CredentialProfilesApi(AccessGridClient client) {
+            this.client = client;
+        }
+
+        /**
+         * List all credential profiles.
+         */
+        public java.util.List<Models.CredentialProfile> list() {
+            return java.util.Arrays.asList(
+                client.get(ApiOperation.LIST_CREDENTIAL_PROFILES, null, null, Models.CredentialProfile[].class)
+            );
+        }
+
+        /**
+         * Create a new credential profile.
+         */
+        public Models.CredentialProfile create(Models.CreateCredentialProfileRequest request) {
+            return client.send(ApiOperation.CREATE_CREDENTIAL_PROFILE, null, request, Models.CredentialProfile.class);
+        }
+    }
+
+    /**
+     * API for Webhook operations.
+     */
+    public static class WebhooksApi {
+        private final AccessGridClient client;
+
+        WebhooksApi(AccessGridClient client) {
+            this.client = client;
+        }
+
+        /**
+         * List all webhooks.
+         */
+        public java.util.List<Models.Webhook> list() {
+            Models.WebhooksResponse response = client.get(
+                ApiOperation.LIST_WEBHOOKS, null, null, Models.WebhooksResponse.class
+            );
+            return response != null && response.getWebhooks() != null
+                ? response.getWebhooks()
+                : new java.util.ArrayList<>();
+        }
+
+        /**
+         * Create a new webhook.
+         */
+        public Models.Webhook create(Models.CreateWebhookRequest request) {
+            return client.send(ApiOperation.CREATE_WEBHOOK, null, request, Models.Webhook.class);
+        }
+
+        /**
+         * Delete a webhook.
+         */
+        public void delete(String webhookId) {
+            client.sendEmpty(ApiOperation.DELETE_WEBHOOK, webhookId);
+        }
+    }
+
+    // --- Internal HTTP methods ---
+
+    /**
+     * Call an operation with a JSON body; the signature covers the body.
+     */
+    <T> T send(ApiOperation operation, String resourceId, Object body, Class<T> responseType) {
+        CallTrace trace = startTrace(operation, resourceId);
+        RequestBuffer buffer = RequestBuffer.acquire();
+        try {
+            serialize(body, buffer);
+            return sendBuffered(trace, operation, resourceId, buffer, responseType, true);
+        } catch (RuntimeException e) {
+            if (trace != null) trace.failure = e;
+            throw e;
+        } finally {
+            buffer.release();
+            if (trace != null) trace.finish();
+        }
+    }
+
+    private <T> T sendBuffered(CallTrace trace, ApiOperation operation, String resourceId,
+                               RequestBuffer buffer, Class<T> responseType, boolean journaled) {
+        if (trace != null) trace.serialized(buffer.size());
+        String signature = generateSignature(buffer.array(), 0, buffer.size());
+        if (trace != null) trace.signed();
+
+        HttpRequest.Builder request = newRequest(baseUrl + operation.path(resourceId), signature)
+            .method(operation.method(), buffer.publisher());
+        long entry = journaled ? beginJournal(operation, resourceId, buffer.array(), buffer.size()) : -1;
+        return exchange(trace, operation, request, responseType, entry);
+    }
+
+    /**
+     * Send a journaled operation again, with the body it was recorded with.
+     */
+    void resend(ApiOperation operation, String resourceId, byte[] body) {
+        if (body == null) {
+            sendWithoutBody(operation, resourceId, null, null, false);
+            return;
+        }
+        CallTrace trace = startTrace(operation, resourceId);
+        RequestBuffer buffer = RequestBuffer.acquire();
+        try {
+            buffer.write(body, 0, body.length);
+            sendBuffered(trace, operation, resourceId, buffer, null, false);
+        } catch (RuntimeException e) {
+            if (trace != null) trace.failure = e;
+            throw e;
+        } finally {
+            buffer.release();
+            if (trace != null) trace.finish();
+        }
+    }
+
+    /**
+     * Call a GET operation; the signed payload travels in the query string.
+     */
+    <T> T get(ApiOperation operation, String resourceId, String queryString, Class<T> responseType) {
+        return sendWithoutBody(operation, resourceId, queryString, responseType, false);
+    }
+
+    /**
+     * Call an operation that takes no body and returns nothing of interest.
+     */
+    void sendEmpty(ApiOperation operation, String resourceId) {
+        sendWithoutBody(operation, resourceId, null, null, true);
+    }
+
+    private <T> T sendWithoutBody(ApiOperation operation, String resourceId, String queryString,
+                                  Class<T> responseType, boolean journaled) {
+        CallTrace trace = startTrace(operation, resourceId);
+        try {
+            String signature;
+            String sigPayload;
+            if (operation.signsResourceId()) {
+                String idPayload = "{\"id\": \"" + resourceId + "\"}";
+                signature = generateSignature(idPayload);
+                sigPayload = java.net.URLEncoder.encode(idPayload, StandardCharsets.UTF_8);
+            } else {
+                signature = signer.emptyPayload();
+                sigPayload = EMPTY_SIG_PAYLOAD;
+            }
+            if (trace != null) trace.signed();
+
+            String uri = baseUrl + operation.path(resourceId);
+            if (queryString == null || queryString.isEmpty()) {
+                uri = uri + "?sig_payload=" + sigPayload;
+            } else {
+                uri = uri + "?" + queryString + "&sig_payload=" + sigPayload;
+            }
+            HttpRequest.Builder builder = newRequest(uri, signature);
+            switch (operation.method()) {
+                case "GET":
+                    builder.GET();
+                    break;
+                case "DELETE":
+                    builder.DELETE();
+                    break;
+                default:
+                    builder.method(operation.method(), HttpRequest.BodyPublishers.noBody());
+            }
+            long entry = journaled ? beginJournal(operation, resourceId, null, 0) : -1;
+            return exchange(trace, operation, builder, responseType, entry);
+        } catch (RuntimeException e) {
+            if (trace != null) trace.failure = e;
+            throw e;
+        } finally {
+            if (trace != null) trace.finish();
+        }
+    }
+
+    private HttpRequest.Builder newRequest(String uri, String signature) {
+        return HttpRequest.newBuilder()
+            .uri(URI.create(uri))
+            .header("X-ACCT-ID", accountId)
+            .header("X-PAYLOAD-SIG", signature)
+            .header("User-Agent", USER_AGENT)
+            .header("Content-Type", "application/json");
+    }
+
+    private long beginJournal(ApiOperation operation, String resourceId, byte[] body, int length) {
+        return journal != null && !"GET".equals(operation.method())
+            ? journal.begin(operation, resourceId, body, 0, length)
+            : -1;
+    }
+
+    /**
+     * Exchange a journaled request, marking its entry done once the API
+     * has settled it. Transport failures, throttling and server errors
+     * leave the entry pending for replay.
+     */
+    private <T> T exchange(CallTrace trace, ApiOperation operation, HttpRequest.Builder builder,
+                           Class<T> responseType, long entry) {
+        if (entry < 0) {
+            return exchange(trace, operation, builder, responseType);
+        }
+        T result;
+        try {
+            result = exchange(trace, operation, builder, responseType);
+        } catch (AccessGridException e) {
+            if (answered(e)) journal.complete(entry);
+            throw e;
+        }
+        journal.complete(entry);
+        return result;
+    }
+
+    /**
+     * Whether a failed call got a final answer (a client error status or
+     * an unreadable body). Transport failures, 429 and 5xx are transient
+     * and worth sending again.
+     */
+    static boolean answered(AccessGridException e) {
+        int status = e.getStatusCode();
+        if (status == 429 || status >= 500) {
+            return false;
+        }
+        return e.getCause() == null || e.getCause() instanceof JsonProcessingException;
+    }
+
+    /**
+     * Send a built request and parse the response. A null response type
+     * means the body is ignored; the built-in sender then skips reading
+     * successful bodies, while custom senders are called as usual.
+     */
+    private <T> T exchange(CallTrace trace, ApiOperation operation, HttpRequest.Builder builder, Class<T> responseType) {
+        try {
+            if (trace != null) trace.beforeSend(builder);
+            HttpRequest request = builder.build();
+            if (trace != null) trace.request = request;
+
+            HttpResponse<String> response;
+            if (dispatcher == null) {
+                response = send(httpSender, request, responseType == null, trace);
+            } else {
+                PriorityDispatcher.Priority priority = PriorityDispatcher.priorityOf(operation);
+                dispatcher.acquire(priority);
+                long sent = System.nanoTime();
+                int status = -1;
+                try {
+                    response = send(priority == PriorityDispatcher.Priority.REVOCATION ? revocationSender : httpSender,
+                        request, responseType == null, trace);
+                    status = response.statusCode();
+                } catch (IOException e) {
+                    status = 0;
+                    throw e;
+                } finally {
+                    int limit = dispatcher.release(priority, System.nanoTime() - sent, status);
+                    if (limit >= 0) metrics.concurrencyLimitChanged(limit);
+                }
+            }
+            if (trace != null) trace.received(response);
+
+            if (response.statusCode() < 200 || response.statusCode() >= 300) {
+                throw new AccessGridException("API request failed: " + response.body(), response.statusCode());
+            }
+            if (responseType == null) {
+                return null;
+            }
+            JsonCodec<T> codec = codecs.codec(responseType);
+            T result;
+            if (codec != null) {
+                result = codecs.read(codec, responseType, response.body());
+            } else {
+                result = codecs.reader(responseType).readValue(response.body());
+            }
+            if (trace != null) trace.parsed();
+            return result;
+        } catch (IOException e) {
+            throw new AccessGridException("API request failed", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AccessGridException("API request interrupted", e);
+        }
+    }
+
+    private static HttpResponse<String> send(HttpSender sender, HttpRequest request, boolean discardBody, CallTrace trace)
+            throws IOException, InterruptedException {
+        return sender instanceof DefaultHttpSender
+            ? ((DefaultHttpSender) sender).send(request, discardBody, trace)
+            : sender.send(request);
+    }
+
+    void serialize(Object obj, RequestBuffer buffer) {
+        try {
+            JsonCodec<Object> codec = codecs.codec(obj.getClass());
+            if (codec != null) {
+                codecs.write(codec, obj, buffer);
+                return;
+            }
+            codecs.writer(obj.getClass()).writeValue(buffer, obj);
+        } catch (IOException e) {
+            throw new AccessGridException("Failed to serialize request", e);
+        }
+    }
+
+    private CallTrace startTrace(ApiOperation operation, String resourceId) {
+        boolean recording = ApiCallEvent.recording();
+        return instrumented || recording
+            ? new CallTrace(operation, resourceId, metrics, listeners, recording)
+            : null;
+    }
+
+    String generateSignature(String payload) {
+        return signer.sign(payload);
+    }
+
+    /**
+     * Sign a payload held in a byte range.
+     */
+    String generateSignature(byte[] payload, int offset, int length) {
+        return signer.sign(payload, offset, length);
+    }
+
+    /**
+     * Custom exception for Access Grid API errors.
+     */
+    public static class AccessGridException extends RuntimeException {
+        private final int statusCode;
+
+        public AccessGridException(String message) {
+            this(message, 0);
+        }
+
+        public AccessGridException(String message, int statusCode) {
+            super(message);
+            this.statusCode = statusCode;
+        }
+
+        public AccessGridException(String message, Throwable cause) {
+            super(message, cause);
+            this.statusCode = 0;
+        }
+
+        /**
+         * HTTP status the API answered with, or 0 if the call never got a response.
+         */
+        public int getStatusCode() {
+            return statusCode;
+        }
+    }
+}
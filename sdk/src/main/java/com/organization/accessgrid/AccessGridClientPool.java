@@ -0,0 +1,216 @@
+package com.organization.accessgrid;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Hands out clients for many accounts that share one HTTP transport, JSON
+ * codec set and fan-out threads. Per-account state is a signer and a
+ * concurrency cap, both cached per account; {@link #client} is cheap
+ * enough to call for every unit of work. Each account's signer keeps its
+ * secret as HMAC key material for the life of the pool entry, and notices
+ * a changed secret by comparing an HMAC of a fixed label under each key.
+ *
+ * <pre>{@code
+ * AccessGridClientPool pool = AccessGridClientPool.builder()
+ *     .tenantConcurrency(16)
+ *     .build();
+ * pool.client(accountId, apiSecret).accessCards().get(cardId);
+ * }</pre>
+ *
+ * <p>Each account gets its own {@link PriorityDispatcher}, so one busy
+ * account queues behind its own cap instead of taking every connection,
+ * and its revocations still jump ahead of its other calls. The cache is
+ * bounded; set {@link Builder#maxTenants} above the number of accounts
+ * active at once, since clients created after an account is evicted get
+ * a fresh cap.
+ */
+public final class AccessGridClientPool {
+    private final HttpSender httpSender;
+    private final HttpSender revocationSender;
+    private final String baseUrl;
+    private final boolean bytecodeAccessors;
+    private final ClientMetrics metrics;
+    private final List<RequestListener> listeners;
+    private final int tenantConcurrency;
+    private final int tenantReserved;
+    private final Map<String, Tenant> tenants;
+    private final ExecutorService fanOut = ThreadPools.newCachedExecutor("accessgrid-fan-out-");
+
+    private AccessGridClientPool(Builder builder) {
+        if (builder.tenantReserved >= builder.tenantConcurrency) {
+            throw new IllegalArgumentException("tenantReserved must be less than tenantConcurrency");
+        }
+        this.httpSender = builder.httpSender != null ? builder.httpSender : AccessGridClient.newDefaultSender();
+        // As with a single client, revocations get a connection of their own
+        this.revocationSender = builder.httpSender != null ? builder.httpSender : AccessGridClient.newDefaultSender();
+        this.baseUrl = builder.baseUrl;
+        this.bytecodeAccessors = builder.bytecodeAccessors;
+        this.metrics = builder.metrics;
+        this.listeners = new ArrayList<>(builder.listeners);
+        this.tenantConcurrency = builder.tenantConcurrency;
+        this.tenantReserved = builder.tenantReserved;
+        int maxTenants = builder.maxTenants;
+        this.tenants = new LinkedHashMap<String, Tenant>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Tenant> eldest) {
+                return size() > maxTenants;
+            }
+        };
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Client for an account. Clients for the same account share its
+     * signer and concurrency cap; a changed secret replaces the signer
+     * and keeps the cap.
+     *
+     * @param accountId The account identifier
+     * @param apiSecret The API secret key
+     */
+    public AccessGridClient client(String accountId, String apiSecret) {
+        if (accountId == null || accountId.isEmpty())
+            throw new AccessGridClient.AccessGridException("Account ID is required");
+        Tenant tenant = tenant(accountId, apiSecret);
+        return new AccessGridClient(accountId, tenant.signer, httpSender, baseUrl, bytecodeAccessors, metrics,
+            listeners, null, null, null, tenant.dispatcher, fanOut);
+    }
+
+    private synchronized Tenant tenant(String accountId, String apiSecret) {
+        Tenant tenant = tenants.get(accountId);
+        if (tenant == null || !tenant.signer.signsFor(apiSecret)) {
+            PriorityDispatcher dispatcher = tenant != null
+                ? tenant.dispatcher
+                : PriorityDispatcher.builder()
+                    .maxConcurrency(tenantConcurrency)
+                    .reserved(tenantReserved)
+                    .revocationSender(revocationSender)
+                    .build();
+            tenant = new Tenant(AccessGridClient.signer(apiSecret), dispatcher);
+            tenants.put(accountId, tenant);
+        }
+        return tenant;
+    }
+
+    /**
+     * The concurrency cap of a cached account, or null.
+     */
+    public synchronized PriorityDispatcher dispatcher(String accountId) {
+        Tenant tenant = tenants.get(accountId);
+        return tenant != null ? tenant.dispatcher : null;
+    }
+
+    /**
+     * Accounts currently cached.
+     */
+    public synchronized int size() {
+        return tenants.size();
+    }
+
+    private static final class Tenant {
+        final Signer signer;
+        final PriorityDispatcher dispatcher;
+
+        Tenant(Signer signer, PriorityDispatcher dispatcher) {
+            this.signer = signer;
+            this.dispatcher = dispatcher;
+        }
+    }
+
+    /**
+     * Configuration for an {@link AccessGridClientPool}.
+     */
+    public static final class Builder {
+        private HttpSender httpSender;
+        private String baseUrl;
+        private boolean bytecodeAccessors;
+        private ClientMetrics metrics;
+        private final List<RequestListener> listeners = new ArrayList<>();
+        private int tenantConcurrency = 16;
+        private int tenantReserved = 2;
+        private int maxTenants = 1024;
+
+        private Builder() {
+        }
+
+        /**
+         * Sender shared by every client (default: one HTTP/2 client, plus
+         * a second for revocations).
+         */
+        public Builder httpSender(HttpSender httpSender) {
+            this.httpSender = httpSender;
+            return this;
+        }
+
+        /**
+         * Base URL (defaults to https://api.accessgrid.com/v1).
+         */
+        public Builder baseUrl(String baseUrl) {
+            this.baseUrl = baseUrl;
+            return this;
+        }
+
+        /**
+         * See {@code AccessGridClient.Builder.bytecodeAccessors}.
+         */
+        public Builder bytecodeAccessors(boolean bytecodeAccessors) {
+            this.bytecodeAccessors = bytecodeAccessors;
+            return this;
+        }
+
+        /**
+         * Metrics sink shared by every client.
+         */
+        public Builder metrics(ClientMetrics metrics) {
+            this.metrics = metrics;
+            return this;
+        }
+
+        /**
+         * Request listener added to every client.
+         */
+        public Builder listener(RequestListener listener) {
+            this.listeners.add(listener);
+            return this;
+        }
+
+        /**
+         * Requests one account may have in flight at once (default 16).
+         */
+        public Builder tenantConcurrency(int tenantConcurrency) {
+            if (tenantConcurrency <= 0) throw new IllegalArgumentException("tenantConcurrency must be positive");
+            this.tenantConcurrency = tenantConcurrency;
+            return this;
+        }
+
+        /**
+         * Slots of each account's cap only its revocations may use
+         * (default 2).
+         */
+        public Builder tenantReserved(int tenantReserved) {
+            if (tenantReserved < 0) throw new IllegalArgumentException("tenantReserved must not be negative");
+            this.tenantReserved = tenantReserved;
+            return this;
+        }
+
+        /**
+         * Accounts kept in the cache, least recently used evicted first
+         * (default 1024).
+         */
+        public Builder maxTenants(int maxTenants) {
+            if (maxTenants <= 0) throw new IllegalArgumentException("maxTenants must be positive");
+            this.maxTenants = maxTenants;
+            return this;
+        }
+
+        public AccessGridClientPool build() {
+            return new AccessGridClientPool(this);
+        }
+    }
+}
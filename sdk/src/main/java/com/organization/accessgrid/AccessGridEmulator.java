@@ -0,0 +1,842 @@
+package com.organization.accessgrid;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Function;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Stateful in-memory stand-in for the AccessGrid API, for tests and
+ * offline benchmarks. Cards move through the same states as on the API
+ * (active, suspended, unlinked, deleted); templates count their issued
+ * and active keys; every change is written to the template's event log;
+ * every provisioned card adds a ledger item. Requests are rejected with
+ * {@code 401} unless the account ID and payload signature match.
+ *
+ * <p>Use it directly as a client's {@link HttpSender}, or {@link #start()}
+ * it as a local HTTP server and point any client at {@link #baseUrl()}:
+ *
+ * <pre>{@code
+ * AccessGridEmulator emulator = AccessGridEmulator.builder()
+ *     .accountId("account").apiSecret("secret")
+ *     .latency(Duration.ofMillis(20))
+ *     .rateLimit(500)
+ *     .build();
+ * List<String> cardIds = emulator.seedCards("tpl-1", 100_000);
+ * AccessGridClient client = AccessGridClient.builder()
+ *     .accountId("account").apiSecret("secret")
+ *     .httpSender(emulator)
+ *     .build();
+ * }</pre>
+ *
+ * <p>Covers {@code /key-cards}, card templates and their event logs,
+ * template pairs and ledger items. Other endpoints answer {@code 404}.
+ * Latency, rate limiting and random or scheduled failures apply to both
+ * modes.
+ */
+public final class AccessGridEmulator implements HttpSender, AutoCloseable {
+    private static final int DEFAULT_PER_PAGE = 50;
+    private static final String ACTIVE = "active";
+    private static final String SUSPENDED = "suspended";
+    private static final String UNLINKED = "unlinked";
+    private static final String DELETED = "deleted";
+    private static final HttpHeaders JSON = HttpMessages.headers(Map.of("Content-Type", List.of("application/json")));
+    private static final HttpHeaders THROTTLED = HttpMessages.headers(Map.of(
+        "Content-Type", List.of("application/json"), "Retry-After", List.of("1")));
+
+    private final String accountId;
+    private final Signer signer;
+    private final long latencyNanos;
+    private final long jitterNanos;
+    private final double errorRate;
+    private final double throttleRate;
+    private final double rateLimit;
+    private final Random random;
+    private final Clock clock;
+    private final int port;
+    private final ObjectMapper mapper = JsonCodecs.shared(false).mapper;
+
+    private final Object lock = new Object();
+    private final Map<String, Models.Card> cards = new HashMap<>();
+    private final List<Models.Card> cardsInOrder = new ArrayList<>();
+    private final Map<String, TemplateState> templates = new LinkedHashMap<>();
+    private final List<Models.PassTemplatePair> pairs = new ArrayList<>();
+    private final List<Models.LedgerItem> ledger = new ArrayList<>();
+
+    private final Map<ApiOperation, Queue<Integer>> scheduledFailures = new ConcurrentHashMap<>();
+    private final AtomicLongArray requests = new AtomicLongArray(ApiOperation.values().length);
+    private double tokens;
+    private long refilledAt;
+
+    private HttpServer server;
+    private ExecutorService io;
+
+    private AccessGridEmulator(Builder builder) {
+        this.accountId = Objects.requireNonNull(builder.accountId, "accountId is required");
+        this.signer = AccessGridClient.signer(builder.apiSecret);
+        this.latencyNanos = builder.latency.toNanos();
+        this.jitterNanos = builder.jitter.toNanos();
+        this.errorRate = builder.errorRate;
+        this.throttleRate = builder.throttleRate;
+        this.rateLimit = builder.rateLimit;
+        this.random = builder.seed != null ? new Random(builder.seed) : new Random();
+        this.clock = builder.clock;
+        this.port = builder.port;
+        this.tokens = Math.max(1, builder.rateLimit);
+        this.refilledAt = System.nanoTime();
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Handle a request in-process, with the configured latency and faults.
+     */
+    @Override
+    public HttpResponse<String> send(HttpRequest request) throws IOException, InterruptedException {
+        byte[] body = HttpMessages.body(request);
+        Reply reply = handle(request.method(), request.uri().getPath(), request.uri().getRawQuery(),
+            name -> request.headers().firstValue(name).orElse(null), body);
+        return HttpMessages.response(request, reply.status, reply.status == 429 ? THROTTLED : JSON,
+            new String(reply.body, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Serve the emulated API over HTTP on the loopback interface.
+     */
+    public synchronized AccessGridEmulator start() {
+        if (server != null) throw new IllegalStateException("Already started");
+        InetSocketAddress address = new InetSocketAddress(InetAddress.getLoopbackAddress(), port);
+        try {
+            server = HttpServer.create(address, 0);
+        } catch (IOException e) {
+            throw new AccessGridClient.AccessGridException("Failed to bind emulator to " + address, e);
+        }
+        io = ThreadPools.newExecutor(Math.max(2, Runtime.getRuntime().availableProcessors()), "accessgrid-emulator-");
+        server.setExecutor(io);
+        server.createContext("/", this::exchange);
+        server.start();
+        return this;
+    }
+
+    /**
+     * Base URL of the started server, for {@code AccessGridClient.builder().baseUrl(...)}.
+     */
+    public synchronized String baseUrl() {
+        if (server == null) throw new IllegalStateException("Not started");
+        return "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort() + "/v1";
+    }
+
+    @Override
+    public void close() {
+        HttpServer current;
+        ExecutorService currentIo;
+        synchronized (this) {
+            current = server;
+            currentIo = io;
+            server = null;
+            io = null;
+        }
+        if (current != null) {
+            current.stop(0);
+            currentIo.shutdownNow();
+        }
+    }
+
+    /**
+     * Answer the next call of {@code operation} with {@code status} instead
+     * of handling it. Calls queue up, so scheduling the same operation
+     * twice fails its next two calls.
+     */
+    public void failNext(ApiOperation operation, int status) {
+        scheduledFailures.computeIfAbsent(operation, op -> new ConcurrentLinkedQueue<>()).add(status);
+    }
+
+    /**
+     * Requests received for an operation, including those answered with
+     * an injected fault.
+     */
+    public long requests(ApiOperation operation) {
+        return requests.get(operation.ordinal());
+    }
+
+    /**
+     * Provision {@code count} active cards directly, without requests or
+     * injected faults, creating the template if needed. Ledger items and
+     * events are recorded as for provisioned cards.
+     *
+     * @return IDs of the new cards, in creation order
+     */
+    public List<String> seedCards(String templateId, int count) {
+        List<String> ids = new ArrayList<>(count);
+        synchronized (lock) {
+            TemplateState template = templates.get(templateId);
+            if (template == null) {
+                Models.Template created = new Models.Template();
+                created.setId(templateId);
+                created.setName(templateId);
+                created.setCreatedAt(now().toString());
+                template = new TemplateState(created);
+                templates.put(templateId, template);
+            }
+            for (int i = 0; i < count; i++) {
+                Models.Card card = new Models.Card();
+                card.setFullName("Cardholder " + (cardsInOrder.size() + 1));
+                ids.add(issue(template, card, null).getId());
+            }
+        }
+        return ids;
+    }
+
+    // --- Request handling ---
+
+    private void exchange(HttpExchange exchange) throws IOException {
+        try {
+            byte[] body;
+            try (InputStream in = exchange.getRequestBody()) {
+                body = in.readAllBytes();
+            }
+            Reply reply;
+            try {
+                reply = handle(exchange.getRequestMethod(), exchange.getRequestURI().getPath(),
+                    exchange.getRequestURI().getRawQuery(), exchange.getRequestHeaders()::getFirst, body);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                reply = Reply.error(503, "Shutting down");
+            }
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            if (reply.status == 429) exchange.getResponseHeaders().set("Retry-After", "1");
+            exchange.sendResponseHeaders(reply.status, reply.body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(reply.body);
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private Reply handle(String method, String path, String rawQuery, Function<String, String> header, byte[] body)
+            throws InterruptedException {
+        pause();
+        Route route = Route.of(method, path);
+        if (route == null) return Reply.error(404, "Not found");
+        requests.incrementAndGet(route.operation.ordinal());
+
+        if (!admit()) return Reply.error(429, "Rate limit exceeded");
+        double roll = random.nextDouble();
+        if (roll < throttleRate) return Reply.error(429, "Rate limit exceeded");
+        if (roll < throttleRate + errorRate) return Reply.error(500, "Injected failure");
+        Queue<Integer> scheduled = scheduledFailures.get(route.operation);
+        Integer status = scheduled != null ? scheduled.poll() : null;
+        if (status != null) return Reply.error(status, "Injected failure");
+
+        Map<String, String> query = parseQuery(rawQuery);
+        String denied = authenticate(route, header, query, body);
+        if (denied != null) return Reply.error(401, denied);
+        try {
+            return dispatch(route, query, body, header.apply("User-Agent"));
+        } catch (Failure e) {
+            return Reply.error(e.status, e.getMessage());
+        } catch (IOException | RuntimeException e) {
+            return Reply.error(400, "Malformed request: " + e.getMessage());
+        }
+    }
+
+    private void pause() throws InterruptedException {
+        long nanos = latencyNanos;
+        if (jitterNanos > 0) nanos += (long) (random.nextDouble() * jitterNanos);
+        if (nanos > 0) TimeUnit.NANOSECONDS.sleep(nanos);
+    }
+
+    /**
+     * Token bucket holding up to one second of requests, and at least one.
+     */
+    private synchronized boolean admit() {
+        if (rateLimit <= 0) return true;
+        long now = System.nanoTime();
+        tokens = Math.min(Math.max(1, rateLimit), tokens + (now - refilledAt) * rateLimit / 1e9);
+        refilledAt = now;
+        if (tokens < 1) return false;
+        tokens--;
+        return true;
+    }
+
+    private String authenticate(Route route, Function<String, String> header, Map<String, String> query, byte[] body) {
+        if (!accountId.equals(header.apply("X-ACCT-ID"))) return "Unknown account";
+        String signature = header.apply("X-PAYLOAD-SIG");
+        if (signature == null) return "Missing signature";
+        String expected;
+        if (body.length > 0) {
+            expected = signer.sign(body, 0, body.length);
+        } else {
+            String payload = query.get("sig_payload");
+            if (payload == null) return "Missing sig_payload";
+            if (route.operation.signsResourceId() && !route.id.equals(signedId(payload))) {
+                return "Signed payload is for another resource";
+            }
+            expected = signer.sign(payload);
+        }
+        return MessageDigest.isEqual(expected.getBytes(StandardCharsets.US_ASCII), signature.getBytes(StandardCharsets.US_ASCII))
+            ? null
+            : "Invalid signature";
+    }
+
+    private String signedId(String payload) {
+        try {
+            return mapper.readTree(payload).path("id").asText(null);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private Reply dispatch(Route route, Map<String, String> query, byte[] body, String userAgent) throws IOException {
+        synchronized (lock) {
+            switch (route.operation) {
+                case PROVISION_CARD:
+                    return Reply.json(mapper, provision(mapper.readTree(body), userAgent));
+                case GET_CARD:
+                    return Reply.json(mapper, card(route.id));
+                case UPDATE_CARD:
+                    return Reply.json(mapper, update(route.id, mapper.readTree(body), userAgent));
+                case LIST_CARDS:
+                    return Reply.json(mapper, listCards(query));
+                case SUSPEND_CARD:
+                case RESUME_CARD:
+                case UNLINK_CARD:
+                case DELETE_CARD:
+                    transition(route.operation, card(route.id), userAgent);
+                    return Reply.json(mapper, Collections.emptyMap());
+                case CREATE_TEMPLATE:
+                    return Reply.json(mapper, createTemplate(mapper.readTree(body)));
+                case UPDATE_TEMPLATE:
+                    return Reply.json(mapper, updateTemplate(route.id, mapper.readTree(body)));
+                case READ_TEMPLATE:
+                    return Reply.json(mapper, template(route.id).template);
+                case EVENT_LOG:
+                    return Reply.json(mapper, eventLog(template(route.id), query));
+                case LIST_PASS_TEMPLATE_PAIRS:
+                    return Reply.json(mapper, new Models.PassTemplatePairsResponse(
+                        new ArrayList<>(pairs), new Models.Pagination(1, 1, pairs.size(), pairs.size())));
+                case CREATE_PASS_TEMPLATE_PAIR:
+                    return Reply.json(mapper, createPair(mapper.readTree(body)));
+                case LEDGER_ITEMS:
+                    return Reply.json(mapper, ledgerItems(query));
+                default:
+                    throw new Failure(404, "Not emulated: " + route.operation);
+            }
+        }
+    }
+
+    // --- Cards ---
+
+    private Models.Card provision(JsonNode request, String userAgent) {
+        String templateId = text(request, "card_template_id");
+        if (templateId == null) throw new Failure(422, "card_template_id is required");
+        TemplateState template = template(templateId);
+        Models.Card card = new Models.Card();
+        card.setFullName(text(request, "full_name"));
+        card.setExpirationDate(text(request, "expiration_date"));
+        card.setCardNumber(text(request, "card_number"));
+        card.setSiteCode(text(request, "site_code"));
+        card.setOrganizationName(text(request, "organization_name"));
+        card.setDepartment(text(request, "department"));
+        card.setLocation(text(request, "location"));
+        card.setSiteName(text(request, "site_name"));
+        card.setWorkstation(text(request, "workstation"));
+        card.setMailStop(text(request, "mail_stop"));
+        card.setCompanyAddress(text(request, "company_address"));
+        if (request.hasNonNull("metadata")) {
+            @SuppressWarnings("unchecked")
+            Map<String, Object> metadata = mapper.convertValue(request.get("metadata"), Map.class);
+            card.setMetadata(metadata);
+        }
+        return issue(template, card, userAgent);
+    }
+
+    private Models.Card issue(TemplateState template, Models.Card card, String userAgent) {
+        String id = "card-" + (cardsInOrder.size() + 1);
+        card.setId(id);
+        card.setState(ACTIVE);
+        card.setCardTemplateId(template.template.getId());
+        card.setInstallUrl("https://emulator.accessgrid.invalid/install/" + id);
+        card.setDevices(new ArrayList<>());
+        cards.put(id, card);
+        cardsInOrder.add(card);
+        template.cards.add(card);
+        template.template.setIssuedKeysCount(template.template.getIssuedKeysCount() + 1);
+        template.template.setActiveKeysCount(template.template.getActiveKeysCount() + 1);
+        record(template, "ag.card.issued", id, userAgent);
+
+        Models.LedgerItem item = new Models.LedgerItem();
+        item.setId("li-" + (ledger.size() + 1));
+        item.setAmount("1.00");
+        item.setKind("provision");
+        item.setCreatedAt(now().toString());
+        item.setAccessPass(new Models.LedgerAccessPass(id, new Models.LedgerPassTemplate(template.template.getId())));
+        ledger.add(item);
+        return card;
+    }
+
+    private Models.Card card(String id) {
+        Models.Card card = cards.get(id);
+        if (card == null) throw new Failure(404, "Card not found: " + id);
+        return card;
+    }
+
+    private Models.Card update(String id, JsonNode request, String userAgent) {
+        Models.Card card = card(id);
+        if (DELETED.equals(card.getState())) throw new Failure(422, "Cannot update a deleted card");
+        if (request.hasNonNull("full_name")) card.setFullName(text(request, "full_name"));
+        if (request.hasNonNull("expiration_date")) card.setExpirationDate(text(request, "expiration_date"));
+        if (request.hasNonNull("department")) card.setDepartment(text(request, "department"));
+        if (request.hasNonNull("location")) card.setLocation(text(request, "location"));
+        if (request.hasNonNull("site_name")) card.setSiteName(text(request, "site_name"));
+        if (request.hasNonNull("workstation")) card.setWorkstation(text(request, "workstation"));
+        if (request.hasNonNull("mail_stop")) card.setMailStop(text(request, "mail_stop"));
+        if (request.hasNonNull("company_address")) card.setCompanyAddress(text(request, "company_address"));
+        record(templates.get(card.getCardTemplateId()), "ag.card.updated", id, userAgent);
+        return card;
+    }
+
+    /**
+     * Apply a lifecycle call. Repeating one is a no-op, so retries succeed;
+     * a transition the API does not allow is answered 422.
+     */
+    private void transition(ApiOperation operation, Models.Card card, String userAgent) {
+        String from = card.getState();
+        String to;
+        String event;
+        switch (operation) {
+            case SUSPEND_CARD:
+                allow(card, "suspend", ACTIVE, SUSPENDED);
+                to = SUSPENDED;
+                event = "ag.card.suspended";
+                break;
+            case RESUME_CARD:
+                allow(card, "resume", SUSPENDED, ACTIVE);
+                to = ACTIVE;
+                event = "ag.card.resumed";
+                break;
+            case UNLINK_CARD:
+                allow(card, "unlink", ACTIVE, SUSPENDED, UNLINKED);
+                to = UNLINKED;
+                event = "ag.card.unlinked";
+                break;
+            default:
+                to = DELETED;
+                event = "ag.card.deleted";
+        }
+        if (to.equals(from)) return;
+        card.setState(to);
+        if (UNLINKED.equals(to)) card.setDevices(new ArrayList<>());
+        TemplateState template = templates.get(card.getCardTemplateId());
+        int active = (ACTIVE.equals(to) ? 1 : 0) - (ACTIVE.equals(from) ? 1 : 0);
+        template.template.setActiveKeysCount(template.template.getActiveKeysCount() + active);
+        record(template, event, card.getId(), userAgent);
+    }
+
+    private static void allow(Models.Card card, String action, String... states) {
+        for (String state : states) {
+            if (state.equals(card.getState())) return;
+        }
+        throw new Failure(422, "Cannot " + action + " a card that is " + card.getState());
+    }
+
+    private Models.ListCardsResponse listCards(Map<String, String> query) {
+        int page = positive(query, "page", 1);
+        int perPage = positive(query, "per_page", DEFAULT_PER_PAGE);
+        String templateId = query.get("template_id");
+        String state = query.get("state");
+        List<Models.Card> source;
+        if (templateId == null) {
+            source = cardsInOrder;
+        } else {
+            TemplateState template = templates.get(templateId);
+            source = template != null ? template.cards : Collections.emptyList();
+        }
+        if (state != null) {
+            List<Models.Card> matching = new ArrayList<>();
+            for (Models.Card card : source) {
+                if (state.equals(card.getState())) matching.add(card);
+            }
+            source = matching;
+        }
+        List<Models.Card> keys = slice(source, page, perPage);
+        int totalPages = (int) ((source.size() + (long) perPage - 1) / perPage);
+        return new Models.ListCardsResponse(keys, keys.size(), source.size(), page, perPage, totalPages);
+    }
+
+    // --- Templates, event logs and pairs ---
+
+    private TemplateState template(String id) {
+        TemplateState template = templates.get(id);
+        if (template == null) throw new Failure(404, "Card template not found: " + id);
+        return template;
+    }
+
+    private Models.Template createTemplate(JsonNode request) {
+        if (text(request, "name") == null) throw new Failure(422, "name is required");
+        Models.Template template = new Models.Template();
+        String id = "tpl-" + (templates.size() + 1);
+        // Seeded templates may have taken the name
+        for (int n = templates.size() + 2; templates.containsKey(id); n++) id = "tpl-" + n;
+        template.setId(id);
+        template.setName(text(request, "name"));
+        template.setPlatform(text(request, "platform"));
+        template.setUseCase(text(request, "use_case"));
+        template.setProtocol(text(request, "protocol"));
+        template.setAllowOnMultipleDevices(request.path("allow_on_multiple_devices").asBoolean());
+        template.setWatchCount(request.path("watch_count").asInt());
+        template.setIphoneCount(request.path("iphone_count").asInt());
+        template.setCreatedAt(now().toString());
+        templates.put(template.getId(), new TemplateState(template));
+        return template;
+    }
+
+    private Models.Template updateTemplate(String id, JsonNode request) {
+        Models.Template template = template(id).template;
+        if (request.hasNonNull("name")) template.setName(text(request, "name"));
+        template.setAllowOnMultipleDevices(request.path("allow_on_multiple_devices").asBoolean());
+        template.setWatchCount(request.path("watch_count").asInt());
+        template.setIphoneCount(request.path("iphone_count").asInt());
+        template.setLastPublishedAt(now().toString());
+        return template;
+    }
+
+    private void record(TemplateState template, String type, String cardId, String userAgent) {
+        Map<String, Object> metadata = new LinkedHashMap<>();
+        metadata.put("card_id", cardId);
+        template.events.add(new Models.Event(type, now(), null, "127.0.0.1", userAgent, metadata));
+    }
+
+    private Models.EventLogResponse eventLog(TemplateState template, Map<String, String> query) {
+        String type = query.get("event_type");
+        String device = query.get("device");
+        ZonedDateTime start = date(query, "start_date");
+        ZonedDateTime end = date(query, "end_date");
+        List<Models.Event> events = new ArrayList<>();
+        for (Models.Event event : template.events) {
+            if (type != null && !type.equals(event.getType())) continue;
+            if (device != null && !device.equals(((Map<?, ?>) event.getMetadata()).get("device"))) continue;
+            if (start != null && event.getTimestamp().isBefore(start)) continue;
+            if (end != null && event.getTimestamp().isAfter(end)) continue;
+            events.add(event);
+        }
+        return new Models.EventLogResponse(events);
+    }
+
+    private Models.PassTemplatePair createPair(JsonNode request) {
+        Models.PassTemplatePair pair = new Models.PassTemplatePair();
+        String id = "pair-" + (pairs.size() + 1);
+        pair.setId(id);
+        pair.setExId(id);
+        pair.setName(text(request, "name"));
+        pair.setCreatedAt(now().toString());
+        pair.setIosTemplate(pairInfo(text(request, "apple_card_template_id"), "apple"));
+        pair.setAndroidTemplate(pairInfo(text(request, "google_card_template_id"), "google"));
+        pairs.add(pair);
+        return pair;
+    }
+
+    private Models.PassTemplatePairInfo pairInfo(String templateId, String platform) {
+        if (templateId == null) return null;
+        Models.Template template = template(templateId).template;
+        return new Models.PassTemplatePairInfo(template.getId(), template.getId(), template.getName(), platform);
+    }
+
+    // --- Ledger ---
+
+    private Models.LedgerItemsResult ledgerItems(Map<String, String> query) {
+        int page = positive(query, "page", 1);
+        int perPage = positive(query, "per_page", DEFAULT_PER_PAGE);
+        ZonedDateTime start = date(query, "start_date");
+        ZonedDateTime end = date(query, "end_date");
+        List<Models.LedgerItem> source = ledger;
+        if (start != null || end != null) {
+            source = new ArrayList<>();
+            for (Models.LedgerItem item : ledger) {
+                ZonedDateTime created = ZonedDateTime.parse(item.getCreatedAt());
+                if ((start == null || !created.isBefore(start)) && (end == null || !created.isAfter(end))) source.add(item);
+            }
+        }
+        int totalPages = (int) ((source.size() + (long) perPage - 1) / perPage);
+        return new Models.LedgerItemsResult(slice(source, page, perPage),
+            new Models.Pagination(page, totalPages, source.size(), perPage));
+    }
+
+    // --- Helpers ---
+
+    private ZonedDateTime now() {
+        return ZonedDateTime.now(clock);
+    }
+
+    private static <T> List<T> slice(List<T> items, int page, int perPage) {
+        long from = (long) (page - 1) * perPage;
+        if (from >= items.size()) return new ArrayList<>();
+        return new ArrayList<>(items.subList((int) from, (int) Math.min(items.size(), from + perPage)));
+    }
+
+    private static String text(JsonNode node, String field) {
+        JsonNode value = node.get(field);
+        return value == null || value.isNull() ? null : value.asText();
+    }
+
+    private static int positive(Map<String, String> query, String name, int defaultValue) {
+        String value = query.get(name);
+        if (value == null) return defaultValue;
+        try {
+            int parsed = Integer.parseInt(value);
+            if (parsed > 0) return parsed;
+        } catch (NumberFormatException ignored) {
+            // Answered below
+        }
+        throw new Failure(422, name + " must be a positive integer");
+    }
+
+    private static ZonedDateTime date(Map<String, String> query, String name) {
+        String value = query.get(name);
+        if (value == null) return null;
+        try {
+            return ZonedDateTime.parse(value);
+        } catch (RuntimeException e) {
+            throw new Failure(422, name + " must be an ISO-8601 date-time");
+        }
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> query = new HashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) return query;
+        for (String pair : rawQuery.split("&")) {
+            int eq = pair.indexOf('=');
+            String name = URLDecoder.decode(eq < 0 ? pair : pair.substring(0, eq), StandardCharsets.UTF_8);
+            String value = eq < 0 ? "" : URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8);
+            query.putIfAbsent(name, value);
+        }
+        return query;
+    }
+
+    private static final class TemplateState {
+        final Models.Template template;
+        final List<Models.Card> cards = new ArrayList<>();
+        final List<Models.Event> events = new ArrayList<>();
+
+        TemplateState(Models.Template template) {
+            this.template = template;
+        }
+    }
+
+    /**
+     * The operation a request path maps to, and its resource ID.
+     */
+    private static final class Route {
+        final ApiOperation operation;
+        final String id;
+
+        private Route(ApiOperation operation, String id) {
+            this.operation = operation;
+            this.id = id;
+        }
+
+        static Route of(String method, String path) {
+            // Everything up to the API version belongs to the base URL
+            int version = path.indexOf("/v1/");
+            String apiPath = version < 0 ? path : path.substring(version + 3);
+            for (ApiOperation operation : ApiOperation.values()) {
+                if (!operation.method().equals(method)) continue;
+                String template = operation.pathTemplate();
+                int placeholder = template.indexOf("{id}");
+                if (placeholder < 0) {
+                    if (template.equals(apiPath)) return new Route(operation, null);
+                    continue;
+                }
+                String prefix = template.substring(0, placeholder);
+                String suffix = template.substring(placeholder + "{id}".length());
+                if (apiPath.length() > prefix.length() + suffix.length()
+                        && apiPath.startsWith(prefix) && apiPath.endsWith(suffix)) {
+                    String id = apiPath.substring(prefix.length(), apiPath.length() - suffix.length());
+                    if (id.indexOf('/') < 0) return new Route(operation, id);
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * An error answer, thrown from inside the handlers.
+     */
+    private static final class Failure extends RuntimeException {
+        final int status;
+
+        Failure(int status, String message) {
+            super(message, null, false, false);
+            this.status = status;
+        }
+    }
+
+    private static final class Reply {
+        final int status;
+        final byte[] body;
+
+        private Reply(int status, byte[] body) {
+            this.status = status;
+            this.body = body;
+        }
+
+        static Reply json(ObjectMapper mapper, Object value) throws IOException {
+            return new Reply(200, mapper.writeValueAsBytes(value));
+        }
+
+        static Reply error(int status, String message) {
+            StringBuilder json = new StringBuilder("{\"error\":\"");
+            for (int i = 0; i < message.length(); i++) {
+                char c = message.charAt(i);
+                if (c == '"' || c == '\\') json.append('\\');
+                json.append(c < 0x20 ? ' ' : c);
+            }
+            return new Reply(status, json.append("\"}").toString().getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * Configuration for an {@link AccessGridEmulator}.
+     */
+    public static final class Builder {
+        private String accountId;
+        private String apiSecret;
+        private Duration latency = Duration.ZERO;
+        private Duration jitter = Duration.ZERO;
+        private double errorRate;
+        private double throttleRate;
+        private double rateLimit;
+        private Long seed;
+        private Clock clock = Clock.systemUTC();
+        private int port;
+
+        private Builder() {
+        }
+
+        /**
+         * Account ID requests must carry (required).
+         */
+        public Builder accountId(String accountId) {
+            this.accountId = accountId;
+            return this;
+        }
+
+        /**
+         * Secret request signatures must be made with (required).
+         */
+        public Builder apiSecret(String apiSecret) {
+            this.apiSecret = apiSecret;
+            return this;
+        }
+
+        /**
+         * Service time added to every request (default none).
+         */
+        public Builder latency(Duration latency) {
+            this.latency = Objects.requireNonNull(latency);
+            return this;
+        }
+
+        /**
+         * Uniform random extra service time, up to this much (default none).
+         */
+        public Builder jitter(Duration jitter) {
+            this.jitter = Objects.requireNonNull(jitter);
+            return this;
+        }
+
+        /**
+         * Fraction of requests answered {@code 500} (default 0).
+         */
+        public Builder errorRate(double errorRate) {
+            this.errorRate = fraction(errorRate, "errorRate");
+            return this;
+        }
+
+        /**
+         * Fraction of requests answered {@code 429} at random, on top of
+         * {@link #rateLimit} (default 0).
+         */
+        public Builder throttleRate(double throttleRate) {
+            this.throttleRate = fraction(throttleRate, "throttleRate");
+            return this;
+        }
+
+        /**
+         * Requests per second admitted before answering {@code 429} with
+         * {@code Retry-After}, allowing bursts of up to one second's worth
+         * (default unlimited).
+         */
+        public Builder rateLimit(double requestsPerSecond) {
+            if (requestsPerSecond < 0) throw new IllegalArgumentException("rateLimit must not be negative");
+            this.rateLimit = requestsPerSecond;
+            return this;
+        }
+
+        /**
+         * Seed for jitter and random faults, for repeatable runs.
+         */
+        public Builder seed(long seed) {
+            this.seed = seed;
+            return this;
+        }
+
+        /**
+         * Clock for event and ledger timestamps (default UTC system clock).
+         */
+        public Builder clock(Clock clock) {
+            this.clock = Objects.requireNonNull(clock);
+            return this;
+        }
+
+        /**
+         * Port {@link AccessGridEmulator#start()} binds (default 0, any free port).
+         */
+        public Builder port(int port) {
+            this.port = port;
+            return this;
+        }
+
+        private static double fraction(double value, String name) {
+            if (value < 0 || value > 1) throw new IllegalArgumentException(name + " must be between 0 and 1");
+            return value;
+        }
+
+        public AccessGridEmulator build() {
+            return new AccessGridEmulator(this);
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package com.organization.accessgrid;
+
+/**
+ * Concurrency limit for bulk calls that adjusts itself to the API's
+ * observed latency, for use with
+ * {@link PriorityDispatcher.Builder#bulkLimiter}.
+ *
+ * <p>Round trips are averaged over windows of {@link Builder#window}
+ * calls and compared with a slowly moving baseline. While a window's
+ * average stays within {@link Builder#tolerance} of the baseline and the
+ * limit is in use, the limit grows by about its square root per window.
+ * Once latency climbs past that, the limit shrinks in proportion. A
+ * {@code 429}, a {@code 503} or a transport failure cuts it by
+ * {@link Builder#backoff} at once, at most once per window.
+ *
+ * <p>The limit is read with {@link #limit()} and reported to
+ * {@link ClientMetrics#concurrencyLimitChanged} when it moves. One
+ * limiter belongs to one dispatcher.
+ */
+public final class AdaptiveLimiter {
+    // Windows the baseline averages over
+    private static final int BASELINE_WINDOWS = 20;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final int window;
+    private final double tolerance;
+    private final double backoff;
+    private final double smoothing;
+
+    private double limit;
+    private double baselineNanos;
+    private long sumNanos;
+    private int measured;
+    private int seen;
+    private int maxInFlight;
+    private boolean backedOff;
+    private volatile int current;
+
+    private AdaptiveLimiter(Builder builder) {
+        if (builder.minLimit > builder.maxLimit) throw new IllegalArgumentException("minLimit must not exceed maxLimit");
+        this.minLimit = builder.minLimit;
+        this.maxLimit = builder.maxLimit;
+        this.window = builder.window;
+        this.tolerance = builder.tolerance;
+        this.backoff = builder.backoff;
+        this.smoothing = builder.smoothing;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, builder.initialLimit));
+        this.current = (int) limit;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Bulk calls currently allowed in flight.
+     */
+    public int limit() {
+        return current;
+    }
+
+    /**
+     * Record a finished call.
+     *
+     * @param rttNanos   Time from sending to the response
+     * @param inFlight   Bulk calls in flight when it finished, itself included
+     * @param overloaded Whether the API pushed back (429, 503) or the call
+     *                   failed in transport
+     * @return Whether the limit changed
+     */
+    synchronized boolean sample(long rttNanos, int inFlight, boolean overloaded) {
+        int before = current;
+        if (overloaded) {
+            if (!backedOff) {
+                limit = Math.max(minLimit, limit * backoff);
+                backedOff = true;
+            }
+        } else {
+            sumNanos += rttNanos;
+            measured++;
+        }
+        maxInFlight = Math.max(maxInFlight, inFlight);
+        if (++seen >= window) closeWindow();
+        current = (int) limit;
+        return current != before;
+    }
+
+    private void closeWindow() {
+        if (!backedOff && measured > 0) {
+            double rtt = (double) sumNanos / measured;
+            if (baselineNanos == 0) {
+                baselineNanos = rtt;
+            } else if (rtt < baselineNanos / 2) {
+                // Load dropped off; catch up rather than creep down
+                baselineNanos = (baselineNanos + rtt) / 2;
+            } else {
+                baselineNanos += (rtt - baselineNanos) / BASELINE_WINDOWS;
+            }
+            // Only a limit that is being used tells us anything about it
+            if (maxInFlight >= limit / 2) {
+                double gradient = Math.max(0.5, Math.min(1.0, tolerance * baselineNanos / rtt));
+                // Probe upward only while latency holds; at a small limit sqrt(limit)
+                // would otherwise outweigh any shrink the gradient asks for
+                double target = gradient < 1.0 ? limit * gradient : limit + Math.sqrt(limit);
+                limit = Math.max(minLimit, Math.min(maxLimit, limit * (1 - smoothing) + target * smoothing));
+            }
+        }
+        sumNanos = 0;
+        measured = 0;
+        seen = 0;
+        maxInFlight = 0;
+        backedOff = false;
+    }
+
+    /**
+     * Configuration for an {@link AdaptiveLimiter}.
+     */
+    public static final class Builder {
+        private int initialLimit = 16;
+        private int minLimit = 1;
+        private int maxLimit = 512;
+        private int window = 20;
+        private double tolerance = 1.5;
+        private double backoff = 0.9;
+        private double smoothing = 0.2;
+
+        private Builder() {
+        }
+
+        /**
+         * Limit to start from (default 16).
+         */
+        public Builder initialLimit(int initialLimit) {
+            this.initialLimit = positive(initialLimit, "initialLimit");
+            return this;
+        }
+
+        /**
+         * Lowest the limit goes (default 1).
+         */
+        public Builder minLimit(int minLimit) {
+            this.minLimit = positive(minLimit, "minLimit");
+            return this;
+        }
+
+        /**
+         * Highest the limit goes (default 512). The dispatcher's
+         * {@code maxConcurrency} still caps all calls together.
+         */
+        public Builder maxLimit(int maxLimit) {
+            this.maxLimit = positive(maxLimit, "maxLimit");
+            return this;
+        }
+
+        /**
+         * Calls per measurement window (default 20).
+         */
+        public Builder window(int window) {
+            this.window = positive(window, "window");
+            return this;
+        }
+
+        /**
+         * How far a window's average round trip may exceed the baseline
+         * before the limit shrinks, as a ratio (default 1.5).
+         */
+        public Builder tolerance(double tolerance) {
+            if (tolerance < 1) throw new IllegalArgumentException("tolerance must be at least 1");
+            this.tolerance = tolerance;
+            return this;
+        }
+
+        /**
+         * Factor the limit is multiplied by when the API pushes back
+         * (default 0.9).
+         */
+        public Builder backoff(double backoff) {
+            if (backoff <= 0 || backoff >= 1) throw new IllegalArgumentException("backoff must be between 0 and 1");
+            this.backoff = backoff;
+            return this;
+        }
+
+        /**
+         * Share of each window's target the limit moves by (default 0.2).
+         */
+        public Builder smoothing(double smoothing) {
+            if (smoothing <= 0 || smoothing > 1) throw new IllegalArgumentException("smoothing must be in (0, 1]");
+            this.smoothing = smoothing;
+            return this;
+        }
+
+        private static int positive(int value, String name) {
+            if (value <= 0) throw new IllegalArgumentException(name + " must be positive");
+            return value;
+        }
+
+        public AdaptiveLimiter build() {
+            return new AdaptiveLimiter(this);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.organization.accessgrid;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Flight Recorder event emitted for every API call while a recording with
+ * {@code com.accessgrid.ApiCall} enabled is running. The event's own
+ * duration spans the whole call; phase fields break it down.
+ */
+@Name("com.accessgrid.ApiCall")
+@Label("AccessGrid API Call")
+@Category({"AccessGrid", "API"})
+@Description("One AccessGrid API call with its phase timings")
+@StackTrace(false)
+final class ApiCallEvent extends Event {
+    private static final EventType TYPE = EventType.getEventType(ApiCallEvent.class);
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Method")
+    String method;
+
+    @Label("Endpoint")
+    @Description("Path template, e.g. /key-cards/{id}/suspend")
+    String endpoint;
+
+    @Label("Resource ID")
+    String resourceId;
+
+    @Label("Status Code")
+    @Description("HTTP status, or 0 if no response was received")
+    int statusCode;
+
+    @Label("Request Size")
+    @DataAmount
+    long bytesOut;
+
+    @Label("Response Size")
+    @DataAmount
+    long bytesIn;
+
+    @Label("Serialize")
+    @Timespan
+    long serializeNanos;
+
+    @Label("Sign")
+    @Timespan
+    long signNanos;
+
+    @Label("Send")
+    @Description("Time to first byte of the response")
+    @Timespan
+    long sendNanos;
+
+    @Label("Receive")
+    @Timespan
+    long receiveNanos;
+
+    @Label("Parse")
+    @Timespan
+    long parseNanos;
+
+    @Label("Failure")
+    String failure;
+
+    /**
+     * Whether any running recording has this event enabled.
+     */
+    static boolean recording() {
+        return TYPE.isEnabled();
+    }
+}
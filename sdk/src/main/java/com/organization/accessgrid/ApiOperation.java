@@ -0,0 +1,87 @@
+package com.organization.accessgrid;
+
+/**
+ * Every API call the client can make, with its HTTP method and path
+ * template. Used to label metrics, listener callbacks and recordings
+ * without building per-request strings.
+ */
+public enum ApiOperation {
+    PROVISION_CARD("POST", "/key-cards"),
+    GET_CARD("GET", "/key-cards/{id}", true),
+    UPDATE_CARD("PATCH", "/key-cards/{id}"),
+    LIST_CARDS("GET", "/key-cards"),
+    SUSPEND_CARD("POST", "/key-cards/{id}/suspend", true),
+    RESUME_CARD("POST", "/key-cards/{id}/resume", true),
+    UNLINK_CARD("POST", "/key-cards/{id}/unlink", true),
+    DELETE_CARD("POST", "/key-cards/{id}/delete", true),
+
+    CREATE_TEMPLATE("POST", "/console/card-templates"),
+    UPDATE_TEMPLATE("PUT", "/console/card-templates/{id}"),
+    READ_TEMPLATE("GET", "/console/card-templates/{id}", true),
+    EVENT_LOG("GET", "/console/card-templates/{id}/logs"),
+    IOS_PREFLIGHT("POST", "/console/card-templates/{id}/ios_preflight"),
+    LIST_PASS_TEMPLATE_PAIRS("GET", "/console/card-template-pairs"),
+    CREATE_PASS_TEMPLATE_PAIR("POST", "/console/card-template-pairs"),
+    LEDGER_ITEMS("GET", "/console/ledger-items"),
+    LIST_LANDING_PAGES("GET", "/console/landing-pages"),
+    CREATE_LANDING_PAGE("POST", "/console/landing-pages"),
+    UPDATE_LANDING_PAGE("PATCH", "/console/landing-pages/{id}"),
+    LIST_CREDENTIAL_PROFILES("GET", "/console/credential-profiles"),
+    CREATE_CREDENTIAL_PROFILE("POST", "/console/credential-profiles"),
+    LIST_WEBHOOKS("GET", "/console/webhooks"),
+    CREATE_WEBHOOK("POST", "/console/webhooks"),
+    DELETE_WEBHOOK("DELETE", "/console/webhooks/{id}"),
+    CREATE_HID_ORG("POST", "/console/hid/orgs"),
+    ACTIVATE_HID_ORG("POST", "/console/hid/orgs/activate"),
+    LIST_HID_ORGS("GET", "/console/hid/orgs");
+
+    private static final String ID_PLACEHOLDER = "{id}";
+
+    private final String method;
+    private final String pathTemplate;
+    private final boolean signsResourceId;
+    private final String pathPrefix;
+    private final String pathSuffix;
+
+    ApiOperation(String method, String pathTemplate) {
+        this(method, pathTemplate, false);
+    }
+
+    ApiOperation(String method, String pathTemplate, boolean signsResourceId) {
+        this.method = method;
+        this.pathTemplate = pathTemplate;
+        this.signsResourceId = signsResourceId;
+        int placeholder = pathTemplate.indexOf(ID_PLACEHOLDER);
+        this.pathPrefix = placeholder < 0 ? pathTemplate : pathTemplate.substring(0, placeholder);
+        this.pathSuffix = placeholder < 0 ? null : pathTemplate.substring(placeholder + ID_PLACEHOLDER.length());
+    }
+
+    /**
+     * HTTP method, e.g. {@code POST}.
+     */
+    public String method() {
+        return method;
+    }
+
+    /**
+     * Path relative to the base URL, with {@code {id}} standing for the
+     * resource ID, e.g. {@code /key-cards/{id}/suspend}.
+     */
+    public String pathTemplate() {
+        return pathTemplate;
+    }
+
+    /**
+     * Whether the signed payload is the resource ID rather than the body.
+     */
+    boolean signsResourceId() {
+        return signsResourceId;
+    }
+
+    /**
+     * Expand the path template with a resource ID.
+     */
+    String path(String id) {
+        return pathSuffix == null ? pathPrefix : pathPrefix + id + pathSuffix;
+    }
+}
@@ -0,0 +1,52 @@
+package com.organization.accessgrid;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event for the progress of a call that fans out over
+ * many items, e.g. the cards of {@code getMany} or the templates of a
+ * {@link CardScan}. Committed as items finish, and always for the last.
+ */
+@Name("com.accessgrid.BulkProgress")
+@Label("AccessGrid Bulk Progress")
+@Category({"AccessGrid", "API"})
+@Description("Items finished so far by a fan-out call")
+@StackTrace(false)
+final class BulkProgressEvent extends Event {
+    /** Progress is committed at about this many points per call. */
+    private static final int STEPS = 20;
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Done")
+    @Description("Items that finished successfully")
+    long done;
+
+    @Label("Failed")
+    long failed;
+
+    @Label("Total")
+    long total;
+
+    /**
+     * Commit progress if {@code finished} is one of the call's reporting
+     * points: every {@code total / 20} items, and the last.
+     */
+    static void commit(String operation, long finished, long failed, long total) {
+        if (finished != total && finished % Math.max(1, total / STEPS) != 0) return;
+        BulkProgressEvent event = new BulkProgressEvent();
+        if (event.shouldCommit()) {
+            event.operation = operation;
+            event.done = finished - failed;
+            event.failed = failed;
+            event.total = total;
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.organization.accessgrid;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event for work the client skipped because a cache
+ * already had the answer.
+ */
+@Name("com.accessgrid.CacheHit")
+@Label("AccessGrid Cache Hit")
+@Category({"AccessGrid", "Cache"})
+@Description("Work skipped thanks to a client-side cache")
+@StackTrace(false)
+final class CacheHitEvent extends Event {
+    @Label("Cache")
+    String cache;
+
+    @Label("Key")
+    String key;
+
+    static void commit(String cache, String key) {
+        CacheHitEvent event = new CacheHitEvent();
+        if (event.shouldCommit()) {
+            event.cache = cache;
+            event.key = key;
+            event.commit();
+        }
+    }
+}
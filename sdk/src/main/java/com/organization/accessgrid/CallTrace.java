@@ -0,0 +1,254 @@
+package com.organization.accessgrid;
+
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.OptionalLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Phase timestamps and metadata for one instrumented call, fanned out to
+ * metrics, listeners and Flight Recorder as the call progresses. Only
+ * allocated when the client has instrumentation enabled or a recording
+ * is capturing {@link ApiCallEvent}.
+ */
+final class CallTrace implements RequestContext {
+    private static final Logger log = LoggerFactory.getLogger(CallTrace.class);
+
+    private final ApiOperation operation;
+    private final String resourceId;
+    private final ClientMetrics metrics;
+    private final RequestListener[] listeners;
+    private final ApiCallEvent event;
+    private final long startNanos;
+    private long serializedNanos;
+    private long signedNanos;
+    // Stamped on the HttpClient thread when headers arrive; read after send returns.
+    private volatile long firstByteNanos;
+    private long receivedNanos;
+    private long parsedNanos;
+    private long endNanos;
+    private long bytesOut;
+    private long bytesIn;
+    private int statusCode;
+    private HttpResponse<String> response;
+    private Object attachment;
+    HttpRequest request;
+    Throwable failure;
+
+    CallTrace(ApiOperation operation, String resourceId, ClientMetrics metrics, RequestListener[] listeners,
+              boolean recording) {
+        this.operation = operation;
+        this.resourceId = resourceId;
+        this.metrics = metrics;
+        this.listeners = listeners;
+        this.event = recording ? new ApiCallEvent() : null;
+        if (event != null) event.begin();
+        this.startNanos = System.nanoTime();
+        metrics.requestStarted(operation);
+        for (RequestListener listener : listeners) {
+            try {
+                listener.onStart(this);
+            } catch (RuntimeException e) {
+                log.warn("RequestListener.onStart failed", e);
+            }
+        }
+    }
+
+    void serialized(long bodyBytes) {
+        serializedNanos = System.nanoTime();
+        bytesOut = bodyBytes;
+        phase(RequestPhase.SERIALIZE, serializedNanos - startNanos);
+    }
+
+    void signed() {
+        signedNanos = System.nanoTime();
+        phase(RequestPhase.SIGN, signedNanos - (serializedNanos != 0 ? serializedNanos : startNanos));
+    }
+
+    void beforeSend(HttpRequest.Builder builder) {
+        for (RequestListener listener : listeners) {
+            try {
+                listener.onBeforeSend(this, builder);
+            } catch (RuntimeException e) {
+                log.warn("RequestListener.onBeforeSend failed", e);
+            }
+        }
+    }
+
+    void firstByte() {
+        firstByteNanos = System.nanoTime();
+    }
+
+    void received(HttpResponse<String> response) {
+        receivedNanos = System.nanoTime();
+        this.response = response;
+        statusCode = response.statusCode();
+        OptionalLong contentLength = response.headers() != null
+            ? response.headers().firstValueAsLong("Content-Length")
+            : OptionalLong.empty();
+        if (contentLength.isPresent()) {
+            bytesIn = contentLength.getAsLong();
+        } else if (response.body() != null) {
+            bytesIn = utf8Length(response.body());
+        }
+        if (firstByteNanos == 0) {
+            firstByteNanos = receivedNanos;
+        }
+        phase(RequestPhase.SEND, firstByteNanos - signedNanos);
+        phase(RequestPhase.RECEIVE, receivedNanos - firstByteNanos);
+    }
+
+    /**
+     * Bytes {@code s} takes as UTF-8, without encoding it.
+     */
+    static long utf8Length(String s) {
+        long length = s.length();
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c < 0x80) continue;
+            if (c < 0x800) {
+                length++;
+            } else {
+                length += 2;
+                // A surrogate pair is four bytes for its two chars
+                if (Character.isHighSurrogate(c) && i + 1 < s.length() && Character.isLowSurrogate(s.charAt(i + 1))) i++;
+            }
+        }
+        return length;
+    }
+
+    void parsed() {
+        parsedNanos = System.nanoTime();
+        phase(RequestPhase.PARSE, parsedNanos - receivedNanos);
+    }
+
+    void finish() {
+        endNanos = System.nanoTime();
+        if (event != null) commitEvent();
+        metrics.requestCompleted(operation, statusCode, bytesOut, bytesIn, endNanos - startNanos, failure);
+        for (RequestListener listener : listeners) {
+            try {
+                listener.onComplete(this);
+            } catch (RuntimeException e) {
+                log.warn("RequestListener.onComplete failed", e);
+            }
+        }
+    }
+
+    private void commitEvent() {
+        event.end();
+        if (!event.shouldCommit()) return;
+        event.operation = operation.name();
+        event.method = operation.method();
+        event.endpoint = operation.pathTemplate();
+        event.resourceId = resourceId;
+        event.statusCode = statusCode;
+        event.bytesOut = bytesOut;
+        event.bytesIn = bytesIn;
+        event.serializeNanos = serializedNanos != 0 ? serializedNanos - startNanos : 0;
+        event.signNanos = signedNanos != 0 ? signedNanos - (serializedNanos != 0 ? serializedNanos : startNanos) : 0;
+        event.sendNanos = receivedNanos != 0 ? firstByteNanos - signedNanos : 0;
+        event.receiveNanos = receivedNanos != 0 ? receivedNanos - firstByteNanos : 0;
+        event.parseNanos = parsedNanos != 0 ? parsedNanos - receivedNanos : 0;
+        event.failure = failure != null ? failure.getMessage() : null;
+        event.commit();
+    }
+
+    private void phase(RequestPhase phase, long nanos) {
+        metrics.phaseCompleted(operation, phase, nanos);
+        for (RequestListener listener : listeners) {
+            try {
+                listener.onPhase(this, phase);
+            } catch (RuntimeException e) {
+                log.warn("RequestListener.onPhase failed", e);
+            }
+        }
+    }
+
+    @Override
+    public ApiOperation operation() {
+        return operation;
+    }
+
+    @Override
+    public String resourceId() {
+        return resourceId;
+    }
+
+    @Override
+    public long startNanos() {
+        return startNanos;
+    }
+
+    @Override
+    public long serializedNanos() {
+        return serializedNanos;
+    }
+
+    @Override
+    public long signedNanos() {
+        return signedNanos;
+    }
+
+    @Override
+    public long firstByteNanos() {
+        return firstByteNanos;
+    }
+
+    @Override
+    public long receivedNanos() {
+        return receivedNanos;
+    }
+
+    @Override
+    public long parsedNanos() {
+        return parsedNanos;
+    }
+
+    @Override
+    public long endNanos() {
+        return endNanos;
+    }
+
+    @Override
+    public HttpRequest request() {
+        return request;
+    }
+
+    @Override
+    public HttpResponse<String> response() {
+        return response;
+    }
+
+    @Override
+    public int statusCode() {
+        return statusCode;
+    }
+
+    @Override
+    public long bytesOut() {
+        return bytesOut;
+    }
+
+    @Override
+    public long bytesIn() {
+        return bytesIn;
+    }
+
+    @Override
+    public Throwable failure() {
+        return failure;
+    }
+
+    @Override
+    public Object attachment() {
+        return attachment;
+    }
+
+    @Override
+    public void attach(Object attachment) {
+        this.attachment = attachment;
+    }
+}
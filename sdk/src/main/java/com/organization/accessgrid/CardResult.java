@@ -0,0 +1,53 @@
+package com.organization.accessgrid;
+
+/**
+ * Outcome of fetching one card in a batch: the card, or the exception
+ * its request failed with.
+ */
+public final class CardResult {
+    private final String cardId;
+    private final Models.Card card;
+    private final RuntimeException error;
+
+    CardResult(String cardId, Models.Card card, RuntimeException error) {
+        this.cardId = cardId;
+        this.card = card;
+        this.error = error;
+    }
+
+    public String getCardId() {
+        return cardId;
+    }
+
+    /**
+     * The card, or null if the request failed.
+     */
+    public Models.Card getCard() {
+        return card;
+    }
+
+    /**
+     * Why the request failed, or null if it succeeded. Usually an
+     * {@link AccessGridClient.AccessGridException}.
+     */
+    public RuntimeException getError() {
+        return error;
+    }
+
+    public boolean isSuccess() {
+        return error == null;
+    }
+
+    /**
+     * The card, or the failure rethrown.
+     */
+    public Models.Card orThrow() {
+        if (error != null) throw error;
+        return card;
+    }
+
+    @Override
+    public String toString() {
+        return "CardResult(" + cardId + (error == null ? ")" : ", " + error.getMessage() + ")");
+    }
+}
@@ -0,0 +1,170 @@
+package com.organization.accessgrid;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+/**
+ * Cards from many templates, listed concurrently in the background and
+ * merged into one stream as pages arrive. Cards of different templates
+ * interleave; within a template they keep page order.
+ *
+ * <p>Like a {@code DirectoryStream}, a scan is iterated once and should be
+ * closed. Closing it early stops the remaining listing. If listing a
+ * template fails, iteration throws that exception after the cards already
+ * received. Templates listed so far are reported as
+ * {@code com.accessgrid.BulkProgress} Flight Recorder events.
+ */
+public final class CardScan implements Iterable<Models.Card>, AutoCloseable {
+    private static final Object END = new Object();
+    private static final int BUFFER = 1024;
+
+    private final String[] templateIds;
+    private final Function<String, Iterable<Models.Card>> lister;
+    private final int workers;
+    private final ExecutorService executor;
+    private final BlockingQueue<Object> queue;
+    private final AtomicInteger next = new AtomicInteger();
+    private final AtomicInteger finished = new AtomicInteger();
+    private final AtomicInteger failed = new AtomicInteger();
+    private final AtomicReference<RuntimeException> failure = new AtomicReference<>();
+    private volatile boolean closed;
+    private boolean iterated;
+
+    private CardScan(String[] templateIds, Function<String, Iterable<Models.Card>> lister, int concurrency,
+                     ExecutorService executor) {
+        this.templateIds = templateIds;
+        this.lister = lister;
+        this.executor = executor;
+        this.workers = Math.min(concurrency, templateIds.length);
+        // Room for every worker's pending put after close() clears it, plus the end marker
+        this.queue = new ArrayBlockingQueue<>(Math.max(BUFFER, workers + 1));
+    }
+
+    /**
+     * Start listing {@code templateIds} with up to {@code concurrency}
+     * templates in flight at once.
+     *
+     * @param lister   Lists every card of one template
+     * @param executor Runs the scan and its workers
+     */
+    static CardScan start(String[] templateIds, Function<String, Iterable<Models.Card>> lister, int concurrency,
+                          ExecutorService executor) {
+        CardScan scan = new CardScan(templateIds, lister, concurrency, executor);
+        PriorityDispatcher.Priority priority = PriorityDispatcher.currentScope();
+        executor.execute(() -> {
+            if (priority == null) {
+                scan.run();
+            } else {
+                try (PriorityDispatcher.Scope scope = PriorityDispatcher.scope(priority)) {
+                    scan.run();
+                }
+            }
+        });
+        return scan;
+    }
+
+    private void run() {
+        Object last = END;
+        try {
+            FanOut.run(executor, workers, this::listTemplates);
+        } catch (RuntimeException | Error e) {
+            RuntimeException first = failure.get();
+            last = first != null ? first : e;
+        }
+        if (!closed) put(last);
+    }
+
+    private void listTemplates() {
+        for (int i = next.getAndIncrement(); i < templateIds.length && !stopped(); i = next.getAndIncrement()) {
+            try {
+                for (Models.Card card : lister.apply(templateIds[i])) {
+                    if (stopped()) return;
+                    put(card);
+                }
+            } catch (RuntimeException e) {
+                // Stop the other workers instead of letting them finish their templates
+                failure.compareAndSet(null, e);
+                failed.incrementAndGet();
+                BulkProgressEvent.commit("CARD_SCAN", finished.incrementAndGet(), failed.get(), templateIds.length);
+                throw e;
+            }
+            BulkProgressEvent.commit("CARD_SCAN", finished.incrementAndGet(), failed.get(), templateIds.length);
+        }
+    }
+
+    private boolean stopped() {
+        return closed || failure.get() != null || Thread.currentThread().isInterrupted();
+    }
+
+    private void put(Object item) {
+        try {
+            queue.put(item);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AccessGridClient.AccessGridException("Interrupted", e);
+        }
+    }
+
+    /**
+     * The merged cards. Can only be called once.
+     */
+    @Override
+    public synchronized Iterator<Models.Card> iterator() {
+        if (iterated) throw new IllegalStateException("A scan can only be iterated once");
+        if (closed) throw new IllegalStateException("Scan is closed");
+        iterated = true;
+        return new Iterator<Models.Card>() {
+            private Object pending;
+            private boolean done;
+
+            @Override
+            public boolean hasNext() {
+                if (pending != null) return true;
+                if (done || closed) return false;
+                Object item;
+                try {
+                    item = queue.take();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new AccessGridClient.AccessGridException("Interrupted", e);
+                }
+                if (item == END) {
+                    done = true;
+                    return false;
+                }
+                if (item instanceof Throwable) {
+                    done = true;
+                    if (item instanceof Error) throw (Error) item;
+                    throw (RuntimeException) item;
+                }
+                pending = item;
+                return true;
+            }
+
+            @Override
+            public Models.Card next() {
+                if (!hasNext()) throw new NoSuchElementException();
+                Models.Card card = (Models.Card) pending;
+                pending = null;
+                return card;
+            }
+        };
+    }
+
+    /**
+     * Stop the scan. Requests already in flight complete, but no further
+     * pages are fetched.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        // Unblocks workers waiting for room; each puts at most once more
+        queue.clear();
+    }
+}
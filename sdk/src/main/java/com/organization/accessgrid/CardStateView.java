@@ -0,0 +1,318 @@
+package com.organization.accessgrid;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Local, always-current copy of card state: seeded once from a paged list,
+ * then kept up to date by card webhook events instead of polling.
+ *
+ * <pre>{@code
+ * CardStateView cards = CardStateView.builder()
+ *     .client(client)
+ *     .params(ListKeysParams.builder().templateId("0xd3adb00b5").build())
+ *     .build();
+ * cards.addListener((before, after, event) -> ...);
+ * WebhookReceiver.builder().onAny(cards)...build().start();
+ * cards.seed();
+ * }</pre>
+ *
+ * <p>Events carry the changed card's fields in their data (anything
+ * {@link Models.CardSummary} binds); fields present in the event overwrite
+ * the local copy and the rest are kept. Events older than the last one
+ * applied to a card are ignored, so the view is safe behind an unordered
+ * receiver. With a client, an event for a card the view has not seen that
+ * does not carry a state triggers a single {@code get}.
+ *
+ * <p>Only {@code ag.card.*} events are applied, and only to cards matching
+ * the configured params: a card whose known template or state differs is
+ * not added, and one that leaves the filter (e.g. is suspended in a view
+ * of active cards) is removed.
+ *
+ * <p>Lookups are lock-free reads of a concurrent map and return copies.
+ */
+public final class CardStateView implements WebhookReceiver.Handler {
+    private static final Logger log = LoggerFactory.getLogger(CardStateView.class);
+    private static final String CARD_EVENT_PREFIX = "ag.card.";
+
+    /**
+     * Told about every change, on the thread that applied it.
+     */
+    @FunctionalInterface
+    public interface Listener {
+        /**
+         * @param before Previous state, or null for a card new to the view
+         * @param after  New state, or null for a card a reseed no longer lists
+         * @param event  Event that caused the change, or null when seeding
+         */
+        void onChange(Models.CardSummary before, Models.CardSummary after, Models.WebhookEvent event);
+    }
+
+    private final AccessGridClient client;
+    private final Models.ListKeysParams params;
+    private final AtomicLong versions = new AtomicLong();
+    private final ConcurrentHashMap<String, Entry> cards = new ConcurrentHashMap<>();
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    private CardStateView(Builder builder) {
+        this.client = builder.client;
+        this.params = builder.params;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public void addListener(Listener listener) {
+        listeners.add(Objects.requireNonNull(listener));
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Load every card matching the configured params, one page at a time.
+     * Cards changed by an event after seeding started keep the event's
+     * state. Call again to resynchronize, e.g. after webhook downtime:
+     * cards no longer listed are removed.
+     *
+     * @return Cards listed
+     */
+    public int seed() {
+        if (client == null) throw new IllegalStateException("seed() needs a client; use seed(Iterable) instead");
+        return seed(client.accessCards().listAllSummaries(params));
+    }
+
+    /**
+     * Load cards from any source, e.g. a previously saved snapshot. Once
+     * all are read, cards the source did not list are removed, unless an
+     * event changed them after seeding started.
+     */
+    public int seed(Iterable<Models.CardSummary> summaries) {
+        long started = versions.get();
+        int count = 0;
+        Set<String> listed = new HashSet<>();
+        for (Models.CardSummary summary : summaries) {
+            if (summary.getId() == null) continue;
+            count++;
+            listed.add(summary.getId());
+            Models.CardSummary copy = copy(summary);
+            Entry[] previous = new Entry[1];
+            Entry applied = cards.compute(summary.getId(), (id, current) -> {
+                previous[0] = current;
+                if (current != null && (current.version > started || current.card.equals(copy))) return current;
+                return new Entry(copy, current != null ? current.eventAt : null, started);
+            });
+            if (applied != previous[0]) fireChange(previous[0], applied, null);
+        }
+        for (String cardId : cards.keySet()) {
+            if (listed.contains(cardId)) continue;
+            Entry[] removed = new Entry[1];
+            cards.computeIfPresent(cardId, (id, current) -> {
+                // Changed by an event since seeding started, so newer than the listing
+                if (current.version > started) return current;
+                removed[0] = current;
+                return null;
+            });
+            if (removed[0] != null) fireChange(removed[0], null, null);
+        }
+        return count;
+    }
+
+    /**
+     * Apply one card webhook event. Other event types and events without a
+     * card id in their data are ignored.
+     */
+    @Override
+    public void handle(Models.WebhookEvent event) {
+        if (event.getType() == null || !event.getType().startsWith(CARD_EVENT_PREFIX)) return;
+        String cardId = WebhookSequencer.dataCardId(event);
+        if (cardId == null) return;
+        Models.CardSummary update = event.dataAs(Models.CardSummary.class);
+        update.setId(cardId);
+        Instant eventAt = parse(event.getCreatedAt());
+        if (update.getState() == null && client != null && !cards.containsKey(cardId)) {
+            update = fetch(cardId);
+            if (update == null) return;
+        }
+        Models.CardSummary changes = update;
+        long version = versions.incrementAndGet();
+        Entry[] previous = new Entry[1];
+        Entry applied = cards.compute(cardId, (id, current) -> {
+            previous[0] = current;
+            if (current != null && current.eventAt != null && eventAt != null && eventAt.isBefore(current.eventAt)) {
+                return current;
+            }
+            Models.CardSummary merged = current == null ? copy(changes) : merge(current.card, changes);
+            if (!matches(merged)) return null;
+            if (current != null && merged.equals(current.card)) {
+                return new Entry(current.card, later(current.eventAt, eventAt), version);
+            }
+            return new Entry(merged, later(current != null ? current.eventAt : null, eventAt), version);
+        });
+        if (applied == null) {
+            if (previous[0] != null) fireChange(previous[0], null, event);
+        } else if (previous[0] == null || applied.card != previous[0].card) {
+            fireChange(previous[0], applied, event);
+        }
+    }
+
+    /**
+     * Whether a card fits the configured params. Fields the view does not
+     * know yet are given the benefit of the doubt.
+     */
+    private boolean matches(Models.CardSummary card) {
+        if (params == null) return true;
+        return matches(params.getTemplateId(), card.getCardTemplateId()) && matches(params.getState(), card.getState());
+    }
+
+    private static boolean matches(String wanted, String actual) {
+        return wanted == null || actual == null || wanted.equals(actual);
+    }
+
+    /**
+     * Current state of a card, or null if the view does not know it.
+     */
+    public Models.CardSummary get(String cardId) {
+        Entry entry = cards.get(cardId);
+        return entry != null ? copy(entry.card) : null;
+    }
+
+    public String state(String cardId) {
+        Entry entry = cards.get(cardId);
+        return entry != null ? entry.card.getState() : null;
+    }
+
+    /**
+     * Copies of all cards, optionally only those in one state.
+     */
+    public List<Models.CardSummary> cards(String state) {
+        List<Models.CardSummary> result = new ArrayList<>();
+        for (Entry entry : cards.values()) {
+            if (state == null || state.equals(entry.card.getState())) result.add(copy(entry.card));
+        }
+        return result;
+    }
+
+    public Collection<String> ids() {
+        return new ArrayList<>(cards.keySet());
+    }
+
+    public int size() {
+        return cards.size();
+    }
+
+    private Models.CardSummary fetch(String cardId) {
+        try {
+            Models.Card card = client.accessCards().get(cardId);
+            return new Models.CardSummary(card.getId(), card.getState(), card.getCardTemplateId(),
+                card.getCardNumber(), card.getSiteCode(), card.getExpirationDate());
+        } catch (RuntimeException e) {
+            log.warn("Failed to fetch card {} for webhook event", cardId, e);
+            return null;
+        }
+    }
+
+    private void fireChange(Entry before, Entry after, Models.WebhookEvent event) {
+        if (listeners.isEmpty()) return;
+        Models.CardSummary beforeCard = before != null ? copy(before.card) : null;
+        for (Listener listener : listeners) {
+            try {
+                listener.onChange(beforeCard, after != null ? copy(after.card) : null, event);
+            } catch (RuntimeException e) {
+                log.warn("Card state listener failed", e);
+            }
+        }
+    }
+
+    private static Models.CardSummary merge(Models.CardSummary current, Models.CardSummary changes) {
+        return new Models.CardSummary(
+            current.getId(),
+            changes.getState() != null ? changes.getState() : current.getState(),
+            changes.getCardTemplateId() != null ? changes.getCardTemplateId() : current.getCardTemplateId(),
+            changes.getCardNumber() != null ? changes.getCardNumber() : current.getCardNumber(),
+            changes.getSiteCode() != null ? changes.getSiteCode() : current.getSiteCode(),
+            changes.getExpirationDate() != null ? changes.getExpirationDate() : current.getExpirationDate());
+    }
+
+    private static Models.CardSummary copy(Models.CardSummary card) {
+        return new Models.CardSummary(card.getId(), card.getState(), card.getCardTemplateId(),
+            card.getCardNumber(), card.getSiteCode(), card.getExpirationDate());
+    }
+
+    private static Instant later(Instant a, Instant b) {
+        if (a == null) return b;
+        if (b == null) return a;
+        return a.isAfter(b) ? a : b;
+    }
+
+    private static Instant parse(String timestamp) {
+        if (timestamp == null) return null;
+        try {
+            return OffsetDateTime.parse(timestamp).toInstant();
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private static final class Entry {
+        final Models.CardSummary card;
+        /** created_at of the newest event applied. */
+        final Instant eventAt;
+        /** Events counted when this was written; above a seed's start means newer than its listing. */
+        final long version;
+
+        Entry(Models.CardSummary card, Instant eventAt, long version) {
+            this.card = card;
+            this.eventAt = eventAt;
+            this.version = version;
+        }
+    }
+
+    /**
+     * Configuration for a {@link CardStateView}.
+     */
+    public static final class Builder {
+        private AccessGridClient client;
+        private Models.ListKeysParams params;
+
+        private Builder() {
+        }
+
+        /**
+         * Client for {@link CardStateView#seed()} and for fetching cards
+         * first seen in an event.
+         */
+        public Builder client(AccessGridClient client) {
+            this.client = client;
+            return this;
+        }
+
+        /**
+         * Which cards to seed, e.g. one template (required with a client).
+         */
+        public Builder params(Models.ListKeysParams params) {
+            this.params = params;
+            return this;
+        }
+
+        public CardStateView build() {
+            if (client != null && params == null) throw new IllegalStateException("params are required with a client");
+            return new CardStateView(this);
+        }
+    }
+}
@@ -0,0 +1,463 @@
+package com.organization.accessgrid;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.function.Consumer;
+
+/**
+ * Column-oriented, read-only snapshot of many cards for fleet-wide
+ * analytics. Low-cardinality fields ({@link Column}) are dictionary-encoded
+ * to int codes; ids, names and card numbers are packed as UTF-8 into
+ * shared byte arrays. A card costs a few dozen bytes instead of a
+ * {@link Models.Card} with a String per field.
+ *
+ * <p>Filters return {@link Rows} bitsets that can be combined and counted
+ * without touching card data. Iteration hands out a single reused
+ * {@link CardView} (a flyweight), so scanning allocates nothing per row.
+ * Build a table with {@link #builder()} or {@link #of(Iterable)}; once
+ * built it is immutable and safe to share between threads.
+ */
+public final class CardTable {
+    /**
+     * Dictionary-encoded card fields.
+     */
+    public enum Column {
+        STATE,
+        CARD_TEMPLATE_ID,
+        SITE_CODE,
+        ORGANIZATION_NAME,
+        SITE_NAME,
+        DEPARTMENT,
+        LOCATION,
+        EXPIRATION_DATE
+    }
+
+    private static final Column[] COLUMNS = Column.values();
+
+    private final int size;
+    private final PackedStrings ids;
+    private final PackedStrings cardNumbers;
+    private final PackedStrings fullNames;
+    private final StringDictionary[] dictionaries;
+    private final int[][] codes;
+    // Parsed expiration per EXPIRATION_DATE code, in epoch seconds
+    private final long[] expirationByCode;
+    // Open-addressing index from id to row + 1 (0 = empty slot)
+    private final int[] idIndex;
+
+    private CardTable(Builder builder) {
+        this.size = builder.size;
+        this.ids = builder.ids;
+        this.cardNumbers = builder.cardNumbers;
+        this.fullNames = builder.fullNames;
+        this.dictionaries = builder.dictionaries;
+        this.codes = new int[COLUMNS.length][];
+        for (int c = 0; c < COLUMNS.length; c++) {
+            codes[c] = Arrays.copyOf(builder.codes[c], size);
+        }
+        ids.trim();
+        cardNumbers.trim();
+        fullNames.trim();
+
+        StringDictionary expirations = dictionaries[Column.EXPIRATION_DATE.ordinal()];
+        this.expirationByCode = new long[expirations.size()];
+        for (int code = 0; code < expirationByCode.length; code++) {
+            expirationByCode[code] = parseEpochSecond(expirations.decode(code));
+        }
+
+        this.idIndex = new int[Integer.highestOneBit(Math.max(1, size) * 2) * 2];
+        int mask = idIndex.length - 1;
+        for (int row = 0; row < size; row++) {
+            if (ids.isNull(row)) continue;
+            int slot = ids.hash(row) & mask;
+            while (idIndex[slot] != 0) slot = (slot + 1) & mask;
+            idIndex[slot] = row + 1;
+        }
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Table of the given cards, e.g. from
+     * {@link AccessGridClient.AccessCardsApi#listAllSummaries}.
+     * Accepts {@link Models.Card} and {@link Models.CardSummary}.
+     */
+    public static CardTable of(Iterable<?> cards) {
+        Builder builder = new Builder();
+        for (Object card : cards) {
+            if (card instanceof Models.Card) {
+                builder.add((Models.Card) card);
+            } else if (card instanceof Models.CardSummary) {
+                builder.add((Models.CardSummary) card);
+            } else {
+                throw new IllegalArgumentException("Not a card: " + card);
+            }
+        }
+        return builder.build();
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Every row.
+     */
+    public Rows all() {
+        Rows rows = new Rows();
+        for (int row = 0; row < size; row++) rows.set(row);
+        return rows;
+    }
+
+    /**
+     * Rows whose column equals the value; null matches missing values.
+     */
+    public Rows where(Column column, String value) {
+        Rows rows = new Rows();
+        int code = dictionaries[column.ordinal()].find(value);
+        if (code < 0) return rows;
+        int[] values = codes[column.ordinal()];
+        for (int row = 0; row < size; row++) {
+            if (values[row] == code) rows.set(row);
+        }
+        return rows;
+    }
+
+    /**
+     * Rows with a parseable expiration date before the given instant.
+     */
+    public Rows expiringBefore(Instant instant) {
+        Rows rows = new Rows();
+        long limit = instant.getEpochSecond();
+        int[] expirations = codes[Column.EXPIRATION_DATE.ordinal()];
+        for (int row = 0; row < size; row++) {
+            long expiration = expirationByCode[expirations[row]];
+            if (expiration != Long.MIN_VALUE && expiration < limit) rows.set(row);
+        }
+        return rows;
+    }
+
+    /**
+     * Rows per distinct value of a column, in first-seen order. Missing
+     * values are counted under a null key.
+     */
+    public Map<String, Long> countBy(Column column) {
+        return all().countBy(column);
+    }
+
+    /**
+     * View of the card with the given id, or null.
+     */
+    public CardView find(String id) {
+        byte[] key = id.getBytes(StandardCharsets.UTF_8);
+        int mask = idIndex.length - 1;
+        for (int slot = PackedStrings.hash(key) & mask; idIndex[slot] != 0; slot = (slot + 1) & mask) {
+            int row = idIndex[slot] - 1;
+            if (ids.equalsBytes(row, key)) return new CardView(row);
+        }
+        return null;
+    }
+
+    /**
+     * View of one row.
+     */
+    public CardView view(int row) {
+        if (row < 0 || row >= size) throw new IndexOutOfBoundsException("row " + row);
+        return new CardView(row);
+    }
+
+    /**
+     * Approximate heap used by the columns and dictionaries' code arrays,
+     * excluding the distinct dictionary strings themselves.
+     */
+    public long sizeInBytes() {
+        long bytes = ids.sizeInBytes() + cardNumbers.sizeInBytes() + fullNames.sizeInBytes()
+            + 4L * idIndex.length + 8L * expirationByCode.length;
+        for (int[] column : codes) bytes += 4L * column.length;
+        return bytes;
+    }
+
+    private static long parseEpochSecond(String date) {
+        if (date == null) return Long.MIN_VALUE;
+        try {
+            return OffsetDateTime.parse(date).toEpochSecond();
+        } catch (DateTimeParseException e) {
+            try {
+                return LocalDate.parse(date).atStartOfDay().toEpochSecond(ZoneOffset.UTC);
+            } catch (DateTimeParseException e2) {
+                return Long.MIN_VALUE;
+            }
+        }
+    }
+
+    /**
+     * A set of rows of this table, as a bitset. Combining sets mutates and
+     * returns the receiver.
+     */
+    public final class Rows implements Iterable<CardView> {
+        private final long[] words = new long[(size + 63) >>> 6];
+
+        private Rows() {
+        }
+
+        private void set(int row) {
+            words[row >>> 6] |= 1L << row;
+        }
+
+        public Rows and(Rows other) {
+            for (int i = 0; i < words.length; i++) words[i] &= other.words[i];
+            return this;
+        }
+
+        public Rows or(Rows other) {
+            for (int i = 0; i < words.length; i++) words[i] |= other.words[i];
+            return this;
+        }
+
+        public Rows andNot(Rows other) {
+            for (int i = 0; i < words.length; i++) words[i] &= ~other.words[i];
+            return this;
+        }
+
+        public int count() {
+            int count = 0;
+            for (long word : words) count += Long.bitCount(word);
+            return count;
+        }
+
+        public boolean contains(int row) {
+            return row >= 0 && row < size && (words[row >>> 6] & (1L << row)) != 0;
+        }
+
+        /**
+         * Rows per distinct value of a column, in first-seen order.
+         */
+        public Map<String, Long> countBy(Column column) {
+            StringDictionary dictionary = dictionaries[column.ordinal()];
+            int[] values = codes[column.ordinal()];
+            long[] counts = new long[dictionary.size()];
+            for (int w = 0; w < words.length; w++) {
+                long word = words[w];
+                while (word != 0) {
+                    int row = (w << 6) + Long.numberOfTrailingZeros(word);
+                    counts[values[row]]++;
+                    word &= word - 1;
+                }
+            }
+            Map<String, Long> result = new LinkedHashMap<>();
+            if (counts[StringDictionary.NULL_CODE] > 0) result.put(null, counts[StringDictionary.NULL_CODE]);
+            for (int code = 1; code < counts.length; code++) {
+                if (counts[code] > 0) result.put(dictionary.decode(code), counts[code]);
+            }
+            return result;
+        }
+
+        /**
+         * Visit every row with one reused view.
+         */
+        @Override
+        public void forEach(Consumer<? super CardView> action) {
+            for (CardView view : this) action.accept(view);
+        }
+
+        /**
+         * Iterates with one reused view; copy values out (or call
+         * {@link CardView#toSummary()}) to keep them past the next step.
+         */
+        @Override
+        public Iterator<CardView> iterator() {
+            CardView view = new CardView(-1);
+            return new Iterator<CardView>() {
+                private int next = nextRow(0);
+
+                @Override
+                public boolean hasNext() {
+                    return next >= 0;
+                }
+
+                @Override
+                public CardView next() {
+                    if (next < 0) throw new NoSuchElementException();
+                    view.row = next;
+                    next = nextRow(next + 1);
+                    return view;
+                }
+            };
+        }
+
+        private int nextRow(int from) {
+            int w = from >>> 6;
+            if (w >= words.length) return -1;
+            long word = words[w] & (-1L << from);
+            while (true) {
+                if (word != 0) return (w << 6) + Long.numberOfTrailingZeros(word);
+                if (++w == words.length) return -1;
+                word = words[w];
+            }
+        }
+    }
+
+    /**
+     * Flyweight over one row. Dictionary-encoded getters return shared
+     * String instances; packed fields are decoded on each call.
+     */
+    public final class CardView {
+        private int row;
+
+        private CardView(int row) {
+            this.row = row;
+        }
+
+        public int row() {
+            return row;
+        }
+
+        public String get(Column column) {
+            return dictionaries[column.ordinal()].decode(codes[column.ordinal()][row]);
+        }
+
+        public String getId() {
+            return ids.get(row);
+        }
+
+        public String getCardNumber() {
+            return cardNumbers.get(row);
+        }
+
+        public String getFullName() {
+            return fullNames.get(row);
+        }
+
+        public String getState() {
+            return get(Column.STATE);
+        }
+
+        public String getCardTemplateId() {
+            return get(Column.CARD_TEMPLATE_ID);
+        }
+
+        public String getSiteCode() {
+            return get(Column.SITE_CODE);
+        }
+
+        public String getOrganizationName() {
+            return get(Column.ORGANIZATION_NAME);
+        }
+
+        public String getSiteName() {
+            return get(Column.SITE_NAME);
+        }
+
+        public String getDepartment() {
+            return get(Column.DEPARTMENT);
+        }
+
+        public String getLocation() {
+            return get(Column.LOCATION);
+        }
+
+        public String getExpirationDate() {
+            return get(Column.EXPIRATION_DATE);
+        }
+
+        /**
+         * Expiration as epoch seconds, or {@link Long#MIN_VALUE} if missing
+         * or unparseable.
+         */
+        public long expirationEpochSecond() {
+            return expirationByCode[codes[Column.EXPIRATION_DATE.ordinal()][row]];
+        }
+
+        /**
+         * Copy this row out as an independent summary.
+         */
+        public Models.CardSummary toSummary() {
+            return new Models.CardSummary(getId(), getState(), getCardTemplateId(), getCardNumber(),
+                getSiteCode(), getExpirationDate());
+        }
+
+        @Override
+        public String toString() {
+            return "CardView(row=" + row + ", id=" + getId() + ", state=" + getState() + ")";
+        }
+    }
+
+    /**
+     * Accumulates cards into columns. Not thread-safe, and not reusable
+     * after {@link #build()}, which hands its columns to the table.
+     */
+    public static final class Builder {
+        private int size;
+        private boolean built;
+        private final PackedStrings ids = new PackedStrings(1024);
+        private final PackedStrings cardNumbers = new PackedStrings(1024);
+        private final PackedStrings fullNames = new PackedStrings(1024);
+        private final StringDictionary[] dictionaries = new StringDictionary[COLUMNS.length];
+        private final int[][] codes = new int[COLUMNS.length][1024];
+
+        private Builder() {
+            for (int c = 0; c < COLUMNS.length; c++) {
+                dictionaries[c] = new StringDictionary();
+            }
+        }
+
+        public Builder add(Models.Card card) {
+            int row = nextRow();
+            ids.add(card.getId());
+            cardNumbers.add(card.getCardNumber());
+            fullNames.add(card.getFullName());
+            set(row, Column.STATE, card.getState());
+            set(row, Column.CARD_TEMPLATE_ID, card.getCardTemplateId());
+            set(row, Column.SITE_CODE, card.getSiteCode());
+            set(row, Column.ORGANIZATION_NAME, card.getOrganizationName());
+            set(row, Column.SITE_NAME, card.getSiteName());
+            set(row, Column.DEPARTMENT, card.getDepartment());
+            set(row, Column.LOCATION, card.getLocation());
+            set(row, Column.EXPIRATION_DATE, card.getExpirationDate());
+            return this;
+        }
+
+        public Builder add(Models.CardSummary card) {
+            int row = nextRow();
+            ids.add(card.getId());
+            cardNumbers.add(card.getCardNumber());
+            fullNames.add(null);
+            set(row, Column.STATE, card.getState());
+            set(row, Column.CARD_TEMPLATE_ID, card.getCardTemplateId());
+            set(row, Column.SITE_CODE, card.getSiteCode());
+            set(row, Column.EXPIRATION_DATE, card.getExpirationDate());
+            return this;
+        }
+
+        public CardTable build() {
+            if (built) throw new IllegalStateException("CardTable already built");
+            built = true;
+            return new CardTable(this);
+        }
+
+        private int nextRow() {
+            if (built) throw new IllegalStateException("CardTable already built");
+            if (size == codes[0].length) {
+                for (int c = 0; c < COLUMNS.length; c++) {
+                    codes[c] = Arrays.copyOf(codes[c], size * 2);
+                }
+            }
+            return size++;
+        }
+
+        private void set(int row, Column column, String value) {
+            codes[column.ordinal()][row] = dictionaries[column.ordinal()].encode(value);
+        }
+    }
+}
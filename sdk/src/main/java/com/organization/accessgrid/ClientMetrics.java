@@ -0,0 +1,52 @@
+package com.organization.accessgrid;
+
+/**
+ * Metrics SPI for {@link AccessGridClient}. Implement it to feed a metrics
+ * registry, or use {@link InMemoryClientMetrics}.
+ *
+ * <p>Callbacks run on the calling thread, inline with the request, and must
+ * not block. Every {@link #requestStarted} is followed by exactly one
+ * {@link #requestCompleted} for the same operation. When the client uses
+ * {@link #NOOP} (the default) no timestamps are taken and no callbacks run.
+ */
+public interface ClientMetrics {
+    /**
+     * Metrics disabled.
+     */
+    ClientMetrics NOOP = new ClientMetrics() {
+    };
+
+    /**
+     * A call has started; use for in-flight gauges.
+     */
+    default void requestStarted(ApiOperation operation) {
+    }
+
+    /**
+     * One phase of a call finished. Phases that did not run are not reported.
+     */
+    default void phaseCompleted(ApiOperation operation, RequestPhase phase, long nanos) {
+    }
+
+    /**
+     * A call finished, successfully or not.
+     *
+     * @param statusCode HTTP status, or 0 if no response was received
+     * @param bytesOut   Request body size
+     * @param bytesIn    Response body size in bytes: Content-Length when the
+     *                   response has one, otherwise the UTF-8 length of the body
+     * @param nanos      Total call duration
+     * @param failure    The exception thrown to the caller, or null on success
+     */
+    default void requestCompleted(ApiOperation operation, int statusCode, long bytesOut, long bytesIn,
+                                  long nanos, Throwable failure) {
+    }
+
+    /**
+     * The dispatcher's {@link AdaptiveLimiter} moved the bulk concurrency
+     * limit; use for a limit gauge. Reported by the call whose outcome
+     * moved it.
+     */
+    default void concurrencyLimitChanged(int limit) {
+    }
+}
@@ -0,0 +1,51 @@
+package com.organization.accessgrid;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+/**
+ * HttpSender backed by a JDK HttpClient, used when no sender is supplied.
+ * Unlike an arbitrary sender it can skip reading response bodies the
+ * caller has no use for, and report when response headers arrive.
+ */
+final class DefaultHttpSender implements HttpSender {
+    /**
+     * Drops successful bodies unread; error bodies are still read so they
+     * can be reported.
+     */
+    private static final HttpResponse.BodyHandler<String> DISCARD_ON_SUCCESS = info ->
+        info.statusCode() >= 200 && info.statusCode() < 300
+            ? HttpResponse.BodySubscribers.replacing(null)
+            : HttpResponse.BodyHandlers.ofString().apply(info);
+
+    private final HttpClient httpClient;
+
+    DefaultHttpSender(HttpClient httpClient) {
+        this.httpClient = httpClient;
+    }
+
+    @Override
+    public HttpResponse<String> send(HttpRequest request) throws IOException, InterruptedException {
+        return send(request, false, null);
+    }
+
+    /**
+     * Send a request, optionally discarding a successful body (the returned
+     * response then has a {@code null} body on 2xx), and stamp the arrival
+     * of the response headers on the trace if there is one.
+     */
+    HttpResponse<String> send(HttpRequest request, boolean discardBody, CallTrace trace)
+            throws IOException, InterruptedException {
+        HttpResponse.BodyHandler<String> handler = discardBody ? DISCARD_ON_SUCCESS : HttpResponse.BodyHandlers.ofString();
+        if (trace != null) {
+            HttpResponse.BodyHandler<String> body = handler;
+            handler = info -> {
+                trace.firstByte();
+                return body.apply(info);
+            };
+        }
+        return httpClient.send(request, handler);
+    }
+}
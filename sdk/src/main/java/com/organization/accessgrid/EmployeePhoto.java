@@ -0,0 +1,321 @@
+package com.organization.accessgrid;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Iterator;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+/**
+ * Employee photo for {@code ProvisionCardRequest.photo} and
+ * {@code UpdateCardRequest.photo}. The image is base64-encoded
+ * straight into the request body as it is serialized, so no encoded String
+ * copy is ever built. Photos read from a {@link Path} or an
+ * {@link InputStream} are copied into the body without first being read
+ * into a byte array, unless they have to be resized. The body itself,
+ * base64 photo included, is still buffered on the heap while the request
+ * is sent, so size large photos down with {@link #withMaxBytes}.
+ *
+ * <p>Instances are immutable; {@link #withMaxDimension} and
+ * {@link #withMaxBytes} return resized variants, which are re-encoded as
+ * JPEG. With a {@link PhotoCache} on the client, resize results are reused
+ * by content hash and unchanged photos are not re-sent on update.
+ */
+@JsonSerialize(using = EmployeePhoto.Serializer.class)
+public final class EmployeePhoto {
+    private static final float[] JPEG_QUALITY_STEPS = {0.9f, 0.8f, 0.7f, 0.6f, 0.5f, 0.4f};
+
+    private final Path path;
+    private final byte[] bytes;
+    private final OneShot stream;
+    private final int maxDimension;
+    private final long maxBytes;
+    private volatile String contentHash;
+
+    private EmployeePhoto(Path path, byte[] bytes, OneShot stream, int maxDimension, long maxBytes) {
+        this.path = path;
+        this.bytes = bytes;
+        this.stream = stream;
+        this.maxDimension = maxDimension;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Photo read from a file each time a request carrying it is serialized.
+     * The photo follows the file: its {@link #contentHash} is recomputed
+     * from the current contents on every call.
+     */
+    public static EmployeePhoto fromPath(Path path) {
+        if (path == null) throw new IllegalArgumentException("path is required");
+        return new EmployeePhoto(path, null, null, 0, 0);
+    }
+
+    /**
+     * Photo held as raw (not base64) image bytes.
+     */
+    public static EmployeePhoto fromBytes(byte[] bytes) {
+        if (bytes == null) throw new IllegalArgumentException("bytes are required");
+        return new EmployeePhoto(null, bytes, null, 0, 0);
+    }
+
+    /**
+     * Photo read from a stream when the request is serialized, and closed
+     * afterwards. The stream can be sent once. Its {@link #contentHash} is
+     * computed as it is read, so it is only known after sending; a
+     * {@link PhotoCache} therefore cannot leave it out of an update.
+     * With resize settings the stream is read into memory first, as the
+     * image has to be decoded whole anyway.
+     */
+    public static EmployeePhoto fromStream(InputStream in) {
+        if (in == null) throw new IllegalArgumentException("in is required");
+        return new EmployeePhoto(null, null, new OneShot(in), 0, 0);
+    }
+
+    /**
+     * Downscale so neither side exceeds the given number of pixels.
+     * Smaller images are sent unchanged.
+     */
+    public EmployeePhoto withMaxDimension(int pixels) {
+        if (pixels <= 0) throw new IllegalArgumentException("pixels must be positive");
+        return new EmployeePhoto(path, bytes, stream, pixels, maxBytes);
+    }
+
+    /**
+     * Re-encode as JPEG at decreasing quality until the image fits in the
+     * given size. Images already small enough are sent unchanged.
+     * Serializing the request fails if the image does not fit even at the
+     * lowest quality; combine with {@link #withMaxDimension} for large
+     * images.
+     */
+    public EmployeePhoto withMaxBytes(long maxBytes) {
+        if (maxBytes <= 0) throw new IllegalArgumentException("maxBytes must be positive");
+        return new EmployeePhoto(path, bytes, stream, maxDimension, maxBytes);
+    }
+
+    /**
+     * SHA-256 over the source bytes and the resize settings, hex-encoded.
+     * Computed by streaming the source: once for bytes, on every call for a
+     * file, which may have changed. Photos from a stream get it as they are
+     * sent.
+     *
+     * @throws IllegalStateException for a stream photo not sent yet
+     */
+    public String contentHash() {
+        String hash = contentHash;
+        if (hash == null) {
+            if (stream != null) throw new IllegalStateException("A stream photo is hashed as it is sent");
+            try {
+                MessageDigest digest = sha256();
+                try (InputStream in = new DigestInputStream(openSource(), digest)) {
+                    in.transferTo(OutputStream.nullOutputStream());
+                }
+                hash = finish(digest);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to read employee photo", e);
+            }
+        }
+        return hash;
+    }
+
+    /**
+     * Whether {@link #contentHash} can be had without consuming the photo.
+     */
+    boolean hashKnown() {
+        return stream == null || contentHash != null;
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private String finish(MessageDigest digest) {
+        digest.update((maxDimension + ":" + maxBytes).getBytes(StandardCharsets.US_ASCII));
+        String hash = toHex(digest.digest());
+        // A file can change between sends, so only fixed sources keep their hash
+        if (path == null) contentHash = hash;
+        return hash;
+    }
+
+    void writeTo(JsonGenerator gen, PhotoCache cache) throws IOException {
+        if (stream != null) {
+            writeStream(gen, cache);
+            return;
+        }
+        if (maxDimension == 0 && maxBytes == 0) {
+            writeSource(gen);
+            return;
+        }
+        String hash = cache != null ? contentHash() : null;
+        byte[] resized = hash != null ? cache.resized(hash) : null;
+        if (resized == null) {
+            resized = resize();
+            if (hash != null) cache.putResized(hash, resized);
+        }
+        if (resized.length == 0) {
+            writeSource(gen);
+        } else {
+            gen.writeBinary(resized);
+        }
+    }
+
+    private void writeStream(JsonGenerator gen, PhotoCache cache) throws IOException {
+        try (InputStream source = stream.take()) {
+            if (maxDimension == 0 && maxBytes == 0) {
+                MessageDigest digest = sha256();
+                gen.writeBinary(new DigestInputStream(source, digest), -1);
+                finish(digest);
+                return;
+            }
+            EmployeePhoto buffered = new EmployeePhoto(null, source.readAllBytes(), null, maxDimension, maxBytes);
+            buffered.writeTo(gen, cache);
+            contentHash = buffered.contentHash();
+        }
+    }
+
+    private void writeSource(JsonGenerator gen) throws IOException {
+        if (bytes != null) {
+            gen.writeBinary(bytes);
+        } else {
+            try (InputStream in = Files.newInputStream(path)) {
+                gen.writeBinary(in, (int) Files.size(path));
+            }
+        }
+    }
+
+    private InputStream openSource() throws IOException {
+        return bytes != null ? new ByteArrayInputStream(bytes) : Files.newInputStream(path);
+    }
+
+    private long sourceSize() throws IOException {
+        return bytes != null ? bytes.length : Files.size(path);
+    }
+
+    /**
+     * @return The re-encoded image, or an empty array if the source already
+     *         satisfies the limits and should be sent as is
+     */
+    private byte[] resize() throws IOException {
+        long size = sourceSize();
+        if (maxDimension == 0 && size <= maxBytes) {
+            return new byte[0];
+        }
+        BufferedImage image;
+        try (InputStream in = openSource()) {
+            image = ImageIO.read(in);
+        }
+        if (image == null) {
+            throw new IOException("Unsupported employee photo format");
+        }
+        int width = image.getWidth();
+        int height = image.getHeight();
+        double scale = maxDimension > 0 ? Math.min(1.0, (double) maxDimension / Math.max(width, height)) : 1.0;
+        if (scale == 1.0 && (maxBytes == 0 || size <= maxBytes)) {
+            return new byte[0];
+        }
+
+        int targetWidth = Math.max(1, (int) Math.round(width * scale));
+        int targetHeight = Math.max(1, (int) Math.round(height * scale));
+        BufferedImage target = new BufferedImage(targetWidth, targetHeight, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = target.createGraphics();
+        try {
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, targetWidth, targetHeight);
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.drawImage(image, 0, 0, targetWidth, targetHeight, null);
+        } finally {
+            g.dispose();
+        }
+
+        for (float quality : JPEG_QUALITY_STEPS) {
+            byte[] jpeg = writeJpeg(target, quality);
+            if (maxBytes == 0 || jpeg.length <= maxBytes) return jpeg;
+        }
+        throw new IOException("Employee photo does not fit in " + maxBytes
+            + " bytes even at the lowest JPEG quality");
+    }
+
+    private static byte[] writeJpeg(BufferedImage image, float quality) throws IOException {
+        Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName("jpeg");
+        if (!writers.hasNext()) throw new IOException("No JPEG encoder available");
+        ImageWriter writer = writers.next();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ImageOutputStream stream = ImageIO.createImageOutputStream(out)) {
+            writer.setOutput(stream);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(quality);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteArray();
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            hex.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+        }
+        return hex.toString();
+    }
+
+    /**
+     * A stream that may be read once, shared by a photo's resized variants.
+     */
+    private static final class OneShot {
+        private InputStream in;
+
+        OneShot(InputStream in) {
+            this.in = in;
+        }
+
+        synchronized InputStream take() throws IOException {
+            if (in == null) throw new IOException("Employee photo stream was already sent");
+            InputStream taken = in;
+            in = null;
+            return taken;
+        }
+    }
+
+    /**
+     * Writes the photo as a base64 JSON string, streaming from the source.
+     */
+    static final class Serializer extends StdSerializer<EmployeePhoto> {
+        Serializer() {
+            super(EmployeePhoto.class);
+        }
+
+        @Override
+        public void serialize(EmployeePhoto photo, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            photo.writeTo(gen, (PhotoCache) provider.getAttribute(PhotoCache.class));
+        }
+    }
+}
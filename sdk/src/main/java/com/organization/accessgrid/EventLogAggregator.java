@@ -0,0 +1,533 @@
+package com.organization.accessgrid;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * Incremental, fixed-memory counters over event-log entries, for
+ * dashboards fed from {@link AccessGridClient.ConsoleApi#eventLog}.
+ *
+ * <p>Events are counted per (template, event type, device) in tumbling
+ * windows of {@link Builder#windowSize} (one hour by default). The last
+ * {@link Builder#windows} windows are kept in a ring buffer; sliding
+ * totals sum consecutive windows. Each window also keeps HyperLogLog
+ * sketches of distinct {@code user_id} and {@code ip_address} per
+ * template. Memory is bounded up front: key combinations beyond
+ * {@link Builder#maxKeys} and templates beyond
+ * {@link Builder#maxTemplates} are counted under null ("other"). When
+ * either limit is reached, keys and templates with no counts left in any
+ * retained window are recycled, so a long-running aggregator follows the
+ * templates and devices currently seen rather than filling up with old
+ * ones.
+ *
+ * <p>Thread-safe; queries return immutable snapshots and may run at any
+ * time alongside {@link #add}.
+ */
+public final class EventLogAggregator {
+    private static final int OVERFLOW = 0;
+
+    private final long windowMillis;
+    private final int windows;
+    private final int maxKeys;
+    private final int maxTemplates;
+    private final int precision;
+    private final Function<Models.Event, String> deviceOf;
+    private final Clock clock;
+
+    private final long[] slotWindow;
+    private final long[][] counts;
+    private final HyperLogLog[][] users;
+    private final HyperLogLog[][] ipAddresses;
+
+    private final StringDictionary templates = new StringDictionary();
+    private final StringDictionary types = new StringDictionary();
+    private final StringDictionary devices = new StringDictionary();
+    private final Map<Long, Integer> keyIndex = new HashMap<>();
+    private final int[] keyTemplate;
+    private final int[] keyType;
+    private final int[] keyDevice;
+    private final int[] freeKeys;
+    private int freeKeyCount;
+    private int keyCount = 1;
+    private long sweptWindow = Long.MIN_VALUE;
+    private long newestWindow = Long.MIN_VALUE;
+    private long lateEvents;
+
+    private EventLogAggregator(Builder builder) {
+        this.windowMillis = builder.windowSize.toMillis();
+        this.windows = builder.windows;
+        this.maxKeys = builder.maxKeys;
+        this.maxTemplates = builder.maxTemplates;
+        this.precision = builder.precision;
+        this.deviceOf = builder.deviceOf;
+        this.clock = builder.clock;
+        this.slotWindow = new long[windows];
+        Arrays.fill(slotWindow, Long.MIN_VALUE);
+        this.counts = new long[windows][maxKeys + 1];
+        this.users = new HyperLogLog[windows][maxTemplates + 1];
+        this.ipAddresses = new HyperLogLog[windows][maxTemplates + 1];
+        this.keyTemplate = new int[maxKeys + 1];
+        this.keyType = new int[maxKeys + 1];
+        this.keyDevice = new int[maxKeys + 1];
+        this.freeKeys = new int[maxKeys + 1];
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Count one event of a template. Events without a timestamp count at
+     * arrival time; events older than the retained windows are dropped and
+     * reported by {@link #lateEvents()}.
+     */
+    public synchronized void add(String templateId, Models.Event event) {
+        long millis = event.getTimestamp() != null
+            ? event.getTimestamp().toInstant().toEpochMilli()
+            : clock.millis();
+        long window = Math.floorDiv(millis, windowMillis);
+        if (window > newestWindow) {
+            long from = newestWindow == Long.MIN_VALUE ? window : Math.max(newestWindow + 1, window - windows + 1);
+            for (long w = from; w <= window; w++) {
+                reset(slot(w), w);
+            }
+            newestWindow = window;
+        } else if (window <= newestWindow - windows) {
+            lateEvents++;
+            return;
+        }
+
+        int slot = slot(window);
+        int template = templateCode(templateId);
+        counts[slot][key(template, event.getType(), deviceOf.apply(event))]++;
+        sketch(users, slot, template).add(event.getUserId());
+        sketch(ipAddresses, slot, template).add(event.getIpAddress());
+    }
+
+    public void addAll(String templateId, Iterable<Models.Event> events) {
+        for (Models.Event event : events) add(templateId, event);
+    }
+
+    /**
+     * The tumbling window containing the given instant; empty if it is not
+     * retained.
+     */
+    public synchronized Window window(Instant at) {
+        long window = Math.floorDiv(at.toEpochMilli(), windowMillis);
+        return snapshot(window, window);
+    }
+
+    /**
+     * Totals over the consecutive windows that cover {@code span} and end
+     * with the window containing {@code end}.
+     */
+    public synchronized Window sliding(Instant end, Duration span) {
+        long last = Math.floorDiv(end.toEpochMilli(), windowMillis);
+        long n = Math.max(1, (span.toMillis() + windowMillis - 1) / windowMillis);
+        return snapshot(last - n + 1, last);
+    }
+
+    /**
+     * The newest window that has received an event.
+     */
+    public synchronized Window latest() {
+        return newestWindow == Long.MIN_VALUE ? snapshot(0, -1) : snapshot(newestWindow, newestWindow);
+    }
+
+    /**
+     * Events dropped because they were older than every retained window.
+     */
+    public synchronized long lateEvents() {
+        return lateEvents;
+    }
+
+    private int slot(long window) {
+        return (int) Math.floorMod(window, (long) windows);
+    }
+
+    private void reset(int slot, long window) {
+        slotWindow[slot] = window;
+        Arrays.fill(counts[slot], 0);
+        for (HyperLogLog sketch : users[slot]) if (sketch != null) sketch.clear();
+        for (HyperLogLog sketch : ipAddresses[slot]) if (sketch != null) sketch.clear();
+    }
+
+    private HyperLogLog sketch(HyperLogLog[][] sketches, int slot, int template) {
+        HyperLogLog sketch = sketches[slot][template];
+        if (sketch == null) {
+            sketch = new HyperLogLog(precision);
+            sketches[slot][template] = sketch;
+        }
+        return sketch;
+    }
+
+    private int templateCode(String templateId) {
+        int code = templates.find(templateId);
+        if (code < 0) {
+            if (templates.inUse() > maxTemplates) sweep(OVERFLOW);
+            if (templates.inUse() > maxTemplates) return OVERFLOW;
+            code = templates.encode(templateId);
+        }
+        return code;
+    }
+
+    private int key(int template, String type, String device) {
+        int typeCode = types.find(type);
+        int deviceCode = devices.find(device);
+        if (typeCode >= 0 && deviceCode >= 0) {
+            Integer key = keyIndex.get(composite(template, typeCode, deviceCode));
+            if (key != null) return key;
+        }
+        if (freeKeyCount == 0 && keyCount > maxKeys) sweep(template);
+        int key;
+        if (freeKeyCount > 0) {
+            key = freeKeys[--freeKeyCount];
+        } else if (keyCount <= maxKeys) {
+            key = keyCount++;
+        } else {
+            return OVERFLOW;
+        }
+        // Codes are only added once a key slot is free, so the dictionaries stay bounded too
+        typeCode = types.encode(type);
+        deviceCode = devices.encode(device);
+        keyTemplate[key] = template;
+        keyType[key] = typeCode;
+        keyDevice[key] = deviceCode;
+        keyIndex.put(composite(template, typeCode, deviceCode), key);
+        return key;
+    }
+
+    /**
+     * Recycle keys counted in no retained window, then the template, type
+     * and device codes no remaining key or sketch uses. Counts only drop to
+     * zero when a new window starts, so this runs at most once per window.
+     *
+     * @param keep Template code about to be used, kept even if idle
+     */
+    private void sweep(int keep) {
+        if (sweptWindow == newestWindow) return;
+        sweptWindow = newestWindow;
+        boolean[] liveTemplates = new boolean[templates.size()];
+        boolean[] liveTypes = new boolean[types.size()];
+        boolean[] liveDevices = new boolean[devices.size()];
+        for (int key = 1; key < keyCount; key++) {
+            if (keyTemplate[key] < 0) continue;
+            if (counted(key)) {
+                liveTemplates[keyTemplate[key]] = true;
+                liveTypes[keyType[key]] = true;
+                liveDevices[keyDevice[key]] = true;
+            } else {
+                keyIndex.remove(composite(keyTemplate[key], keyType[key], keyDevice[key]));
+                keyTemplate[key] = -1;
+                freeKeys[freeKeyCount++] = key;
+            }
+        }
+        for (int code = 1; code < liveTypes.length; code++) {
+            if (!liveTypes[code]) types.release(code);
+        }
+        for (int code = 1; code < liveDevices.length; code++) {
+            if (!liveDevices[code]) devices.release(code);
+        }
+        for (int code = 1; code < liveTemplates.length; code++) {
+            if (liveTemplates[code] || code == keep || sketched(users, code) || sketched(ipAddresses, code)) continue;
+            templates.release(code);
+            for (int slot = 0; slot < windows; slot++) {
+                users[slot][code] = null;
+                ipAddresses[slot][code] = null;
+            }
+        }
+    }
+
+    private boolean counted(int key) {
+        for (long[] slot : counts) {
+            if (slot[key] != 0) return true;
+        }
+        return false;
+    }
+
+    private static boolean sketched(HyperLogLog[][] sketches, int template) {
+        for (HyperLogLog[] slot : sketches) {
+            if (slot[template] != null && !slot[template].isEmpty()) return true;
+        }
+        return false;
+    }
+
+    private static long composite(int template, int type, int device) {
+        return ((long) template << 42) | ((long) type << 21) | device;
+    }
+
+    private Window snapshot(long first, long last) {
+        long[] totals = new long[maxKeys + 1];
+        Map<String, HyperLogLog> userSketches = new HashMap<>();
+        Map<String, HyperLogLog> ipSketches = new HashMap<>();
+        HyperLogLog allUsers = new HyperLogLog(precision);
+        HyperLogLog allIpAddresses = new HyperLogLog(precision);
+        for (long w = Math.max(first, last - windows + 1); w <= last; w++) {
+            int slot = slot(w);
+            if (slotWindow[slot] != w) continue;
+            for (int key = 0; key < keyCount; key++) totals[key] += counts[slot][key];
+            mergeSketches(users[slot], userSketches, allUsers);
+            mergeSketches(ipAddresses[slot], ipSketches, allIpAddresses);
+        }
+        List<Count> result = new ArrayList<>();
+        if (totals[OVERFLOW] > 0) result.add(new Count(null, null, null, totals[OVERFLOW]));
+        for (int key = 1; key < keyCount; key++) {
+            if (totals[key] > 0) {
+                result.add(new Count(templates.decode(keyTemplate[key]), types.decode(keyType[key]),
+                    devices.decode(keyDevice[key]), totals[key]));
+            }
+        }
+        Instant start = Instant.ofEpochMilli(first * windowMillis);
+        Instant end = Instant.ofEpochMilli((last + 1) * windowMillis);
+        return new Window(start, end, result,
+            estimates(userSketches), allUsers.estimate(), estimates(ipSketches), allIpAddresses.estimate());
+    }
+
+    private void mergeSketches(HyperLogLog[] sketches, Map<String, HyperLogLog> into, HyperLogLog all) {
+        for (int template = 1; template < sketches.length; template++) {
+            HyperLogLog sketch = sketches[template];
+            if (sketch == null) continue;
+            HyperLogLog merged = into.get(templates.decode(template));
+            if (merged == null) {
+                into.put(templates.decode(template), sketch.copy());
+            } else {
+                merged.merge(sketch);
+            }
+            all.merge(sketch);
+        }
+        if (sketches[OVERFLOW] != null) all.merge(sketches[OVERFLOW]);
+    }
+
+    private static Map<String, Long> estimates(Map<String, HyperLogLog> sketches) {
+        Map<String, Long> estimates = new HashMap<>();
+        sketches.forEach((template, sketch) -> estimates.put(template, sketch.estimate()));
+        return estimates;
+    }
+
+    /**
+     * Counts for one (template, event type, device) combination. All three
+     * are null for the overflow bucket.
+     */
+    public static final class Count {
+        private final String templateId;
+        private final String type;
+        private final String device;
+        private final long count;
+
+        Count(String templateId, String type, String device, long count) {
+            this.templateId = templateId;
+            this.type = type;
+            this.device = device;
+            this.count = count;
+        }
+
+        public String getTemplateId() {
+            return templateId;
+        }
+
+        public String getType() {
+            return type;
+        }
+
+        public String getDevice() {
+            return device;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        @Override
+        public String toString() {
+            return "Count(templateId=" + templateId + ", type=" + type + ", device=" + device + ", count=" + count + ")";
+        }
+    }
+
+    /**
+     * Immutable snapshot of one or more consecutive windows.
+     */
+    public static final class Window {
+        private final Instant start;
+        private final Instant end;
+        private final List<Count> counts;
+        private final Map<String, Long> distinctUsers;
+        private final long allDistinctUsers;
+        private final Map<String, Long> distinctIpAddresses;
+        private final long allDistinctIpAddresses;
+
+        Window(Instant start, Instant end, List<Count> counts,
+               Map<String, Long> distinctUsers, long allDistinctUsers,
+               Map<String, Long> distinctIpAddresses, long allDistinctIpAddresses) {
+            this.start = start;
+            this.end = end;
+            this.counts = Collections.unmodifiableList(counts);
+            this.distinctUsers = distinctUsers;
+            this.allDistinctUsers = allDistinctUsers;
+            this.distinctIpAddresses = distinctIpAddresses;
+            this.allDistinctIpAddresses = allDistinctIpAddresses;
+        }
+
+        /**
+         * Inclusive start.
+         */
+        public Instant getStart() {
+            return start;
+        }
+
+        /**
+         * Exclusive end.
+         */
+        public Instant getEnd() {
+            return end;
+        }
+
+        public List<Count> getCounts() {
+            return counts;
+        }
+
+        /**
+         * Events matching the given values; a null argument matches any.
+         */
+        public long count(String templateId, String type, String device) {
+            long total = 0;
+            for (Count count : counts) {
+                if ((templateId == null || templateId.equals(count.templateId))
+                    && (type == null || type.equals(count.type))
+                    && (device == null || device.equals(count.device))) {
+                    total += count.count;
+                }
+            }
+            return total;
+        }
+
+        /**
+         * Counts per event type, optionally for one template (null for all).
+         */
+        public Map<String, Long> countByType(String templateId) {
+            Map<String, Long> byType = new LinkedHashMap<>();
+            for (Count count : counts) {
+                if (templateId == null || templateId.equals(count.templateId)) {
+                    byType.merge(count.type, count.count, Long::sum);
+                }
+            }
+            return byType;
+        }
+
+        /**
+         * Approximate distinct user ids for a template, or across all
+         * templates (including overflow) when null.
+         */
+        public long distinctUsers(String templateId) {
+            return templateId == null ? allDistinctUsers : distinctUsers.getOrDefault(templateId, 0L);
+        }
+
+        /**
+         * Approximate distinct IP addresses for a template, or across all
+         * templates when null.
+         */
+        public long distinctIpAddresses(String templateId) {
+            return templateId == null ? allDistinctIpAddresses : distinctIpAddresses.getOrDefault(templateId, 0L);
+        }
+    }
+
+    /**
+     * Sizing for an {@link EventLogAggregator}.
+     */
+    public static final class Builder {
+        private Duration windowSize = Duration.ofHours(1);
+        private int windows = 24;
+        private int maxKeys = 4096;
+        private int maxTemplates = 64;
+        private int precision = 10;
+        private Function<Models.Event, String> deviceOf = Builder::metadataDevice;
+        private Clock clock = Clock.systemUTC();
+
+        private Builder() {
+        }
+
+        /**
+         * Length of each tumbling window (default one hour).
+         */
+        public Builder windowSize(Duration windowSize) {
+            if (windowSize.toMillis() <= 0) throw new IllegalArgumentException("windowSize must be positive");
+            this.windowSize = windowSize;
+            return this;
+        }
+
+        /**
+         * Windows retained, i.e. the longest sliding span (default 24).
+         */
+        public Builder windows(int windows) {
+            if (windows <= 0) throw new IllegalArgumentException("windows must be positive");
+            this.windows = windows;
+            return this;
+        }
+
+        /**
+         * Distinct (template, type, device) combinations tracked (default 4096).
+         */
+        public Builder maxKeys(int maxKeys) {
+            if (maxKeys <= 0 || maxKeys >= 1 << 21) throw new IllegalArgumentException("maxKeys out of range");
+            this.maxKeys = maxKeys;
+            return this;
+        }
+
+        /**
+         * Templates with their own distinct-count sketches (default 64).
+         */
+        public Builder maxTemplates(int maxTemplates) {
+            if (maxTemplates <= 0 || maxTemplates >= 1 << 21) throw new IllegalArgumentException("maxTemplates out of range");
+            this.maxTemplates = maxTemplates;
+            return this;
+        }
+
+        /**
+         * HyperLogLog precision, 4 to 16 (default 10: 1 KB per sketch, ~3% error).
+         */
+        public Builder precision(int precision) {
+            if (precision < 4 || precision > 16) throw new IllegalArgumentException("precision must be between 4 and 16");
+            this.precision = precision;
+            return this;
+        }
+
+        /**
+         * How to find an event's device. Defaults to the {@code device} key of
+         * the event's metadata.
+         */
+        public Builder deviceOf(Function<Models.Event, String> deviceOf) {
+            this.deviceOf = Objects.requireNonNull(deviceOf);
+            return this;
+        }
+
+        /**
+         * Clock for events without a timestamp.
+         */
+        public Builder clock(Clock clock) {
+            this.clock = Objects.requireNonNull(clock);
+            return this;
+        }
+
+        public EventLogAggregator build() {
+            return new EventLogAggregator(this);
+        }
+
+        private static String metadataDevice(Models.Event event) {
+            Object metadata = event.getMetadata();
+            if (metadata instanceof Map) {
+                Object device = ((Map<?, ?>) metadata).get("device");
+                return device != null ? device.toString() : null;
+            }
+            return null;
+        }
+    }
+}
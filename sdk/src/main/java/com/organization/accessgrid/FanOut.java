@@ -0,0 +1,63 @@
+package com.organization.accessgrid;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Runs one task on several threads at once for calls that fan out over
+ * many requests. Workers inherit the caller's {@link PriorityDispatcher}
+ * scope, and run as bulk when the caller has none, so fan-outs are held
+ * to the dispatcher's bulk limit rather than crowding out interactive
+ * calls. The executor is shared and owned by the caller; workers left
+ * running when the caller fails or is interrupted are cancelled.
+ */
+final class FanOut {
+    private FanOut() {
+    }
+
+    /**
+     * Run {@code task} on {@code workers} threads, the calling thread
+     * being one of them, and wait for all to finish. The first exception
+     * a worker throws is rethrown once they have. Workers are interrupted
+     * if the caller is, and {@code task} should stop when it sees that.
+     */
+    static void run(ExecutorService executor, int workers, Runnable task) {
+        PriorityDispatcher.Priority current = PriorityDispatcher.currentScope();
+        PriorityDispatcher.Priority priority = current != null ? current : PriorityDispatcher.Priority.BULK;
+        Runnable scoped = () -> {
+            try (PriorityDispatcher.Scope scope = PriorityDispatcher.scope(priority)) {
+                task.run();
+            }
+        };
+        if (workers <= 1) {
+            scoped.run();
+            return;
+        }
+        List<Future<?>> futures = new ArrayList<>(workers - 1);
+        try {
+            for (int i = 1; i < workers; i++) {
+                futures.add(executor.submit(scoped));
+            }
+            scoped.run();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AccessGridClient.AccessGridException("Interrupted", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            if (cause instanceof Error) throw (Error) cause;
+            throw new AccessGridClient.AccessGridException("API request failed", cause);
+        } finally {
+            // A no-op for finished workers
+            for (Future<?> future : futures) {
+                future.cancel(true);
+            }
+        }
+    }
+}
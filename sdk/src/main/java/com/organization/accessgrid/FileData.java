@@ -0,0 +1,166 @@
+package com.organization.accessgrid;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Base64;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+
+/**
+ * Handle to a card's {@code file_data} held outside the Java heap by a
+ * {@link FileDataStore}. Nothing is read until the content is asked for.
+ */
+public final class FileData {
+    private final Path path;
+    private final ByteBuffer buffer;
+    private final long size;
+    private final String contentHash;
+
+    FileData(Path path, long size, String contentHash) {
+        this.path = path;
+        this.buffer = null;
+        this.size = size;
+        this.contentHash = contentHash;
+    }
+
+    FileData(ByteBuffer buffer, String contentHash) {
+        this.path = null;
+        this.buffer = buffer.asReadOnlyBuffer();
+        this.size = buffer.remaining();
+        this.contentHash = contentHash;
+    }
+
+    /**
+     * Length of the value in bytes (UTF-8).
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * SHA-256 of the value, hex-encoded. Files in a directory store are
+     * named by it.
+     */
+    public String contentHash() {
+        return contentHash;
+    }
+
+    /**
+     * The backing file, or null for off-heap data.
+     */
+    public Path path() {
+        return path;
+    }
+
+    /**
+     * Stream the value exactly as the API returned it.
+     */
+    public InputStream open() throws IOException {
+        return path != null ? Files.newInputStream(path) : new BufferInputStream(buffer.duplicate());
+    }
+
+    /**
+     * Stream the value decoded from base64, e.g. to write out a pass file.
+     */
+    public InputStream openDecoded() throws IOException {
+        return Base64.getMimeDecoder().wrap(open());
+    }
+
+    /**
+     * Load the whole value into a String. This is the heap copy the store
+     * exists to avoid; use it sparingly.
+     */
+    public String asString() {
+        try (InputStream in = open()) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read file data", e);
+        }
+    }
+
+    /**
+     * Equal to another handle with the same content, wherever it is held.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof FileData)) return false;
+        FileData other = (FileData) o;
+        return size == other.size && contentHash.equals(other.contentHash);
+    }
+
+    @Override
+    public int hashCode() {
+        return contentHash.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "FileData(" + size + " bytes, sha256=" + contentHash + ")";
+    }
+
+    private static final class BufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        BufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xff : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (len == 0) return 0;
+            if (!buffer.hasRemaining()) return -1;
+            int n = Math.min(len, buffer.remaining());
+            buffer.get(b, off, n);
+            return n;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+
+    /**
+     * Reads {@code file_data} into the {@link FileDataStore} set as a reader
+     * attribute, or on the codecs, or as a plain String when there is none.
+     */
+    static final class Deserializer extends StdDeserializer<Object> implements JsonCodecs.ValueReader<Object> {
+        Deserializer() {
+            super(Object.class);
+        }
+
+        @Override
+        public Object deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            if (p.currentToken() != JsonToken.VALUE_STRING) {
+                return ctxt.handleUnexpectedToken(String.class, p);
+            }
+            return read(p, (FileDataStore) ctxt.getAttribute(FileDataStore.class));
+        }
+
+        @Override
+        public Object read(JsonParser parser, JsonCodecs codecs) throws IOException {
+            JsonToken token = parser.currentToken();
+            if (token == JsonToken.VALUE_NULL) return null;
+            if (token != JsonToken.VALUE_STRING) throw JsonCodecs.mismatch(parser, String.class);
+            return read(parser, codecs.fileDataStore());
+        }
+
+        private static Object read(JsonParser parser, FileDataStore store) throws IOException {
+            return store == null ? parser.getText() : store.store(parser);
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.organization.accessgrid;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+import com.fasterxml.jackson.core.JsonParser;
+
+/**
+ * Where {@link Models.Card#getFileData() file_data} goes when a client is
+ * built with {@code fileDataStore(...)}. The value is copied straight from
+ * the JSON parser into the store, and the parsed {@link Models.Card} keeps
+ * only a {@link FileData} handle instead of a String per card.
+ */
+public abstract class FileDataStore {
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    FileDataStore() {
+    }
+
+    /**
+     * Content-addressed store: each distinct value is written once to a
+     * file in {@code directory} named by its SHA-256. Files are never
+     * deleted by the client.
+     */
+    public static FileDataStore directory(Path directory) {
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to create file data directory", e);
+        }
+        return new DirectoryStore(directory);
+    }
+
+    /**
+     * Keep values in direct (off-heap) buffers, freed when the card holding
+     * the handle is garbage collected. Direct memory is capped by
+     * {@code -XX:MaxDirectMemorySize}.
+     */
+    public static FileDataStore offHeap() {
+        return new OffHeapStore();
+    }
+
+    /**
+     * Copy the current string token into the store.
+     */
+    abstract FileData store(JsonParser parser) throws IOException;
+
+    /**
+     * Write the current string token as UTF-8, hashing as it goes.
+     */
+    static MessageDigest copyText(JsonParser parser, OutputStream out) throws IOException {
+        MessageDigest digest = sha256();
+        Writer writer = new OutputStreamWriter(new DigestOutputStream(out, digest), StandardCharsets.UTF_8);
+        parser.getText(writer);
+        writer.flush();
+        return digest;
+    }
+
+    static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static String toHex(byte[] bytes) {
+        char[] hex = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            hex[i * 2] = HEX_DIGITS[(bytes[i] >> 4) & 0xf];
+            hex[i * 2 + 1] = HEX_DIGITS[bytes[i] & 0xf];
+        }
+        return new String(hex);
+    }
+
+    private static final class DirectoryStore extends FileDataStore {
+        private final Path directory;
+
+        DirectoryStore(Path directory) {
+            this.directory = directory;
+        }
+
+        @Override
+        FileData store(JsonParser parser) throws IOException {
+            Path temp = Files.createTempFile(directory, "file-data", ".tmp");
+            try {
+                MessageDigest digest;
+                try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(temp))) {
+                    digest = copyText(parser, out);
+                }
+                String hash = toHex(digest.digest());
+                Path target = directory.resolve(hash);
+                long size = Files.size(temp);
+                if (!Files.exists(target)) {
+                    try {
+                        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+                    } catch (FileAlreadyExistsException e) {
+                        // Another thread stored the same content first.
+                    }
+                }
+                return new FileData(target, size, hash);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        }
+    }
+
+    private static final class OffHeapStore extends FileDataStore {
+        @Override
+        FileData store(JsonParser parser) throws IOException {
+            DirectBufferOutputStream out = new DirectBufferOutputStream();
+            MessageDigest digest = copyText(parser, out);
+            // Trim the doubling slack so each card holds only its own bytes.
+            ByteBuffer exact = ByteBuffer.allocateDirect(out.buffer.position());
+            exact.put(out.buffer.flip()).flip();
+            return new FileData(exact, toHex(digest.digest()));
+        }
+    }
+
+    /**
+     * Grows a direct buffer by doubling; the data never passes through a
+     * heap array.
+     */
+    private static final class DirectBufferOutputStream extends OutputStream {
+        private ByteBuffer buffer = ByteBuffer.allocateDirect(8192);
+
+        @Override
+        public void write(int b) {
+            ensureCapacity(1);
+            buffer.put((byte) b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            ensureCapacity(len);
+            buffer.put(b, off, len);
+        }
+
+        private void ensureCapacity(int extra) {
+            if (buffer.remaining() < extra) {
+                int capacity = Math.max(buffer.capacity() * 2, buffer.position() + extra);
+                ByteBuffer grown = ByteBuffer.allocateDirect(capacity);
+                grown.put(buffer.flip());
+                buffer = grown;
+            }
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.organization.accessgrid;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Generate streaming JSON codecs for the nested classes of the annotated
+ * class at compile time; see {@link JsonCodec}. The processor is the
+ * {@code codegen} module and only runs during the SDK's own build.
+ */
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.TYPE)
+@interface GenerateCodecs {
+}
@@ -0,0 +1,127 @@
+package com.organization.accessgrid;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Flow;
+
+import javax.net.ssl.SSLSession;
+
+/**
+ * Helpers for {@link HttpSender}s that answer requests themselves instead
+ * of going to the network.
+ */
+final class HttpMessages {
+    private HttpMessages() {
+    }
+
+    static HttpHeaders headers(Map<String, List<String>> values) {
+        return HttpHeaders.of(values, (name, value) -> true);
+    }
+
+    /**
+     * The bytes a request's body publisher produces; empty without a body.
+     */
+    static byte[] body(HttpRequest request) throws IOException, InterruptedException {
+        HttpRequest.BodyPublisher publisher = request.bodyPublisher().orElse(null);
+        if (publisher == null || publisher.contentLength() == 0) return new byte[0];
+        ByteArrayOutputStream out = new ByteArrayOutputStream((int) Math.max(0, publisher.contentLength()));
+        CompletableFuture<byte[]> done = new CompletableFuture<>();
+        publisher.subscribe(new Flow.Subscriber<ByteBuffer>() {
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                subscription.request(Long.MAX_VALUE);
+            }
+
+            @Override
+            public void onNext(ByteBuffer item) {
+                byte[] chunk = new byte[item.remaining()];
+                item.get(chunk);
+                out.write(chunk, 0, chunk.length);
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                done.completeExceptionally(throwable);
+            }
+
+            @Override
+            public void onComplete() {
+                done.complete(out.toByteArray());
+            }
+        });
+        try {
+            return done.get();
+        } catch (ExecutionException e) {
+            throw new IOException("Failed to read request body", e.getCause());
+        }
+    }
+
+    static HttpResponse<String> response(HttpRequest request, int status, HttpHeaders headers, String body) {
+        return new Response(request, status, headers, body);
+    }
+
+    private static final class Response implements HttpResponse<String> {
+        private final HttpRequest request;
+        private final int status;
+        private final HttpHeaders headers;
+        private final String body;
+
+        Response(HttpRequest request, int status, HttpHeaders headers, String body) {
+            this.request = request;
+            this.status = status;
+            this.headers = headers;
+            this.body = body;
+        }
+
+        @Override
+        public int statusCode() {
+            return status;
+        }
+
+        @Override
+        public HttpRequest request() {
+            return request;
+        }
+
+        @Override
+        public Optional<HttpResponse<String>> previousResponse() {
+            return Optional.empty();
+        }
+
+        @Override
+        public HttpHeaders headers() {
+            return headers;
+        }
+
+        @Override
+        public String body() {
+            return body;
+        }
+
+        @Override
+        public Optional<SSLSession> sslSession() {
+            return Optional.empty();
+        }
+
+        @Override
+        public URI uri() {
+            return request.uri();
+        }
+
+        @Override
+        public HttpClient.Version version() {
+            return HttpClient.Version.HTTP_1_1;
+        }
+    }
+}
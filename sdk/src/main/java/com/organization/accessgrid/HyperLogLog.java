@@ -0,0 +1,89 @@
+package com.organization.accessgrid;
+
+import java.util.Arrays;
+
+/**
+ * HyperLogLog distinct-count sketch with 2^precision one-byte registers.
+ * Standard error is about 1.04 / sqrt(2^precision): 3.25% at the default
+ * precision of 10 (1 KB). Not thread-safe.
+ */
+final class HyperLogLog {
+    private final int precision;
+    private final byte[] registers;
+
+    HyperLogLog(int precision) {
+        if (precision < 4 || precision > 16) throw new IllegalArgumentException("precision must be between 4 and 16");
+        this.precision = precision;
+        this.registers = new byte[1 << precision];
+    }
+
+    void add(String value) {
+        if (value == null) return;
+        long hash = hash(value);
+        int index = (int) (hash >>> (64 - precision));
+        // Rank of the first set bit in the remaining bits, capped by their width
+        int rank = Math.min(Long.numberOfLeadingZeros(hash << precision), 64 - precision) + 1;
+        if (rank > registers[index]) registers[index] = (byte) rank;
+    }
+
+    /**
+     * Union with another sketch of the same precision.
+     */
+    void merge(HyperLogLog other) {
+        for (int i = 0; i < registers.length; i++) {
+            if (other.registers[i] > registers[i]) registers[i] = other.registers[i];
+        }
+    }
+
+    void clear() {
+        Arrays.fill(registers, (byte) 0);
+    }
+
+    boolean isEmpty() {
+        for (byte register : registers) {
+            if (register != 0) return false;
+        }
+        return true;
+    }
+
+    long estimate() {
+        int m = registers.length;
+        double sum = 0;
+        int zeros = 0;
+        for (byte register : registers) {
+            sum += 1.0 / (1L << register);
+            if (register == 0) zeros++;
+        }
+        double alpha = m == 16 ? 0.673 : m == 32 ? 0.697 : m == 64 ? 0.709 : 0.7213 / (1 + 1.079 / m);
+        double estimate = alpha * m * m / sum;
+        if (estimate <= 2.5 * m && zeros > 0) {
+            // Small-range correction: linear counting
+            estimate = m * Math.log((double) m / zeros);
+        }
+        return Math.round(estimate);
+    }
+
+    HyperLogLog copy() {
+        HyperLogLog copy = new HyperLogLog(precision);
+        System.arraycopy(registers, 0, copy.registers, 0, registers.length);
+        return copy;
+    }
+
+    /**
+     * 64-bit FNV-1a over the UTF-16 chars, finished with the MurmurHash3
+     * mixer so every output bit depends on every input bit.
+     */
+    static long hash(String value) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            h ^= value.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
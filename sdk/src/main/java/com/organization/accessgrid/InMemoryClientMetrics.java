@@ -0,0 +1,147 @@
+package com.organization.accessgrid;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free in-process {@link ClientMetrics}. Keeps per-operation latency
+ * histograms (overall and per phase), status-code counts, error counts,
+ * byte totals, an in-flight gauge and the last bulk concurrency limit. State for an operation is allocated
+ * the first time it is called. Readers may poll concurrently with writers.
+ */
+public final class InMemoryClientMetrics implements ClientMetrics {
+    private static final int MAX_STATUS = 600;
+    private static final ApiOperation[] OPERATIONS = ApiOperation.values();
+    private static final RequestPhase[] PHASES = RequestPhase.values();
+
+    private final AtomicReferenceArray<Endpoint> endpoints = new AtomicReferenceArray<>(OPERATIONS.length);
+    private volatile int concurrencyLimit;
+
+    @Override
+    public void requestStarted(ApiOperation operation) {
+        endpoint(operation).inFlight.increment();
+    }
+
+    @Override
+    public void phaseCompleted(ApiOperation operation, RequestPhase phase, long nanos) {
+        endpoint(operation).phases[phase.ordinal()].recordNanos(nanos);
+    }
+
+    @Override
+    public void requestCompleted(ApiOperation operation, int statusCode, long bytesOut, long bytesIn,
+                                 long nanos, Throwable failure) {
+        Endpoint endpoint = endpoint(operation);
+        endpoint.inFlight.decrement();
+        endpoint.latency.recordNanos(nanos);
+        endpoint.bytesOut.add(bytesOut);
+        endpoint.bytesIn.add(bytesIn);
+        if (statusCode >= 0 && statusCode < MAX_STATUS) {
+            endpoint.statusCounts.incrementAndGet(statusCode);
+        }
+        if (failure != null) {
+            endpoint.errors.increment();
+        }
+    }
+
+    @Override
+    public void concurrencyLimitChanged(int limit) {
+        concurrencyLimit = limit;
+    }
+
+    /**
+     * The bulk concurrency limit last reported, or 0 if it has not moved.
+     */
+    public int concurrencyLimit() {
+        return concurrencyLimit;
+    }
+
+    /**
+     * Completed calls.
+     */
+    public long requestCount(ApiOperation operation) {
+        Endpoint endpoint = endpoints.get(operation.ordinal());
+        return endpoint == null ? 0 : endpoint.latency.count();
+    }
+
+    /**
+     * Calls that threw, including non-2xx responses.
+     */
+    public long errorCount(ApiOperation operation) {
+        Endpoint endpoint = endpoints.get(operation.ordinal());
+        return endpoint == null ? 0 : endpoint.errors.sum();
+    }
+
+    /**
+     * Calls started but not yet completed.
+     */
+    public long inFlight(ApiOperation operation) {
+        Endpoint endpoint = endpoints.get(operation.ordinal());
+        return endpoint == null ? 0 : endpoint.inFlight.sum();
+    }
+
+    /**
+     * Responses with the given status; 0 counts calls that got no response.
+     */
+    public long statusCount(ApiOperation operation, int statusCode) {
+        Endpoint endpoint = endpoints.get(operation.ordinal());
+        if (endpoint == null || statusCode < 0 || statusCode >= MAX_STATUS) return 0;
+        return endpoint.statusCounts.get(statusCode);
+    }
+
+    /**
+     * Total request body bytes sent.
+     */
+    public long bytesOut(ApiOperation operation) {
+        Endpoint endpoint = endpoints.get(operation.ordinal());
+        return endpoint == null ? 0 : endpoint.bytesOut.sum();
+    }
+
+    /**
+     * Total response body bytes received.
+     */
+    public long bytesIn(ApiOperation operation) {
+        Endpoint endpoint = endpoints.get(operation.ordinal());
+        return endpoint == null ? 0 : endpoint.bytesIn.sum();
+    }
+
+    /**
+     * End-to-end latency of completed calls.
+     */
+    public LatencyHistogram latency(ApiOperation operation) {
+        return endpoint(operation).latency;
+    }
+
+    /**
+     * Latency of one phase.
+     */
+    public LatencyHistogram latency(ApiOperation operation, RequestPhase phase) {
+        return endpoint(operation).phases[phase.ordinal()];
+    }
+
+    private Endpoint endpoint(ApiOperation operation) {
+        int slot = operation.ordinal();
+        Endpoint endpoint = endpoints.get(slot);
+        if (endpoint == null) {
+            endpoints.compareAndSet(slot, null, new Endpoint());
+            endpoint = endpoints.get(slot);
+        }
+        return endpoint;
+    }
+
+    private static final class Endpoint {
+        final LatencyHistogram latency = new LatencyHistogram();
+        final LatencyHistogram[] phases = new LatencyHistogram[PHASES.length];
+        final AtomicLongArray statusCounts = new AtomicLongArray(MAX_STATUS);
+        final LongAdder errors = new LongAdder();
+        final LongAdder inFlight = new LongAdder();
+        final LongAdder bytesOut = new LongAdder();
+        final LongAdder bytesIn = new LongAdder();
+
+        Endpoint() {
+            for (int i = 0; i < phases.length; i++) {
+                phases[i] = new LatencyHistogram();
+            }
+        }
+    }
+}
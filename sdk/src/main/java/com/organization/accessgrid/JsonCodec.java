@@ -0,0 +1,26 @@
+package com.organization.accessgrid;
+
+import java.io.IOException;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+
+/**
+ * Reads and writes one model type directly against the streaming API,
+ * with its field names known up front. Implementations are generated at
+ * compile time for the {@link Models} classes whose JSON shape they can
+ * reproduce exactly; see {@link JsonCodecs#codec}.
+ */
+interface JsonCodec<T> {
+    /**
+     * Write a non-null value, with the same output the ObjectMapper
+     * produces for it.
+     */
+    void write(JsonGenerator generator, T value, JsonCodecs codecs) throws IOException;
+
+    /**
+     * Read a value from the parser's current token; a JSON null reads as
+     * null.
+     */
+    T read(JsonParser parser, JsonCodecs codecs) throws IOException;
+}
@@ -0,0 +1,337 @@
+package com.organization.accessgrid;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.exc.MismatchedInputException;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+/**
+ * Shared JSON configuration for all clients. The mapper is fully configured
+ * when built and never mutated afterwards; readers and writers are
+ * resolved once per type and reused.
+ *
+ * <p>Every {@link Models} type has a {@link JsonCodec} generated at compile
+ * time, which reads and writes its properties without reflection or
+ * per-call lookups. Property values of other types, such as
+ * {@link EmployeePhoto} or untyped maps, are handed to the mapper through
+ * {@link #reader} and {@link #writer}; {@link #with} gives a client its own
+ * view whose readers and writers carry its {@link PhotoCache} and
+ * {@link FileDataStore}. The static helpers here are what generated codecs
+ * call, and coerce scalars the way the mapper's default configuration does.
+ */
+final class JsonCodecs {
+    private static final String BLACKBIRD_MODULE = "com.fasterxml.jackson.module.blackbird.BlackbirdModule";
+    private static final String GENERATED_CODECS = "com.organization.accessgrid.ModelsCodecs";
+
+    private static final Map<Class<?>, JsonCodec<?>> GENERATED = loadGenerated();
+
+    private static final JsonCodecs REFLECTIVE = new JsonCodecs(newMapper(null));
+    private static volatile JsonCodecs bytecode;
+
+    final ObjectMapper mapper;
+    private final PhotoCache photoCache;
+    private final FileDataStore fileDataStore;
+    private final ConcurrentHashMap<Class<?>, ObjectReader> readers = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Class<?>, ObjectWriter> writers = new ConcurrentHashMap<>();
+
+    private JsonCodecs(ObjectMapper mapper) {
+        this(mapper, null, null);
+        for (Class<?> type : Models.class.getDeclaredClasses()) {
+            // Introspection dominates startup; skip it where a codec makes it unnecessary
+            if (GENERATED.containsKey(type)) continue;
+            readers.put(type, mapper.readerFor(type));
+            writers.put(type, mapper.writerFor(type));
+        }
+    }
+
+    private JsonCodecs(ObjectMapper mapper, PhotoCache photoCache, FileDataStore fileDataStore) {
+        this.mapper = mapper;
+        this.photoCache = photoCache;
+        this.fileDataStore = fileDataStore;
+    }
+
+    /**
+     * Get the shared codecs.
+     *
+     * @param bytecodeAccessors Use generated accessors (jackson-module-blackbird)
+     *                          instead of reflection for property access
+     */
+    static JsonCodecs shared(boolean bytecodeAccessors) {
+        if (!bytecodeAccessors) {
+            return REFLECTIVE;
+        }
+        JsonCodecs codecs = bytecode;
+        if (codecs == null) {
+            synchronized (JsonCodecs.class) {
+                codecs = bytecode;
+                if (codecs == null) {
+                    codecs = new JsonCodecs(newMapper(loadBlackbird()));
+                    bytecode = codecs;
+                }
+            }
+        }
+        return codecs;
+    }
+
+    /**
+     * A view of these codecs for one client, sharing the mapper. Its
+     * readers and writers carry the given stores as attributes, and
+     * generated codecs find them through it.
+     */
+    JsonCodecs with(PhotoCache photoCache, FileDataStore fileDataStore) {
+        if (photoCache == null && fileDataStore == null) return this;
+        return new JsonCodecs(mapper, photoCache, fileDataStore);
+    }
+
+    PhotoCache photoCache() {
+        return photoCache;
+    }
+
+    FileDataStore fileDataStore() {
+        return fileDataStore;
+    }
+
+    ObjectReader reader(Class<?> type) {
+        ObjectReader reader = readers.get(type);
+        return reader != null ? reader : readers.computeIfAbsent(type, this::newReader);
+    }
+
+    ObjectWriter writer(Class<?> type) {
+        ObjectWriter writer = writers.get(type);
+        return writer != null ? writer : writers.computeIfAbsent(type, this::newWriter);
+    }
+
+    private ObjectReader newReader(Class<?> type) {
+        ObjectReader reader = mapper.readerFor(type);
+        return fileDataStore != null ? reader.withAttribute(FileDataStore.class, fileDataStore) : reader;
+    }
+
+    private ObjectWriter newWriter(Class<?> type) {
+        ObjectWriter writer = mapper.writerFor(type);
+        return photoCache != null ? writer.withAttribute(PhotoCache.class, photoCache) : writer;
+    }
+
+    /**
+     * The generated codec for a type, or null to use the mapper.
+     */
+    @SuppressWarnings("unchecked")
+    <T> JsonCodec<T> codec(Class<?> type) {
+        return (JsonCodec<T>) GENERATED.get(type);
+    }
+
+    <T> T read(JsonCodec<T> codec, Class<?> type, String json) throws IOException {
+        try (JsonParser parser = mapper.createParser(json)) {
+            return readRoot(codec, type, parser);
+        }
+    }
+
+    <T> T read(JsonCodec<T> codec, Class<?> type, byte[] json) throws IOException {
+        try (JsonParser parser = mapper.createParser(json)) {
+            return readRoot(codec, type, parser);
+        }
+    }
+
+    private <T> T readRoot(JsonCodec<T> codec, Class<?> type, JsonParser parser) throws IOException {
+        if (parser.nextToken() == null) {
+            throw MismatchedInputException.from(parser, type, "No content to map due to end-of-input");
+        }
+        return codec.read(parser, this);
+    }
+
+    <T> void write(JsonCodec<T> codec, T value, OutputStream out) throws IOException {
+        try (JsonGenerator generator = mapper.createGenerator(out)) {
+            codec.write(generator, value, this);
+        }
+    }
+
+    /**
+     * Reads one value, e.g. a list element. A Jackson deserializer that
+     * implements this can be used by generated codecs.
+     */
+    @FunctionalInterface
+    interface ValueReader<T> {
+        T read(JsonParser parser, JsonCodecs codecs) throws IOException;
+    }
+
+    /**
+     * Whether the parser is at an object to read; false for null.
+     */
+    static boolean startObject(JsonParser parser, Class<?> type) throws IOException {
+        JsonToken token = parser.currentToken();
+        if (token == JsonToken.START_OBJECT) return true;
+        if (token == JsonToken.VALUE_NULL) return false;
+        throw mismatch(parser, type);
+    }
+
+    static <T> List<T> readList(JsonParser parser, JsonCodecs codecs, ValueReader<T> item) throws IOException {
+        JsonToken token = parser.currentToken();
+        if (token == JsonToken.VALUE_NULL) return null;
+        if (token != JsonToken.START_ARRAY) throw mismatch(parser, List.class);
+        List<T> list = new ArrayList<>();
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            list.add(item.read(parser, codecs));
+        }
+        return list;
+    }
+
+    static String readString(JsonParser parser) throws IOException {
+        JsonToken token = parser.currentToken();
+        if (token == JsonToken.VALUE_STRING) return parser.getText();
+        if (token == JsonToken.VALUE_NULL) return null;
+        if (token.isScalarValue()) return parser.getValueAsString();
+        throw mismatch(parser, String.class);
+    }
+
+    static int readInt(JsonParser parser) throws IOException {
+        switch (parser.currentToken()) {
+            case VALUE_NUMBER_INT:
+                return parser.getIntValue();
+            case VALUE_NUMBER_FLOAT:
+                return parser.getValueAsInt();
+            case VALUE_NULL:
+                return 0;
+            case VALUE_STRING:
+                String text = parser.getText().trim();
+                try {
+                    return text.isEmpty() ? 0 : Integer.parseInt(text);
+                } catch (NumberFormatException e) {
+                    throw mismatch(parser, int.class);
+                }
+            default:
+                throw mismatch(parser, int.class);
+        }
+    }
+
+    static long readLong(JsonParser parser) throws IOException {
+        switch (parser.currentToken()) {
+            case VALUE_NUMBER_INT:
+                return parser.getLongValue();
+            case VALUE_NUMBER_FLOAT:
+                return parser.getValueAsLong();
+            case VALUE_NULL:
+                return 0;
+            case VALUE_STRING:
+                String text = parser.getText().trim();
+                try {
+                    return text.isEmpty() ? 0 : Long.parseLong(text);
+                } catch (NumberFormatException e) {
+                    throw mismatch(parser, long.class);
+                }
+            default:
+                throw mismatch(parser, long.class);
+        }
+    }
+
+    static double readDouble(JsonParser parser) throws IOException {
+        switch (parser.currentToken()) {
+            case VALUE_NUMBER_INT:
+            case VALUE_NUMBER_FLOAT:
+                return parser.getDoubleValue();
+            case VALUE_NULL:
+                return 0;
+            case VALUE_STRING:
+                String text = parser.getText().trim();
+                try {
+                    return text.isEmpty() ? 0 : Double.parseDouble(text);
+                } catch (NumberFormatException e) {
+                    throw mismatch(parser, double.class);
+                }
+            default:
+                throw mismatch(parser, double.class);
+        }
+    }
+
+    static boolean readBoolean(JsonParser parser) throws IOException {
+        switch (parser.currentToken()) {
+            case VALUE_TRUE:
+                return true;
+            case VALUE_FALSE:
+            case VALUE_NULL:
+                return false;
+            case VALUE_NUMBER_INT:
+                return parser.getIntValue() != 0;
+            case VALUE_STRING:
+                String text = parser.getText().trim();
+                if (text.isEmpty() || text.equalsIgnoreCase("false")) return false;
+                if (text.equalsIgnoreCase("true")) return true;
+                throw mismatch(parser, boolean.class);
+            default:
+                throw mismatch(parser, boolean.class);
+        }
+    }
+
+    static Integer readInteger(JsonParser parser) throws IOException {
+        return isNull(parser) ? null : readInt(parser);
+    }
+
+    static Long readLongObject(JsonParser parser) throws IOException {
+        return isNull(parser) ? null : readLong(parser);
+    }
+
+    static Double readDoubleObject(JsonParser parser) throws IOException {
+        return isNull(parser) ? null : readDouble(parser);
+    }
+
+    static Boolean readBooleanObject(JsonParser parser) throws IOException {
+        return isNull(parser) ? null : readBoolean(parser);
+    }
+
+    // Null and, for wrapper types, the empty string
+    private static boolean isNull(JsonParser parser) throws IOException {
+        JsonToken token = parser.currentToken();
+        return token == JsonToken.VALUE_NULL || (token == JsonToken.VALUE_STRING && parser.getText().trim().isEmpty());
+    }
+
+    static MismatchedInputException mismatch(JsonParser parser, Class<?> type) {
+        return MismatchedInputException.from(parser, type,
+            "Cannot deserialize value of type `" + type.getName() + "` from " + parser.currentToken());
+    }
+
+    // Generated into the build by the codegen module; absent when compiled without it
+    @SuppressWarnings("unchecked")
+    private static Map<Class<?>, JsonCodec<?>> loadGenerated() {
+        try {
+            return (Map<Class<?>, JsonCodec<?>>) Class.forName(GENERATED_CODECS).getDeclaredMethod("codecs").invoke(null);
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return Collections.emptyMap();
+        }
+    }
+
+    private static ObjectMapper newMapper(Module accessorModule) {
+        JsonMapper.Builder builder = JsonMapper.builder()
+            .addModule(new JavaTimeModule())
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false)
+            .configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false)
+            .serializationInclusion(JsonInclude.Include.NON_NULL);
+        if (accessorModule != null) {
+            builder.addModule(accessorModule);
+        }
+        return builder.build();
+    }
+
+    // Loaded reflectively so the module stays an optional dependency.
+    private static Module loadBlackbird() {
+        try {
+            return (Module) Class.forName(BLACKBIRD_MODULE).getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            throw new AccessGridClient.AccessGridException(
+                "Bytecode accessors require jackson-module-blackbird on the classpath", e);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.organization.accessgrid;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free log-linear latency histogram with microsecond resolution.
+ * Each power of two is split into 8 linear sub-buckets, so a reported
+ * percentile is within 12.5% of the true value. Covers 1 µs to about
+ * 19 hours in roughly 2 KB; larger values land in the last bucket.
+ */
+public final class LatencyHistogram {
+    private static final int SUB_BITS = 3;
+    private static final int SUB_COUNT = 1 << SUB_BITS;
+    private static final int MAX_EXPONENT = 36;
+    private static final int BUCKETS = (MAX_EXPONENT - SUB_BITS + 2) << SUB_BITS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+    /**
+     * Record one duration.
+     */
+    public void recordNanos(long nanos) {
+        counts.incrementAndGet(index(TimeUnit.NANOSECONDS.toMicros(nanos)));
+    }
+
+    /**
+     * Number of recorded values.
+     */
+    public long count() {
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            total += counts.get(i);
+        }
+        return total;
+    }
+
+    /**
+     * Value at the given quantile, in nanoseconds.
+     *
+     * @param quantile Between 0 and 1, e.g. 0.99
+     * @return Upper bound of the bucket holding the quantile, or 0 if empty
+     */
+    public long percentileNanos(double quantile) {
+        long[] snapshot = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = counts.get(i);
+            total += snapshot[i];
+        }
+        if (total == 0) return 0;
+        long rank = Math.max(1, (long) Math.ceil(quantile * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                return TimeUnit.MICROSECONDS.toNanos(upperBound(i));
+            }
+        }
+        return TimeUnit.MICROSECONDS.toNanos(upperBound(BUCKETS - 1));
+    }
+
+    static int index(long value) {
+        if (value < SUB_COUNT) return (int) Math.max(value, 0);
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        if (exponent > MAX_EXPONENT) return BUCKETS - 1;
+        int shift = exponent - SUB_BITS;
+        return ((shift + 1) << SUB_BITS) + (int) ((value >>> shift) - SUB_COUNT);
+    }
+
+    static long upperBound(int index) {
+        if (index < SUB_COUNT) return index;
+        int shift = (index >> SUB_BITS) - 1;
+        long mantissa = (index & (SUB_COUNT - 1)) + SUB_COUNT;
+        return ((mantissa + 1) << shift) - 1;
+    }
+}
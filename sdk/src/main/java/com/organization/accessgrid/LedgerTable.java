@@ -0,0 +1,479 @@
+package com.organization.accessgrid;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * Ledger items held as primitive columns for billing rollups. Each
+ * amount is parsed once into a long of minor units (cents by default),
+ * each creation time into a UTC epoch day, and kind and pass template
+ * are dictionary-encoded. {@link #aggregate} groups by any mix of
+ * {@link Dimension}s in parallel without boxing.
+ *
+ * <p>Build with {@link #builder()}, e.g. from
+ * {@link AccessGridClient.ConsoleApi#ledgerItemsAll}. Immutable once built.
+ */
+public final class LedgerTable {
+    /**
+     * Group-by keys.
+     */
+    public enum Dimension {
+        KIND,
+        PASS_TEMPLATE,
+        DAY,
+        MONTH
+    }
+
+    private static final int MISSING_DAY = Integer.MIN_VALUE;
+    private static final int PARALLEL_THRESHOLD = 1 << 16;
+    // Above this many composite keys, group into hash maps instead of arrays
+    private static final long MAX_DENSE_GROUPS = 1 << 18;
+
+    private final int size;
+    private final int scale;
+    private final long[] amounts;
+    private final int[] days;
+    private final int[] months;
+    private final int[] kinds;
+    private final int[] templates;
+    private final StringDictionary kindDictionary;
+    private final StringDictionary templateDictionary;
+    private final int minDay;
+    private final int maxDay;
+    private final int minMonth;
+    private final int maxMonth;
+
+    private LedgerTable(Builder builder) {
+        this.size = builder.size;
+        this.scale = builder.scale;
+        this.amounts = Arrays.copyOf(builder.amounts, size);
+        this.days = Arrays.copyOf(builder.days, size);
+        this.kinds = Arrays.copyOf(builder.kinds, size);
+        this.templates = Arrays.copyOf(builder.templates, size);
+        this.kindDictionary = builder.kindDictionary;
+        this.templateDictionary = builder.templateDictionary;
+
+        this.months = new int[size];
+        int minDay = Integer.MAX_VALUE, maxDay = Integer.MIN_VALUE;
+        int minMonth = Integer.MAX_VALUE, maxMonth = Integer.MIN_VALUE;
+        for (int row = 0; row < size; row++) {
+            int day = days[row];
+            if (day == MISSING_DAY) {
+                months[row] = MISSING_DAY;
+                continue;
+            }
+            LocalDate date = LocalDate.ofEpochDay(day);
+            int month = date.getYear() * 12 + date.getMonthValue() - 1;
+            months[row] = month;
+            minDay = Math.min(minDay, day);
+            maxDay = Math.max(maxDay, day);
+            minMonth = Math.min(minMonth, month);
+            maxMonth = Math.max(maxMonth, month);
+        }
+        this.minDay = minDay;
+        this.maxDay = maxDay;
+        this.minMonth = minMonth;
+        this.maxMonth = maxMonth;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Digits after the decimal point in minor units.
+     */
+    public int scale() {
+        return scale;
+    }
+
+    /**
+     * Sum of all amounts in minor units.
+     */
+    public long totalMinor() {
+        long total = 0;
+        for (long amount : amounts) total += amount;
+        return total;
+    }
+
+    /**
+     * Count and sum per distinct combination of the given dimensions, over
+     * all items. With no dimensions, a single overall group.
+     */
+    public List<Group> aggregate(Dimension... dimensions) {
+        return aggregate(null, null, dimensions);
+    }
+
+    /**
+     * Like {@link #aggregate(Dimension...)}, restricted to items created on
+     * or after {@code from} and before {@code until} (UTC days; either may
+     * be null). Items without a parseable date are only included when both
+     * bounds are null.
+     */
+    public List<Group> aggregate(LocalDate from, LocalDate until, Dimension... dimensions) {
+        Key key = new Key(dimensions);
+        int lo = from != null ? (int) from.toEpochDay() : Integer.MIN_VALUE;
+        int hi = until != null ? (int) until.toEpochDay() : Integer.MAX_VALUE;
+        boolean bounded = from != null || until != null;
+
+        int chunks = size < PARALLEL_THRESHOLD ? 1 : Runtime.getRuntime().availableProcessors();
+        int chunkSize = (size + chunks - 1) / Math.max(1, chunks);
+        Partial total = IntStream.range(0, chunks)
+            .parallel()
+            .mapToObj(chunk -> {
+                Partial partial = key.newPartial();
+                int end = Math.min(size, (chunk + 1) * chunkSize);
+                for (int row = chunk * chunkSize; row < end; row++) {
+                    int day = days[row];
+                    if (bounded && (day == MISSING_DAY || day < lo || day >= hi)) continue;
+                    partial.add(key.of(row), amounts[row]);
+                }
+                return partial;
+            })
+            .reduce(Partial::merge)
+            .orElseGet(key::newPartial);
+        return total.groups(key);
+    }
+
+    /**
+     * One group of an aggregation. Dimensions that were not grouped on are
+     * null.
+     */
+    public final class Group {
+        private final String kind;
+        private final String passTemplate;
+        private final LocalDate day;
+        private final YearMonth month;
+        private final long count;
+        private final long amountMinor;
+
+        private Group(String kind, String passTemplate, LocalDate day, YearMonth month, long count, long amountMinor) {
+            this.kind = kind;
+            this.passTemplate = passTemplate;
+            this.day = day;
+            this.month = month;
+            this.count = count;
+            this.amountMinor = amountMinor;
+        }
+
+        public String getKind() {
+            return kind;
+        }
+
+        /**
+         * Pass template {@code ex_id}.
+         */
+        public String getPassTemplate() {
+            return passTemplate;
+        }
+
+        public LocalDate getDay() {
+            return day;
+        }
+
+        public YearMonth getMonth() {
+            return month;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getAmountMinor() {
+            return amountMinor;
+        }
+
+        public BigDecimal getAmount() {
+            return BigDecimal.valueOf(amountMinor, scale);
+        }
+
+        @Override
+        public String toString() {
+            return "Group(kind=" + kind + ", passTemplate=" + passTemplate + ", day=" + day + ", month=" + month
+                + ", count=" + count + ", amount=" + getAmount() + ")";
+        }
+    }
+
+    /**
+     * Mixed-radix composite key over the selected dimensions. Slot 0 of each
+     * radix means "missing".
+     */
+    private final class Key {
+        private final boolean kind, template, day, month;
+        private final long kindRadix, templateRadix, dayRadix, monthRadix;
+        private final long groups;
+
+        Key(Dimension... dimensions) {
+            List<Dimension> selected = Arrays.asList(dimensions);
+            kind = selected.contains(Dimension.KIND);
+            template = selected.contains(Dimension.PASS_TEMPLATE);
+            day = selected.contains(Dimension.DAY);
+            month = selected.contains(Dimension.MONTH);
+            kindRadix = kind ? kindDictionary.size() : 1;
+            templateRadix = template ? templateDictionary.size() : 1;
+            dayRadix = day && maxDay >= minDay ? (long) maxDay - minDay + 2 : 1;
+            monthRadix = month && maxMonth >= minMonth ? (long) maxMonth - minMonth + 2 : 1;
+            groups = kindRadix * templateRadix * dayRadix * monthRadix;
+        }
+
+        long of(int row) {
+            long key = 0;
+            if (kind) key = kinds[row];
+            if (template) key = key * templateRadix + templates[row];
+            if (day) key = key * dayRadix + (days[row] == MISSING_DAY ? 0 : days[row] - minDay + 1);
+            if (month) key = key * monthRadix + (months[row] == MISSING_DAY ? 0 : months[row] - minMonth + 1);
+            return key;
+        }
+
+        Partial newPartial() {
+            return groups <= MAX_DENSE_GROUPS ? new DensePartial((int) groups) : new SparsePartial();
+        }
+
+        Group group(long key, long count, long amount) {
+            int monthSlot = (int) (key % monthRadix);
+            key /= monthRadix;
+            int daySlot = (int) (key % dayRadix);
+            key /= dayRadix;
+            int templateSlot = (int) (key % templateRadix);
+            key /= templateRadix;
+            int kindSlot = (int) key;
+            return new Group(
+                kind ? kindDictionary.decode(kindSlot) : null,
+                template ? templateDictionary.decode(templateSlot) : null,
+                day && daySlot > 0 ? LocalDate.ofEpochDay(minDay + daySlot - 1L) : null,
+                month && monthSlot > 0 ? YearMonth.of((minMonth + monthSlot - 1) / 12, (minMonth + monthSlot - 1) % 12 + 1) : null,
+                count, amount);
+        }
+    }
+
+    private interface Partial {
+        void add(long key, long amount);
+
+        Partial merge(Partial other);
+
+        List<Group> groups(Key key);
+    }
+
+    private static final class DensePartial implements Partial {
+        final long[] counts;
+        final long[] sums;
+
+        DensePartial(int groups) {
+            counts = new long[groups];
+            sums = new long[groups];
+        }
+
+        @Override
+        public void add(long key, long amount) {
+            counts[(int) key]++;
+            sums[(int) key] += amount;
+        }
+
+        @Override
+        public Partial merge(Partial other) {
+            DensePartial that = (DensePartial) other;
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] += that.counts[i];
+                sums[i] += that.sums[i];
+            }
+            return this;
+        }
+
+        @Override
+        public List<Group> groups(Key key) {
+            List<Group> groups = new ArrayList<>();
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] > 0) groups.add(key.group(i, counts[i], sums[i]));
+            }
+            return groups;
+        }
+    }
+
+    private static final class SparsePartial implements Partial {
+        // key -> {count, sum}
+        final Map<Long, long[]> totals = new HashMap<>();
+
+        @Override
+        public void add(long key, long amount) {
+            long[] total = totals.computeIfAbsent(key, k -> new long[2]);
+            total[0]++;
+            total[1] += amount;
+        }
+
+        @Override
+        public Partial merge(Partial other) {
+            ((SparsePartial) other).totals.forEach((key, total) -> {
+                long[] mine = totals.computeIfAbsent(key, k -> new long[2]);
+                mine[0] += total[0];
+                mine[1] += total[1];
+            });
+            return this;
+        }
+
+        @Override
+        public List<Group> groups(Key key) {
+            List<Group> groups = new ArrayList<>(totals.size());
+            totals.keySet().stream().sorted().forEach(k -> {
+                long[] total = totals.get(k);
+                groups.add(key.group(k, total[0], total[1]));
+            });
+            return groups;
+        }
+    }
+
+    /**
+     * Parse a decimal amount into minor units, rounding half up past the
+     * scale. Plain {@code [-]digits[.digits]} is parsed without allocation.
+     */
+    static long parseMinor(String amount, int scale) {
+        if (amount == null || amount.isEmpty()) return 0;
+        int i = 0;
+        int length = amount.length();
+        boolean negative = amount.charAt(0) == '-';
+        if (negative || amount.charAt(0) == '+') i++;
+        long value = 0;
+        int fraction = -1;
+        boolean roundUp = false;
+        for (; i < length; i++) {
+            char c = amount.charAt(i);
+            if (c == '.' && fraction < 0) {
+                fraction = 0;
+            } else if (c >= '0' && c <= '9') {
+                if (fraction < 0 || fraction < scale) {
+                    if (value > (Long.MAX_VALUE - 9) / 10) return parseMinorSlow(amount, scale);
+                    value = value * 10 + (c - '0');
+                    if (fraction >= 0) fraction++;
+                } else if (fraction == scale) {
+                    roundUp = c >= '5';
+                    fraction++;
+                }
+            } else {
+                return parseMinorSlow(amount, scale);
+            }
+        }
+        for (int f = Math.max(fraction, 0); f < scale; f++) {
+            if (value > Long.MAX_VALUE / 10) return parseMinorSlow(amount, scale);
+            value *= 10;
+        }
+        if (roundUp) {
+            if (value == Long.MAX_VALUE) return parseMinorSlow(amount, scale);
+            value++;
+        }
+        return negative ? -value : value;
+    }
+
+    private static long parseMinorSlow(String amount, int scale) {
+        try {
+            return new BigDecimal(amount).setScale(scale, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+        } catch (NumberFormatException | ArithmeticException e) {
+            throw new IllegalArgumentException("Invalid ledger amount: " + amount, e);
+        }
+    }
+
+    /**
+     * UTC epoch day of an ISO-8601 date or timestamp, or
+     * {@link #MISSING_DAY}. UTC timestamps and plain dates are read
+     * directly from their first ten characters; timestamps without an
+     * offset are taken as UTC.
+     */
+    static int parseEpochDay(String timestamp) {
+        if (timestamp == null || timestamp.length() < 10) return MISSING_DAY;
+        int length = timestamp.length();
+        if (length == 10 || timestamp.charAt(length - 1) == 'Z') {
+            try {
+                int year = Integer.parseInt(timestamp, 0, 4, 10);
+                int month = Integer.parseInt(timestamp, 5, 7, 10);
+                int day = Integer.parseInt(timestamp, 8, 10, 10);
+                return (int) LocalDate.of(year, month, day).toEpochDay();
+            } catch (RuntimeException e) {
+                // Fall through to the full parser
+            }
+        }
+        try {
+            return (int) OffsetDateTime.parse(timestamp).atZoneSameInstant(ZoneOffset.UTC).toLocalDate().toEpochDay();
+        } catch (DateTimeParseException e) {
+            // Fall through to a timestamp without an offset
+        }
+        try {
+            return (int) LocalDateTime.parse(timestamp).toLocalDate().toEpochDay();
+        } catch (DateTimeParseException e) {
+            return MISSING_DAY;
+        }
+    }
+
+    /**
+     * Accumulates ledger items into columns. Not thread-safe, and not
+     * reusable after {@link #build()}.
+     */
+    public static final class Builder {
+        private int size;
+        private int scale = 2;
+        private boolean built;
+        private long[] amounts = new long[1024];
+        private int[] days = new int[1024];
+        private int[] kinds = new int[1024];
+        private int[] templates = new int[1024];
+        private final StringDictionary kindDictionary = new StringDictionary();
+        private final StringDictionary templateDictionary = new StringDictionary();
+
+        private Builder() {
+        }
+
+        /**
+         * Digits after the decimal point kept in minor units (default 2).
+         * Set before adding items.
+         */
+        public Builder scale(int scale) {
+            if (size > 0) throw new IllegalStateException("Set the scale before adding items");
+            if (scale < 0 || scale > 9) throw new IllegalArgumentException("scale must be between 0 and 9");
+            this.scale = scale;
+            return this;
+        }
+
+        public Builder add(Models.LedgerItem item) {
+            if (built) throw new IllegalStateException("LedgerTable already built");
+            if (size == amounts.length) {
+                int capacity = size * 2;
+                amounts = Arrays.copyOf(amounts, capacity);
+                days = Arrays.copyOf(days, capacity);
+                kinds = Arrays.copyOf(kinds, capacity);
+                templates = Arrays.copyOf(templates, capacity);
+            }
+            Models.LedgerAccessPass pass = item.getAccessPass();
+            String template = pass != null && pass.getPassTemplate() != null ? pass.getPassTemplate().getExId() : null;
+            amounts[size] = parseMinor(item.getAmount(), scale);
+            days[size] = parseEpochDay(item.getCreatedAt());
+            kinds[size] = kindDictionary.encode(item.getKind());
+            templates[size] = templateDictionary.encode(template);
+            size++;
+            return this;
+        }
+
+        public Builder addAll(Iterable<Models.LedgerItem> items) {
+            for (Models.LedgerItem item : items) add(item);
+            return this;
+        }
+
+        public LedgerTable build() {
+            if (built) throw new IllegalStateException("LedgerTable already built");
+            built = true;
+            return new LedgerTable(this);
+        }
+    }
+}
@@ -3,16 +3,25 @@ package com.organization.accessgrid;
 import java.time.ZonedDateTime;
 import java.util.List;
 
+import com.fasterxml.jackson.annotation.JsonAlias;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 
+import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 /**
  * Models used in the Access Grid SDK.
  */
+@GenerateCodecs
 public class Models {
     /**
      * Device associated with an access pass.
@@ -38,7 +47,7 @@ public class Models {
     @Data
     @Builder
     @NoArgsConstructor
-    @AllArgsConstructor
+    @AllArgsConstructor(access = AccessLevel.PRIVATE)
     public static class ProvisionCardRequest {
         @JsonProperty("card_template_id")
         private String cardTemplateId;
@@ -71,19 +80,43 @@ public class Models {
         private String startDate;
         @JsonProperty("expiration_date")
         private String expirationDate;
-        @JsonProperty("employee_photo")
+        /** Base64-encoded photo; ignored when {@link #photo} is set. */
+        @JsonIgnore
         private String employeePhoto;
+        /** Photo encoded while the request is written. */
+        @JsonIgnore
+        private EmployeePhoto photo;
         private String title;
         private java.util.Map<String, Object> metadata;
+
+        /**
+         * All-fields constructor without {@code photo}; set it with
+         * {@code setPhoto} or use the builder.
+         */
+        public ProvisionCardRequest(String cardTemplateId, String employeeId, String tagId, String cardNumber,
+                                    String siteCode, String fullName, String email, String phoneNumber,
+                                    String classification, String department, String location, String siteName,
+                                    String workstation, String mailStop, String companyAddress,
+                                    String organizationName, String startDate, String expirationDate,
+                                    String employeePhoto, String title, java.util.Map<String, Object> metadata) {
+            this(cardTemplateId, employeeId, tagId, cardNumber, siteCode, fullName, email, phoneNumber,
+                classification, department, location, siteName, workstation, mailStop, companyAddress,
+                organizationName, startDate, expirationDate, employeePhoto, null, title, metadata);
+        }
+
+        @JsonProperty("employee_photo")
+        Object employeePhotoValue() {
+            return photo != null ? photo : employeePhoto;
+        }
     }
 
     /**
      * Request model for updating an existing access card.
      */
     @Data
-    @Builder
+    @Builder(toBuilder = true)
     @NoArgsConstructor
-    @AllArgsConstructor
+    @AllArgsConstructor(access = AccessLevel.PRIVATE)
     public static class UpdateCardRequest {
         @JsonProperty("card_id")
         private String cardId;
@@ -103,17 +136,41 @@ public class Models {
         private String companyAddress;
         @JsonProperty("expiration_date")
         private String expirationDate;
-        @JsonProperty("employee_photo")
+        /** Base64-encoded photo; ignored when {@link #photo} is set. */
+        @JsonIgnore
         private String employeePhoto;
+        /** Photo encoded while the request is written. */
+        @JsonIgnore
+        private EmployeePhoto photo;
         private String title;
+
+        /**
+         * All-fields constructor without {@code photo}; set it with
+         * {@code setPhoto} or use the builder.
+         */
+        public UpdateCardRequest(String cardId, String employeeId, String fullName, String classification,
+                                 String department, String location, String siteName, String workstation,
+                                 String mailStop, String companyAddress, String expirationDate,
+                                 String employeePhoto, String title) {
+            this(cardId, employeeId, fullName, classification, department, location, siteName, workstation,
+                mailStop, companyAddress, expirationDate, employeePhoto, null, title);
+        }
+
+        @JsonProperty("employee_photo")
+        Object employeePhotoValue() {
+            return photo != null ? photo : employeePhoto;
+        }
     }
 
     /**
-     * Response model for an access card.
+     * Response model for an access card. {@code equals}, {@code hashCode}
+     * and {@code toString} use the fields, so a stored {@code file_data}
+     * is compared by its handle and never read back.
      */
     @Data
+    @EqualsAndHashCode(doNotUseGetters = true)
+    @ToString(doNotUseGetters = true)
     @NoArgsConstructor
-    @AllArgsConstructor
     public static class Card {
         private String id;
         private String state;
@@ -140,6 +197,9 @@ public class Models {
         private String companyAddress;
         @JsonProperty("file_data")
         private String fileData;
+        /** Set instead of {@link #fileData} when the client has a {@link FileDataStore}. */
+        @JsonIgnore
+        private FileData fileDataHandle;
         @JsonProperty("install_url")
         private String installUrl;
         @JsonProperty("direct_install_url")
@@ -148,9 +208,64 @@ public class Models {
         private List<Device> devices;
         private java.util.Map<String, Object> metadata;
 
+        /**
+         * All-fields constructor, without the client-side
+         * {@code fileDataHandle}.
+         */
+        public Card(String id, String state, String fullName, String expirationDate, String cardTemplateId,
+                    String cardNumber, String siteCode, String organizationName, String department,
+                    String location, String siteName, String workstation, String mailStop, String companyAddress,
+                    String fileData, String installUrl, String directInstallUrl, Object details,
+                    List<Device> devices, java.util.Map<String, Object> metadata) {
+            this.id = id;
+            this.state = state;
+            this.fullName = fullName;
+            this.expirationDate = expirationDate;
+            this.cardTemplateId = cardTemplateId;
+            this.cardNumber = cardNumber;
+            this.siteCode = siteCode;
+            this.organizationName = organizationName;
+            this.department = department;
+            this.location = location;
+            this.siteName = siteName;
+            this.workstation = workstation;
+            this.mailStop = mailStop;
+            this.companyAddress = companyAddress;
+            this.fileData = fileData;
+            this.installUrl = installUrl;
+            this.directInstallUrl = directInstallUrl;
+            this.details = details;
+            this.devices = devices;
+            this.metadata = metadata;
+        }
+
         public String getUrl() {
             return installUrl;
         }
+
+        /**
+         * The pass payload. When it was parsed into a {@link FileDataStore}
+         * this loads it from the store; prefer {@link #fileDataHandle}.
+         */
+        public String getFileData() {
+            return fileDataHandle != null ? fileDataHandle.asString() : fileData;
+        }
+
+        public void setFileData(String fileData) {
+            this.fileData = fileData;
+            this.fileDataHandle = null;
+        }
+
+        @JsonProperty("file_data")
+        @JsonDeserialize(using = FileData.Deserializer.class)
+        void readFileData(Object value) {
+            if (value instanceof FileData) {
+                this.fileData = null;
+                this.fileDataHandle = (FileData) value;
+            } else {
+                setFileData((String) value);
+            }
+        }
     }
 
     /**
@@ -232,11 +347,23 @@ public class Models {
     @Data
     @Builder
     @NoArgsConstructor
-    @AllArgsConstructor
+    @AllArgsConstructor(access = AccessLevel.PRIVATE)
     public static class ListKeysParams {
         @JsonProperty("template_id")
         private String templateId;
         private String state;
+        /** Page to fetch, starting at 1; the pagination helpers start here. */
+        private Integer page;
+        @JsonProperty("per_page")
+        private Integer perPage;
+
+        /**
+         * Filters only; set {@code page} and {@code perPage} with the
+         * builder or setters.
+         */
+        public ListKeysParams(String templateId, String state) {
+            this(templateId, state, null, null);
+        }
     }
 
     /**
@@ -430,6 +557,45 @@ public class Models {
         private int totalPages;
     }
 
+    /**
+     * Slim projection of {@link Card} for listing and indexing. Fields not
+     * declared here (details, devices, file_data, install URLs, ...) are
+     * skipped by the parser without being built.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class CardSummary {
+        private String id;
+        private String state;
+        @JsonProperty("card_template_id")
+        private String cardTemplateId;
+        @JsonProperty("card_number")
+        private String cardNumber;
+        @JsonProperty("site_code")
+        private String siteCode;
+        @JsonProperty("expiration_date")
+        private String expirationDate;
+    }
+
+    /**
+     * Response wrapper for listing cards as {@link CardSummary}.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ListCardSummariesResponse {
+        private List<CardSummary> keys;
+        private int count;
+        @JsonProperty("total_count")
+        private int totalCount;
+        private int page;
+        @JsonProperty("per_page")
+        private int perPage;
+        @JsonProperty("total_pages")
+        private int totalPages;
+    }
+
     /**
      * Response wrapper for ledger items.
      */
@@ -773,4 +939,32 @@ public class Models {
         @JsonProperty("subscribed_events")
         private List<String> subscribedEvents;
     }
-}
\ No newline at end of file
+
+    /**
+     * Event delivered to a webhook endpoint. See {@link WebhookReceiver}.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class WebhookEvent {
+        private String id;
+        @JsonProperty("event")
+        @JsonAlias({"type", "event_type"})
+        private String type;
+        @JsonProperty("created_at")
+        private String createdAt;
+        private JsonNode data;
+
+        /**
+         * Bind the event data to a model, e.g. {@code dataAs(Card.class)}.
+         */
+        public <T> T dataAs(Class<T> type) {
+            if (data == null || data.isNull()) return null;
+            try {
+                return JsonCodecs.shared(false).mapper.treeToValue(data, type);
+            } catch (JsonProcessingException e) {
+                throw new AccessGridClient.AccessGridException("Failed to bind webhook data to " + type.getSimpleName(), e);
+            }
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.organization.accessgrid;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Append-only column of high-cardinality strings stored back to back as
+ * UTF-8 in one byte array, addressed by offset. Costs the encoded bytes
+ * plus four bytes per entry instead of a String object per entry.
+ */
+final class PackedStrings {
+    private byte[] data;
+    private int[] offsets;
+    private int size;
+    private int length;
+
+    PackedStrings(int capacity) {
+        data = new byte[Math.max(16, capacity * 8)];
+        offsets = new int[capacity + 1];
+    }
+
+    void add(String value) {
+        if (size + 1 == offsets.length) {
+            offsets = Arrays.copyOf(offsets, offsets.length * 2);
+        }
+        if (value == null) {
+            // Nulls are marked by a negative end offset.
+            offsets[++size] = -length - 1;
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (length + bytes.length > data.length) {
+            data = Arrays.copyOf(data, Math.max(data.length * 2, length + bytes.length));
+        }
+        System.arraycopy(bytes, 0, data, length, bytes.length);
+        length += bytes.length;
+        offsets[++size] = length;
+    }
+
+    String get(int index) {
+        int end = offsets[index + 1];
+        if (end < 0) return null;
+        int start = start(index);
+        return new String(data, start, end - start, StandardCharsets.UTF_8);
+    }
+
+    boolean isNull(int index) {
+        return offsets[index + 1] < 0;
+    }
+
+    /**
+     * Compare an entry with UTF-8 bytes without decoding it.
+     */
+    boolean equalsBytes(int index, byte[] value) {
+        int end = offsets[index + 1];
+        if (end < 0) return false;
+        int start = start(index);
+        return end - start == value.length
+            && Arrays.equals(data, start, end, value, 0, value.length);
+    }
+
+    /**
+     * Hash of an entry's bytes, matching {@link #hash(byte[])}.
+     */
+    int hash(int index) {
+        int end = offsets[index + 1];
+        if (end < 0) return 0;
+        int h = 1;
+        for (int i = start(index); i < end; i++) {
+            h = 31 * h + data[i];
+        }
+        return h;
+    }
+
+    static int hash(byte[] value) {
+        int h = 1;
+        for (byte b : value) {
+            h = 31 * h + b;
+        }
+        return h;
+    }
+
+    private int start(int index) {
+        int start = offsets[index];
+        return start < 0 ? -start - 1 : start;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Drop spare capacity once the column is complete.
+     */
+    void trim() {
+        data = Arrays.copyOf(data, length);
+        offsets = Arrays.copyOf(offsets, size + 1);
+    }
+
+    long sizeInBytes() {
+        return data.length + 4L * offsets.length;
+    }
+}
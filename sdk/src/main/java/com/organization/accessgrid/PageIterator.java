@@ -0,0 +1,60 @@
+package com.organization.accessgrid;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.IntFunction;
+
+/**
+ * Iterates the items of a paginated listing, fetching each page only when
+ * the previous one has been consumed. Only one page is held at a time.
+ */
+final class PageIterator<T> implements Iterator<T> {
+    private final IntFunction<Page<T>> fetch;
+    private int nextPage;
+    private Iterator<T> current = Collections.emptyIterator();
+    private boolean lastPage;
+
+    /**
+     * @param firstPage The page to start from (1-based)
+     * @param fetch     Fetches one page by number
+     */
+    PageIterator(int firstPage, IntFunction<Page<T>> fetch) {
+        this.nextPage = firstPage;
+        this.fetch = fetch;
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (!current.hasNext()) {
+            if (lastPage) return false;
+            Page<T> page = fetch.apply(nextPage++);
+            List<T> items = page.items != null ? page.items : Collections.emptyList();
+            current = items.iterator();
+            // Without a page count, an empty page marks the end.
+            lastPage = items.isEmpty() || (page.totalPages > 0 && nextPage > page.totalPages);
+        }
+        return true;
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) throw new NoSuchElementException();
+        return current.next();
+    }
+
+    /**
+     * One page of results and the total page count reported by the API
+     * (0 if unknown).
+     */
+    static final class Page<T> {
+        final List<T> items;
+        final int totalPages;
+
+        Page(List<T> items, int totalPages) {
+            this.items = items;
+            this.totalPages = totalPages;
+        }
+    }
+}
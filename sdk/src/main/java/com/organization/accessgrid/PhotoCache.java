@@ -0,0 +1,93 @@
+package com.organization.accessgrid;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded cache for {@link EmployeePhoto} work, keyed by content hash.
+ * Set it on {@code AccessGridClient.builder()} (it may be shared between
+ * clients) to get two savings:
+ * <ul>
+ *   <li>Resized photos are kept, so the same source and resize settings are
+ *       decoded and re-encoded only once.</li>
+ *   <li>The hash of the last photo sent for each card is remembered, and
+ *       {@code update} leaves {@code employee_photo} out of the request when
+ *       the photo has not changed.</li>
+ * </ul>
+ * Both maps evict least recently used entries. Thread-safe.
+ */
+public final class PhotoCache {
+    private final long maxResizedBytes;
+    private final LinkedHashMap<String, byte[]> resized = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<String, String> uploaded;
+    private long resizedBytes;
+
+    /**
+     * @param maxResizedBytes Total size of resized images to keep
+     * @param maxCards        Number of cards whose last photo hash is remembered
+     */
+    public PhotoCache(long maxResizedBytes, int maxCards) {
+        if (maxResizedBytes < 0) throw new IllegalArgumentException("maxResizedBytes must not be negative");
+        if (maxCards < 0) throw new IllegalArgumentException("maxCards must not be negative");
+        this.maxResizedBytes = maxResizedBytes;
+        this.uploaded = new LinkedHashMap<String, String>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                return size() > maxCards;
+            }
+        };
+    }
+
+    /**
+     * 16 MB of resized images and 10,000 cards.
+     */
+    public PhotoCache() {
+        this(16L * 1024 * 1024, 10_000);
+    }
+
+    synchronized byte[] resized(String contentHash) {
+        byte[] image = resized.get(contentHash);
+        if (image != null) CacheHitEvent.commit("photo-resize", contentHash);
+        return image;
+    }
+
+    synchronized void putResized(String contentHash, byte[] image) {
+        if (image.length > maxResizedBytes) return;
+        byte[] previous = resized.put(contentHash, image);
+        if (previous != null) resizedBytes -= previous.length;
+        resizedBytes += image.length;
+        Iterator<Map.Entry<String, byte[]>> eldest = resized.entrySet().iterator();
+        while (resizedBytes > maxResizedBytes && eldest.hasNext()) {
+            resizedBytes -= eldest.next().getValue().length;
+            eldest.remove();
+        }
+    }
+
+    /**
+     * Whether the given photo is the last one sent for the card.
+     */
+    synchronized boolean isCurrent(String cardId, String contentHash) {
+        boolean current = contentHash.equals(uploaded.get(cardId));
+        if (current) CacheHitEvent.commit("photo-upload", cardId);
+        return current;
+    }
+
+    synchronized void uploaded(String cardId, String contentHash) {
+        uploaded.put(cardId, contentHash);
+    }
+
+    /**
+     * Forget the photo recorded for a card, forcing the next update to send it.
+     */
+    public synchronized void invalidate(String cardId) {
+        uploaded.remove(cardId);
+    }
+
+    /**
+     * Total size of the resized images currently held.
+     */
+    public synchronized long resizedBytes() {
+        return resizedBytes;
+    }
+}
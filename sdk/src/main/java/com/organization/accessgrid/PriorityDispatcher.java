@@ -0,0 +1,296 @@
+package com.organization.accessgrid;
+
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Caps the client's concurrent requests and decides who goes next when
+ * the cap is reached: revocations, then interactive calls, then bulk.
+ *
+ * <p>Suspend, unlink and delete are revocations. Every other call is
+ * interactive unless made inside a {@link #bulk()} scope:
+ *
+ * <pre>{@code
+ * try (PriorityDispatcher.Scope scope = PriorityDispatcher.bulk()) {
+ *     for (ProvisionCardRequest request : batch) client.accessCards().provision(request);
+ * }
+ * }</pre>
+ *
+ * <p>{@link Builder#reserved} of the {@link Builder#maxConcurrency} slots
+ * can only be used by revocations, so one can start at once however busy
+ * the client is; when revocations exceed the reserve they take the next
+ * free slot ahead of everything else. Revocations are also sent on their
+ * own connection (a separate HTTP client), so they never queue behind
+ * bulk streams on a saturated connection.
+ *
+ * <p>With a {@link Builder#bulkLimiter}, bulk calls are further held to
+ * a limit that follows the API's latency and throttling, so large jobs
+ * run as wide as the API allows and no wider.
+ *
+ * <p>Register with {@code AccessGridClient.builder().dispatcher(...)}. A
+ * dispatcher can be shared by several clients to cap them together.
+ */
+public final class PriorityDispatcher {
+    /**
+     * Priority classes, most urgent first.
+     */
+    public enum Priority {
+        REVOCATION, INTERACTIVE, BULK
+    }
+
+    private static final ThreadLocal<Priority> SCOPE = new ThreadLocal<>();
+
+    private final int maxConcurrency;
+    private final int reserved;
+    private final HttpSender revocationSender;
+    private final AdaptiveLimiter bulkLimiter;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition[] turns = new Condition[Priority.values().length];
+    private final int[] waiting = new int[Priority.values().length];
+    private final int[] running = new int[Priority.values().length];
+    private int inUse;
+
+    private PriorityDispatcher(Builder builder) {
+        if (builder.reserved >= builder.maxConcurrency) {
+            throw new IllegalArgumentException("reserved must be less than maxConcurrency");
+        }
+        this.maxConcurrency = builder.maxConcurrency;
+        this.reserved = builder.reserved;
+        this.revocationSender = builder.revocationSender;
+        this.bulkLimiter = builder.bulkLimiter;
+        for (int i = 0; i < turns.length; i++) turns[i] = lock.newCondition();
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Mark calls on this thread as bulk until the scope is closed.
+     */
+    public static Scope bulk() {
+        return scope(Priority.BULK);
+    }
+
+    /**
+     * Mark calls on this thread as {@code priority} until the scope is
+     * closed. Scopes nest.
+     */
+    public static Scope scope(Priority priority) {
+        Priority previous = SCOPE.get();
+        SCOPE.set(priority);
+        return () -> {
+            if (previous == null) {
+                SCOPE.remove();
+            } else {
+                SCOPE.set(previous);
+            }
+        };
+    }
+
+    /**
+     * Undoes {@link #scope}; closing never throws.
+     */
+    @FunctionalInterface
+    public interface Scope extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    /**
+     * The priority set by the innermost open scope on this thread, or null.
+     */
+    static Priority currentScope() {
+        return SCOPE.get();
+    }
+
+    static Priority priorityOf(ApiOperation operation) {
+        switch (operation) {
+            case SUSPEND_CARD:
+            case UNLINK_CARD:
+            case DELETE_CARD:
+                return Priority.REVOCATION;
+            default:
+                Priority scoped = SCOPE.get();
+                return scoped != null ? scoped : Priority.INTERACTIVE;
+        }
+    }
+
+    /**
+     * Wait for a slot.
+     */
+    void acquire(Priority priority) throws InterruptedException {
+        int p = priority.ordinal();
+        lock.lock();
+        try {
+            if (!mayStart(p)) {
+                waiting[p]++;
+                try {
+                    do {
+                        turns[p].await();
+                    } while (!mayStart(p));
+                } catch (InterruptedException e) {
+                    // Pass on a wakeup this thread may have consumed
+                    signalNext();
+                    throw e;
+                } finally {
+                    waiting[p]--;
+                }
+            }
+            inUse++;
+            running[p]++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void release(Priority priority) {
+        release(priority, 0, -1);
+    }
+
+    /**
+     * Free a slot and feed the call's outcome to the bulk limiter.
+     *
+     * @param rttNanos Time the call took to send and answer
+     * @param status   Response status, 0 for a transport failure, or
+     *                 negative when the call says nothing about the API
+     *                 (e.g. it was interrupted)
+     * @return The bulk limit if this call changed it, otherwise -1
+     */
+    int release(Priority priority, long rttNanos, int status) {
+        lock.lock();
+        try {
+            int bulk = running[Priority.BULK.ordinal()];
+            inUse--;
+            running[priority.ordinal()]--;
+            // Revocations use their own connection, so their timing says
+            // little about the one bulk calls share
+            boolean changed = bulkLimiter != null && status >= 0 && priority != Priority.REVOCATION
+                && bulkLimiter.sample(rttNanos, bulk, status == 0 || status == 429 || status == 503);
+            if (changed) {
+                turns[Priority.BULK.ordinal()].signalAll();
+            }
+            signalNext();
+            return changed ? bulkLimiter.limit() : -1;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean mayStart(int priority) {
+        if (priority == Priority.REVOCATION.ordinal()) return inUse < maxConcurrency;
+        if (inUse >= maxConcurrency - reserved) return false;
+        if (priority == Priority.BULK.ordinal() && bulkLimiter != null
+                && running[priority] >= bulkLimiter.limit()) {
+            return false;
+        }
+        // No barging past more urgent waiters
+        for (int i = 0; i < priority; i++) {
+            if (waiting[i] > 0) return false;
+        }
+        return true;
+    }
+
+    private void signalNext() {
+        for (int i = 0; i < waiting.length; i++) {
+            if (waiting[i] > 0 && mayStart(i)) {
+                turns[i].signal();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Sender for revocations, or null to use the client's own.
+     */
+    HttpSender revocationSender() {
+        return revocationSender;
+    }
+
+    /**
+     * Requests of a class currently being sent.
+     */
+    public int running(Priority priority) {
+        lock.lock();
+        try {
+            return running[priority.ordinal()];
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Requests of a class waiting for a slot.
+     */
+    public int waiting(Priority priority) {
+        lock.lock();
+        try {
+            return waiting[priority.ordinal()];
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * The adaptive limit on bulk calls, or null if they are only held to
+     * {@link Builder#maxConcurrency}.
+     */
+    public AdaptiveLimiter bulkLimiter() {
+        return bulkLimiter;
+    }
+
+    /**
+     * Configuration for a {@link PriorityDispatcher}.
+     */
+    public static final class Builder {
+        private int maxConcurrency = 64;
+        private int reserved = 4;
+        private HttpSender revocationSender;
+        private AdaptiveLimiter bulkLimiter;
+
+        private Builder() {
+        }
+
+        /**
+         * Requests in flight at once, across all classes (default 64).
+         */
+        public Builder maxConcurrency(int maxConcurrency) {
+            if (maxConcurrency <= 0) throw new IllegalArgumentException("maxConcurrency must be positive");
+            this.maxConcurrency = maxConcurrency;
+            return this;
+        }
+
+        /**
+         * Slots only revocations may use (default 4).
+         */
+        public Builder reserved(int reserved) {
+            if (reserved < 0) throw new IllegalArgumentException("reserved must not be negative");
+            this.reserved = reserved;
+            return this;
+        }
+
+        /**
+         * Sender for revocations. By default a client using the built-in
+         * sender opens a second HTTP client for them; a client with a
+         * custom sender uses that one.
+         */
+        public Builder revocationSender(HttpSender revocationSender) {
+            this.revocationSender = revocationSender;
+            return this;
+        }
+
+        /**
+         * Hold bulk calls to a limit that adapts to the API's latency and
+         * throttling (default none). Interactive and revocation calls
+         * are not limited by it, but interactive timings feed it.
+         */
+        public Builder bulkLimiter(AdaptiveLimiter bulkLimiter) {
+            this.bulkLimiter = bulkLimiter;
+            return this;
+        }
+
+        public PriorityDispatcher build() {
+            return new PriorityDispatcher(this);
+        }
+    }
+}
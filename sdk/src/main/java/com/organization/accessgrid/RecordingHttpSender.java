@@ -0,0 +1,187 @@
+package com.organization.accessgrid;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.zip.GZIPOutputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * {@link HttpSender} decorator that writes every exchange to a file for
+ * {@link ReplayingHttpSender}: the request, the response or transport
+ * failure, when it started and how long it took. The file is a gzipped
+ * binary log, typically a few bytes per exchange plus the compressed
+ * bodies. Each exchange is flushed to the file as it is written, so a
+ * recording cut short by a crash still replays up to its last exchange.
+ *
+ * <pre>{@code
+ * try (RecordingHttpSender recorder = RecordingHttpSender.create(Paths.get("nightly.agrec"))) {
+ *     AccessGridClient client = AccessGridClient.builder()...httpSender(recorder).build();
+ *     nightlySync(client);
+ * }
+ * }</pre>
+ *
+ * <p>Thread-safe; concurrent exchanges are written in the order they
+ * complete. Close it to finish the file. Recording never fails a call:
+ * an exchange that cannot be written, e.g. because the disk is full or
+ * the recorder was closed, is logged, counted in {@link #failures()} and
+ * the delegate's response or error is passed on unchanged. After a
+ * failed write nothing more is recorded, as the file may end mid-exchange.
+ */
+public final class RecordingHttpSender implements HttpSender, AutoCloseable {
+    static final int MAGIC = 0x41475252; // "AGRR"
+    static final int VERSION = 1;
+    static final byte RESPONSE = 1;
+    static final byte FAILURE = 2;
+    private static final Logger log = LoggerFactory.getLogger(RecordingHttpSender.class);
+
+    private final HttpSender delegate;
+    private final Path path;
+    private final DataOutputStream out;
+    private final long startNanos = System.nanoTime();
+    private long exchanges;
+    private long failures;
+    private boolean closed;
+    private boolean broken;
+
+    private RecordingHttpSender(HttpSender delegate, Path path) throws IOException {
+        this.delegate = Objects.requireNonNull(delegate);
+        this.path = path;
+        OutputStream file = Files.newOutputStream(path);
+        try {
+            this.out = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(file, 1 << 16, true), 1 << 16));
+            out.writeInt(MAGIC);
+            out.writeShort(VERSION);
+        } catch (IOException e) {
+            file.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Record the built-in HTTP/2 sender's exchanges to {@code path},
+     * replacing the file.
+     */
+    public static RecordingHttpSender create(Path path) {
+        return create(AccessGridClient.newDefaultSender(), path);
+    }
+
+    /**
+     * Record {@code delegate}'s exchanges to {@code path}, replacing the file.
+     */
+    public static RecordingHttpSender create(HttpSender delegate, Path path) {
+        try {
+            return new RecordingHttpSender(delegate, path);
+        } catch (IOException e) {
+            throw new AccessGridClient.AccessGridException("Failed to create recording " + path, e);
+        }
+    }
+
+    @Override
+    public HttpResponse<String> send(HttpRequest request) throws IOException, InterruptedException {
+        byte[] requestBody = HttpMessages.body(request);
+        long start = System.nanoTime();
+        HttpResponse<String> response;
+        try {
+            response = delegate.send(request);
+        } catch (IOException e) {
+            record(request, requestBody, start, System.nanoTime() - start, null, e);
+            throw e;
+        }
+        record(request, requestBody, start, System.nanoTime() - start, response, null);
+        return response;
+    }
+
+    private void record(HttpRequest request, byte[] requestBody, long start, long duration,
+                        HttpResponse<String> response, IOException failure) {
+        try {
+            write(request, requestBody, start, duration, response, failure);
+        } catch (IOException | RuntimeException e) {
+            synchronized (this) {
+                failures++;
+            }
+            log.warn("Failed to record {} {} to {}", request.method(), request.uri().getRawPath(), path, e);
+        }
+    }
+
+    private synchronized void write(HttpRequest request, byte[] requestBody, long start, long duration,
+                                    HttpResponse<String> response, IOException failure) throws IOException {
+        if (closed) throw new IOException("Recording " + path + " is closed");
+        // A record cut off part way would misalign everything after it
+        if (broken) throw new IOException("Recording " + path + " stopped after a failed write");
+        broken = true;
+        out.writeByte(response != null ? RESPONSE : FAILURE);
+        out.writeLong(start - startNanos);
+        out.writeLong(duration);
+        out.writeUTF(request.method());
+        String target = request.uri().getRawPath();
+        if (request.uri().getRawQuery() != null) target += "?" + request.uri().getRawQuery();
+        writeBytes(target.getBytes(StandardCharsets.UTF_8));
+        writeBytes(requestBody);
+        if (response != null) {
+            out.writeShort(response.statusCode());
+            Map<String, List<String>> headers = response.headers().map();
+            out.writeShort(headers.size());
+            for (Map.Entry<String, List<String>> header : headers.entrySet()) {
+                out.writeUTF(header.getKey());
+                out.writeShort(header.getValue().size());
+                for (String value : header.getValue()) out.writeUTF(value);
+            }
+            writeBytes(response.body() != null ? response.body().getBytes(StandardCharsets.UTF_8) : null);
+        } else {
+            out.writeUTF(String.valueOf(failure.getMessage()));
+        }
+        // A sync flush, so the file holds every exchange written so far
+        out.flush();
+        broken = false;
+        exchanges++;
+    }
+
+    private void writeBytes(byte[] bytes) throws IOException {
+        if (bytes == null) {
+            out.writeInt(-1);
+            return;
+        }
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * Exchanges recorded so far.
+     */
+    public synchronized long exchanges() {
+        return exchanges;
+    }
+
+    /**
+     * Exchanges that could not be recorded.
+     */
+    public synchronized long failures() {
+        return failures;
+    }
+
+    /**
+     * Finish the file. Exchanges completing afterwards are not recorded.
+     */
+    @Override
+    public synchronized void close() {
+        if (closed) return;
+        closed = true;
+        try {
+            out.close();
+        } catch (IOException e) {
+            throw new AccessGridClient.AccessGridException("Failed to finish recording " + path, e);
+        }
+    }
+}
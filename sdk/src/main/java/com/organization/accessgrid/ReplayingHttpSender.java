@@ -0,0 +1,288 @@
+package com.organization.accessgrid;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * {@link HttpSender} that answers from a {@link RecordingHttpSender} file
+ * instead of the network, so a captured session can be re-run against
+ * another SDK version with the same responses and no network.
+ *
+ * <p>A request gets the next unserved exchange recorded for the same
+ * method, path and query. The base URL's host and the signature payload
+ * ({@code sig_payload}) are ignored, so a replay may use other
+ * credentials. Recorded transport failures are thrown again as
+ * {@link IOException}s. Each answer waits for the exchange's recorded
+ * duration times {@link Builder#timeScale}. 0 answers at once.
+ *
+ * <pre>{@code
+ * ReplayingHttpSender replay = ReplayingHttpSender.builder(Paths.get("nightly.agrec"))
+ *     .timeScale(0.1)   // ten times faster than recorded
+ *     .build();
+ * nightlySync(AccessGridClient.builder()...httpSender(replay).build());
+ * assert replay.remaining() == 0;
+ * }</pre>
+ */
+public final class ReplayingHttpSender implements HttpSender {
+    private final Map<String, Slot> slots;
+    private final int total;
+    private final double timeScale;
+    private final boolean paced;
+    private final boolean cycle;
+    private final AtomicLong served = new AtomicLong();
+    private final AtomicLong startNanos = new AtomicLong(Long.MIN_VALUE);
+
+    private ReplayingHttpSender(Builder builder) throws IOException {
+        this.timeScale = builder.timeScale;
+        this.paced = builder.paced;
+        this.cycle = builder.cycle;
+        Map<String, List<Exchange>> byKey = new LinkedHashMap<>();
+        int count = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                new GZIPInputStream(Files.newInputStream(builder.path), 1 << 16), 1 << 16))) {
+            if (in.readInt() != RecordingHttpSender.MAGIC || in.readUnsignedShort() != RecordingHttpSender.VERSION) {
+                throw new IOException("Not a recording: " + builder.path);
+            }
+            Exchange exchange;
+            while ((exchange = read(in)) != null) {
+                byKey.computeIfAbsent(exchange.key, key -> new ArrayList<>()).add(exchange);
+                count++;
+            }
+        }
+        Map<String, Slot> slots = new HashMap<>();
+        byKey.forEach((key, exchanges) -> slots.put(key, new Slot(exchanges.toArray(new Exchange[0]))));
+        this.slots = slots;
+        this.total = count;
+    }
+
+    /**
+     * Replay a recording with its original timing.
+     */
+    public static ReplayingHttpSender load(Path path) {
+        return builder(path).build();
+    }
+
+    public static Builder builder(Path path) {
+        return new Builder(path);
+    }
+
+    /**
+     * Read one exchange, or null at the end. A recording cut short, e.g.
+     * by a crash before it was closed, ends at its last complete exchange.
+     */
+    private static Exchange read(DataInputStream in) throws IOException {
+        try {
+            byte tag = in.readByte();
+            long offset = in.readLong();
+            long duration = in.readLong();
+            String method = in.readUTF();
+            String target = new String(readBytes(in), StandardCharsets.UTF_8);
+            readBytes(in);
+            if (tag == RecordingHttpSender.FAILURE) {
+                return new Exchange(key(method, target), offset, duration, 0, null, null, in.readUTF());
+            }
+            int status = in.readUnsignedShort();
+            int headerCount = in.readUnsignedShort();
+            Map<String, List<String>> headers = new LinkedHashMap<>();
+            for (int i = 0; i < headerCount; i++) {
+                String name = in.readUTF();
+                int valueCount = in.readUnsignedShort();
+                List<String> values = new ArrayList<>(valueCount);
+                for (int j = 0; j < valueCount; j++) values.add(in.readUTF());
+                headers.put(name, values);
+            }
+            byte[] body = readBytes(in);
+            return new Exchange(key(method, target), offset, duration, status, HttpMessages.headers(headers),
+                body != null ? new String(body, StandardCharsets.UTF_8) : null, null);
+        } catch (EOFException e) {
+            return null;
+        }
+    }
+
+    private static byte[] readBytes(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) return null;
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return bytes;
+    }
+
+    /**
+     * Method, path and query without the signature payload.
+     */
+    private static String key(String method, String target) {
+        int question = target.indexOf('?');
+        if (question < 0) return method + ' ' + target;
+        StringBuilder key = new StringBuilder(method).append(' ').append(target, 0, question);
+        char separator = '?';
+        for (String param : target.substring(question + 1).split("&")) {
+            if (param.startsWith("sig_payload=")) continue;
+            key.append(separator).append(param);
+            separator = '&';
+        }
+        return key.toString();
+    }
+
+    @Override
+    public HttpResponse<String> send(HttpRequest request) throws IOException, InterruptedException {
+        long now = System.nanoTime();
+        startNanos.compareAndSet(Long.MIN_VALUE, now);
+        URI uri = request.uri();
+        String target = uri.getRawQuery() != null ? uri.getRawPath() + "?" + uri.getRawQuery() : uri.getRawPath();
+        String key = key(request.method(), target);
+        Slot slot = slots.get(key);
+        Exchange exchange = slot != null ? slot.next(cycle) : null;
+        if (exchange == null) throw new IOException("No recorded exchange left for " + key);
+        served.incrementAndGet();
+
+        long wait = (long) (exchange.durationNanos * timeScale);
+        if (paced) {
+            long due = startNanos.get() + (long) ((exchange.offsetNanos + exchange.durationNanos) * timeScale);
+            wait = Math.max(wait, due - now);
+        }
+        wait -= System.nanoTime() - now;
+        if (wait > 0) TimeUnit.NANOSECONDS.sleep(wait);
+
+        if (exchange.failure != null) throw new IOException(exchange.failure);
+        return HttpMessages.response(request, exchange.status, exchange.headers, exchange.body);
+    }
+
+    /**
+     * Exchanges in the recording.
+     */
+    public int exchanges() {
+        return total;
+    }
+
+    /**
+     * Requests answered so far.
+     */
+    public long served() {
+        return served.get();
+    }
+
+    /**
+     * Recorded exchanges not yet served. 0 once a replay has made every
+     * recorded call; always 0 when cycling.
+     */
+    public int remaining() {
+        if (cycle) return 0;
+        int remaining = 0;
+        for (Slot slot : slots.values()) remaining += slot.remaining();
+        return remaining;
+    }
+
+    private static final class Exchange {
+        final String key;
+        final long offsetNanos;
+        final long durationNanos;
+        final int status;
+        final HttpHeaders headers;
+        final String body;
+        final String failure;
+
+        Exchange(String key, long offsetNanos, long durationNanos, int status, HttpHeaders headers,
+                 String body, String failure) {
+            this.key = key;
+            this.offsetNanos = offsetNanos;
+            this.durationNanos = durationNanos;
+            this.status = status;
+            this.headers = headers;
+            this.body = body;
+            this.failure = failure;
+        }
+    }
+
+    /**
+     * The exchanges recorded for one key, served in recorded order.
+     */
+    private static final class Slot {
+        private final Exchange[] exchanges;
+        private int next;
+
+        Slot(Exchange[] exchanges) {
+            this.exchanges = exchanges;
+        }
+
+        synchronized Exchange next(boolean cycle) {
+            if (next == exchanges.length) {
+                if (!cycle) return null;
+                next = 0;
+            }
+            return exchanges[next++];
+        }
+
+        synchronized int remaining() {
+            return exchanges.length - next;
+        }
+    }
+
+    /**
+     * Options for a {@link ReplayingHttpSender}.
+     */
+    public static final class Builder {
+        private final Path path;
+        private double timeScale = 1;
+        private boolean paced;
+        private boolean cycle;
+
+        private Builder(Path path) {
+            this.path = Objects.requireNonNull(path);
+        }
+
+        /**
+         * Multiplier for recorded durations (default 1, the original
+         * timing). 0.1 replays ten times faster; 0 answers at once.
+         */
+        public Builder timeScale(double timeScale) {
+            if (timeScale < 0) throw new IllegalArgumentException("timeScale must not be negative");
+            this.timeScale = timeScale;
+            return this;
+        }
+
+        /**
+         * Also hold each answer until the point in the replay, scaled,
+         * where it completed in the recording, so a client that runs
+         * faster still sees the recorded pacing (default false).
+         */
+        public Builder paced(boolean paced) {
+            this.paced = paced;
+            return this;
+        }
+
+        /**
+         * Start a key's exchanges over once all are served, instead of
+         * failing, for benchmarks that repeat a session (default false).
+         */
+        public Builder cycle(boolean cycle) {
+            this.cycle = cycle;
+            return this;
+        }
+
+        public ReplayingHttpSender build() {
+            try {
+                return new ReplayingHttpSender(this);
+            } catch (IOException e) {
+                throw new AccessGridClient.AccessGridException("Failed to load recording " + path, e);
+            }
+        }
+    }
+}
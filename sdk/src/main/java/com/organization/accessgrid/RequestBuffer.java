@@ -0,0 +1,65 @@
+package com.organization.accessgrid;
+
+import java.io.ByteArrayOutputStream;
+import java.net.http.HttpRequest;
+import java.util.Arrays;
+
+/**
+ * Reusable per-thread byte buffer that request payloads are serialized into.
+ * The same bytes are signed and published as the request body, so a payload
+ * is encoded exactly once. The published body is a copy: the HTTP client
+ * may still be reading it after a timeout or interrupt, and a sender may
+ * keep the request to record or resend it, while the thread has already
+ * reused the buffer.
+ */
+final class RequestBuffer extends ByteArrayOutputStream {
+    private static final int INITIAL_CAPACITY = 1024;
+    // Buffers grown past this (e.g. by a large photo) are dropped after use
+    // rather than pinned to the thread.
+    private static final int MAX_RETAINED_CAPACITY = 256 * 1024;
+    private static final ThreadLocal<RequestBuffer> LOCAL = ThreadLocal.withInitial(RequestBuffer::new);
+
+    private boolean inUse;
+
+    private RequestBuffer() {
+        super(INITIAL_CAPACITY);
+    }
+
+    /**
+     * Get an empty buffer for the current thread. A nested acquire while the
+     * thread's buffer is still in use gets a fresh, unshared buffer.
+     */
+    static RequestBuffer acquire() {
+        RequestBuffer buffer = LOCAL.get();
+        if (buffer.inUse) {
+            buffer = new RequestBuffer();
+        }
+        buffer.reset();
+        buffer.inUse = true;
+        return buffer;
+    }
+
+    /**
+     * Return the buffer once the request using it has been sent.
+     */
+    void release() {
+        inUse = false;
+        if (buf.length > MAX_RETAINED_CAPACITY && LOCAL.get() == this) {
+            LOCAL.remove();
+        }
+    }
+
+    /**
+     * The backing array; only the first {@link #size()} bytes are valid.
+     */
+    byte[] array() {
+        return buf;
+    }
+
+    /**
+     * Publish a copy of the buffered bytes that outlives {@link #release()}.
+     */
+    HttpRequest.BodyPublisher publisher() {
+        return HttpRequest.BodyPublishers.ofByteArray(Arrays.copyOf(buf, count));
+    }
+}
@@ -0,0 +1,68 @@
+package com.organization.accessgrid;
+
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+/**
+ * Read-only view of one API call, passed to {@link RequestListener}s.
+ * Timestamps are {@link System#nanoTime()} values and are 0 until the
+ * phase has been reached. The context is only valid during callbacks.
+ */
+public interface RequestContext {
+    ApiOperation operation();
+
+    /**
+     * ID substituted into the path template, or null.
+     */
+    String resourceId();
+
+    long startNanos();
+
+    long serializedNanos();
+
+    long signedNanos();
+
+    /**
+     * When the response headers arrived. Equals {@link #receivedNanos()}
+     * when the sender cannot observe it.
+     */
+    long firstByteNanos();
+
+    long receivedNanos();
+
+    long parsedNanos();
+
+    long endNanos();
+
+    /**
+     * The request as sent, or null before it is built.
+     */
+    HttpRequest request();
+
+    /**
+     * The response, or null if none was received. Its body is null for
+     * void calls made through the built-in sender.
+     */
+    HttpResponse<String> response();
+
+    /**
+     * HTTP status, or 0 if no response was received.
+     */
+    int statusCode();
+
+    long bytesOut();
+
+    long bytesIn();
+
+    /**
+     * The exception thrown to the caller, or null.
+     */
+    Throwable failure();
+
+    /**
+     * Listener-owned state for this call, such as a tracing span.
+     */
+    Object attachment();
+
+    void attach(Object attachment);
+}
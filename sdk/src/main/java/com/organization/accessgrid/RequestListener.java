@@ -0,0 +1,39 @@
+package com.organization.accessgrid;
+
+import java.net.http.HttpRequest;
+
+/**
+ * Callbacks at each stage of an API call, for tracing and diagnostics.
+ * Register with {@code AccessGridClient.builder().listener(...)}. With no
+ * listeners (and metrics off) the client allocates nothing for this.
+ *
+ * <p>Callbacks run synchronously on the calling thread. Exceptions they
+ * throw are logged and otherwise ignored.
+ */
+public interface RequestListener {
+    /**
+     * The call has started.
+     */
+    default void onStart(RequestContext context) {
+    }
+
+    /**
+     * The request is about to be built. Add trace propagation headers here,
+     * e.g. {@code request.header("traceparent", ...)}. Headers are not
+     * covered by the payload signature.
+     */
+    default void onBeforeSend(RequestContext context, HttpRequest.Builder request) {
+    }
+
+    /**
+     * A phase has finished; its end timestamp is set on the context.
+     */
+    default void onPhase(RequestContext context, RequestPhase phase) {
+    }
+
+    /**
+     * The call has finished, successfully or not.
+     */
+    default void onComplete(RequestContext context) {
+    }
+}
@@ -0,0 +1,20 @@
+package com.organization.accessgrid;
+
+/**
+ * Stages of a single API call, in the order they run.
+ */
+public enum RequestPhase {
+    /** Writing the request model as JSON. Skipped for calls without a body. */
+    SERIALIZE,
+    /** Computing the payload signature. */
+    SIGN,
+    /** Sending the request until the response headers arrive (time to first byte). */
+    SEND,
+    /**
+     * Reading the response body. Only measurable with the built-in sender;
+     * with a custom {@link HttpSender} the whole exchange counts as SEND.
+     */
+    RECEIVE,
+    /** Reading the response body into a model. Skipped for void calls. */
+    PARSE
+}
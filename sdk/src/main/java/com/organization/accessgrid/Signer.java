@@ -0,0 +1,156 @@
+package com.organization.accessgrid;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * HMAC-SHA256 payload signer for one API secret. Initialized MACs are
+ * kept for reuse, each with a scratch buffer the payload is base64-encoded
+ * into a chunk at a time; looking up and keying a new MAC, or wrapping an
+ * encoder stream, costs kilobytes of allocation per signature.
+ * Thread-safe; a few idle MACs are retained however many threads sign.
+ * The secret's bytes live on in the key and in every keyed MAC for as long
+ * as the signer does. It is recognized by a fingerprint, the HMAC of a
+ * fixed label under the key, rather than by a plain hash of the secret.
+ */
+final class Signer {
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+    private static final byte[] BASE64 =
+        "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/".getBytes(StandardCharsets.US_ASCII);
+    private static final int MAX_IDLE = 8;
+    // Input bytes per chunk; a multiple of 3 so only the last chunk is padded
+    private static final int CHUNK = 768;
+    private static final byte[] FINGERPRINT_LABEL = "accessgrid-signer-fingerprint".getBytes(StandardCharsets.US_ASCII);
+
+    private final SecretKeySpec key;
+    private final byte[] fingerprint;
+    private final ConcurrentLinkedQueue<Slot> idle = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger idleCount = new AtomicInteger();
+    private volatile String emptyPayload;
+
+    Signer(String secret) {
+        this.key = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256");
+        this.fingerprint = fingerprint(key);
+    }
+
+    /**
+     * Whether this signer was made for the given secret.
+     */
+    boolean signsFor(String secret) {
+        return secret != null && !secret.isEmpty() && MessageDigest.isEqual(fingerprint,
+            fingerprint(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256")));
+    }
+
+    /**
+     * Signature of {@code {}}, sent with bodiless requests; computed once
+     * and shared by every client using this signer.
+     */
+    String emptyPayload() {
+        String signature = emptyPayload;
+        if (signature == null) {
+            signature = sign("{}");
+            emptyPayload = signature;
+        }
+        return signature;
+    }
+
+    String sign(String payload) {
+        byte[] bytes = payload.getBytes(StandardCharsets.UTF_8);
+        return sign(bytes, 0, bytes.length);
+    }
+
+    /**
+     * Hex HMAC of the base64 encoding of a byte range.
+     */
+    String sign(byte[] payload, int offset, int length) {
+        Slot slot = borrow();
+        byte[] out = slot.encoded;
+        int end = offset + length;
+        for (int at = offset; at < end; at += CHUNK) {
+            slot.mac.update(out, 0, encode(payload, at, Math.min(CHUNK, end - at), out));
+        }
+        String signature = toHex(slot.mac.doFinal());
+        // doFinal leaves the MAC reset; a slot abandoned by an exception is dropped
+        giveBack(slot);
+        return signature;
+    }
+
+    private static byte[] fingerprint(SecretKeySpec key) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(key);
+            return mac.doFinal(FINGERPRINT_LABEL);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static int encode(byte[] in, int offset, int length, byte[] out) {
+        int o = 0;
+        int i = offset;
+        int whole = offset + length / 3 * 3;
+        while (i < whole) {
+            int bits = (in[i++] & 0xff) << 16 | (in[i++] & 0xff) << 8 | (in[i++] & 0xff);
+            out[o++] = BASE64[bits >>> 18];
+            out[o++] = BASE64[(bits >>> 12) & 0x3f];
+            out[o++] = BASE64[(bits >>> 6) & 0x3f];
+            out[o++] = BASE64[bits & 0x3f];
+        }
+        int rest = offset + length - whole;
+        if (rest > 0) {
+            int bits = (in[i] & 0xff) << 16 | (rest == 2 ? (in[i + 1] & 0xff) << 8 : 0);
+            out[o++] = BASE64[bits >>> 18];
+            out[o++] = BASE64[(bits >>> 12) & 0x3f];
+            out[o++] = rest == 2 ? BASE64[(bits >>> 6) & 0x3f] : (byte) '=';
+            out[o++] = '=';
+        }
+        return o;
+    }
+
+    private Slot borrow() {
+        Slot slot = idle.poll();
+        if (slot != null) {
+            idleCount.decrementAndGet();
+            return slot;
+        }
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(key);
+            return new Slot(mac);
+        } catch (GeneralSecurityException e) {
+            throw new AccessGridClient.AccessGridException("Failed to generate signature", e);
+        }
+    }
+
+    private void giveBack(Slot slot) {
+        if (idleCount.incrementAndGet() <= MAX_IDLE) {
+            idle.offer(slot);
+        } else {
+            idleCount.decrementAndGet();
+        }
+    }
+
+    static String toHex(byte[] bytes) {
+        char[] hex = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            hex[i * 2] = HEX_DIGITS[(bytes[i] >> 4) & 0xf];
+            hex[i * 2 + 1] = HEX_DIGITS[bytes[i] & 0xf];
+        }
+        return new String(hex);
+    }
+
+    private static final class Slot {
+        final Mac mac;
+        final byte[] encoded = new byte[CHUNK / 3 * 4];
+
+        Slot(Mac mac) {
+            this.mac = mac;
+        }
+    }
+}
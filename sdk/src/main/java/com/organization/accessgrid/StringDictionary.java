@@ -0,0 +1,80 @@
+package com.organization.accessgrid;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Maps repeated strings to dense int codes so columns can store the code
+ * instead of a reference. Each distinct value is held once. Code 0 is
+ * reserved for null. Released codes are handed out again before new ones.
+ * Not thread-safe while being filled.
+ */
+final class StringDictionary {
+    static final int NULL_CODE = 0;
+
+    private final Map<String, Integer> codes = new HashMap<>();
+    private String[] values = new String[16];
+    private int size = 1;
+    private final ArrayDeque<Integer> released = new ArrayDeque<>();
+
+    /**
+     * Code for a value, adding it if new.
+     */
+    int encode(String value) {
+        if (value == null) return NULL_CODE;
+        Integer code = codes.get(value);
+        if (code == null) {
+            if (!released.isEmpty()) {
+                code = released.pop();
+            } else {
+                if (size == values.length) values = Arrays.copyOf(values, size * 2);
+                code = size++;
+            }
+            values[code] = value;
+            codes.put(value, code);
+        }
+        return code;
+    }
+
+    /**
+     * Forget a code's value so the code can be reused. The caller must no
+     * longer hold the code anywhere.
+     */
+    void release(int code) {
+        if (code == NULL_CODE || values[code] == null) return;
+        codes.remove(values[code]);
+        values[code] = null;
+        released.push(code);
+    }
+
+    /**
+     * Code for a value, or -1 if it has never been added. Null maps to
+     * {@link #NULL_CODE}.
+     */
+    int find(String value) {
+        if (value == null) return NULL_CODE;
+        Integer code = codes.get(value);
+        return code != null ? code : -1;
+    }
+
+    String decode(int code) {
+        return values[code];
+    }
+
+    /**
+     * One past the highest code handed out, including the null code; the
+     * length of an array indexed by code.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Number of codes currently assigned, including the null code.
+     */
+    int inUse() {
+        return size - released.size();
+    }
+}
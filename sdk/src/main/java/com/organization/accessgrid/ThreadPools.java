@@ -0,0 +1,51 @@
+package com.organization.accessgrid;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Executors for the SDK's background work. Virtual threads are used where
+ * available (looked up reflectively, as the SDK targets Java 11), else
+ * daemon platform threads.
+ */
+final class ThreadPools {
+    private ThreadPools() {
+    }
+
+    /**
+     * Virtual-thread-per-task executor, else a fixed pool of {@code threads}.
+     */
+    static ExecutorService newExecutor(int threads, String namePrefix) {
+        ExecutorService virtual = newVirtualExecutor();
+        return virtual != null ? virtual : Executors.newFixedThreadPool(threads, daemonFactory(namePrefix));
+    }
+
+    /**
+     * Virtual-thread-per-task executor, else a pool that grows with demand
+     * and lets idle threads die off, for sharing between callers that each
+     * need a varying number of threads. Needs no shutdown.
+     */
+    static ExecutorService newCachedExecutor(String namePrefix) {
+        ExecutorService virtual = newVirtualExecutor();
+        return virtual != null ? virtual : Executors.newCachedThreadPool(daemonFactory(namePrefix));
+    }
+
+    private static ExecutorService newVirtualExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    private static ThreadFactory daemonFactory(String namePrefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, namePrefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
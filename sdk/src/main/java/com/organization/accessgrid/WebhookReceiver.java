@@ -0,0 +1,462 @@
+package com.organization.accessgrid;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.security.cert.Certificate;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLParameters;
+import javax.net.ssl.SSLPeerUnverifiedException;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.sun.net.httpserver.HttpsConfigurator;
+import com.sun.net.httpserver.HttpsExchange;
+import com.sun.net.httpserver.HttpsParameters;
+import com.sun.net.httpserver.HttpsServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Embeddable endpoint for webhook deliveries, on the JDK HTTP server.
+ *
+ * <p>Each delivery is authenticated by a {@link WebhookVerifier}, parsed
+ * into a {@link Models.WebhookEvent} and acknowledged as soon as it is
+ * queued; handlers run afterwards on virtual threads when the runtime has
+ * them (Java 21+) and on a thread pool otherwise. At most
+ * {@link Builder#maxInFlight} events are queued or running; beyond that,
+ * deliveries are answered {@code 429} with {@code Retry-After} so the
+ * sender backs off and retries instead of the receiver running out of
+ * memory.
+ *
+ * <pre>{@code
+ * WebhookReceiver receiver = WebhookReceiver.builder()
+ *     .port(8443)
+ *     .verifier(WebhookVerifier.hmacSha256(webhook.getPrivateKey()))
+ *     .on("ag.card.issued", event -> onIssued(event.dataAs(Card.class)))
+ *     .build()
+ *     .start();
+ * }</pre>
+ *
+ * <p>To mount it in another server, pass each request to
+ * {@link #receive(Function, byte[], Certificate[])} and reply with the
+ * returned status.
+ */
+public final class WebhookReceiver implements AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(WebhookReceiver.class);
+
+    /**
+     * Handles one event type. Runs concurrently with other events,
+     * including others of the same type.
+     */
+    @FunctionalInterface
+    public interface Handler {
+        void handle(Models.WebhookEvent event) throws Exception;
+    }
+
+    /**
+     * Told about handler failures. The delivery has already been
+     * acknowledged, so retrying is up to the application.
+     */
+    @FunctionalInterface
+    public interface ErrorHandler {
+        void onError(Models.WebhookEvent event, Throwable error);
+    }
+
+    private final WebhookVerifier verifier;
+    private final Map<String, List<Handler>> handlers;
+    private final List<Handler> anyHandlers;
+    private final ErrorHandler errorHandler;
+    private final int maxBodyBytes;
+    private final int maxInFlight;
+    private final Semaphore permits;
+    private final ExecutorService dispatch;
+    private final boolean ownsDispatch;
+    private final InetSocketAddress address;
+    private final String path;
+    private final SSLContext sslContext;
+    private final boolean needClientAuth;
+    private final JsonCodecs codecs = JsonCodecs.shared(false);
+    private final JsonCodec<Models.WebhookEvent> codec = codecs.codec(Models.WebhookEvent.class);
+
+    private final AtomicLong received = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    private HttpServer server;
+    private ExecutorService io;
+
+    private WebhookReceiver(Builder builder) {
+        this.verifier = Objects.requireNonNull(builder.verifier,
+            "verifier is required; use WebhookVerifier.none() to accept unauthenticated deliveries");
+        Map<String, List<Handler>> byType = new HashMap<>();
+        builder.handlers.forEach((type, list) -> byType.put(type, Collections.unmodifiableList(new ArrayList<>(list))));
+        this.handlers = byType;
+        this.anyHandlers = Collections.unmodifiableList(new ArrayList<>(builder.anyHandlers));
+        this.errorHandler = builder.errorHandler;
+        this.maxBodyBytes = builder.maxBodyBytes;
+        this.maxInFlight = builder.maxInFlight;
+        this.permits = new Semaphore(builder.maxInFlight);
+        this.ownsDispatch = builder.executor == null;
+        this.dispatch = ownsDispatch ? ThreadPools.newExecutor(builder.dispatchThreads, "accessgrid-webhook-") : builder.executor;
+        this.address = builder.address;
+        this.path = builder.path;
+        this.sslContext = builder.sslContext;
+        this.needClientAuth = builder.needClientAuth;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Bind the HTTP(S) server and start accepting deliveries.
+     */
+    public synchronized WebhookReceiver start() {
+        if (server != null) throw new IllegalStateException("Already started");
+        try {
+            if (sslContext != null) {
+                HttpsServer https = HttpsServer.create(address, 0);
+                https.setHttpsConfigurator(new HttpsConfigurator(sslContext) {
+                    @Override
+                    public void configure(HttpsParameters params) {
+                        SSLParameters parameters = sslContext.getDefaultSSLParameters();
+                        parameters.setNeedClientAuth(needClientAuth);
+                        params.setSSLParameters(parameters);
+                    }
+                });
+                server = https;
+            } else {
+                server = HttpServer.create(address, 0);
+            }
+        } catch (IOException e) {
+            throw new AccessGridClient.AccessGridException("Failed to bind webhook receiver to " + address, e);
+        }
+        // Reading and verifying bodies stays off the dispatch pool, so a
+        // saturated pool can still answer 429 promptly.
+        io = ThreadPools.newExecutor(Math.max(2, Runtime.getRuntime().availableProcessors()), "accessgrid-webhook-io-");
+        server.setExecutor(io);
+        server.createContext(path, this::exchange);
+        server.start();
+        return this;
+    }
+
+    /**
+     * The bound port, e.g. after binding to port 0.
+     */
+    public synchronized int port() {
+        if (server == null) throw new IllegalStateException("Not started");
+        return server.getAddress().getPort();
+    }
+
+    public int receive(Function<String, String> header, byte[] body) {
+        return receive(header, body, null);
+    }
+
+    /**
+     * Verify, parse and queue one delivery.
+     *
+     * @param header           Header lookup by name (case-insensitive)
+     * @param body             Raw request body
+     * @param peerCertificates Client certificate chain, or null
+     * @return HTTP status to reply with: 200 when queued (or when no handler
+     *         wants the event), 401 if verification fails, 400 if the body is
+     *         not an event, 429 at capacity, 503 when stopped
+     */
+    public int receive(Function<String, String> header, byte[] body, Certificate[] peerCertificates) {
+        if (!permits.tryAcquire()) {
+            rejected.incrementAndGet();
+            return 429;
+        }
+        boolean queued = false;
+        try {
+            if (!verifier.verify(header, body, peerCertificates)) return 401;
+            Models.WebhookEvent event;
+            try {
+                event = codec != null
+                    ? codecs.read(codec, Models.WebhookEvent.class, body)
+                    : codecs.reader(Models.WebhookEvent.class).readValue(body);
+            } catch (IOException e) {
+                return 400;
+            }
+            if (event == null) return 400;
+            received.incrementAndGet();
+            List<Handler> typed = handlers.getOrDefault(event.getType(), Collections.emptyList());
+            if (typed.isEmpty() && anyHandlers.isEmpty()) return 200;
+            try {
+                dispatch.execute(() -> run(event, typed));
+                queued = true;
+            } catch (RejectedExecutionException e) {
+                return 503;
+            }
+            return 200;
+        } finally {
+            if (!queued) permits.release();
+        }
+    }
+
+    private void run(Models.WebhookEvent event, List<Handler> typed) {
+        try {
+            for (Handler handler : typed) invoke(handler, event);
+            for (Handler handler : anyHandlers) invoke(handler, event);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void invoke(Handler handler, Models.WebhookEvent event) {
+        try {
+            handler.handle(event);
+        } catch (Throwable e) {
+            failed.incrementAndGet();
+            try {
+                errorHandler.onError(event, e);
+            } catch (RuntimeException ignored) {
+                // Never let error reporting take down the dispatch thread
+            }
+        }
+    }
+
+    private void exchange(HttpExchange exchange) throws IOException {
+        try {
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                exchange.getResponseHeaders().set("Allow", "POST");
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            String length = exchange.getRequestHeaders().getFirst("Content-Length");
+            if (length != null && parseLength(length) > maxBodyBytes) {
+                exchange.sendResponseHeaders(413, -1);
+                return;
+            }
+            byte[] body;
+            try (InputStream in = exchange.getRequestBody()) {
+                body = in.readNBytes(maxBodyBytes + 1);
+            }
+            if (body.length > maxBodyBytes) {
+                exchange.sendResponseHeaders(413, -1);
+                return;
+            }
+            int status = receive(exchange.getRequestHeaders()::getFirst, body, peerCertificates(exchange));
+            if (status == 429) exchange.getResponseHeaders().set("Retry-After", "1");
+            exchange.sendResponseHeaders(status, -1);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private static long parseLength(String length) {
+        try {
+            return Long.parseLong(length.trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static Certificate[] peerCertificates(HttpExchange exchange) {
+        if (!(exchange instanceof HttpsExchange)) return null;
+        try {
+            return ((HttpsExchange) exchange).getSSLSession().getPeerCertificates();
+        } catch (SSLPeerUnverifiedException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Events queued or being handled.
+     */
+    public int inFlight() {
+        return maxInFlight - permits.availablePermits();
+    }
+
+    /**
+     * Deliveries verified and parsed.
+     */
+    public long received() {
+        return received.get();
+    }
+
+    /**
+     * Deliveries answered 429 because the receiver was at capacity.
+     */
+    public long rejected() {
+        return rejected.get();
+    }
+
+    /**
+     * Handler invocations that threw.
+     */
+    public long failed() {
+        return failed.get();
+    }
+
+    /**
+     * Stop accepting deliveries and wait up to {@code drain} for queued
+     * events to be handled.
+     */
+    public void stop(Duration drain) {
+        HttpServer current;
+        ExecutorService currentIo;
+        synchronized (this) {
+            current = server;
+            currentIo = io;
+            server = null;
+            io = null;
+        }
+        if (current != null) {
+            current.stop(0);
+            currentIo.shutdown();
+        }
+        if (ownsDispatch) {
+            dispatch.shutdown();
+            try {
+                if (!dispatch.awaitTermination(drain.toMillis(), TimeUnit.MILLISECONDS)) dispatch.shutdownNow();
+            } catch (InterruptedException e) {
+                dispatch.shutdownNow();
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        stop(Duration.ofSeconds(5));
+    }
+
+    /**
+     * Configuration for a {@link WebhookReceiver}.
+     */
+    public static final class Builder {
+        private WebhookVerifier verifier;
+        private final Map<String, List<Handler>> handlers = new HashMap<>();
+        private final List<Handler> anyHandlers = new ArrayList<>();
+        private ErrorHandler errorHandler = (event, error) ->
+            log.warn("Webhook handler failed for event {} ({})", event.getId(), event.getType(), error);
+        private int maxBodyBytes = 1 << 20;
+        private int maxInFlight = 1024;
+        private int dispatchThreads = 4 * Runtime.getRuntime().availableProcessors();
+        private ExecutorService executor;
+        private InetSocketAddress address = new InetSocketAddress(0);
+        private String path = "/";
+        private SSLContext sslContext;
+        private boolean needClientAuth;
+
+        private Builder() {
+        }
+
+        /**
+         * How deliveries are authenticated. Required.
+         */
+        public Builder verifier(WebhookVerifier verifier) {
+            this.verifier = verifier;
+            return this;
+        }
+
+        /**
+         * Handle events of one type, e.g. {@code "ag.card.issued"}. Handlers
+         * for the same event run in registration order.
+         */
+        public Builder on(String type, Handler handler) {
+            handlers.computeIfAbsent(type, k -> new ArrayList<>()).add(Objects.requireNonNull(handler));
+            return this;
+        }
+
+        /**
+         * Handle every event, after its type-specific handlers.
+         */
+        public Builder onAny(Handler handler) {
+            anyHandlers.add(Objects.requireNonNull(handler));
+            return this;
+        }
+
+        /**
+         * Called when a handler throws (default: log a warning).
+         */
+        public Builder onError(ErrorHandler errorHandler) {
+            this.errorHandler = Objects.requireNonNull(errorHandler);
+            return this;
+        }
+
+        /**
+         * Largest accepted body; larger deliveries get 413 (default 1 MB).
+         */
+        public Builder maxBodyBytes(int maxBodyBytes) {
+            if (maxBodyBytes <= 0 || maxBodyBytes == Integer.MAX_VALUE) throw new IllegalArgumentException("maxBodyBytes out of range");
+            this.maxBodyBytes = maxBodyBytes;
+            return this;
+        }
+
+        /**
+         * Events queued or running before deliveries get 429 (default 1024).
+         */
+        public Builder maxInFlight(int maxInFlight) {
+            if (maxInFlight <= 0) throw new IllegalArgumentException("maxInFlight must be positive");
+            this.maxInFlight = maxInFlight;
+            return this;
+        }
+
+        /**
+         * Pool size when virtual threads are unavailable (default 4 per CPU).
+         */
+        public Builder dispatchThreads(int dispatchThreads) {
+            if (dispatchThreads <= 0) throw new IllegalArgumentException("dispatchThreads must be positive");
+            this.dispatchThreads = dispatchThreads;
+            return this;
+        }
+
+        /**
+         * Run handlers on this executor instead; the caller shuts it down.
+         */
+        public Builder executor(ExecutorService executor) {
+            this.executor = executor;
+            return this;
+        }
+
+        public Builder port(int port) {
+            this.address = new InetSocketAddress(port);
+            return this;
+        }
+
+        public Builder address(InetSocketAddress address) {
+            this.address = Objects.requireNonNull(address);
+            return this;
+        }
+
+        /**
+         * Context path deliveries are posted to (default {@code /}).
+         */
+        public Builder path(String path) {
+            this.path = Objects.requireNonNull(path);
+            return this;
+        }
+
+        /**
+         * Serve HTTPS. With {@code needClientAuth}, the TLS handshake requires
+         * a client certificate trusted by the context; pair it with
+         * {@link WebhookVerifier#clientCertificate} to pin the sender's.
+         */
+        public Builder https(SSLContext sslContext, boolean needClientAuth) {
+            this.sslContext = Objects.requireNonNull(sslContext);
+            this.needClientAuth = needClientAuth;
+            return this;
+        }
+
+        public WebhookReceiver build() {
+            return new WebhookReceiver(this);
+        }
+    }
+}
@@ -0,0 +1,421 @@
+package com.organization.accessgrid;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Processing stage between a {@link WebhookReceiver} and application
+ * handlers: drops redelivered events and restores per-card order.
+ *
+ * <pre>{@code
+ * WebhookSequencer sequencer = WebhookSequencer.builder()
+ *     .handler(event -> apply(event))
+ *     .build();
+ * WebhookReceiver.builder().onAny(sequencer)...
+ * }</pre>
+ *
+ * <p>Event ids are remembered for {@link Builder#seenTtl} (at most
+ * {@link Builder#maxSeenIds} of them, oldest forgotten first); repeats are
+ * dropped. Each event with a card id is then held for
+ * {@link Builder#window} after it arrives, so a delivery retried out of
+ * order can overtake it; events of a card are released in
+ * {@code created_at} order. A card's events are always handled on the
+ * same lane, one at a time, while different cards proceed in parallel.
+ * Events without a card id skip the window and are spread over all lanes.
+ *
+ * <p>At most {@link Builder#maxPending} events are buffered or waiting for
+ * their lane. Past that the oldest buffered event is dropped and reported
+ * to {@link Builder#onDrop}. A dropped event's id is forgotten, so the
+ * sender's redelivery of it is handled rather than taken for a duplicate.
+ */
+public final class WebhookSequencer implements WebhookReceiver.Handler, AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(WebhookSequencer.class);
+
+    private static final Comparator<Entry> ORDER = Comparator
+        .comparing((Entry entry) -> entry.createdAt)
+        .thenComparingLong(entry -> entry.sequence);
+
+    private final WebhookReceiver.Handler handler;
+    private final WebhookReceiver.ErrorHandler errorHandler;
+    private final WebhookReceiver.Handler onDrop;
+    private final Function<Models.WebhookEvent, String> cardIdOf;
+    private final long windowMillis;
+    private final long seenTtlMillis;
+    private final int maxSeenIds;
+    private final int maxPending;
+    private final Clock clock;
+
+    private final Map<String, Long> seen = new LinkedHashMap<>();
+    private final ArrayDeque<Entry> arrivals = new ArrayDeque<>();
+    private final Map<String, PriorityQueue<Entry>> byCard = new HashMap<>();
+    private final AtomicInteger pending = new AtomicInteger();
+    private final AtomicLong duplicates = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicInteger unkeyed = new AtomicInteger();
+    private final ExecutorService[] lanes;
+    private final ScheduledExecutorService timer;
+    private long sequence;
+
+    private WebhookSequencer(Builder builder) {
+        this.handler = Objects.requireNonNull(builder.handler, "handler is required");
+        this.errorHandler = builder.errorHandler;
+        this.onDrop = builder.onDrop;
+        this.cardIdOf = builder.cardIdOf;
+        this.windowMillis = builder.window.toMillis();
+        this.seenTtlMillis = builder.seenTtl.toMillis();
+        this.maxSeenIds = builder.maxSeenIds;
+        this.maxPending = builder.maxPending;
+        this.clock = builder.clock;
+        this.lanes = new ExecutorService[builder.lanes];
+        for (int i = 0; i < lanes.length; i++) {
+            lanes[i] = Executors.newSingleThreadExecutor(daemon("accessgrid-webhook-lane-" + i));
+        }
+        if (builder.tick) {
+            this.timer = Executors.newSingleThreadScheduledExecutor(daemon("accessgrid-webhook-sequencer"));
+            long period = Math.max(1, windowMillis / 4);
+            timer.scheduleAtFixedRate(this::release, period, period, TimeUnit.MILLISECONDS);
+        } else {
+            this.timer = null;
+        }
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    @Override
+    public void handle(Models.WebhookEvent event) {
+        long now = clock.millis();
+        String cardId;
+        synchronized (this) {
+            if (event.getId() != null && !markSeen(event.getId(), now)) {
+                duplicates.incrementAndGet();
+                return;
+            }
+            if (pending.get() >= maxPending && !dropOldest()) {
+                // Everything pending is already queued on a lane; this event is the oldest unqueued one
+                drop(event);
+                return;
+            }
+            pending.incrementAndGet();
+            cardId = cardIdOf.apply(event);
+            if (cardId != null && windowMillis > 0) {
+                Entry entry = new Entry(event, cardId, createdAt(event, now), sequence++, now + windowMillis);
+                arrivals.addLast(entry);
+                byCard.computeIfAbsent(cardId, k -> new PriorityQueue<>(ORDER)).add(entry);
+                return;
+            }
+        }
+        dispatch(cardId, event);
+    }
+
+    /**
+     * Release every event whose window has passed. Runs on a timer; call it
+     * directly when the timer is disabled.
+     */
+    void release() {
+        long now = clock.millis();
+        synchronized (this) {
+            Entry head;
+            while ((head = arrivals.peekFirst()) != null && (head.released || head.dueAt <= now)) {
+                arrivals.pollFirst();
+                if (head.released) continue;
+                // Everything of this card ordered before the due event goes out first, even if it arrived later
+                PriorityQueue<Entry> queue = byCard.get(head.cardId);
+                Entry next;
+                do {
+                    next = queue.poll();
+                    next.released = true;
+                    dispatch(next.cardId, next.event);
+                } while (next != head);
+                if (queue.isEmpty()) byCard.remove(head.cardId);
+            }
+        }
+    }
+
+    /**
+     * Release all buffered events now, regardless of their window.
+     */
+    public synchronized void flush() {
+        for (Entry entry : arrivals) entry.dueAt = Long.MIN_VALUE;
+        release();
+    }
+
+    private boolean markSeen(String id, long now) {
+        Iterator<Map.Entry<String, Long>> it = seen.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, Long> oldest = it.next();
+            if (oldest.getValue() > now && seen.size() < maxSeenIds) break;
+            it.remove();
+        }
+        return seen.putIfAbsent(id, now + seenTtlMillis) == null;
+    }
+
+    private boolean dropOldest() {
+        Entry oldest;
+        while ((oldest = arrivals.pollFirst()) != null) {
+            if (oldest.released) continue;
+            PriorityQueue<Entry> queue = byCard.get(oldest.cardId);
+            queue.remove(oldest);
+            if (queue.isEmpty()) byCard.remove(oldest.cardId);
+            pending.decrementAndGet();
+            drop(oldest.event);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Report an event that will not be handled. Called holding the lock.
+     */
+    private void drop(Models.WebhookEvent event) {
+        // Let a redelivery through
+        if (event.getId() != null) seen.remove(event.getId());
+        dropped.incrementAndGet();
+        try {
+            onDrop.handle(event);
+        } catch (Exception e) {
+            log.warn("Webhook drop callback failed for event {}", event.getId(), e);
+        }
+    }
+
+    private void dispatch(String cardId, Models.WebhookEvent event) {
+        // Events without a card need no order, so any lane will do
+        String key = cardId != null ? cardId : event.getId();
+        int lane = Math.floorMod(key != null ? key.hashCode() : unkeyed.getAndIncrement(), lanes.length);
+        lanes[lane].execute(() -> {
+            try {
+                handler.handle(event);
+            } catch (Throwable e) {
+                errorHandler.onError(event, e);
+            } finally {
+                pending.decrementAndGet();
+            }
+        });
+    }
+
+    private static Instant createdAt(Models.WebhookEvent event, long now) {
+        String createdAt = event.getCreatedAt();
+        if (createdAt != null) {
+            try {
+                return OffsetDateTime.parse(createdAt).toInstant();
+            } catch (DateTimeParseException e) {
+                // Fall through to arrival time
+            }
+        }
+        return Instant.ofEpochMilli(now);
+    }
+
+    /**
+     * Events buffered or waiting for their lane.
+     */
+    public int pending() {
+        return pending.get();
+    }
+
+    /**
+     * Events dropped as redeliveries.
+     */
+    public long duplicates() {
+        return duplicates.get();
+    }
+
+    /**
+     * Events dropped because {@link Builder#maxPending} was reached.
+     */
+    public long dropped() {
+        return dropped.get();
+    }
+
+    /**
+     * Release buffered events, then wait for lanes to finish them.
+     */
+    @Override
+    public void close() {
+        if (timer != null) timer.shutdownNow();
+        flush();
+        for (ExecutorService lane : lanes) lane.shutdown();
+        try {
+            for (ExecutorService lane : lanes) lane.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static ThreadFactory daemon(String name) {
+        return runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Card id in the event data: {@code card_id}, {@code access_pass_id} or
+     * {@code id}, whichever comes first.
+     */
+    static String dataCardId(Models.WebhookEvent event) {
+        JsonNode data = event.getData();
+        if (data == null) return null;
+        for (String field : new String[] {"card_id", "access_pass_id", "id"}) {
+            JsonNode value = data.get(field);
+            if (value != null && value.isTextual()) return value.asText();
+        }
+        return null;
+    }
+
+    private static final class Entry {
+        final Models.WebhookEvent event;
+        final String cardId;
+        final Instant createdAt;
+        final long sequence;
+        long dueAt;
+        boolean released;
+
+        Entry(Models.WebhookEvent event, String cardId, Instant createdAt, long sequence, long dueAt) {
+            this.event = event;
+            this.cardId = cardId;
+            this.createdAt = createdAt;
+            this.sequence = sequence;
+            this.dueAt = dueAt;
+        }
+    }
+
+    /**
+     * Configuration for a {@link WebhookSequencer}.
+     */
+    public static final class Builder {
+        private WebhookReceiver.Handler handler;
+        private WebhookReceiver.ErrorHandler errorHandler = (event, error) ->
+            log.warn("Webhook handler failed for event {} ({})", event.getId(), event.getType(), error);
+        private WebhookReceiver.Handler onDrop = event ->
+            log.warn("Dropped webhook event {} ({}): sequencer full", event.getId(), event.getType());
+        private Function<Models.WebhookEvent, String> cardIdOf = WebhookSequencer::dataCardId;
+        private Duration window = Duration.ofSeconds(2);
+        private Duration seenTtl = Duration.ofMinutes(10);
+        private int maxSeenIds = 100_000;
+        private int maxPending = 10_000;
+        private int lanes = Runtime.getRuntime().availableProcessors();
+        private Clock clock = Clock.systemUTC();
+        private boolean tick = true;
+
+        private Builder() {
+        }
+
+        /**
+         * Application handler, called once per distinct event. Required.
+         */
+        public Builder handler(WebhookReceiver.Handler handler) {
+            this.handler = handler;
+            return this;
+        }
+
+        public Builder onError(WebhookReceiver.ErrorHandler errorHandler) {
+            this.errorHandler = Objects.requireNonNull(errorHandler);
+            return this;
+        }
+
+        /**
+         * Told about events dropped for lack of room (default: log a warning).
+         */
+        public Builder onDrop(WebhookReceiver.Handler onDrop) {
+            this.onDrop = Objects.requireNonNull(onDrop);
+            return this;
+        }
+
+        /**
+         * How to find an event's card (default: from the event data); null
+         * means the event is not ordered.
+         */
+        public Builder cardIdOf(Function<Models.WebhookEvent, String> cardIdOf) {
+            this.cardIdOf = Objects.requireNonNull(cardIdOf);
+            return this;
+        }
+
+        /**
+         * How long each event waits for earlier ones of its card (default 2s;
+         * zero disables reordering).
+         */
+        public Builder window(Duration window) {
+            if (window.isNegative()) throw new IllegalArgumentException("window must not be negative");
+            this.window = window;
+            return this;
+        }
+
+        /**
+         * How long an event id is remembered (default 10 minutes).
+         */
+        public Builder seenTtl(Duration seenTtl) {
+            if (seenTtl.isNegative()) throw new IllegalArgumentException("seenTtl must not be negative");
+            this.seenTtl = seenTtl;
+            return this;
+        }
+
+        /**
+         * Event ids remembered at once (default 100,000).
+         */
+        public Builder maxSeenIds(int maxSeenIds) {
+            if (maxSeenIds <= 0) throw new IllegalArgumentException("maxSeenIds must be positive");
+            this.maxSeenIds = maxSeenIds;
+            return this;
+        }
+
+        /**
+         * Events buffered or queued before the oldest is dropped (default 10,000).
+         */
+        public Builder maxPending(int maxPending) {
+            if (maxPending <= 0) throw new IllegalArgumentException("maxPending must be positive");
+            this.maxPending = maxPending;
+            return this;
+        }
+
+        /**
+         * Cards are hashed onto this many single-threaded lanes (default one per CPU).
+         */
+        public Builder lanes(int lanes) {
+            if (lanes <= 0) throw new IllegalArgumentException("lanes must be positive");
+            this.lanes = lanes;
+            return this;
+        }
+
+        Builder clock(Clock clock) {
+            this.clock = clock;
+            return this;
+        }
+
+        /**
+         * Disable the release timer; tests drive {@code release()} directly.
+         */
+        Builder manualRelease() {
+            this.tick = false;
+            return this;
+        }
+
+        public WebhookSequencer build() {
+            return new WebhookSequencer(this);
+        }
+    }
+}
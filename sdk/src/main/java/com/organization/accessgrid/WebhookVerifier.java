@@ -0,0 +1,98 @@
+package com.organization.accessgrid;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.cert.Certificate;
+import java.security.cert.CertificateException;
+import java.security.cert.CertificateFactory;
+import java.util.Locale;
+import java.util.function.Function;
+
+/**
+ * Authenticates a webhook delivery before it is parsed. Comparisons are
+ * constant-time.
+ */
+@FunctionalInterface
+public interface WebhookVerifier {
+    /**
+     * @param header           Header lookup by name (case-insensitive)
+     * @param body             Raw request body
+     * @param peerCertificates Client certificate chain over mutual TLS, or null
+     */
+    boolean verify(Function<String, String> header, byte[] body, Certificate[] peerCertificates);
+
+    /**
+     * HMAC-SHA256 signature in the {@code X-PAYLOAD-SIG} header, computed the
+     * same way the client signs its own requests: hex of the MAC over the
+     * base64-encoded body.
+     */
+    static WebhookVerifier hmacSha256(String secret) {
+        return hmacSha256(secret, "X-PAYLOAD-SIG");
+    }
+
+    static WebhookVerifier hmacSha256(String secret, String headerName) {
+        Signer signer = new Signer(secret);
+        return (header, body, peerCertificates) -> {
+            String signature = header.apply(headerName);
+            if (signature == null) return false;
+            byte[] expected = signer.sign(body, 0, body.length).getBytes(StandardCharsets.US_ASCII);
+            byte[] actual = signature.trim().toLowerCase(Locale.ROOT).getBytes(StandardCharsets.US_ASCII);
+            return MessageDigest.isEqual(expected, actual);
+        };
+    }
+
+    /**
+     * Shared token in an {@code Authorization: Bearer} header.
+     */
+    static WebhookVerifier bearerToken(String token) {
+        byte[] expected = ("Bearer " + token).getBytes(StandardCharsets.UTF_8);
+        return (header, body, peerCertificates) -> {
+            String authorization = header.apply("Authorization");
+            return authorization != null
+                && MessageDigest.isEqual(expected, authorization.getBytes(StandardCharsets.UTF_8));
+        };
+    }
+
+    /**
+     * Pin the client certificate presented over mutual TLS (PEM or DER
+     * base64, e.g. {@code Webhook.getClientCert()}). Requires
+     * {@link WebhookReceiver.Builder#https} with client authentication.
+     */
+    static WebhookVerifier clientCertificate(String certificate) {
+        byte[] pinned;
+        try {
+            String pem = certificate.contains("-----BEGIN")
+                ? certificate
+                : "-----BEGIN CERTIFICATE-----\n" + certificate + "\n-----END CERTIFICATE-----\n";
+            pinned = CertificateFactory.getInstance("X.509")
+                .generateCertificate(new ByteArrayInputStream(pem.getBytes(StandardCharsets.US_ASCII)))
+                .getEncoded();
+        } catch (CertificateException e) {
+            throw new IllegalArgumentException("Invalid client certificate", e);
+        }
+        return (header, body, peerCertificates) -> {
+            if (peerCertificates == null || peerCertificates.length == 0) return false;
+            try {
+                return MessageDigest.isEqual(pinned, peerCertificates[0].getEncoded());
+            } catch (CertificateException e) {
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Accept a delivery only if every verifier accepts it.
+     */
+    default WebhookVerifier and(WebhookVerifier other) {
+        return (header, body, peerCertificates) ->
+            verify(header, body, peerCertificates) && other.verify(header, body, peerCertificates);
+    }
+
+    /**
+     * Accept everything; for local testing only.
+     */
+    static WebhookVerifier none() {
+        return (header, body, peerCertificates) -> true;
+    }
+}
@@ -0,0 +1,486 @@
+package com.organization.accessgrid;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32C;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Local write-ahead journal of write operations, so a crash mid-batch
+ * leaves a record of which calls may not have been made.
+ *
+ * <p>With {@code AccessGridClient.builder().journal(...)}, every non-GET
+ * call is recorded (operation, resource id and exact request body) before
+ * it is sent, and marked done once the API answers, successfully or with
+ * a client error. Calls that fail in transport, are throttled (429) or hit
+ * a server error (5xx) stay pending. After a restart,
+ * {@link #pending()} lists what was still pending and {@link #replay}
+ * re-sends it. Replay is at-least-once: a call that reached the API just
+ * before the crash is sent again.
+ *
+ * <p>Records are appended to memory-mapped segment files. A record is in
+ * the page cache, and so survives a process crash, as soon as it is
+ * written; with {@link Builder#fsync} (the default) the caller also waits
+ * for it to reach the disk. Concurrent callers share one {@code force}:
+ * whoever finds no flush running flushes everything appended so far, and
+ * the rest wait for it, so the cost of a sync is spread over the whole
+ * group. Done markers are not waited for. Segments are deleted once every
+ * operation in them and in older segments is done.
+ */
+public final class WriteJournal implements AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(WriteJournal.class);
+
+    private static final String SUFFIX = ".journal";
+    private static final byte BEGIN = 1;
+    private static final byte DONE = 2;
+    // length + crc
+    private static final int HEADER = 8;
+
+    private final Path directory;
+    private final int segmentBytes;
+    private final boolean fsync;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition flushed = lock.newCondition();
+    private final ArrayDeque<Segment> segments = new ArrayDeque<>();
+    private final Map<Long, Segment> open = new HashMap<>();
+    private final Map<Long, Entry> recovered = new LinkedHashMap<>();
+    private Segment current;
+    private long nextId = 1;
+    private long nextSegment = 1;
+    // Logical byte offsets over all segments, for group commit
+    private long appended;
+    private long durable;
+    private boolean flushing;
+    private boolean closed;
+
+    private WriteJournal(Builder builder) throws IOException {
+        this.directory = builder.directory;
+        this.segmentBytes = builder.segmentBytes;
+        this.fsync = builder.fsync;
+        Files.createDirectories(directory);
+        recover();
+        // Always append to a fresh segment, so nothing after a torn record is ever reused
+        roll(0);
+    }
+
+    /**
+     * Open a journal in a directory, recovering whatever it holds.
+     */
+    public static WriteJournal open(Path directory) {
+        return builder(directory).build();
+    }
+
+    public static Builder builder(Path directory) {
+        return new Builder(directory);
+    }
+
+    /**
+     * Record an operation about to be sent; with fsync, returns once the
+     * record is on disk.
+     *
+     * @return Entry id to pass to {@link #complete}
+     */
+    long begin(ApiOperation operation, String resourceId, byte[] body, int offset, int length) {
+        byte[] name = operation.name().getBytes(StandardCharsets.US_ASCII);
+        byte[] id = resourceId != null ? resourceId.getBytes(StandardCharsets.UTF_8) : null;
+        int size = 1 + 8 + 8 + 2 + name.length + 4 + (id != null ? id.length : 0) + 4 + (body != null ? length : 0);
+        long target;
+        long entry;
+        lock.lock();
+        try {
+            ensureOpen();
+            ByteBuffer buffer = reserve(size);
+            entry = nextId++;
+            buffer.put(BEGIN).putLong(entry).putLong(System.currentTimeMillis());
+            buffer.putShort((short) name.length).put(name);
+            putBytes(buffer, id, 0, id != null ? id.length : 0);
+            putBytes(buffer, body, offset, length);
+            seal(buffer, size);
+            current.pending++;
+            open.put(entry, current);
+            target = appended;
+        } finally {
+            lock.unlock();
+        }
+        if (fsync) awaitDurable(target);
+        return entry;
+    }
+
+    /**
+     * Mark an operation done. Not synced: if the marker is lost in a crash,
+     * the operation is replayed.
+     */
+    public void complete(long entry) {
+        lock.lock();
+        try {
+            if (closed) return;
+            Segment segment = open.remove(entry);
+            if (segment == null) return;
+            recovered.remove(entry);
+            ByteBuffer buffer = reserve(1 + 8);
+            buffer.put(DONE).putLong(entry);
+            seal(buffer, 1 + 8);
+            segment.pending--;
+            deleteCompletedSegments();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Operations recovered at open that have not been completed since.
+     */
+    public List<Entry> pending() {
+        lock.lock();
+        try {
+            return new ArrayList<>(recovered.values());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Re-send every pending recovered operation in journal order, marking
+     * each done once the API answers. Operations the API rejects are
+     * completed and logged; ones that fail in transport, are throttled or
+     * hit a server error stay pending.
+     *
+     * @return Operations the API accepted
+     */
+    public int replay(AccessGridClient client) {
+        int accepted = 0;
+        for (Entry entry : pending()) {
+            try {
+                client.resend(entry.operation, entry.resourceId, entry.body);
+                complete(entry.id);
+                accepted++;
+            } catch (AccessGridClient.AccessGridException e) {
+                if (AccessGridClient.answered(e)) {
+                    log.warn("Replayed {} {} was rejected; dropping it", entry.operation, entry.resourceId, e);
+                    complete(entry.id);
+                } else {
+                    log.warn("Replay of {} {} failed; it stays pending", entry.operation, entry.resourceId, e);
+                }
+            }
+        }
+        return accepted;
+    }
+
+    /**
+     * Operations begun and not yet completed, recovered or not.
+     */
+    public int size() {
+        lock.lock();
+        try {
+            return open.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            if (closed) return;
+            closed = true;
+            for (Segment segment : segments) {
+                segment.map.force();
+                segment.channel.close();
+            }
+        } catch (IOException e) {
+            throw new AccessGridClient.AccessGridException("Failed to close journal in " + directory, e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void ensureOpen() {
+        if (closed) throw new IllegalStateException("Journal is closed");
+    }
+
+    /**
+     * Space for a record of {@code size} payload bytes, positioned after
+     * the header. Caller holds the lock.
+     */
+    private ByteBuffer reserve(int size) {
+        // Leave room for a zero length that marks the end of the segment
+        if (current.map.remaining() < HEADER + size + 4) {
+            roll(size);
+        }
+        MappedByteBuffer map = current.map;
+        map.position(map.position() + HEADER);
+        return map;
+    }
+
+    /**
+     * Write the header of the record just put, making it visible to
+     * recovery. Caller holds the lock.
+     */
+    private void seal(ByteBuffer map, int size) {
+        int end = map.position();
+        int start = end - size;
+        CRC32C crc = new CRC32C();
+        ByteBuffer payload = map.duplicate();
+        payload.position(start).limit(end);
+        crc.update(payload);
+        map.putInt(start - HEADER + 4, (int) crc.getValue());
+        // Length last: a record without one reads as the end of the segment
+        map.putInt(start - HEADER, size);
+        appended += HEADER + size;
+    }
+
+    private static void putBytes(ByteBuffer buffer, byte[] bytes, int offset, int length) {
+        if (bytes == null) {
+            buffer.putInt(-1);
+        } else {
+            buffer.putInt(length).put(bytes, offset, length);
+        }
+    }
+
+    private void awaitDurable(long target) {
+        lock.lock();
+        try {
+            while (durable < target) {
+                if (flushing) {
+                    flushed.awaitUninterruptibly();
+                    continue;
+                }
+                // Lead a group commit covering everything appended so far
+                flushing = true;
+                long upTo = appended;
+                MappedByteBuffer map = current.map;
+                lock.unlock();
+                try {
+                    map.force();
+                } finally {
+                    lock.lock();
+                    flushing = false;
+                    durable = Math.max(durable, upTo);
+                    flushed.signalAll();
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void roll(int recordSize) {
+        try {
+            if (current != null && fsync) {
+                // Earlier segments must be on disk before group commits only force the new one
+                current.map.force();
+                durable = appended;
+            }
+            int size = Math.max(segmentBytes, HEADER + recordSize + 4);
+            Path path = directory.resolve(String.format("%020d%s", nextSegment++, SUFFIX));
+            FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            current = new Segment(path, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+            segments.addLast(current);
+            deleteCompletedSegments();
+        } catch (IOException e) {
+            throw new AccessGridClient.AccessGridException("Failed to create journal segment in " + directory, e);
+        }
+    }
+
+    private void deleteCompletedSegments() {
+        Segment oldest;
+        while ((oldest = segments.peekFirst()) != current && oldest.pending == 0) {
+            segments.pollFirst();
+            try {
+                oldest.channel.close();
+                Files.deleteIfExists(oldest.path);
+            } catch (IOException e) {
+                log.warn("Failed to delete journal segment {}", oldest.path, e);
+            }
+        }
+    }
+
+    private void recover() throws IOException {
+        List<Path> paths = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + SUFFIX)) {
+            for (Path path : stream) paths.add(path);
+        }
+        Collections.sort(paths);
+        for (Path path : paths) {
+            String name = path.getFileName().toString();
+            nextSegment = Math.max(nextSegment, Long.parseLong(name.substring(0, name.length() - SUFFIX.length())) + 1);
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            Segment segment = new Segment(path, channel, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+            segments.addLast(segment);
+            scan(segment);
+        }
+    }
+
+    private void scan(Segment segment) {
+        ByteBuffer map = segment.map;
+        CRC32C crc = new CRC32C();
+        while (map.remaining() >= HEADER) {
+            int start = map.position();
+            int size = map.getInt();
+            int checksum = map.getInt();
+            if (size <= 0 || size > map.remaining()) break;
+            ByteBuffer payload = map.duplicate();
+            payload.limit(map.position() + size);
+            crc.reset();
+            crc.update(payload.duplicate());
+            if ((int) crc.getValue() != checksum) {
+                log.warn("Torn journal record at {} in {}; ignoring the rest of the segment", start, segment.path);
+                break;
+            }
+            map.position(map.position() + size);
+            byte kind = payload.get();
+            long entry = payload.getLong();
+            nextId = Math.max(nextId, entry + 1);
+            if (kind == BEGIN) {
+                long recordedAt = payload.getLong();
+                byte[] name = new byte[payload.getShort()];
+                payload.get(name);
+                byte[] id = getBytes(payload);
+                byte[] body = getBytes(payload);
+                ApiOperation operation = ApiOperation.valueOf(new String(name, StandardCharsets.US_ASCII));
+                recovered.put(entry, new Entry(entry, operation,
+                    id != null ? new String(id, StandardCharsets.UTF_8) : null, body, recordedAt));
+                open.put(entry, segment);
+                segment.pending++;
+            } else if (kind == DONE) {
+                recovered.remove(entry);
+                Segment begun = open.remove(entry);
+                if (begun != null) begun.pending--;
+            }
+        }
+    }
+
+    private static byte[] getBytes(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) return null;
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    private static final class Segment {
+        final Path path;
+        final FileChannel channel;
+        final MappedByteBuffer map;
+        int pending;
+
+        Segment(Path path, FileChannel channel, MappedByteBuffer map) {
+            this.path = path;
+            this.channel = channel;
+            this.map = map;
+        }
+    }
+
+    /**
+     * An operation recorded in the journal.
+     */
+    public static final class Entry {
+        private final long id;
+        private final ApiOperation operation;
+        private final String resourceId;
+        private final byte[] body;
+        private final long recordedAt;
+
+        Entry(long id, ApiOperation operation, String resourceId, byte[] body, long recordedAt) {
+            this.id = id;
+            this.operation = operation;
+            this.resourceId = resourceId;
+            this.body = body;
+            this.recordedAt = recordedAt;
+        }
+
+        public long getId() {
+            return id;
+        }
+
+        public ApiOperation getOperation() {
+            return operation;
+        }
+
+        public String getResourceId() {
+            return resourceId;
+        }
+
+        /**
+         * The JSON body as sent, or null for operations without one.
+         */
+        public String getBody() {
+            return body != null ? new String(body, StandardCharsets.UTF_8) : null;
+        }
+
+        /**
+         * When the operation was recorded, in epoch milliseconds.
+         */
+        public long getRecordedAt() {
+            return recordedAt;
+        }
+
+        @Override
+        public String toString() {
+            return "Entry(id=" + id + ", operation=" + operation + ", resourceId=" + resourceId + ")";
+        }
+    }
+
+    /**
+     * Options for a {@link WriteJournal}.
+     */
+    public static final class Builder {
+        private final Path directory;
+        private int segmentBytes = 64 << 20;
+        private boolean fsync = true;
+
+        private Builder(Path directory) {
+            this.directory = Objects.requireNonNull(directory);
+        }
+
+        /**
+         * Size of each segment file (default 64 MB). Larger records get a
+         * segment of their own.
+         */
+        public Builder segmentBytes(int segmentBytes) {
+            if (segmentBytes < 4096) throw new IllegalArgumentException("segmentBytes must be at least 4096");
+            this.segmentBytes = segmentBytes;
+            return this;
+        }
+
+        /**
+         * Wait for each operation record to reach the disk before sending
+         * (default true). Without it, records survive a process crash but
+         * not a power loss.
+         */
+        public Builder fsync(boolean fsync) {
+            this.fsync = fsync;
+            return this;
+        }
+
+        public WriteJournal build() {
+            try {
+                return new WriteJournal(this);
+            } catch (IOException e) {
+                throw new AccessGridClient.AccessGridException("Failed to open journal in " + directory, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.organization.accessgrid;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import com.organization.accessgrid.PriorityDispatcher.Priority;
+
+/**
+ * Tests for the multi-account client pool.
+ */
+public class AccessGridClientPoolTest {
+    @SuppressWarnings("unchecked")
+    private static HttpResponse<String> ok() {
+        HttpResponse<String> response = mock(HttpResponse.class);
+        when(response.statusCode()).thenReturn(200);
+        when(response.body()).thenReturn("{}");
+        return response;
+    }
+
+    private static String header(HttpRequest request, String name) {
+        return request.headers().firstValue(name).orElse(null);
+    }
+
+    @Test
+    public void testClientsShareSenderAndSignLikeStandaloneClients() throws Exception {
+        HttpSender sender = mock(HttpSender.class);
+        HttpResponse<String> response = ok();
+        when(sender.send(any(HttpRequest.class))).thenReturn(response);
+        AccessGridClientPool pool = AccessGridClientPool.builder()
+            .httpSender(sender)
+            .baseUrl("https://api.test.com/v1")
+            .build();
+
+        pool.client("account-a", "secret-a").accessCards().get("card-1");
+        pool.client("account-b", "secret-b").accessCards().get("card-2");
+
+        AccessGridClient standalone = new AccessGridClient("account-a", "secret-a", sender, "https://api.test.com/v1");
+        standalone.accessCards().get("card-1");
+
+        ArgumentCaptor<HttpRequest> requests = ArgumentCaptor.forClass(HttpRequest.class);
+        verify(sender, times(3)).send(requests.capture());
+        HttpRequest pooled = requests.getAllValues().get(0);
+        assertEquals("account-a", header(pooled, "X-ACCT-ID"));
+        assertEquals(header(requests.getAllValues().get(2), "X-PAYLOAD-SIG"), header(pooled, "X-PAYLOAD-SIG"));
+        assertEquals("account-b", header(requests.getAllValues().get(1), "X-ACCT-ID"));
+        assertEquals(standalone.generateSignature("{}"), pool.client("account-a", "secret-a").generateSignature("{}"));
+    }
+
+    @Test
+    public void testBusyTenantDoesNotStarveOthers() throws Exception {
+        CountDownLatch busySent = new CountDownLatch(1);
+        CountDownLatch releaseBusy = new CountDownLatch(1);
+        HttpResponse<String> response = ok();
+        HttpSender sender = mock(HttpSender.class);
+        when(sender.send(any(HttpRequest.class))).thenAnswer(invocation -> {
+            HttpRequest request = invocation.getArgument(0);
+            if ("busy".equals(header(request, "X-ACCT-ID"))) {
+                busySent.countDown();
+                releaseBusy.await();
+            }
+            return response;
+        });
+        AccessGridClientPool pool = AccessGridClientPool.builder()
+            .httpSender(sender)
+            .baseUrl("https://api.test.com/v1")
+            .tenantConcurrency(1)
+            .tenantReserved(0)
+            .build();
+
+        Thread first = new Thread(() -> pool.client("busy", "secret").accessCards().get("card-1"));
+        Thread second = new Thread(() -> pool.client("busy", "secret").accessCards().get("card-2"));
+        first.start();
+        assertTrue(busySent.await(5, TimeUnit.SECONDS));
+        second.start();
+        PriorityDispatcher busy = pool.dispatcher("busy");
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (busy.waiting(Priority.INTERACTIVE) < 1) {
+            assertTrue(System.nanoTime() < deadline, "timed out waiting for the second call to queue");
+            Thread.sleep(1);
+        }
+
+        // Another account has a cap of its own
+        pool.client("quiet", "secret").accessCards().get("card-3");
+        assertEquals(1, busy.waiting(Priority.INTERACTIVE));
+
+        releaseBusy.countDown();
+        first.join(5000);
+        second.join(5000);
+        verify(sender, times(3)).send(any(HttpRequest.class));
+    }
+
+    @Test
+    public void testTenantCacheIsBoundedAndFollowsSecretRotation() {
+        AccessGridClientPool pool = AccessGridClientPool.builder()
+            .httpSender(mock(HttpSender.class))
+            .maxTenants(2)
+            .build();
+        String before = pool.client("account-a", "old-secret").generateSignature("{}");
+        PriorityDispatcher dispatcher = pool.dispatcher("account-a");
+
+        String after = pool.client("account-a", "new-secret").generateSignature("{}");
+        assertNotEquals(before, after);
+        assertSame(dispatcher, pool.dispatcher("account-a"));
+        assertEquals(1, pool.size());
+
+        pool.client("account-b", "secret");
+        pool.client("account-c", "secret");
+        assertEquals(2, pool.size());
+        assertNull(pool.dispatcher("account-a"));
+        assertNotNull(pool.dispatcher("account-c"));
+    }
+
+    @Test
+    public void testTenantSignerKnowsItsSecretAndSignsEmptyPayloadOnce() {
+        Signer signer = AccessGridClient.signer("secret-a");
+        assertTrue(signer.signsFor("secret-a"));
+        assertFalse(signer.signsFor("secret-b"));
+        assertFalse(signer.signsFor(null));
+
+        String empty = signer.emptyPayload();
+        assertEquals(signer.sign("{}"), empty);
+        assertSame(empty, signer.emptyPayload());
+    }
+}
@@ -59,6 +59,28 @@ public class AccessGridClientTest {
             () -> new AccessGridClient("account", null));
     }
 
+    @Test
+    public void testClientsShareOneMapper() {
+        AccessGridClient other = new AccessGridClient("other-account", "other-secret", mockSender, null);
+        assertSame(client.objectMapper, other.objectMapper);
+    }
+
+    @Test
+    public void testBytecodeAccessorsDeserialize() throws IOException, InterruptedException {
+        AccessGridClient bytecodeClient = AccessGridClient.builder()
+            .accountId("test-account-id")
+            .apiSecret("test-secret-key")
+            .httpSender(mockSender)
+            .bytecodeAccessors(true)
+            .build();
+        mockResponse("{\"keys\":[{\"id\":\"card-1\",\"state\":\"active\",\"full_name\":\"Ada\"}],\"total_count\":1}");
+
+        java.util.List<Models.Card> cards = bytecodeClient.accessCards().list();
+
+        assertNotSame(client.objectMapper, bytecodeClient.objectMapper);
+        assertEquals("Ada", cards.get(0).getFullName());
+    }
+
     // --- Model builder tests ---
 
     @Test
@@ -112,6 +134,20 @@ public class AccessGridClientTest {
         assertEquals("https://example.com/install", card.getInstallUrl());
     }
 
+    @Test
+    public void testKeptRequestBodySurvivesNextRequest() throws IOException, InterruptedException {
+        mockResponse("{\"id\":\"card-123\",\"state\":\"active\"}");
+
+        client.accessCards().provision(Models.ProvisionCardRequest.builder().fullName("John Doe").build());
+        client.accessCards().provision(Models.ProvisionCardRequest.builder().fullName("Jane Roe").build());
+
+        // A sender that keeps requests (a recorder, a retry) must still read the original body
+        ArgumentCaptor<HttpRequest> captor = ArgumentCaptor.forClass(HttpRequest.class);
+        verify(mockSender, times(2)).send(captor.capture());
+        String first = new String(HttpMessages.body(captor.getAllValues().get(0)), java.nio.charset.StandardCharsets.UTF_8);
+        assertTrue(first.contains("John Doe"), first);
+    }
+
     @Test
     public void testGetCardSendsGetToKeyCards() throws IOException, InterruptedException {
         mockResponse("{\"id\":\"card-456\",\"state\":\"active\",\"full_name\":\"Jane Doe\",\"card_number\":\"12345\",\"site_code\":\"100\"}");
@@ -125,6 +161,134 @@ public class AccessGridClientTest {
         assertEquals("Jane Doe", card.getFullName());
     }
 
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testGetManyFansOutInInputOrder() throws Exception {
+        java.util.concurrent.CountDownLatch allInFlight = new java.util.concurrent.CountDownLatch(3);
+        when(mockSender.send(any(HttpRequest.class))).thenAnswer(invocation -> {
+            HttpRequest request = invocation.getArgument(0);
+            String id = request.uri().getPath().substring(request.uri().getPath().lastIndexOf('/') + 1);
+            // Every distinct card must be requested before any is answered
+            allInFlight.countDown();
+            assertTrue(allInFlight.await(5, java.util.concurrent.TimeUnit.SECONDS));
+            HttpResponse<String> response = mock(HttpResponse.class);
+            when(response.statusCode()).thenReturn("missing".equals(id) ? 404 : 200);
+            when(response.body()).thenReturn("missing".equals(id) ? "{\"error\":\"not found\"}" : "{\"id\":\"" + id + "\"}");
+            return response;
+        });
+
+        java.util.List<CardResult> results = client.accessCards()
+            .getMany(java.util.Arrays.asList("card-2", "missing", "card-1", "card-2"), 8);
+
+        assertEquals(4, results.size());
+        assertEquals("card-2", results.get(0).getCard().getId());
+        assertFalse(results.get(1).isSuccess());
+        assertInstanceOf(AccessGridClient.AccessGridException.class, results.get(1).getError());
+        assertEquals("card-1", results.get(2).orThrow().getId());
+        assertSame(results.get(0), results.get(3));
+        verify(mockSender, times(3)).send(any(HttpRequest.class));
+    }
+
+    @Test
+    public void testInterruptedGetManyStopsAndKeepsInterruptFlag() throws Exception {
+        java.util.concurrent.CountDownLatch inFlight = new java.util.concurrent.CountDownLatch(2);
+        java.util.concurrent.CountDownLatch interrupted = new java.util.concurrent.CountDownLatch(2);
+        when(mockSender.send(any(HttpRequest.class))).thenAnswer(invocation -> {
+            inFlight.countDown();
+            try {
+                Thread.sleep(60_000);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+                throw e;
+            }
+            return null;
+        });
+        java.util.List<String> cardIds = new java.util.ArrayList<>();
+        for (int i = 0; i < 50; i++) cardIds.add("card-" + i);
+
+        Throwable[] thrown = new Throwable[1];
+        boolean[] flagKept = new boolean[1];
+        Thread caller = new Thread(() -> {
+            try {
+                client.accessCards().getMany(cardIds, 2);
+            } catch (RuntimeException e) {
+                thrown[0] = e;
+            }
+            flagKept[0] = Thread.currentThread().isInterrupted();
+        });
+        caller.start();
+        assertTrue(inFlight.await(5, java.util.concurrent.TimeUnit.SECONDS));
+        caller.interrupt();
+        caller.join(5000);
+
+        assertFalse(caller.isAlive());
+        assertInstanceOf(AccessGridClient.AccessGridException.class, thrown[0]);
+        assertTrue(flagKept[0]);
+        // The other worker is interrupted too, and neither moves on to the remaining cards
+        assertTrue(interrupted.await(5, java.util.concurrent.TimeUnit.SECONDS));
+        verify(mockSender, times(2)).send(any(HttpRequest.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testScanAllListsTemplatesConcurrently() throws Exception {
+        java.util.concurrent.CountDownLatch bothListing = new java.util.concurrent.CountDownLatch(2);
+        when(mockSender.send(any(HttpRequest.class))).thenAnswer(invocation -> {
+            HttpRequest request = invocation.getArgument(0);
+            String query = request.uri().getQuery();
+            String body;
+            if (request.uri().getPath().endsWith("/card-template-pairs")) {
+                body = "{\"card_template_pairs\":[{\"ios_template\":{\"ex_id\":\"t1\"},\"android_template\":{\"ex_id\":\"t2\"}},"
+                    + "{\"ios_template\":{\"ex_id\":\"t1\"}}]}";
+            } else if (query.contains("page=1")) {
+                // Neither template's first page is answered until both are requested
+                bothListing.countDown();
+                assertTrue(bothListing.await(5, java.util.concurrent.TimeUnit.SECONDS));
+                String template = query.contains("template_id=t1") ? "t1" : "t2";
+                body = "{\"keys\":[{\"id\":\"" + template + "-a\"}],\"total_pages\":" + ("t1".equals(template) ? 2 : 1) + "}";
+            } else {
+                assertTrue(query.contains("template_id=t1") && query.contains("state=active"), query);
+                body = "{\"keys\":[{\"id\":\"t1-b\"}],\"total_pages\":2}";
+            }
+            HttpResponse<String> response = mock(HttpResponse.class);
+            when(response.statusCode()).thenReturn(200);
+            when(response.body()).thenReturn(body);
+            return response;
+        });
+
+        java.util.List<String> ids = new java.util.ArrayList<>();
+        try (CardScan scan = client.accessCards().scanAll(Models.ListKeysParams.builder().state("active").build())) {
+            for (Models.Card card : scan) {
+                ids.add(card.getId());
+            }
+            assertThrows(IllegalStateException.class, scan::iterator);
+        }
+
+        assertEquals(new java.util.HashSet<>(java.util.Arrays.asList("t1-a", "t1-b", "t2-a")), new java.util.HashSet<>(ids));
+        assertTrue(ids.indexOf("t1-a") < ids.indexOf("t1-b"));
+        verify(mockSender, times(4)).send(any(HttpRequest.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testScanSurfacesTemplateFailure() throws Exception {
+        when(mockSender.send(any(HttpRequest.class))).thenAnswer(invocation -> {
+            HttpRequest request = invocation.getArgument(0);
+            boolean broken = request.uri().getQuery().contains("template_id=broken");
+            HttpResponse<String> response = mock(HttpResponse.class);
+            when(response.statusCode()).thenReturn(broken ? 500 : 200);
+            when(response.body()).thenReturn(broken ? "{\"error\":\"boom\"}" : "{\"keys\":[],\"total_pages\":1}");
+            return response;
+        });
+
+        try (CardScan scan = client.accessCards().scan(java.util.Arrays.asList("ok", "broken"), null, 2)) {
+            java.util.Iterator<Models.Card> cards = scan.iterator();
+            assertThrows(AccessGridClient.AccessGridException.class, cards::hasNext);
+            assertFalse(cards.hasNext());
+        }
+        assertThrows(IllegalArgumentException.class, () -> client.accessCards().scan(java.util.Arrays.asList("t1"), null, 0));
+    }
+
     @Test
     public void testUpdateCardSendsPatchToKeyCards() throws IOException, InterruptedException {
         mockResponse("{\"id\":\"card-789\",\"state\":\"active\",\"full_name\":\"Updated Name\"}");
@@ -174,6 +338,59 @@ public class AccessGridClientTest {
         assertTrue(query.contains("state=active"), "Should include state param");
     }
 
+    @Test
+    public void testListParamsFilterConstructorKept() throws IOException, InterruptedException {
+        mockResponse("{\"keys\":[]}");
+
+        client.accessCards().list(new Models.ListKeysParams("tmpl-1", "active"));
+
+        String query = captureRequest().uri().getQuery();
+        assertTrue(query.contains("template_id=tmpl-1") && query.contains("state=active"), query);
+        assertFalse(query.contains("page"), query);
+    }
+
+    @Test
+    public void testListSummariesSkipsHeavyFields() throws IOException, InterruptedException {
+        mockResponse("{\"keys\":[{\"id\":\"card-1\",\"state\":\"active\",\"card_template_id\":\"tmpl-1\","
+            + "\"file_data\":\"AAAA\",\"details\":{\"a\":[1,2]},\"devices\":[{\"id\":\"d\"}],"
+            + "\"expiration_date\":\"2027-01-01\"}]}");
+
+        java.util.List<Models.CardSummary> cards = client.accessCards().listSummaries(
+            Models.ListKeysParams.builder().state("active").page(2).perPage(50).build());
+
+        assertEquals(1, cards.size());
+        assertEquals("card-1", cards.get(0).getId());
+        assertEquals("tmpl-1", cards.get(0).getCardTemplateId());
+        assertEquals("2027-01-01", cards.get(0).getExpirationDate());
+        String query = captureRequest().uri().getQuery();
+        assertTrue(query.contains("per_page=50"), "Should include per_page param");
+        assertTrue(query.contains("page=2"), "Should include page param");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testListAllFetchesPagesLazily() throws IOException, InterruptedException {
+        HttpResponse<String> page1 = mock(HttpResponse.class);
+        when(page1.statusCode()).thenReturn(200);
+        when(page1.body()).thenReturn("{\"keys\":[{\"id\":\"a\"},{\"id\":\"b\"}],\"page\":1,\"total_pages\":2}");
+        HttpResponse<String> page2 = mock(HttpResponse.class);
+        when(page2.statusCode()).thenReturn(200);
+        when(page2.body()).thenReturn("{\"keys\":[{\"id\":\"c\"}],\"page\":2,\"total_pages\":2}");
+        when(mockSender.send(any(HttpRequest.class))).thenReturn(page1, page2);
+
+        java.util.Iterator<Models.CardSummary> cards = client.accessCards()
+            .listAllSummaries(Models.ListKeysParams.builder().perPage(2).build()).iterator();
+
+        assertEquals("a", cards.next().getId());
+        verify(mockSender, times(1)).send(any(HttpRequest.class));
+        assertEquals("b", cards.next().getId());
+        assertEquals("c", cards.next().getId());
+        assertFalse(cards.hasNext());
+        ArgumentCaptor<HttpRequest> captor = ArgumentCaptor.forClass(HttpRequest.class);
+        verify(mockSender, times(2)).send(captor.capture());
+        assertTrue(captor.getAllValues().get(1).uri().getQuery().contains("page=2"));
+    }
+
     @Test
     public void testSuspendCardSendsPostToSuspend() throws IOException, InterruptedException {
         mockResponse("{}");
@@ -510,6 +727,168 @@ public class AccessGridClientTest {
         assertTrue(captured.headers().firstValue("User-Agent").orElse("").startsWith("accessgrid.java/"));
     }
 
+    // --- Request listeners ---
+
+    @Test
+    public void testListenerInjectsHeadersAndSeesEveryPhase() throws IOException, InterruptedException {
+        java.util.List<String> seen = new java.util.ArrayList<>();
+        RequestListener listener = new RequestListener() {
+            @Override
+            public void onStart(RequestContext context) {
+                seen.add("start:" + context.operation());
+            }
+
+            @Override
+            public void onBeforeSend(RequestContext context, HttpRequest.Builder request) {
+                request.header("traceparent", "00-trace-span-01");
+            }
+
+            @Override
+            public void onPhase(RequestContext context, RequestPhase phase) {
+                seen.add(phase.name());
+            }
+
+            @Override
+            public void onComplete(RequestContext context) {
+                seen.add("complete:" + context.statusCode());
+                assertTrue(context.endNanos() >= context.parsedNanos());
+                assertTrue(context.parsedNanos() >= context.firstByteNanos());
+                assertTrue(context.firstByteNanos() >= context.signedNanos());
+                assertTrue(context.signedNanos() >= context.serializedNanos());
+                assertNotNull(context.request());
+                assertNull(context.failure());
+            }
+        };
+        AccessGridClient traced = AccessGridClient.builder()
+            .accountId("test-account-id")
+            .apiSecret("test-secret-key")
+            .httpSender(mockSender)
+            .listener(listener)
+            .build();
+        mockResponse("{\"id\":\"card-1\"}");
+
+        traced.accessCards().update(Models.UpdateCardRequest.builder().cardId("card-1").title("CTO").build());
+
+        assertEquals("00-trace-span-01", captureRequest().headers().firstValue("traceparent").orElse(null));
+        assertEquals(java.util.List.of("start:UPDATE_CARD", "SERIALIZE", "SIGN", "SEND", "RECEIVE", "PARSE", "complete:200"), seen);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testListenerSeesFailureAndSurvivesOwnExceptions() throws IOException, InterruptedException {
+        java.util.concurrent.atomic.AtomicReference<RequestContext> completed = new java.util.concurrent.atomic.AtomicReference<>();
+        AccessGridClient traced = AccessGridClient.builder()
+            .accountId("test-account-id")
+            .apiSecret("test-secret-key")
+            .httpSender(mockSender)
+            .listener(new RequestListener() {
+                @Override
+                public void onPhase(RequestContext context, RequestPhase phase) {
+                    throw new IllegalStateException("listener bug");
+                }
+            })
+            .listener(new RequestListener() {
+                @Override
+                public void onComplete(RequestContext context) {
+                    completed.set(context);
+                }
+            })
+            .build();
+        HttpResponse<String> response = mock(HttpResponse.class);
+        when(response.statusCode()).thenReturn(404);
+        when(response.body()).thenReturn("{\"error\":\"not found\"}");
+        when(mockSender.send(any(HttpRequest.class))).thenReturn(response);
+
+        assertThrows(AccessGridClient.AccessGridException.class, () -> traced.accessCards().suspend("card-9"));
+
+        assertEquals(ApiOperation.SUSPEND_CARD, completed.get().operation());
+        assertEquals("card-9", completed.get().resourceId());
+        assertEquals(404, completed.get().statusCode());
+        assertEquals(0, completed.get().parsedNanos());
+        assertTrue(completed.get().failure() instanceof AccessGridClient.AccessGridException);
+    }
+
+    // --- Request body and signing ---
+
+    @Test
+    public void testPublishedBodyIsSignedJson() throws Exception {
+        mockResponse("{\"id\":\"card-1\"}");
+
+        Models.ProvisionCardRequest provision = Models.ProvisionCardRequest.builder()
+            .cardTemplateId("t1").fullName("Zoë Ünïcode").build();
+        client.accessCards().provision(provision);
+
+        HttpRequest captured = captureRequest();
+        String body = readBody(captured);
+        assertEquals(client.objectMapper.writeValueAsString(provision), body);
+        assertEquals(referenceSignature("test-secret-key", body),
+            captured.headers().firstValue("X-PAYLOAD-SIG").orElse(null));
+    }
+
+    @Test
+    public void testByteRangeSignatureMatchesStringSignature() throws Exception {
+        byte[] padded = "xx{\"name\":\"ab\"}yy".getBytes(java.nio.charset.StandardCharsets.UTF_8);
+
+        assertEquals(referenceSignature("test-secret-key", "{\"name\":\"ab\"}"),
+            client.generateSignature(padded, 2, padded.length - 4));
+        assertEquals(referenceSignature("test-secret-key", "{}"), client.generateSignature("{}"));
+    }
+
+    @Test
+    public void testDefaultSenderDiscardsOnlySuccessfulBodies() throws Exception {
+        com.sun.net.httpserver.HttpServer server = com.sun.net.httpserver.HttpServer.create(
+            new java.net.InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", exchange -> {
+            int status = exchange.getRequestURI().getPath().endsWith("/fail") ? 422 : 200;
+            byte[] body = (status == 200 ? "{\"ok\":true}" : "invalid").getBytes(java.nio.charset.StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(status, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        server.start();
+        try {
+            DefaultHttpSender sender = new DefaultHttpSender(java.net.http.HttpClient.newHttpClient());
+            String base = "http://127.0.0.1:" + server.getAddress().getPort();
+
+            HttpResponse<String> ok = sender.send(HttpRequest.newBuilder(java.net.URI.create(base + "/ok")).build(), true, null);
+            HttpResponse<String> failed = sender.send(HttpRequest.newBuilder(java.net.URI.create(base + "/fail")).build(), true, null);
+
+            assertEquals(200, ok.statusCode());
+            assertNull(ok.body());
+            assertEquals("invalid", failed.body());
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    private static String readBody(HttpRequest request) throws Exception {
+        java.io.ByteArrayOutputStream out = new java.io.ByteArrayOutputStream();
+        java.util.concurrent.CompletableFuture<Void> done = new java.util.concurrent.CompletableFuture<>();
+        request.bodyPublisher().orElseThrow().subscribe(new java.util.concurrent.Flow.Subscriber<java.nio.ByteBuffer>() {
+            public void onSubscribe(java.util.concurrent.Flow.Subscription s) { s.request(Long.MAX_VALUE); }
+            public void onNext(java.nio.ByteBuffer item) {
+                byte[] chunk = new byte[item.remaining()];
+                item.get(chunk);
+                out.write(chunk, 0, chunk.length);
+            }
+            public void onError(Throwable t) { done.completeExceptionally(t); }
+            public void onComplete() { done.complete(null); }
+        });
+        done.get();
+        return out.toString(java.nio.charset.StandardCharsets.UTF_8);
+    }
+
+    private static String referenceSignature(String secret, String payload) throws Exception {
+        String encoded = java.util.Base64.getEncoder().encodeToString(payload.getBytes(java.nio.charset.StandardCharsets.UTF_8));
+        javax.crypto.Mac mac = javax.crypto.Mac.getInstance("HmacSHA256");
+        mac.init(new javax.crypto.spec.SecretKeySpec(secret.getBytes(java.nio.charset.StandardCharsets.UTF_8), "HmacSHA256"));
+        StringBuilder hex = new StringBuilder();
+        for (byte b : mac.doFinal(encoded.getBytes(java.nio.charset.StandardCharsets.UTF_8))) {
+            hex.append(String.format("%02x", b));
+        }
+        return hex.toString();
+    }
+
     // --- Error handling ---
 
     // --- Card model: new fields ---
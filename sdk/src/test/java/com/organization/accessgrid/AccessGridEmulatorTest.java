@@ -0,0 +1,121 @@
+package com.organization.accessgrid;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Tests for the in-memory API emulator, driven through the real client.
+ */
+public class AccessGridEmulatorTest {
+    private static final String ACCOUNT_ID = "emulated-account";
+    private static final String SECRET = "emulated-secret";
+
+    private static AccessGridEmulator.Builder emulator() {
+        return AccessGridEmulator.builder().accountId(ACCOUNT_ID).apiSecret(SECRET);
+    }
+
+    private static AccessGridClient client(HttpSender sender) {
+        return new AccessGridClient(ACCOUNT_ID, SECRET, sender, null);
+    }
+
+    @Test
+    public void testCardLifecycleUpdatesTemplateAndEventLog() {
+        AccessGridClient client = client(emulator().build());
+        Models.Template template = client.console().createTemplate(
+            Models.CreateTemplateRequest.builder().name("Staff").platform("apple").build());
+        Models.Card card = client.accessCards().provision(Models.ProvisionCardRequest.builder()
+            .cardTemplateId(template.getId()).fullName("Ada").build());
+        client.accessCards().provision(Models.ProvisionCardRequest.builder()
+            .cardTemplateId(template.getId()).fullName("Grace").build());
+        assertEquals("active", card.getState());
+
+        client.accessCards().suspend(card.getId());
+        client.accessCards().suspend(card.getId());
+        assertEquals("suspended", client.accessCards().get(card.getId()).getState());
+        assertEquals(1, client.console().readTemplate(template.getId()).getActiveKeysCount());
+        List<Models.Card> suspended = client.accessCards().list(
+            Models.ListKeysParams.builder().templateId(template.getId()).state("suspended").build());
+        assertEquals(1, suspended.size());
+
+        client.accessCards().unlink(card.getId());
+        AccessGridClient.AccessGridException error = assertThrows(AccessGridClient.AccessGridException.class,
+            () -> client.accessCards().resume(card.getId()));
+        assertTrue(error.getMessage().contains("unlinked"), error.getMessage());
+        assertThrows(AccessGridClient.AccessGridException.class, () -> client.accessCards().get("card-404"));
+
+        Models.Template counted = client.console().readTemplate(template.getId());
+        assertEquals(2, counted.getIssuedKeysCount());
+        assertEquals(1, counted.getActiveKeysCount());
+        List<String> types = new ArrayList<>();
+        for (Models.Event event : client.console().eventLog(template.getId())) types.add(event.getType());
+        assertEquals(Arrays.asList("ag.card.issued", "ag.card.issued", "ag.card.suspended", "ag.card.unlinked"), types);
+    }
+
+    @Test
+    public void testRejectsWrongAccountOrSignature() {
+        AccessGridEmulator emulator = emulator().build();
+        emulator.seedCards("tpl", 1);
+        assertNotNull(client(emulator).accessCards().get("card-1"));
+
+        AccessGridClient wrongSecret = new AccessGridClient(ACCOUNT_ID, "other-secret", emulator, null);
+        AccessGridClient.AccessGridException error = assertThrows(AccessGridClient.AccessGridException.class,
+            () -> wrongSecret.accessCards().get("card-1"));
+        assertTrue(error.getMessage().contains("Invalid signature"), error.getMessage());
+        AccessGridClient wrongAccount = new AccessGridClient("other-account", SECRET, emulator, null);
+        assertThrows(AccessGridClient.AccessGridException.class, () -> wrongAccount.accessCards().list());
+    }
+
+    @Test
+    public void testPaginatesSeededCardsAndLedger() {
+        AccessGridEmulator emulator = emulator().build();
+        List<String> first = emulator.seedCards("tpl-a", 120);
+        List<String> second = emulator.seedCards("tpl-b", 30);
+        AccessGridClient client = client(emulator);
+
+        List<String> listed = new ArrayList<>();
+        for (Models.Card card : client.accessCards().listAll(Models.ListKeysParams.builder().templateId("tpl-a").build())) {
+            listed.add(card.getId());
+        }
+        assertEquals(first, listed);
+        assertEquals(3, emulator.requests(ApiOperation.LIST_CARDS));
+
+        int ledgerItems = 0;
+        for (Models.LedgerItem item : client.console().ledgerItemsAll(Models.LedgerItemsParams.builder().perPage(40).build())) {
+            assertEquals("provision", item.getKind());
+            ledgerItems++;
+        }
+        assertEquals(150, ledgerItems);
+
+        int scanned = 0;
+        try (CardScan scan = client.accessCards().scan(Arrays.asList("tpl-a", "tpl-b"), null, 2)) {
+            for (Models.Card card : scan) scanned++;
+        }
+        assertEquals(first.size() + second.size(), scanned);
+    }
+
+    @Test
+    public void testServesOverHttpWithInjectedFaults() {
+        try (AccessGridEmulator emulator = emulator().latency(Duration.ofMillis(1)).rateLimit(2).build().start()) {
+            emulator.seedCards("tpl", 1);
+            AccessGridClient client = AccessGridClient.builder()
+                .accountId(ACCOUNT_ID)
+                .apiSecret(SECRET)
+                .baseUrl(emulator.baseUrl())
+                .build();
+
+            emulator.failNext(ApiOperation.GET_CARD, 503);
+            assertThrows(AccessGridClient.AccessGridException.class, () -> client.accessCards().get("card-1"));
+            assertEquals("card-1", client.accessCards().get("card-1").getId());
+            // The bucket holds two requests and refills at two a second
+            AccessGridClient.AccessGridException throttled = assertThrows(AccessGridClient.AccessGridException.class,
+                () -> client.accessCards().get("card-1"));
+            assertTrue(throttled.getMessage().contains("Rate limit"), throttled.getMessage());
+            assertEquals(3, emulator.requests(ApiOperation.GET_CARD));
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.organization.accessgrid;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests for the latency-driven bulk concurrency limit.
+ */
+public class AdaptiveLimiterTest {
+    private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    /**
+     * Feed {@code windows} windows of calls, each with the limit in use.
+     */
+    private static void run(AdaptiveLimiter limiter, int windows, long rttNanos, boolean overloaded) {
+        for (int i = 0; i < windows * 10; i++) limiter.sample(rttNanos, limiter.limit(), overloaded);
+    }
+
+    @Test
+    public void testGrowsWhileLatencyHoldsAndShrinksWhenItClimbs() {
+        AdaptiveLimiter limiter = AdaptiveLimiter.builder().initialLimit(8).maxLimit(100).window(10).build();
+        run(limiter, 200, 20 * MS, false);
+        assertEquals(100, limiter.limit(), "flat latency should grow the limit to its maximum");
+
+        run(limiter, 5, 60 * MS, false);
+        int shrunk = limiter.limit();
+        assertTrue(shrunk < 100, "limit should shrink once latency triples, was " + shrunk);
+        run(limiter, 5, 20 * MS, false);
+        assertTrue(limiter.limit() > shrunk, "limit should recover with latency");
+    }
+
+    @Test
+    public void testShrinksASmallLimitWhenLatencyDoubles() {
+        AdaptiveLimiter limiter = AdaptiveLimiter.builder().initialLimit(4).maxLimit(4).window(10).build();
+        run(limiter, 50, 20 * MS, false);
+        assertEquals(4, limiter.limit());
+
+        run(limiter, 1, 40 * MS, false);
+        assertEquals(3, limiter.limit(), "limit should shrink once latency doubles");
+    }
+
+    @Test
+    public void testBacksOffOnThrottlingOncePerWindow() {
+        AdaptiveLimiter limiter = AdaptiveLimiter.builder().initialLimit(100).minLimit(4).backoff(0.5).window(10).build();
+        assertTrue(limiter.sample(20 * MS, 100, true));
+        assertEquals(50, limiter.limit());
+        // The rest of the window answers the same overload
+        for (int i = 0; i < 9; i++) assertFalse(limiter.sample(20 * MS, 100, true));
+        assertEquals(50, limiter.limit());
+
+        run(limiter, 10, 20 * MS, true);
+        assertEquals(4, limiter.limit());
+    }
+
+    @Test
+    public void testDoesNotGrowAnUnusedLimit() {
+        AdaptiveLimiter limiter = AdaptiveLimiter.builder().initialLimit(32).window(10).build();
+        for (int i = 0; i < 1000; i++) limiter.sample(20 * MS, 4, false);
+        assertEquals(32, limiter.limit());
+
+        assertThrows(IllegalArgumentException.class, () -> AdaptiveLimiter.builder().minLimit(10).maxLimit(5).build());
+        assertThrows(IllegalArgumentException.class, () -> AdaptiveLimiter.builder().backoff(1));
+    }
+}
@@ -0,0 +1,159 @@
+package com.organization.accessgrid;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * Tests for the webhook-fed card state view.
+ */
+public class CardStateViewTest {
+    private static Models.WebhookEvent event(String cardId, String state, String createdAt) {
+        ObjectNode data = JsonNodeFactory.instance.objectNode().put("id", cardId);
+        if (state != null) data.put("state", state);
+        return new Models.WebhookEvent("evt_" + cardId + createdAt, "ag.card.updated", createdAt, data);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static HttpResponse<String> response(String body) {
+        HttpResponse<String> response = mock(HttpResponse.class);
+        when(response.statusCode()).thenReturn(200);
+        when(response.body()).thenReturn(body);
+        return response;
+    }
+
+    @Test
+    public void testSeedsFromPagedListThenAppliesEvents() throws Exception {
+        HttpSender sender = mock(HttpSender.class);
+        HttpResponse<String> page1 = response("{\"keys\":[{\"id\":\"a\",\"state\":\"active\",\"card_number\":\"1\"}],\"page\":1,\"total_pages\":2}");
+        HttpResponse<String> page2 = response("{\"keys\":[{\"id\":\"b\",\"state\":\"active\"}],\"page\":2,\"total_pages\":2}");
+        when(sender.send(any(HttpRequest.class))).thenReturn(page1).thenReturn(page2);
+        AccessGridClient client = new AccessGridClient("account", "secret", sender, "https://api.example.com");
+
+        CardStateView view = CardStateView.builder()
+            .client(client)
+            .params(Models.ListKeysParams.builder().templateId("tpl").build())
+            .build();
+        List<String> changes = new ArrayList<>();
+        view.addListener((before, after, event) ->
+            changes.add(after.getId() + ":" + (before != null ? before.getState() : null) + "->" + after.getState()));
+
+        assertEquals(2, view.seed());
+        view.handle(event("a", "suspended", "2026-01-01T00:00:02Z"));
+        // Older than what was applied: ignored
+        view.handle(event("a", "active", "2026-01-01T00:00:01Z"));
+        // Same state again: no change reported
+        view.handle(event("a", "suspended", "2026-01-01T00:00:03Z"));
+
+        assertEquals("suspended", view.state("a"));
+        assertEquals("1", view.get("a").getCardNumber());
+        assertEquals(1, view.cards("active").size());
+        assertEquals(List.of("a:null->active", "b:null->active", "a:active->suspended"), changes);
+        verify(sender, times(2)).send(any(HttpRequest.class));
+    }
+
+    @Test
+    public void testSeedKeepsStateFromEventsDuringSeeding() {
+        CardStateView view = CardStateView.builder().build();
+        view.seed(List.of(new Models.CardSummary("a", "active", "tpl", null, null, null)));
+        List<Models.CardSummary> listed = List.of(
+            new Models.CardSummary("a", "active", "tpl", null, null, null),
+            new Models.CardSummary("b", "active", "tpl", null, null, null));
+        // The event lands while the (stale) pages are being read
+        view.seed(() -> {
+            view.handle(event("a", "deleted", "2026-01-01T00:00:00Z"));
+            return listed.iterator();
+        });
+        assertEquals("deleted", view.state("a"));
+        assertEquals("tpl", view.get("a").getCardTemplateId());
+        assertEquals(2, view.size());
+    }
+
+    @Test
+    public void testReseedRemovesCardsNoLongerListed() {
+        CardStateView view = CardStateView.builder().build();
+        List<String> changes = new ArrayList<>();
+        view.addListener((before, after, event) ->
+            changes.add(before.getId() + ":" + before.getState() + "->" + (after != null ? after.getState() : null)));
+        view.seed(List.of(
+            new Models.CardSummary("a", "active", "tpl", null, null, null),
+            new Models.CardSummary("b", "active", "tpl", null, null, null)));
+        changes.clear();
+
+        // c is new while the listing is read, so the listing cannot know it
+        view.seed(() -> {
+            view.handle(event("c", "active", "2026-01-01T00:00:00Z"));
+            return List.of(new Models.CardSummary("b", "active", "tpl", null, null, null)).iterator();
+        });
+
+        assertNull(view.get("a"));
+        assertEquals("active", view.state("c"));
+        assertEquals(2, view.size());
+        assertEquals(List.of("a:active->null"), changes);
+    }
+
+    @Test
+    public void testFetchesUnknownCardOnlyWhenEventLacksState() throws Exception {
+        HttpSender sender = mock(HttpSender.class);
+        HttpResponse<String> card = response("{\"id\":\"c\",\"state\":\"active\",\"card_template_id\":\"tpl\"}");
+        when(sender.send(any(HttpRequest.class))).thenReturn(card);
+        AccessGridClient client = new AccessGridClient("account", "secret", sender, "https://api.example.com");
+        CardStateView view = CardStateView.builder()
+            .client(client)
+            .params(Models.ListKeysParams.builder().build())
+            .build();
+
+        view.handle(event("c", null, "2026-01-01T00:00:00Z"));
+        view.handle(event("d", "active", "2026-01-01T00:00:00Z"));
+
+        assertEquals("tpl", view.get("c").getCardTemplateId());
+        assertEquals("active", view.state("d"));
+        assertNull(view.get("e"));
+        verify(sender, times(1)).send(any(HttpRequest.class));
+    }
+
+    @Test
+    public void testIgnoresEventsThatAreNotCardEvents() {
+        CardStateView view = CardStateView.builder().build();
+        ObjectNode data = JsonNodeFactory.instance.objectNode().put("id", "a").put("state", "active");
+        view.handle(new Models.WebhookEvent("evt_1", "ag.template.updated", "2026-01-01T00:00:00Z", data));
+        view.handle(new Models.WebhookEvent("evt_2", null, "2026-01-01T00:00:00Z", data));
+        assertEquals(0, view.size());
+        view.handle(new Models.WebhookEvent("evt_3", "ag.card.issued", "2026-01-01T00:00:00Z", data));
+        assertEquals("active", view.state("a"));
+    }
+
+    @Test
+    public void testAppliesEventsOnlyToCardsMatchingParams() {
+        CardStateView view = CardStateView.builder()
+            .params(Models.ListKeysParams.builder().templateId("tpl").state("active").build())
+            .build();
+        List<String> changes = new ArrayList<>();
+        view.addListener((before, after, event) -> changes.add(
+            (before != null ? before.getId() + ":" + before.getState() : "null") + "->" + (after != null ? after.getState() : null)));
+        view.seed(List.of(new Models.CardSummary("a", "active", "tpl", null, null, null)));
+        changes.clear();
+
+        ObjectNode other = JsonNodeFactory.instance.objectNode()
+            .put("id", "b").put("state", "active").put("card_template_id", "other");
+        view.handle(new Models.WebhookEvent("evt_b", "ag.card.issued", "2026-01-01T00:00:00Z", other));
+        view.handle(event("c", "suspended", "2026-01-01T00:00:00Z"));
+        assertNull(view.get("b"));
+        assertNull(view.get("c"));
+
+        // Leaving the filtered state removes the card
+        view.handle(event("a", "suspended", "2026-01-01T00:00:01Z"));
+        assertNull(view.get("a"));
+        assertEquals(0, view.size());
+        assertEquals(List.of("a:active->null"), changes);
+    }
+}
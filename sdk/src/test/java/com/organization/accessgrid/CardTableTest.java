@@ -0,0 +1,95 @@
+package com.organization.accessgrid;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tests for the columnar card table.
+ */
+public class CardTableTest {
+    private static Models.Card card(int i) {
+        Models.Card card = new Models.Card();
+        card.setId("card-" + i);
+        card.setState(i % 3 == 0 ? "suspended" : "active");
+        card.setCardTemplateId("tmpl-" + (i % 4));
+        card.setCardNumber(String.valueOf(10000 + i));
+        card.setFullName("Employée " + i);
+        card.setDepartment(i % 2 == 0 ? "Engineering" : null);
+        card.setExpirationDate(i < 5 ? "2026-01-01T00:00:00Z" : "2028-06-30");
+        return card;
+    }
+
+    private static CardTable table(int cards) {
+        List<Models.Card> list = new ArrayList<>();
+        for (int i = 0; i < cards; i++) list.add(card(i));
+        return CardTable.of(list);
+    }
+
+    @Test
+    public void testFiltersCombineAndCount() {
+        CardTable table = table(3000);
+
+        CardTable.Rows active = table.where(CardTable.Column.STATE, "active");
+        CardTable.Rows tmpl1 = table.where(CardTable.Column.CARD_TEMPLATE_ID, "tmpl-1");
+
+        assertEquals(2000, active.count());
+        assertEquals(750, tmpl1.count());
+        assertEquals(500, active.and(tmpl1).count());
+        assertEquals(0, table.where(CardTable.Column.STATE, "deleted").count());
+        assertEquals(1500, table.where(CardTable.Column.DEPARTMENT, null).count());
+        assertEquals(5, table.expiringBefore(Instant.parse("2027-01-01T00:00:00Z")).count());
+    }
+
+    @Test
+    public void testIterationReusesViewAndDecodesFields() {
+        CardTable table = table(200);
+
+        CardTable.CardView first = null;
+        List<String> ids = new ArrayList<>();
+        for (CardTable.CardView view : table.where(CardTable.Column.CARD_TEMPLATE_ID, "tmpl-3")) {
+            if (first == null) first = view;
+            assertSame(first, view);
+            ids.add(view.getId());
+            assertEquals("Employée " + view.getId().substring(5), view.getFullName());
+        }
+        assertEquals(50, ids.size());
+        assertEquals("card-3", ids.get(0));
+        assertEquals("card-199", ids.get(49));
+    }
+
+    @Test
+    public void testFindByIdAndSummary() {
+        CardTable table = table(1000);
+
+        CardTable.CardView view = table.find("card-42");
+
+        assertEquals(42, view.row());
+        assertEquals("tmpl-2", view.getCardTemplateId());
+        assertEquals("10042", view.getCardNumber());
+        assertEquals(Instant.parse("2028-06-30T00:00:00Z").getEpochSecond(), view.expirationEpochSecond());
+        assertEquals("card-42", view.toSummary().getId());
+        assertNull(table.find("card-1000"));
+    }
+
+    @Test
+    public void testCountByInFirstSeenOrder() {
+        Map<String, Long> byState = table(30).countBy(CardTable.Column.STATE);
+
+        assertEquals(List.of("suspended", "active"), new ArrayList<>(byState.keySet()));
+        assertEquals(10L, byState.get("suspended"));
+        assertEquals(20L, byState.get("active"));
+    }
+
+    @Test
+    public void testBuilderNotReusable() {
+        CardTable.Builder builder = CardTable.builder().add(card(1));
+        builder.build();
+
+        assertThrows(IllegalStateException.class, () -> builder.add(card(2)));
+    }
+}
@@ -0,0 +1,144 @@
+package com.organization.accessgrid;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import java.io.IOException;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests for the metrics SPI and its in-memory implementation.
+ */
+public class ClientMetricsTest {
+    private HttpSender mockSender;
+    private InMemoryClientMetrics metrics;
+    private AccessGridClient client;
+
+    @BeforeEach
+    public void setUp() {
+        mockSender = mock(HttpSender.class);
+        metrics = new InMemoryClientMetrics();
+        client = AccessGridClient.builder()
+            .accountId("test-account-id")
+            .apiSecret("test-secret-key")
+            .httpSender(mockSender)
+            .baseUrl("https://api.test.com/v1")
+            .metrics(metrics)
+            .build();
+    }
+
+    @SuppressWarnings("unchecked")
+    private void mockResponse(int status, String body) throws IOException, InterruptedException {
+        HttpResponse<String> response = mock(HttpResponse.class);
+        when(response.statusCode()).thenReturn(status);
+        when(response.body()).thenReturn(body);
+        when(mockSender.send(any(HttpRequest.class))).thenReturn(response);
+    }
+
+    @Test
+    public void testSuccessfulCallRecordsPhasesStatusAndBytes() throws IOException, InterruptedException {
+        mockResponse(200, "{\"id\":\"card-1\"}");
+
+        client.accessCards().provision(Models.ProvisionCardRequest.builder().cardTemplateId("t1").build());
+
+        ApiOperation op = ApiOperation.PROVISION_CARD;
+        assertEquals(1, metrics.requestCount(op));
+        assertEquals(0, metrics.errorCount(op));
+        assertEquals(0, metrics.inFlight(op));
+        assertEquals(1, metrics.statusCount(op, 200));
+        assertEquals("{\"card_template_id\":\"t1\"}".length(), metrics.bytesOut(op));
+        assertEquals("{\"id\":\"card-1\"}".length(), metrics.bytesIn(op));
+        for (RequestPhase phase : RequestPhase.values()) {
+            assertEquals(1, metrics.latency(op, phase).count(), phase.name());
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testBytesInCountsBytesNotChars() throws IOException, InterruptedException {
+        String body = "{\"id\":\"card-1\",\"full_name\":\"Zoë 🔑\"}";
+        mockResponse(200, body);
+        client.accessCards().get("card-1");
+        assertEquals(body.getBytes(java.nio.charset.StandardCharsets.UTF_8).length, metrics.bytesIn(ApiOperation.GET_CARD));
+
+        HttpResponse<String> response = mock(HttpResponse.class);
+        when(response.statusCode()).thenReturn(200);
+        when(response.body()).thenReturn(body);
+        when(response.headers()).thenReturn(java.net.http.HttpHeaders.of(
+            java.util.Map.of("Content-Length", java.util.List.of("512")), (name, value) -> true));
+        when(mockSender.send(any(HttpRequest.class))).thenReturn(response);
+        client.accessCards().get("card-1");
+        assertEquals(body.getBytes(java.nio.charset.StandardCharsets.UTF_8).length + 512,
+            metrics.bytesIn(ApiOperation.GET_CARD));
+    }
+
+    @Test
+    public void testVoidCallSkipsSerializeAndParse() throws IOException, InterruptedException {
+        mockResponse(200, "{}");
+
+        client.accessCards().suspend("card-1");
+
+        ApiOperation op = ApiOperation.SUSPEND_CARD;
+        assertEquals(1, metrics.requestCount(op));
+        assertEquals(0, metrics.latency(op, RequestPhase.SERIALIZE).count());
+        assertEquals(1, metrics.latency(op, RequestPhase.SEND).count());
+        assertEquals(0, metrics.latency(op, RequestPhase.PARSE).count());
+        assertEquals("POST", op.method());
+        assertEquals("/key-cards/{id}/suspend", op.pathTemplate());
+    }
+
+    @Test
+    public void testFailedCallCountsError() throws IOException, InterruptedException {
+        mockResponse(429, "{\"error\":\"rate limited\"}");
+
+        assertThrows(AccessGridClient.AccessGridException.class, () -> client.accessCards().get("card-1"));
+
+        assertEquals(1, metrics.requestCount(ApiOperation.GET_CARD));
+        assertEquals(1, metrics.errorCount(ApiOperation.GET_CARD));
+        assertEquals(1, metrics.statusCount(ApiOperation.GET_CARD, 429));
+        assertEquals(0, metrics.inFlight(ApiOperation.GET_CARD));
+    }
+
+    @Test
+    public void testTransportFailureHasStatusZero() throws IOException, InterruptedException {
+        when(mockSender.send(any(HttpRequest.class))).thenThrow(new IOException("connection reset"));
+
+        assertThrows(AccessGridClient.AccessGridException.class, () -> client.console().ledgerItems());
+
+        assertEquals(1, metrics.errorCount(ApiOperation.LEDGER_ITEMS));
+        assertEquals(1, metrics.statusCount(ApiOperation.LEDGER_ITEMS, 0));
+    }
+
+    @Test
+    public void testHistogramPercentilesWithinBucketPrecision() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int millis = 1; millis <= 1000; millis++) {
+            histogram.recordNanos(TimeUnit.MILLISECONDS.toNanos(millis));
+        }
+
+        assertEquals(1000, histogram.count());
+        assertWithin(500, histogram.percentileNanos(0.50));
+        assertWithin(990, histogram.percentileNanos(0.99));
+        assertWithin(1000, histogram.percentileNanos(1.0));
+        assertEquals(0, new LatencyHistogram().percentileNanos(0.99));
+    }
+
+    @Test
+    public void testHistogramBucketsAreContiguous() {
+        for (int i = 1; i < 279; i++) {
+            assertEquals(i, LatencyHistogram.index(LatencyHistogram.upperBound(i - 1) + 1));
+            assertEquals(i, LatencyHistogram.index(LatencyHistogram.upperBound(i)));
+        }
+    }
+
+    private static void assertWithin(long expectedMillis, long actualNanos) {
+        double actualMillis = actualNanos / 1e6;
+        assertTrue(actualMillis >= expectedMillis && actualMillis <= expectedMillis * 1.125 + 0.001,
+            "expected ~" + expectedMillis + " ms, got " + actualMillis);
+    }
+}
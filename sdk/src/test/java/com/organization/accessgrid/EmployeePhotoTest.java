@@ -0,0 +1,224 @@
+package com.organization.accessgrid;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+
+import javax.imageio.ImageIO;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * Tests for streamed employee photos and the photo cache.
+ */
+public class EmployeePhotoTest {
+    @TempDir
+    Path tempDir;
+
+    private HttpSender mockSender;
+    private final List<String> bodies = new ArrayList<>();
+    private PhotoCache photoCache;
+    private AccessGridClient client;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void setUp() throws IOException, InterruptedException {
+        mockSender = mock(HttpSender.class);
+        photoCache = new PhotoCache();
+        client = AccessGridClient.builder()
+            .accountId("test-account-id")
+            .apiSecret("test-secret-key")
+            .httpSender(mockSender)
+            .baseUrl("https://api.test.com/v1")
+            .photoCache(photoCache)
+            .build();
+        HttpResponse<String> response = mock(HttpResponse.class);
+        when(response.statusCode()).thenReturn(200);
+        when(response.body()).thenReturn("{\"id\":\"card-1\"}");
+        // Bodies are read during send, as a real sender would; the request
+        // buffer is reused once the call returns.
+        when(mockSender.send(any(HttpRequest.class))).thenAnswer(invocation -> {
+            bodies.add(readBody(invocation.getArgument(0)));
+            return response;
+        });
+    }
+
+    @Test
+    public void testPhotoFromPathIsBase64EncodedIntoBody() throws Exception {
+        byte[] raw = new byte[70_000];
+        for (int i = 0; i < raw.length; i++) raw[i] = (byte) (i * 31);
+        Path file = Files.write(tempDir.resolve("photo.bin"), raw);
+
+        client.accessCards().provision(Models.ProvisionCardRequest.builder()
+            .cardTemplateId("t1")
+            .photo(EmployeePhoto.fromPath(file))
+            .build());
+
+        JsonNode body = client.objectMapper.readTree(bodies.get(0));
+        assertArrayEquals(raw, Base64.getDecoder().decode(body.get("employee_photo").asText()));
+    }
+
+    @Test
+    public void testStringPhotoStillSerialized() throws Exception {
+        String json = client.objectMapper.writeValueAsString(
+            Models.UpdateCardRequest.builder().cardId("card-1").employeePhoto("aGVsbG8=").build());
+
+        assertEquals("{\"card_id\":\"card-1\",\"employee_photo\":\"aGVsbG8=\"}", json);
+    }
+
+    @Test
+    public void testUnchangedPhotoNotResentOnUpdate() throws Exception {
+        byte[] raw = "same photo".getBytes(StandardCharsets.UTF_8);
+
+        client.accessCards().provision(Models.ProvisionCardRequest.builder()
+            .cardTemplateId("t1").photo(EmployeePhoto.fromBytes(raw)).build());
+        client.accessCards().update(Models.UpdateCardRequest.builder()
+            .cardId("card-1").fullName("A").photo(EmployeePhoto.fromBytes(raw)).build());
+        client.accessCards().update(Models.UpdateCardRequest.builder()
+            .cardId("card-1").photo(EmployeePhoto.fromStream(new ByteArrayInputStream("new photo".getBytes(StandardCharsets.UTF_8)))).build());
+
+        assertEquals(3, bodies.size());
+        assertTrue(bodies.get(0).contains("employee_photo"));
+        assertEquals("{\"card_id\":\"card-1\",\"full_name\":\"A\"}", bodies.get(1));
+        assertTrue(bodies.get(2).contains("employee_photo"));
+    }
+
+    @Test
+    public void testRewrittenPathPhotoResentOnUpdate() throws Exception {
+        Path file = Files.write(tempDir.resolve("photo.bin"), "old photo".getBytes(StandardCharsets.UTF_8));
+        EmployeePhoto photo = EmployeePhoto.fromPath(file);
+        String before = photo.contentHash();
+
+        client.accessCards().update(Models.UpdateCardRequest.builder().cardId("card-1").photo(photo).build());
+        Files.write(file, "new photo".getBytes(StandardCharsets.UTF_8));
+        client.accessCards().update(Models.UpdateCardRequest.builder().cardId("card-1").photo(photo).build());
+        client.accessCards().update(Models.UpdateCardRequest.builder().cardId("card-1").photo(photo).build());
+
+        assertNotEquals(before, photo.contentHash());
+        assertEquals(3, bodies.size());
+        assertTrue(bodies.get(1).contains("employee_photo"));
+        assertEquals("{\"card_id\":\"card-1\"}", bodies.get(2));
+    }
+
+    @Test
+    public void testDownscaleKeepsAspectRatioAndCachesResult() throws Exception {
+        BufferedImage image = new BufferedImage(1200, 800, BufferedImage.TYPE_INT_RGB);
+        Path file = tempDir.resolve("photo.png");
+        ImageIO.write(image, "png", file.toFile());
+        EmployeePhoto photo = EmployeePhoto.fromPath(file).withMaxDimension(300).withMaxBytes(20_000);
+
+        for (String cardId : new String[] {"card-1", "card-2"}) {
+            client.accessCards().update(Models.UpdateCardRequest.builder().cardId(cardId).photo(photo).build());
+        }
+
+        byte[] first = Base64.getDecoder().decode(client.objectMapper.readTree(bodies.get(0)).get("employee_photo").asText());
+        BufferedImage resized = ImageIO.read(new ByteArrayInputStream(first));
+        assertEquals(300, resized.getWidth());
+        assertEquals(200, resized.getHeight());
+        assertTrue(first.length <= 20_000);
+        assertEquals(first.length, photoCache.resizedBytes());
+        assertEquals(bodies.get(0).replace("card-1", "card-2"), bodies.get(1));
+    }
+
+    @Test
+    public void testSmallImageSentUnchanged() throws Exception {
+        ByteArrayOutputStream png = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(50, 40, BufferedImage.TYPE_INT_RGB), "png", png);
+
+        String json = client.objectMapper.writeValueAsString(Models.UpdateCardRequest.builder()
+            .photo(EmployeePhoto.fromBytes(png.toByteArray()).withMaxDimension(300)).build());
+
+        assertArrayEquals(png.toByteArray(),
+            Base64.getDecoder().decode(client.objectMapper.readTree(json).get("employee_photo").asText()));
+    }
+
+    @Test
+    public void testContentHashCoversResizeSettings() {
+        EmployeePhoto photo = EmployeePhoto.fromBytes(new byte[] {1, 2, 3});
+
+        assertEquals(photo.contentHash(), EmployeePhoto.fromBytes(new byte[] {1, 2, 3}).contentHash());
+        assertNotEquals(photo.contentHash(), photo.withMaxDimension(100).contentHash());
+    }
+
+    @Test
+    public void testStreamPhotoIsEncodedOnceAndHashedAsSent() throws Exception {
+        byte[] raw = new byte[50_000];
+        for (int i = 0; i < raw.length; i++) raw[i] = (byte) (i * 7);
+        EmployeePhoto photo = EmployeePhoto.fromStream(new ByteArrayInputStream(raw));
+        assertThrows(IllegalStateException.class, photo::contentHash);
+
+        client.accessCards().update(Models.UpdateCardRequest.builder().cardId("card-1").photo(photo).build());
+
+        JsonNode body = client.objectMapper.readTree(bodies.get(0));
+        assertArrayEquals(raw, Base64.getDecoder().decode(body.get("employee_photo").asText()));
+        assertEquals(EmployeePhoto.fromBytes(raw).contentHash(), photo.contentHash());
+        assertTrue(photoCache.isCurrent("card-1", photo.contentHash()));
+        assertThrows(AccessGridClient.AccessGridException.class, () -> client.accessCards().update(
+            Models.UpdateCardRequest.builder().cardId("card-2").photo(photo).build()));
+    }
+
+    @Test
+    public void testPhotoThatCannotFitFails() throws Exception {
+        BufferedImage image = new BufferedImage(400, 400, BufferedImage.TYPE_INT_RGB);
+        // Noise does not compress, so no JPEG quality gets it under 1 KB
+        java.util.Random random = new java.util.Random(1);
+        for (int y = 0; y < 400; y++) {
+            for (int x = 0; x < 400; x++) image.setRGB(x, y, random.nextInt());
+        }
+        ByteArrayOutputStream png = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", png);
+
+        AccessGridClient.AccessGridException failure = assertThrows(AccessGridClient.AccessGridException.class,
+            () -> client.accessCards().update(Models.UpdateCardRequest.builder()
+                .cardId("card-1").photo(EmployeePhoto.fromBytes(png.toByteArray()).withMaxBytes(1_000)).build()));
+        assertTrue(failure.getCause().getMessage().contains("does not fit in 1000 bytes"), failure.getCause().getMessage());
+        assertTrue(bodies.isEmpty());
+    }
+
+    @Test
+    public void testConstructorsWithoutPhotoKept() {
+        Models.UpdateCardRequest update = new Models.UpdateCardRequest("card-1", null, "Ada", null, null, null,
+            null, null, null, null, null, "aGVsbG8=", "Engineer");
+        assertEquals("aGVsbG8=", update.getEmployeePhoto());
+        assertNull(update.getPhoto());
+        Models.ProvisionCardRequest provision = new Models.ProvisionCardRequest("t1", null, null, null, null,
+            "Ada", null, null, null, null, null, null, null, null, null, null, null, null, null, "Engineer", null);
+        assertEquals("Engineer", provision.getTitle());
+    }
+
+    private static String readBody(HttpRequest request) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        request.bodyPublisher().orElseThrow().subscribe(new Flow.Subscriber<ByteBuffer>() {
+            public void onSubscribe(Flow.Subscription s) { s.request(Long.MAX_VALUE); }
+            public void onNext(ByteBuffer item) {
+                byte[] chunk = new byte[item.remaining()];
+                item.get(chunk);
+                out.write(chunk, 0, chunk.length);
+            }
+            public void onError(Throwable t) { done.completeExceptionally(t); }
+            public void onComplete() { done.complete(null); }
+        });
+        done.get();
+        return out.toString(StandardCharsets.UTF_8);
+    }
+}
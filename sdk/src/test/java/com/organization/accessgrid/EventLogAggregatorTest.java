@@ -0,0 +1,136 @@
+package com.organization.accessgrid;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Tests for windowed event-log counters.
+ */
+public class EventLogAggregatorTest {
+    private static final Instant T0 = Instant.parse("2026-01-01T00:00:00Z");
+
+    private static Models.Event event(String type, String device, String user, Instant at) {
+        return new Models.Event(type, ZonedDateTime.ofInstant(at, ZoneOffset.UTC), user, "10.0.0.1", "ua",
+            device == null ? null : Collections.singletonMap("device", device));
+    }
+
+    @Test
+    public void testTumblingCountsByTypeAndDevice() {
+        EventLogAggregator aggregator = EventLogAggregator.builder().build();
+        aggregator.add("tpl_a", event("install", "mobile", "u1", T0.plusSeconds(10)));
+        aggregator.add("tpl_a", event("install", "mobile", "u2", T0.plusSeconds(20)));
+        aggregator.add("tpl_a", event("install", "watch", "u1", T0.plusSeconds(30)));
+        aggregator.add("tpl_a", event("remove", "mobile", "u1", T0.plusSeconds(40)));
+        aggregator.add("tpl_b", event("install", null, "u3", T0.plusSeconds(50)));
+        aggregator.add("tpl_a", event("install", "mobile", "u4", T0.plusSeconds(3700)));
+
+        EventLogAggregator.Window first = aggregator.window(T0.plusSeconds(5));
+        assertEquals(T0, first.getStart());
+        assertEquals(T0.plusSeconds(3600), first.getEnd());
+        assertEquals(2, first.count("tpl_a", "install", "mobile"));
+        assertEquals(3, first.count("tpl_a", "install", null));
+        assertEquals(4, first.count(null, "install", null));
+        assertEquals(1, first.count("tpl_b", null, null));
+        Map<String, Long> byType = first.countByType("tpl_a");
+        assertEquals(3L, byType.get("install"));
+        assertEquals(1L, byType.get("remove"));
+        assertEquals(2, first.distinctUsers("tpl_a"));
+        assertEquals(3, first.distinctUsers(null));
+        assertEquals(1, first.distinctIpAddresses(null));
+
+        EventLogAggregator.Window latest = aggregator.latest();
+        assertEquals(T0.plusSeconds(3600), latest.getStart());
+        assertEquals(1, latest.count(null, null, null));
+    }
+
+    @Test
+    public void testSlidingSumsWindowsAndMergesSketches() {
+        EventLogAggregator aggregator = EventLogAggregator.builder().windowSize(Duration.ofMinutes(1)).windows(10).build();
+        for (int minute = 0; minute < 5; minute++) {
+            aggregator.add("tpl", event("install", "mobile", "u" + minute % 3, T0.plusSeconds(minute * 60L)));
+        }
+        EventLogAggregator.Window last3 = aggregator.sliding(T0.plusSeconds(4 * 60), Duration.ofMinutes(3));
+        assertEquals(T0.plusSeconds(2 * 60), last3.getStart());
+        assertEquals(3, last3.count("tpl", null, null));
+        assertEquals(3, last3.distinctUsers("tpl"));
+        assertEquals(5, aggregator.sliding(T0.plusSeconds(4 * 60), Duration.ofMinutes(10)).count(null, null, null));
+    }
+
+    @Test
+    public void testRingEvictsOldWindowsAndCountsLateEvents() {
+        EventLogAggregator aggregator = EventLogAggregator.builder().windowSize(Duration.ofMinutes(1)).windows(3).build();
+        aggregator.add("tpl", event("install", "mobile", "u1", T0));
+        aggregator.add("tpl", event("install", "mobile", "u1", T0.plusSeconds(60)));
+        aggregator.add("tpl", event("install", "mobile", "u1", T0.plusSeconds(5 * 60)));
+
+        assertEquals(0, aggregator.window(T0).count(null, null, null));
+        assertEquals(0, aggregator.window(T0.plusSeconds(60)).count(null, null, null));
+        assertEquals(1, aggregator.window(T0.plusSeconds(5 * 60)).count(null, null, null));
+
+        aggregator.add("tpl", event("install", "mobile", "u1", T0.plusSeconds(60)));
+        assertEquals(1, aggregator.lateEvents());
+        aggregator.add("tpl", event("install", "mobile", "u1", T0.plusSeconds(3 * 60)));
+        assertEquals(1, aggregator.window(T0.plusSeconds(3 * 60)).count(null, null, null));
+        assertEquals(1, aggregator.lateEvents());
+    }
+
+    @Test
+    public void testDistinctUsersEstimateIsClose() {
+        EventLogAggregator aggregator = EventLogAggregator.builder().build();
+        for (int i = 0; i < 50_000; i++) {
+            aggregator.add("tpl", event("install", "mobile", "user-" + (i % 10_000), T0.plusMillis(i)));
+        }
+        long estimate = aggregator.latest().distinctUsers("tpl");
+        assertTrue(Math.abs(estimate - 10_000) < 1_000, "estimate " + estimate);
+        assertEquals(50_000, aggregator.latest().count("tpl", "install", "mobile"));
+    }
+
+    @Test
+    public void testOverflowBucketOnceKeysAreExhausted() {
+        EventLogAggregator aggregator = EventLogAggregator.builder().maxKeys(2).maxTemplates(1).build();
+        aggregator.add("tpl_a", event("install", "mobile", "u1", T0));
+        aggregator.add("tpl_a", event("install", "watch", "u1", T0));
+        aggregator.add("tpl_a", event("remove", "watch", "u1", T0));
+        aggregator.add("tpl_b", event("install", "mobile", "u2", T0));
+
+        EventLogAggregator.Window window = aggregator.window(T0);
+        assertEquals(1, window.count("tpl_a", "install", "mobile"));
+        assertEquals(1, window.count("tpl_a", "install", "watch"));
+        assertEquals(4, window.count(null, null, null));
+        EventLogAggregator.Count other = window.getCounts().get(0);
+        assertNull(other.getTemplateId());
+        assertEquals(2, other.getCount());
+        assertEquals(0, window.distinctUsers("tpl_b"));
+        assertEquals(2, window.distinctUsers(null));
+    }
+
+    @Test
+    public void testRecyclesKeysAndTemplatesOnceTheyAgeOut() {
+        EventLogAggregator aggregator = EventLogAggregator.builder()
+            .windowSize(Duration.ofMinutes(1)).windows(2).maxKeys(2).maxTemplates(1).build();
+        aggregator.add("tpl_a", event("install", "mobile", "u1", T0));
+        aggregator.add("tpl_a", event("install", "watch", "u1", T0));
+
+        // Both keys and tpl_a have left the retained windows
+        Instant later = T0.plusSeconds(5 * 60);
+        aggregator.add("tpl_b", event("remove", "mobile", "u2", later));
+        aggregator.add("tpl_b", event("remove", "watch", "u3", later));
+        aggregator.add("tpl_c", event("remove", "watch", "u4", later));
+
+        EventLogAggregator.Window window = aggregator.window(later);
+        assertEquals(1, window.count("tpl_b", "remove", "mobile"));
+        assertEquals(1, window.count("tpl_b", "remove", "watch"));
+        assertEquals(2, window.distinctUsers("tpl_b"));
+        assertEquals(0, window.count("tpl_a", null, null));
+        // Still full within the window: tpl_c is counted as other
+        assertEquals(1, window.getCounts().get(0).getCount());
+        assertNull(window.getCounts().get(0).getTemplateId());
+    }
+}
@@ -0,0 +1,122 @@
+package com.organization.accessgrid;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import java.io.InputStream;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Base64;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Tests for parsing card file_data into a FileDataStore.
+ */
+public class FileDataStoreTest {
+    private static final String PASS = Base64.getEncoder().encodeToString("pass-bytes-é".getBytes(StandardCharsets.UTF_8));
+
+    @TempDir
+    Path tempDir;
+
+    @SuppressWarnings("unchecked")
+    private AccessGridClient client(FileDataStore store, String body) throws Exception {
+        HttpSender sender = mock(HttpSender.class);
+        HttpResponse<String> response = mock(HttpResponse.class);
+        when(response.statusCode()).thenReturn(200);
+        when(response.body()).thenReturn(body);
+        when(sender.send(any(HttpRequest.class))).thenReturn(response);
+        return AccessGridClient.builder()
+            .accountId("test-account-id")
+            .apiSecret("test-secret-key")
+            .httpSender(sender)
+            .baseUrl("https://api.test.com/v1")
+            .fileDataStore(store)
+            .build();
+    }
+
+    @Test
+    public void testDirectoryStoreIsContentAddressed() throws Exception {
+        String body = "{\"keys\":["
+            + "{\"id\":\"a\",\"file_data\":\"" + PASS + "\"},"
+            + "{\"id\":\"b\",\"file_data\":\"" + PASS + "\"},"
+            + "{\"id\":\"c\",\"file_data\":\"other\"}]}";
+        Path dir = tempDir.resolve("passes");
+
+        List<Models.Card> cards = client(FileDataStore.directory(dir), body).accessCards().list();
+
+        FileData a = cards.get(0).getFileDataHandle();
+        assertNotNull(a);
+        assertEquals(a.path(), cards.get(1).getFileDataHandle().path());
+        assertEquals(dir.resolve(a.contentHash()), a.path());
+        assertEquals(PASS, new String(Files.readAllBytes(a.path()), StandardCharsets.US_ASCII));
+        assertEquals("other", cards.get(2).getFileData());
+        try (Stream<Path> files = Files.list(dir)) {
+            assertEquals(2, files.count());
+        }
+    }
+
+    @Test
+    public void testOffHeapStoreKeepsHandleOnly() throws Exception {
+        Models.Card card = client(FileDataStore.offHeap(), "{\"id\":\"a\",\"file_data\":\"" + PASS + "\"}")
+            .accessCards().get("a");
+
+        FileData handle = card.getFileDataHandle();
+        assertNull(handle.path());
+        assertEquals(PASS.length(), handle.size());
+        assertEquals(PASS, card.getFileData());
+        try (InputStream in = handle.openDecoded()) {
+            assertEquals("pass-bytes-é", new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    public void testWithoutStoreFileDataIsString() throws Exception {
+        AccessGridClient client = client(null, "{\"id\":\"a\",\"file_data\":\"" + PASS + "\"}");
+
+        Models.Card card = client.accessCards().get("a");
+
+        assertNull(card.getFileDataHandle());
+        assertEquals(PASS, card.getFileData());
+        assertTrue(client.objectMapper.writeValueAsString(card).contains("\"file_data\":\"" + PASS + "\""));
+    }
+
+    @Test
+    public void testStoredCardSerializesFileData() throws Exception {
+        AccessGridClient client = client(FileDataStore.offHeap(), "{\"id\":\"a\",\"file_data\":\"" + PASS + "\"}");
+
+        Models.Card card = client.accessCards().get("a");
+
+        assertTrue(client.objectMapper.writeValueAsString(card).contains("\"file_data\":\"" + PASS + "\""));
+    }
+
+    @Test
+    public void testConstructorWithoutHandleKept() {
+        Models.Card card = new Models.Card("a", "active", null, null, null, null, null, null, null, null, null,
+            null, null, null, PASS, null, null, null, null, null);
+
+        assertEquals(PASS, card.getFileData());
+        assertNull(card.getFileDataHandle());
+    }
+
+    @Test
+    public void testEqualsAndToStringNeverOpenTheStore() throws Exception {
+        Path dir = tempDir.resolve("passes");
+        String body = "{\"id\":\"a\",\"file_data\":\"" + PASS + "\"}";
+        Models.Card first = client(FileDataStore.directory(dir), body).accessCards().get("a");
+        Models.Card second = client(FileDataStore.offHeap(), body).accessCards().get("a");
+        // Anything that read the payload back would now fail
+        Files.delete(first.getFileDataHandle().path());
+
+        assertEquals(first, second);
+        assertEquals(first.hashCode(), second.hashCode());
+        assertFalse(first.toString().contains(PASS), first.toString());
+        assertTrue(first.toString().contains(first.getFileDataHandle().contentHash()));
+    }
+}
@@ -0,0 +1,126 @@
+package com.organization.accessgrid;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+/**
+ * Tests for the Flight Recorder events emitted by the client.
+ */
+public class FlightRecorderEventsTest {
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testApiCallEventRecordedPerCall() throws Exception {
+        HttpSender sender = mock(HttpSender.class);
+        HttpResponse<String> response = mock(HttpResponse.class);
+        when(response.statusCode()).thenReturn(200);
+        when(response.body()).thenReturn("{\"id\":\"card-1\",\"state\":\"active\"}");
+        when(sender.send(any(HttpRequest.class))).thenReturn(response);
+        AccessGridClient client = new AccessGridClient("test-account-id", "test-secret-key", sender, null);
+
+        Path file = Files.createTempFile("accessgrid", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("com.accessgrid.ApiCall").withThreshold(java.time.Duration.ZERO);
+            recording.start();
+            client.accessCards().get("card-1");
+            client.accessCards().provision(Models.ProvisionCardRequest.builder().cardTemplateId("t1").build());
+            recording.stop();
+            recording.dump(file);
+
+            List<RecordedEvent> events = RecordingFile.readAllEvents(file).stream()
+                .filter(e -> e.getEventType().getName().equals("com.accessgrid.ApiCall"))
+                .collect(Collectors.toList());
+
+            assertEquals(2, events.size());
+            RecordedEvent get = events.get(0);
+            assertEquals("GET_CARD", get.getString("operation"));
+            assertEquals("GET", get.getString("method"));
+            assertEquals("/key-cards/{id}", get.getString("endpoint"));
+            assertEquals("card-1", get.getString("resourceId"));
+            assertEquals(200, get.getInt("statusCode"));
+            RecordedEvent provision = events.get(1);
+            assertEquals("PROVISION_CARD", provision.getString("operation"));
+            assertTrue(provision.getLong("bytesOut") > 0);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testBulkProgressEventRecordedForGetMany() throws Exception {
+        HttpSender sender = mock(HttpSender.class);
+        HttpResponse<String> ok = mock(HttpResponse.class);
+        when(ok.statusCode()).thenReturn(200);
+        when(ok.body()).thenReturn("{\"id\":\"card-1\",\"state\":\"active\"}");
+        HttpResponse<String> missing = mock(HttpResponse.class);
+        when(missing.statusCode()).thenReturn(404);
+        when(missing.body()).thenReturn("{\"error\":\"not found\"}");
+        when(sender.send(any(HttpRequest.class))).thenAnswer(invocation ->
+            ((HttpRequest) invocation.getArgument(0)).uri().getPath().endsWith("/gone") ? missing : ok);
+        AccessGridClient client = new AccessGridClient("test-account-id", "test-secret-key", sender, null);
+
+        List<RecordedEvent> events = recordBulkProgress(() ->
+            client.accessCards().getMany(List.of("card-1", "gone", "card-3"), 2));
+
+        assertEquals(3, events.size());
+        RecordedEvent last = events.stream().filter(e -> e.getLong("done") + e.getLong("failed") == 3)
+            .findFirst().orElseThrow();
+        assertEquals("GET_MANY", last.getString("operation"));
+        assertEquals(2, last.getLong("done"));
+        assertEquals(1, last.getLong("failed"));
+        assertEquals(3, last.getLong("total"));
+    }
+
+    @Test
+    public void testBulkProgressEventRecordedForCardScan() throws Exception {
+        java.util.concurrent.ExecutorService executor = java.util.concurrent.Executors.newCachedThreadPool();
+        try {
+            List<RecordedEvent> events = recordBulkProgress(() -> {
+                try (CardScan scan = CardScan.start(new String[] {"t1", "t2", "t3"},
+                    templateId -> List.of(new Models.Card()), 2, executor)) {
+                    int cards = 0;
+                    for (Models.Card card : scan) cards++;
+                    assertEquals(3, cards);
+                }
+            });
+
+            assertEquals(3, events.size());
+            RecordedEvent last = events.stream().filter(e -> e.getLong("done") == 3).findFirst().orElseThrow();
+            assertEquals("CARD_SCAN", last.getString("operation"));
+            assertEquals(0, last.getLong("failed"));
+            assertEquals(3, last.getLong("total"));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static List<RecordedEvent> recordBulkProgress(Runnable work) throws Exception {
+        Path file = Files.createTempFile("accessgrid", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("com.accessgrid.BulkProgress");
+            recording.start();
+            work.run();
+            recording.stop();
+            recording.dump(file);
+            return RecordingFile.readAllEvents(file).stream()
+                .filter(e -> e.getEventType().getName().equals("com.accessgrid.BulkProgress"))
+                .collect(Collectors.toList());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.organization.accessgrid;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import java.math.BigDecimal;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tests for ledger aggregation over primitive columns.
+ */
+public class LedgerTableTest {
+    private static Models.LedgerItem item(String amount, String kind, String createdAt, String template) {
+        return new Models.LedgerItem("li", amount, kind, createdAt,
+            new Models.LedgerAccessPass("ap", new Models.LedgerPassTemplate(template)));
+    }
+
+    @Test
+    public void testParseMinorUnits() {
+        assertEquals(150, LedgerTable.parseMinor("1.50", 2));
+        assertEquals(150, LedgerTable.parseMinor("1.5", 2));
+        assertEquals(200, LedgerTable.parseMinor("2", 2));
+        assertEquals(-1, LedgerTable.parseMinor("-0.005", 2));
+        assertEquals(1235, LedgerTable.parseMinor("12.345", 2));
+        assertEquals(1234, LedgerTable.parseMinor("12.3449", 2));
+        assertEquals(150000, LedgerTable.parseMinor("1.5E3", 2));
+        assertEquals(0, LedgerTable.parseMinor(null, 2));
+        assertThrows(IllegalArgumentException.class, () -> LedgerTable.parseMinor("abc", 2));
+        assertEquals(Long.MAX_VALUE, LedgerTable.parseMinor("92233720368547758.07", 2));
+        // Too large once padded to the scale or rounded up
+        assertThrows(IllegalArgumentException.class, () -> LedgerTable.parseMinor("922337203685477580", 2));
+        assertThrows(IllegalArgumentException.class, () -> LedgerTable.parseMinor("92233720368547758.075", 2));
+    }
+
+    @Test
+    public void testParseEpochDayUsesUtc() {
+        assertEquals(LocalDate.of(2026, 1, 31).toEpochDay(), LedgerTable.parseEpochDay("2026-01-31T23:00:00Z"));
+        assertEquals(LocalDate.of(2026, 2, 1).toEpochDay(), LedgerTable.parseEpochDay("2026-01-31T23:00:00-05:00"));
+        assertEquals(LocalDate.of(2026, 3, 1).toEpochDay(), LedgerTable.parseEpochDay("2026-03-01"));
+        assertEquals(LocalDate.of(2024, 5, 6).toEpochDay(), LedgerTable.parseEpochDay("2024-05-06T10:00:00"));
+    }
+
+    @Test
+    public void testGroupByKindAndMonth() {
+        LedgerTable table = LedgerTable.builder()
+            .add(item("1.50", "provision", "2026-01-05T10:00:00Z", "pt-1"))
+            .add(item("2.25", "provision", "2026-01-20T10:00:00Z", "pt-2"))
+            .add(item("0.75", "renewal", "2026-02-01T10:00:00Z", "pt-1"))
+            .add(item("1.00", "provision", "2026-02-03T10:00:00Z", "pt-1"))
+            .build();
+
+        List<LedgerTable.Group> groups = table.aggregate(LedgerTable.Dimension.KIND, LedgerTable.Dimension.MONTH);
+
+        assertEquals(3, groups.size());
+        LedgerTable.Group first = groups.get(0);
+        assertEquals("provision", first.getKind());
+        assertEquals(YearMonth.of(2026, 1), first.getMonth());
+        assertNull(first.getPassTemplate());
+        assertEquals(2, first.getCount());
+        assertEquals(new BigDecimal("3.75"), first.getAmount());
+        assertEquals(550, table.totalMinor());
+
+        List<LedgerTable.Group> february = table.aggregate(LocalDate.of(2026, 2, 1), LocalDate.of(2026, 3, 1),
+            LedgerTable.Dimension.PASS_TEMPLATE);
+        assertEquals(1, february.size());
+        assertEquals("pt-1", february.get(0).getPassTemplate());
+        assertEquals(175, february.get(0).getAmountMinor());
+    }
+
+    @Test
+    public void testParallelAggregationMatchesSequential() {
+        LedgerTable.Builder builder = LedgerTable.builder();
+        Map<String, Long> expected = new HashMap<>();
+        for (int i = 0; i < 200_000; i++) {
+            String template = "pt-" + (i % 13);
+            String day = String.format("2026-%02d-%02dT08:00:00Z", 1 + i % 12, 1 + i % 28);
+            builder.add(item((i % 7) + ".25", i % 2 == 0 ? "provision" : "renewal", day, template));
+            expected.merge(template + "/" + day.substring(0, 10), (i % 7) * 100L + 25, Long::sum);
+        }
+        LedgerTable table = builder.build();
+
+        List<LedgerTable.Group> groups = table.aggregate(LedgerTable.Dimension.PASS_TEMPLATE, LedgerTable.Dimension.DAY);
+
+        Map<String, Long> actual = new HashMap<>();
+        for (LedgerTable.Group group : groups) {
+            actual.put(group.getPassTemplate() + "/" + group.getDay(), group.getAmountMinor());
+        }
+        assertEquals(expected, actual);
+        assertEquals(200_000, table.aggregate().get(0).getCount());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testLedgerItemsAllFollowsPagination() throws Exception {
+        HttpSender sender = mock(HttpSender.class);
+        HttpResponse<String> page1 = mock(HttpResponse.class);
+        when(page1.statusCode()).thenReturn(200);
+        when(page1.body()).thenReturn("{\"ledger_items\":[{\"amount\":\"1.00\",\"kind\":\"a\"}],"
+            + "\"pagination\":{\"current_page\":1,\"total_pages\":2}}");
+        HttpResponse<String> page2 = mock(HttpResponse.class);
+        when(page2.statusCode()).thenReturn(200);
+        when(page2.body()).thenReturn("{\"ledger_items\":[{\"amount\":\"2.00\",\"kind\":\"b\"}],"
+            + "\"pagination\":{\"current_page\":2,\"total_pages\":2}}");
+        when(sender.send(any(HttpRequest.class))).thenReturn(page1, page2);
+        AccessGridClient client = new AccessGridClient("test-account-id", "test-secret-key", sender, "https://api.test.com/v1");
+
+        LedgerTable table = LedgerTable.builder()
+            .addAll(client.console().ledgerItemsAll(Models.LedgerItemsParams.builder().perPage(1).build()))
+            .build();
+
+        assertEquals(2, table.size());
+        assertEquals(300, table.totalMinor());
+        verify(sender, times(2)).send(any(HttpRequest.class));
+    }
+}
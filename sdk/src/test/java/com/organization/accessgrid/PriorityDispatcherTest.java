@@ -0,0 +1,160 @@
+package com.organization.accessgrid;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import com.organization.accessgrid.PriorityDispatcher.Priority;
+
+/**
+ * Tests for prioritized request dispatch.
+ */
+public class PriorityDispatcherTest {
+    private static void awaitWaiting(PriorityDispatcher dispatcher, Priority priority, int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (dispatcher.waiting(priority) < count) {
+            assertTrue(System.nanoTime() < deadline, "timed out waiting for " + priority);
+            Thread.sleep(1);
+        }
+    }
+
+    private static Thread start(PriorityDispatcher dispatcher, Priority priority, List<Priority> order) {
+        Thread thread = new Thread(() -> {
+            try {
+                dispatcher.acquire(priority);
+                order.add(priority);
+                dispatcher.release(priority);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        thread.start();
+        return thread;
+    }
+
+    @Test
+    public void testReservedSlotsAndPriorityOrder() throws Exception {
+        PriorityDispatcher dispatcher = PriorityDispatcher.builder().maxConcurrency(2).reserved(1).build();
+        dispatcher.acquire(Priority.BULK);
+        // The reserve admits a revocation while ordinary slots are full
+        dispatcher.acquire(Priority.REVOCATION);
+        assertEquals(1, dispatcher.running(Priority.REVOCATION));
+
+        List<Priority> order = Collections.synchronizedList(new ArrayList<>());
+        Thread bulk = start(dispatcher, Priority.BULK, order);
+        awaitWaiting(dispatcher, Priority.BULK, 1);
+        Thread interactive = start(dispatcher, Priority.INTERACTIVE, order);
+        awaitWaiting(dispatcher, Priority.INTERACTIVE, 1);
+        Thread revocation = start(dispatcher, Priority.REVOCATION, order);
+        awaitWaiting(dispatcher, Priority.REVOCATION, 1);
+
+        dispatcher.release(Priority.BULK);
+        dispatcher.release(Priority.REVOCATION);
+        for (Thread thread : new Thread[] {bulk, interactive, revocation}) thread.join(5000);
+        assertEquals(List.of(Priority.REVOCATION, Priority.INTERACTIVE, Priority.BULK), order);
+        assertEquals(0, dispatcher.running(Priority.BULK));
+    }
+
+    @Test
+    public void testScopesNest() {
+        assertEquals(Priority.INTERACTIVE, PriorityDispatcher.priorityOf(ApiOperation.PROVISION_CARD));
+        try (PriorityDispatcher.Scope bulk = PriorityDispatcher.bulk()) {
+            assertEquals(Priority.BULK, PriorityDispatcher.priorityOf(ApiOperation.PROVISION_CARD));
+            assertEquals(Priority.REVOCATION, PriorityDispatcher.priorityOf(ApiOperation.SUSPEND_CARD));
+            try (PriorityDispatcher.Scope interactive = PriorityDispatcher.scope(Priority.INTERACTIVE)) {
+                assertEquals(Priority.INTERACTIVE, PriorityDispatcher.priorityOf(ApiOperation.GET_CARD));
+            }
+            assertEquals(Priority.BULK, PriorityDispatcher.priorityOf(ApiOperation.UPDATE_CARD));
+        }
+        assertEquals(Priority.INTERACTIVE, PriorityDispatcher.priorityOf(ApiOperation.UPDATE_CARD));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testRevocationBypassesSaturatedBulkTraffic() throws Exception {
+        CountDownLatch bulkSent = new CountDownLatch(1);
+        CountDownLatch releaseBulk = new CountDownLatch(1);
+        HttpResponse<String> response = mock(HttpResponse.class);
+        when(response.statusCode()).thenReturn(200);
+        when(response.body()).thenReturn("{}");
+        HttpSender bulkSender = mock(HttpSender.class);
+        when(bulkSender.send(any(HttpRequest.class))).thenAnswer(invocation -> {
+            bulkSent.countDown();
+            releaseBulk.await();
+            return response;
+        });
+        HttpSender revocationSender = mock(HttpSender.class);
+        when(revocationSender.send(any(HttpRequest.class))).thenReturn(response);
+
+        PriorityDispatcher dispatcher = PriorityDispatcher.builder()
+            .maxConcurrency(2)
+            .reserved(1)
+            .revocationSender(revocationSender)
+            .build();
+        AccessGridClient client = AccessGridClient.builder()
+            .accountId("test-account-id")
+            .apiSecret("test-secret-key")
+            .httpSender(bulkSender)
+            .baseUrl("https://api.test.com/v1")
+            .dispatcher(dispatcher)
+            .build();
+
+        List<Thread> batch = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Thread thread = new Thread(() -> {
+                try (PriorityDispatcher.Scope scope = PriorityDispatcher.bulk()) {
+                    client.accessCards().provision(Models.ProvisionCardRequest.builder().fullName("Bulk").build());
+                }
+            });
+            thread.start();
+            batch.add(thread);
+        }
+        assertTrue(bulkSent.await(5, TimeUnit.SECONDS));
+        awaitWaiting(dispatcher, Priority.BULK, 2);
+
+        client.accessCards().suspend("card-1");
+        verify(revocationSender).send(argThat(request -> request.uri().getPath().endsWith("/key-cards/card-1/suspend")));
+        assertEquals(2, dispatcher.waiting(Priority.BULK));
+
+        releaseBulk.countDown();
+        for (Thread thread : batch) thread.join(5000);
+        verify(bulkSender, times(3)).send(any(HttpRequest.class));
+    }
+
+    @Test
+    public void testBulkLimiterHoldsFanOutsAndBacksOffWhenThrottled() {
+        AccessGridEmulator emulator = AccessGridEmulator.builder().accountId("account").apiSecret("secret")
+            .latency(Duration.ofMillis(2)).rateLimit(50).build();
+        List<String> ids = emulator.seedCards("tpl", 200);
+        AdaptiveLimiter limiter = AdaptiveLimiter.builder().initialLimit(32).window(10).build();
+        PriorityDispatcher dispatcher = PriorityDispatcher.builder().bulkLimiter(limiter).build();
+        InMemoryClientMetrics metrics = new InMemoryClientMetrics();
+        AccessGridClient client = AccessGridClient.builder()
+            .accountId("account")
+            .apiSecret("secret")
+            .httpSender(emulator)
+            .dispatcher(dispatcher)
+            .metrics(metrics)
+            .build();
+
+        // getMany fans out as bulk, so it is held to the limit
+        List<CardResult> results = client.accessCards().getMany(ids, 64);
+        assertEquals(200, results.size());
+        // The bucket holds one second of requests, so most of these are throttled
+        assertTrue(results.stream().anyMatch(result -> !result.isSuccess()), "the emulator should have throttled");
+        assertTrue(limiter.limit() < 32, "limit should back off, was " + limiter.limit());
+        assertEquals(limiter.limit(), metrics.concurrencyLimit());
+        assertSame(limiter, dispatcher.bulkLimiter());
+        assertEquals(0, dispatcher.running(Priority.BULK));
+    }
+}
@@ -0,0 +1,125 @@
+package com.organization.accessgrid;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+
+/**
+ * Tests for recording exchanges and replaying them without a network.
+ */
+public class ReplayingHttpSenderTest {
+    @TempDir
+    Path dir;
+
+    private static AccessGridClient client(String secret, HttpSender sender) {
+        return new AccessGridClient("account", secret, sender, null);
+    }
+
+    private Path record(AccessGridEmulator emulator) {
+        Path file = dir.resolve("session.agrec");
+        try (RecordingHttpSender recorder = RecordingHttpSender.create(emulator, file)) {
+            AccessGridClient client = client("secret", recorder);
+            Models.Card card = client.accessCards().provision(
+                Models.ProvisionCardRequest.builder().cardTemplateId("tpl").fullName("Ada").build());
+            client.accessCards().suspend(card.getId());
+            client.accessCards().get(card.getId());
+            emulator.failNext(ApiOperation.GET_CARD, 500);
+            assertThrows(AccessGridClient.AccessGridException.class, () -> client.accessCards().get(card.getId()));
+            client.accessCards().list(Models.ListKeysParams.builder().state("suspended").build());
+            assertEquals(5, recorder.exchanges());
+        }
+        return file;
+    }
+
+    @Test
+    public void testReplaysSessionWithoutTheApi() throws Exception {
+        AccessGridEmulator emulator = AccessGridEmulator.builder().accountId("account").apiSecret("secret").build();
+        emulator.seedCards("tpl", 2);
+        Path file = record(emulator);
+
+        ReplayingHttpSender replay = ReplayingHttpSender.builder(file).timeScale(0).build();
+        assertEquals(5, replay.exchanges());
+        // Other credentials sign differently; replay matches on method, path and query
+        AccessGridClient client = client("another-secret", replay);
+        Models.Card card = client.accessCards().provision(
+            Models.ProvisionCardRequest.builder().cardTemplateId("tpl").fullName("Ada").build());
+        assertEquals("card-3", card.getId());
+        client.accessCards().suspend(card.getId());
+        assertEquals("suspended", client.accessCards().get(card.getId()).getState());
+        AccessGridClient.AccessGridException failed = assertThrows(AccessGridClient.AccessGridException.class,
+            () -> client.accessCards().get(card.getId()));
+        assertTrue(failed.getMessage().contains("Injected failure"), failed.getMessage());
+        assertEquals(1, client.accessCards().list(Models.ListKeysParams.builder().state("suspended").build()).size());
+        assertEquals(0, replay.remaining());
+
+        // Nothing recorded is left for a sixth call
+        AccessGridClient.AccessGridException exhausted = assertThrows(AccessGridClient.AccessGridException.class,
+            () -> client.accessCards().get(card.getId()));
+        assertTrue(exhausted.getCause().getMessage().contains("No recorded exchange left for GET /v1/key-cards/card-3"));
+
+        ReplayingHttpSender cycling = ReplayingHttpSender.builder(file).timeScale(0).cycle(true).build();
+        for (int i = 0; i < 3; i++) {
+            assertEquals(1, client("secret", cycling).accessCards().list(Models.ListKeysParams.builder().state("suspended").build()).size());
+        }
+    }
+
+    @Test
+    public void testReplaysTransportFailuresAndRecordedTiming() throws Exception {
+        Path file = dir.resolve("slow.agrec");
+        AccessGridEmulator emulator = AccessGridEmulator.builder().accountId("account").apiSecret("secret")
+            .latency(Duration.ofMillis(40)).build();
+        emulator.seedCards("tpl", 1);
+        boolean[] down = {false};
+        try (RecordingHttpSender recorder = RecordingHttpSender.create(request -> {
+            if (down[0]) throw new IOException("Connection reset");
+            return emulator.send(request);
+        }, file)) {
+            AccessGridClient client = client("secret", recorder);
+            client.accessCards().get("card-1");
+            down[0] = true;
+            assertThrows(AccessGridClient.AccessGridException.class, () -> client.accessCards().get("card-1"));
+        }
+
+        ReplayingHttpSender original = ReplayingHttpSender.load(file);
+        long start = System.nanoTime();
+        assertEquals("card-1", client("secret", original).accessCards().get("card-1").getId());
+        assertTrue(System.nanoTime() - start >= Duration.ofMillis(35).toNanos(), "should keep the recorded latency");
+        AccessGridClient.AccessGridException reset = assertThrows(AccessGridClient.AccessGridException.class,
+            () -> client("secret", original).accessCards().get("card-1"));
+        assertEquals("Connection reset", reset.getCause().getMessage());
+
+        // A recording cut short still replays up to its last complete exchange
+        byte[] bytes = Files.readAllBytes(file);
+        Path truncated = dir.resolve("truncated.agrec");
+        Files.write(truncated, Arrays.copyOf(bytes, bytes.length - 12));
+        assertTrue(ReplayingHttpSender.load(truncated).exchanges() <= 2);
+        assertThrows(AccessGridClient.AccessGridException.class,
+            () -> ReplayingHttpSender.load(dir.resolve("missing.agrec")));
+    }
+
+    @Test
+    public void testUnclosedRecordingReplaysAndRecordingNeverFailsCalls() throws Exception {
+        AccessGridEmulator emulator = AccessGridEmulator.builder().accountId("account").apiSecret("secret").build();
+        emulator.seedCards("tpl", 1);
+        Path file = dir.resolve("open.agrec");
+        RecordingHttpSender recorder = RecordingHttpSender.create(emulator, file);
+        AccessGridClient client = client("secret", recorder);
+        client.accessCards().get("card-1");
+
+        // Flushed per exchange: readable before the recorder is closed
+        ReplayingHttpSender replay = ReplayingHttpSender.builder(file).timeScale(0).build();
+        assertEquals(1, replay.exchanges());
+        assertEquals("card-1", client("secret", replay).accessCards().get("card-1").getId());
+
+        recorder.close();
+        assertEquals("card-1", client.accessCards().get("card-1").getId());
+        assertEquals(1, recorder.exchanges());
+        assertEquals(1, recorder.failures());
+    }
+}
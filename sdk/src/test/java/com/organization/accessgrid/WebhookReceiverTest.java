@@ -0,0 +1,115 @@
+package com.organization.accessgrid;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Tests for the webhook receiver.
+ */
+public class WebhookReceiverTest {
+    private static final String SECRET = "whsec_test";
+    private static final String EVENT = "{\"id\":\"evt_1\",\"event\":\"ag.card.issued\",\"created_at\":\"2026-01-01T00:00:00Z\","
+        + "\"data\":{\"id\":\"card_1\",\"state\":\"active\",\"full_name\":\"Jane\"}}";
+
+    private static String sign(String body) {
+        return new AccessGridClient("account", SECRET).generateSignature(body);
+    }
+
+    private static HttpResponse<Void> post(int port, String body, String signature) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/webhooks"))
+            .POST(HttpRequest.BodyPublishers.ofString(body));
+        if (signature != null) request.header("X-PAYLOAD-SIG", signature);
+        return HttpClient.newHttpClient().send(request.build(), HttpResponse.BodyHandlers.discarding());
+    }
+
+    @Test
+    public void testVerifiesAndDispatchesTypedEvents() throws Exception {
+        CountDownLatch done = new CountDownLatch(2);
+        AtomicReference<Models.Card> card = new AtomicReference<>();
+        Map<String, String> seen = new ConcurrentHashMap<>();
+        try (WebhookReceiver receiver = WebhookReceiver.builder()
+            .path("/webhooks")
+            .verifier(WebhookVerifier.hmacSha256(SECRET))
+            .on("ag.card.issued", event -> {
+                card.set(event.dataAs(Models.Card.class));
+                done.countDown();
+            })
+            .onAny(event -> {
+                seen.put(event.getId(), event.getType());
+                done.countDown();
+            })
+            .build()
+            .start()) {
+
+            assertEquals(200, post(receiver.port(), EVENT, sign(EVENT)).statusCode());
+            assertTrue(done.await(5, TimeUnit.SECONDS));
+            assertEquals("card_1", card.get().getId());
+            assertEquals("Jane", card.get().getFullName());
+            assertEquals("ag.card.issued", seen.get("evt_1"));
+
+            assertEquals(401, post(receiver.port(), EVENT, sign(EVENT + " ")).statusCode());
+            assertEquals(401, post(receiver.port(), EVENT, null).statusCode());
+            assertEquals(400, post(receiver.port(), "not json", sign("not json")).statusCode());
+            assertEquals(1, receiver.received());
+        }
+    }
+
+    @Test
+    public void testRejectsWhenAtCapacity() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        WebhookReceiver receiver = WebhookReceiver.builder()
+            .verifier(WebhookVerifier.none())
+            .maxInFlight(1)
+            .on("ag.card.issued", event -> {
+                started.countDown();
+                release.await();
+            })
+            .build();
+        try {
+            assertEquals(200, receiver.receive(name -> null, EVENT.getBytes(StandardCharsets.UTF_8)));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            assertEquals(1, receiver.inFlight());
+            assertEquals(429, receiver.receive(name -> null, EVENT.getBytes(StandardCharsets.UTF_8)));
+            assertEquals(1, receiver.rejected());
+        } finally {
+            release.countDown();
+            receiver.close();
+        }
+        assertEquals(0, receiver.inFlight());
+    }
+
+    @Test
+    public void testHandlerFailuresAreReported() throws Exception {
+        CountDownLatch reported = new CountDownLatch(1);
+        AtomicReference<Throwable> error = new AtomicReference<>();
+        try (WebhookReceiver receiver = WebhookReceiver.builder()
+            .verifier(WebhookVerifier.bearerToken("token"))
+            .onAny(event -> {
+                throw new IllegalStateException("boom");
+            })
+            .onError((event, e) -> {
+                error.set(e);
+                reported.countDown();
+            })
+            .build()) {
+            byte[] body = EVENT.getBytes(StandardCharsets.UTF_8);
+            assertEquals(401, receiver.receive(name -> "Bearer nope", body));
+            assertEquals(200, receiver.receive(name -> "Authorization".equals(name) ? "Bearer token" : null, body));
+            assertTrue(reported.await(5, TimeUnit.SECONDS));
+            assertEquals("boom", error.get().getMessage());
+            assertEquals(1, receiver.failed());
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package com.organization.accessgrid;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+
+/**
+ * Tests for webhook deduplication and per-card ordering.
+ */
+public class WebhookSequencerTest {
+    private static final class ManualClock extends Clock {
+        final AtomicLong millis = new AtomicLong(1_000_000);
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public long millis() {
+            return millis.get();
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(millis.get());
+        }
+    }
+
+    private static Models.WebhookEvent event(String id, String cardId, int second) {
+        return new Models.WebhookEvent(id, "ag.card.updated", "2026-01-01T00:00:" + String.format("%02d", second) + "Z",
+            JsonNodeFactory.instance.objectNode().put("id", cardId));
+    }
+
+    @Test
+    public void testDropsRedeliveriesUntilTheyExpire() {
+        ManualClock clock = new ManualClock();
+        List<String> handled = Collections.synchronizedList(new ArrayList<>());
+        WebhookSequencer sequencer = WebhookSequencer.builder()
+            .handler(event -> handled.add(event.getId()))
+            .window(Duration.ZERO)
+            .seenTtl(Duration.ofMinutes(1))
+            .lanes(1)
+            .clock(clock)
+            .manualRelease()
+            .build();
+        sequencer.handle(event("evt_1", "card_1", 0));
+        sequencer.handle(event("evt_1", "card_1", 0));
+        sequencer.handle(event("evt_2", "card_1", 1));
+        clock.millis.addAndGet(61_000);
+        sequencer.handle(event("evt_1", "card_1", 0));
+        sequencer.close();
+        assertEquals(List.of("evt_1", "evt_2", "evt_1"), handled);
+        assertEquals(1, sequencer.duplicates());
+    }
+
+    @Test
+    public void testSeenSetIsBounded() {
+        List<String> handled = Collections.synchronizedList(new ArrayList<>());
+        WebhookSequencer sequencer = WebhookSequencer.builder()
+            .handler(event -> handled.add(event.getId()))
+            .window(Duration.ZERO)
+            .maxSeenIds(2)
+            .lanes(1)
+            .manualRelease()
+            .build();
+        sequencer.handle(event("evt_1", null, 0));
+        sequencer.handle(event("evt_2", null, 0));
+        sequencer.handle(event("evt_3", null, 0));
+        sequencer.handle(event("evt_3", null, 0));
+        // evt_1 was forgotten to make room
+        sequencer.handle(event("evt_1", null, 0));
+        sequencer.close();
+        assertEquals(List.of("evt_1", "evt_2", "evt_3", "evt_1"), handled);
+    }
+
+    @Test
+    public void testReordersPerCardWithinWindow() {
+        ManualClock clock = new ManualClock();
+        List<String> handled = Collections.synchronizedList(new ArrayList<>());
+        WebhookSequencer sequencer = WebhookSequencer.builder()
+            .handler(event -> handled.add(event.getId()))
+            .window(Duration.ofSeconds(2))
+            .lanes(1)
+            .clock(clock)
+            .manualRelease()
+            .build();
+        sequencer.handle(event("a3", "card_a", 3));
+        sequencer.handle(event("b1", "card_b", 1));
+        clock.millis.addAndGet(1_000);
+        sequencer.handle(event("a1", "card_a", 1));
+        sequencer.handle(event("a2", "card_a", 2));
+        sequencer.release();
+        assertEquals(4, sequencer.pending());
+
+        clock.millis.addAndGet(1_000);
+        sequencer.release();
+        // a3 is due; a1 and a2 sort before it and go out with it
+        clock.millis.addAndGet(5_000);
+        sequencer.handle(event("a0", "card_a", 0));
+        sequencer.close();
+        assertEquals(List.of("a1", "a2", "a3", "b1", "a0"), handled);
+    }
+
+    @Test
+    public void testDropsOldestWhenFull() {
+        List<String> handled = Collections.synchronizedList(new ArrayList<>());
+        List<String> dropped = Collections.synchronizedList(new ArrayList<>());
+        WebhookSequencer sequencer = WebhookSequencer.builder()
+            .handler(event -> handled.add(event.getId()))
+            .onDrop(event -> dropped.add(event.getId()))
+            .maxPending(2)
+            .lanes(1)
+            .manualRelease()
+            .build();
+        sequencer.handle(event("e1", "card_1", 1));
+        sequencer.handle(event("e2", "card_2", 2));
+        sequencer.handle(event("e3", "card_1", 3));
+        assertEquals(2, sequencer.pending());
+        sequencer.close();
+        assertEquals(List.of("e1"), dropped);
+        assertEquals(1, sequencer.dropped());
+        assertEquals(List.of("e2", "e3"), handled);
+    }
+
+    @Test
+    public void testRedeliveryOfDroppedEventIsHandled() {
+        List<String> handled = Collections.synchronizedList(new ArrayList<>());
+        WebhookSequencer sequencer = WebhookSequencer.builder()
+            .handler(event -> handled.add(event.getId()))
+            .onDrop(event -> { })
+            .maxPending(1)
+            .lanes(1)
+            .manualRelease()
+            .build();
+        sequencer.handle(event("e1", "card_1", 1));
+        sequencer.handle(event("e2", "card_2", 2));
+        // e1 was dropped to make room; its redelivery is not a duplicate
+        sequencer.handle(event("e1", "card_1", 1));
+        sequencer.close();
+        assertEquals(0, sequencer.duplicates());
+        assertEquals(List.of("e1"), handled);
+        assertEquals(2, sequencer.dropped());
+    }
+
+    @Test
+    public void testEventsWithoutCardSpreadOverLanes() throws Exception {
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+        CountDownLatch handled = new CountDownLatch(64);
+        WebhookSequencer sequencer = WebhookSequencer.builder()
+            .handler(event -> {
+                threads.add(Thread.currentThread().getName());
+                handled.countDown();
+            })
+            .cardIdOf(event -> null)
+            .lanes(4)
+            .manualRelease()
+            .build();
+        for (int i = 0; i < 64; i++) sequencer.handle(event("evt_" + i, null, 0));
+        assertTrue(handled.await(5, TimeUnit.SECONDS));
+        sequencer.close();
+        assertTrue(threads.size() > 1, "all on " + threads);
+    }
+}
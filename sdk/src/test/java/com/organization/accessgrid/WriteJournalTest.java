@@ -0,0 +1,212 @@
+package com.organization.accessgrid;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Tests for the write-operation journal.
+ */
+public class WriteJournalTest {
+    @TempDir
+    Path tempDir;
+
+    @SuppressWarnings("unchecked")
+    private static HttpResponse<String> response(int status, String body) {
+        HttpResponse<String> response = mock(HttpResponse.class);
+        when(response.statusCode()).thenReturn(status);
+        when(response.body()).thenReturn(body);
+        return response;
+    }
+
+    private static AccessGridClient client(HttpSender sender, WriteJournal journal) {
+        return AccessGridClient.builder()
+            .accountId("test-account-id")
+            .apiSecret("test-secret-key")
+            .httpSender(sender)
+            .baseUrl("https://api.test.com/v1")
+            .journal(journal)
+            .build();
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(tempDir)) {
+            return files.sorted().collect(Collectors.toList());
+        }
+    }
+
+    @Test
+    public void testPendingEntriesSurviveReopen() {
+        byte[] body = "{\"full_name\":\"Jane\"}".getBytes(StandardCharsets.UTF_8);
+        try (WriteJournal journal = WriteJournal.open(tempDir)) {
+            long provision = journal.begin(ApiOperation.PROVISION_CARD, null, body, 0, body.length);
+            long suspend = journal.begin(ApiOperation.SUSPEND_CARD, "card-1", null, 0, 0);
+            long delete = journal.begin(ApiOperation.DELETE_CARD, "card-2", null, 0, 0);
+            journal.complete(suspend);
+            assertTrue(provision < delete);
+            assertEquals(2, journal.size());
+        }
+        try (WriteJournal journal = WriteJournal.open(tempDir)) {
+            List<WriteJournal.Entry> pending = journal.pending();
+            assertEquals(2, pending.size());
+            assertEquals(ApiOperation.PROVISION_CARD, pending.get(0).getOperation());
+            assertEquals("{\"full_name\":\"Jane\"}", pending.get(0).getBody());
+            assertNull(pending.get(0).getResourceId());
+            assertEquals(ApiOperation.DELETE_CARD, pending.get(1).getOperation());
+            assertEquals("card-2", pending.get(1).getResourceId());
+            assertNull(pending.get(1).getBody());
+            // New ids continue after recovered ones
+            assertTrue(journal.begin(ApiOperation.RESUME_CARD, "card-3", null, 0, 0) > pending.get(1).getId());
+        }
+    }
+
+    @Test
+    public void testClientJournalsWritesUntilAnswered() throws Exception {
+        HttpSender sender = mock(HttpSender.class);
+        HttpResponse<String> ok = response(200, "{\"id\":\"card-9\"}");
+        HttpResponse<String> rejected = response(422, "{\"error\":\"invalid\"}");
+        when(sender.send(any(HttpRequest.class)))
+            .thenReturn(ok)
+            .thenReturn(rejected)
+            .thenThrow(new IOException("connection reset"))
+            .thenReturn(ok);
+
+        try (WriteJournal journal = WriteJournal.open(tempDir)) {
+            AccessGridClient client = client(sender, journal);
+            client.accessCards().provision(Models.ProvisionCardRequest.builder().fullName("Jane").build());
+            assertThrows(AccessGridClient.AccessGridException.class, () -> client.accessCards().suspend("card-1"));
+            assertThrows(AccessGridClient.AccessGridException.class, () -> client.accessCards().delete("card-2"));
+            client.accessCards().get("card-9");
+            assertEquals(1, journal.size());
+        }
+
+        HttpSender replaySender = mock(HttpSender.class);
+        HttpResponse<String> empty = response(200, "{}");
+        when(replaySender.send(any(HttpRequest.class))).thenReturn(empty);
+        try (WriteJournal journal = WriteJournal.open(tempDir)) {
+            assertEquals(1, journal.pending().size());
+            assertEquals(1, journal.replay(client(replaySender, null)));
+            assertTrue(journal.pending().isEmpty());
+        }
+        verify(replaySender).send(argThat(request ->
+            request.uri().getPath().endsWith("/key-cards/card-2/delete") && "POST".equals(request.method())));
+        try (WriteJournal journal = WriteJournal.open(tempDir)) {
+            assertTrue(journal.pending().isEmpty());
+        }
+    }
+
+    @Test
+    public void testThrottledAndServerErrorsStayPendingForReplay() {
+        AccessGridEmulator emulator = AccessGridEmulator.builder()
+            .accountId("test-account-id").apiSecret("test-secret-key").build();
+        String cardId = emulator.seedCards("tpl", 1).get(0);
+        emulator.failNext(ApiOperation.SUSPEND_CARD, 503);
+        emulator.failNext(ApiOperation.SUSPEND_CARD, 429);
+
+        try (WriteJournal journal = WriteJournal.open(tempDir)) {
+            AccessGridClient client = client(emulator, journal);
+            AccessGridClient.AccessGridException failed = assertThrows(AccessGridClient.AccessGridException.class,
+                () -> client.accessCards().suspend(cardId));
+            assertEquals(503, failed.getStatusCode());
+            assertEquals(1, journal.size());
+        }
+        try (WriteJournal journal = WriteJournal.open(tempDir)) {
+            AccessGridClient client = client(emulator, null);
+            // Throttled on the first replay: still pending
+            assertEquals(0, journal.replay(client));
+            assertEquals(1, journal.pending().size());
+            assertEquals(1, journal.replay(client));
+            assertTrue(journal.pending().isEmpty());
+            assertEquals("suspended", client.accessCards().get(cardId).getState());
+        }
+        assertEquals(3, emulator.requests(ApiOperation.SUSPEND_CARD));
+    }
+
+    @Test
+    public void testRollsAndDeletesCompletedSegments() throws Exception {
+        byte[] body = new byte[1000];
+        try (WriteJournal journal = WriteJournal.builder(tempDir).segmentBytes(4096).build()) {
+            long first = journal.begin(ApiOperation.PROVISION_CARD, null, body, 0, body.length);
+            for (int i = 0; i < 20; i++) {
+                journal.complete(journal.begin(ApiOperation.PROVISION_CARD, null, body, 0, body.length));
+            }
+            assertTrue(segments().size() > 5);
+            journal.complete(first);
+            assertEquals(1, segments().size());
+            // A record larger than a segment gets one of its own
+            byte[] photo = new byte[10_000];
+            journal.begin(ApiOperation.UPDATE_CARD, "card-1", photo, 0, photo.length);
+        }
+        try (WriteJournal journal = WriteJournal.open(tempDir)) {
+            assertEquals(10_000, journal.pending().get(0).getBody().length());
+        }
+    }
+
+    @Test
+    public void testIgnoresTornRecord() throws Exception {
+        try (WriteJournal journal = WriteJournal.open(tempDir)) {
+            journal.begin(ApiOperation.SUSPEND_CARD, "card-1", null, 0, 0);
+            journal.begin(ApiOperation.SUSPEND_CARD, "card-2", null, 0, 0);
+        }
+        List<Path> files = segments();
+        try (RandomAccessFile file = new RandomAccessFile(files.get(files.size() - 1).toFile(), "rw")) {
+            // Corrupt the last byte of the second record's resource id
+            byte[] head = new byte[200];
+            file.readFully(head);
+            int second = 8 + readInt(head, 0);
+            int end = second + 8 + readInt(head, second);
+            file.seek(end - 5);
+            file.write('X');
+        }
+        try (WriteJournal journal = WriteJournal.open(tempDir)) {
+            List<WriteJournal.Entry> pending = journal.pending();
+            assertEquals(1, pending.size());
+            assertEquals("card-1", pending.get(0).getResourceId());
+        }
+    }
+
+    private static int readInt(byte[] bytes, int at) {
+        return ((bytes[at] & 0xff) << 24) | ((bytes[at + 1] & 0xff) << 16) | ((bytes[at + 2] & 0xff) << 8) | (bytes[at + 3] & 0xff);
+    }
+
+    @Test
+    public void testGroupCommitUnderConcurrency() throws Exception {
+        int threads = 8;
+        int perThread = 500;
+        try (WriteJournal journal = WriteJournal.open(tempDir)) {
+            ExecutorService pool = Executors.newFixedThreadPool(threads);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(pool.submit(() -> {
+                    for (int i = 0; i < perThread; i++) {
+                        long entry = journal.begin(ApiOperation.SUSPEND_CARD, "card-" + i, null, 0, 0);
+                        if (i % 2 == 0) journal.complete(entry);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) future.get();
+            pool.shutdown();
+            assertEquals(threads * perThread / 2, journal.size());
+        }
+        try (WriteJournal journal = WriteJournal.open(tempDir)) {
+            assertEquals(threads * perThread / 2, journal.pending().size());
+        }
+    }
+}